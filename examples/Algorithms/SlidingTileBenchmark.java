@@ -0,0 +1,194 @@
+import orbital.algorithm.template.*;
+import orbital.logic.functor.Function;
+import orbital.logic.functor.MutableFunction;
+import orbital.math.Real;
+import orbital.math.Values;
+import orbital.math.ValueFactory;
+import java.util.*;
+
+/**
+ * Measures best first search on the 15-puzzle.
+ * Solves random instances with A<sup>*</sup> and WA<sup>*</sup> and the manhattan distance,
+ * both with and without the closed set of OpenClosedGeneralSearchProblem.
+ * <p>
+ * Usage: <code>java SlidingTileBenchmark [instances] [moves]</code></p>
+ * <p>
+ * Each instance is scrambled from the goal by the given number of random moves,
+ * with a fixed seed, such that all runs solve the same instances.</p>
+ */
+public class SlidingTileBenchmark implements GeneralSearchProblem {
+    private static final int SIZE = 4;
+    private static final ValueFactory vf = Values.getDefaultInstance();
+
+    public static void main(String arg[]) {
+        final int instances = arg.length > 0 ? java.lang.Integer.parseInt(arg[0]) : 20;
+        final int moves = arg.length > 1 ? java.lang.Integer.parseInt(arg[1]) : 40;
+        final Random random = new Random(15);
+        final byte puzzles[][] = new byte[instances][];
+        for (int i = 0; i < instances; i++)
+            puzzles[i] = scramble(random, moves);
+        // warm up
+        run(puzzles, new AStar(HEURISTIC), true, false);
+        run(puzzles, new WAStar(2, HEURISTIC), true, false);
+
+        System.out.println("algorithm\tclosed set\tms\texpansions\tns/expansion\tcost");
+        run(puzzles, new AStar(HEURISTIC), true, true);
+        run(puzzles, new AStar(HEURISTIC), false, true);
+        run(puzzles, new WAStar(2, HEURISTIC), true, true);
+        run(puzzles, new WAStar(2, HEURISTIC), false, true);
+    }
+
+    private static void run(byte puzzles[][], GeneralSearch search, boolean closed, boolean print) {
+        long expansions = 0;
+        double cost = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < puzzles.length; i++) {
+            final SlidingTileBenchmark problem = new SlidingTileBenchmark(puzzles[i]);
+            final State solution = (State) search.solve(closed ? (GeneralSearchProblem) new OpenClosedGeneralSearchProblem(problem) : problem);
+            if (solution == null)
+                throw new IllegalStateException("no solution found for instance " + i);
+            expansions += problem.expansions;
+            cost += solution.accumulatedCost.doubleValue();
+        }
+        final long time = System.nanoTime() - start;
+        if (print) {
+            final String name = search.getClass().getName();
+            System.out.println(name.substring(name.lastIndexOf('.') + 1) + "\t" + closed + "\t" + time / 1000000 + "\t" + expansions + "\t" + time / Math.max(expansions, 1) + "\t" + cost);
+        }
+    }
+
+    /**
+     * The sum of the manhattan distances of all tiles to their goal positions.
+     */
+    private static final Function HEURISTIC = new Function() {
+            public Object apply(Object n) {
+                final byte tiles[] = ((State) n).tiles;
+                int h = 0;
+                for (int i = 0; i < tiles.length; i++)
+                    if (tiles[i] != 0)
+                        h += Math.abs(i / SIZE - (tiles[i] - 1) / SIZE) + Math.abs(i % SIZE - (tiles[i] - 1) % SIZE);
+                return vf.valueOf(h);
+            }
+        };
+
+    private static byte[] scramble(Random random, int moves) {
+        final byte tiles[] = new byte[SIZE * SIZE];
+        for (int i = 0; i < tiles.length - 1; i++)
+            tiles[i] = (byte) (i + 1);
+        int empty = tiles.length - 1;
+        for (int k = 0; k < moves; k++) {
+            final int neighbours[] = neighbours(empty);
+            final int next = neighbours[random.nextInt(neighbours.length)];
+            tiles[empty] = tiles[next];
+            tiles[next] = 0;
+            empty = next;
+        }
+        return tiles;
+    }
+
+    private static int[] neighbours(int empty) {
+        final int r[] = new int[4];
+        int n = 0;
+        if (empty % SIZE > 0)
+            r[n++] = empty - 1;
+        if (empty % SIZE < SIZE - 1)
+            r[n++] = empty + 1;
+        if (empty >= SIZE)
+            r[n++] = empty - SIZE;
+        if (empty < SIZE * (SIZE - 1))
+            r[n++] = empty + SIZE;
+        final int neighbours[] = new int[n];
+        System.arraycopy(r, 0, neighbours, 0, n);
+        return neighbours;
+    }
+
+    private final byte initial[];
+    private int expansions;
+
+    public SlidingTileBenchmark(byte initial[]) {
+        this.initial = initial;
+    }
+
+    public Object getInitialState() {
+        expansions = 0;
+        return new State((byte[]) initial.clone(), vf.valueOf(0));
+    }
+
+    public boolean isSolution(Object n) {
+        final byte tiles[] = ((State) n).tiles;
+        for (int i = 0; i < tiles.length - 1; i++)
+            if (tiles[i] != i + 1)
+                return false;
+        return true;
+    }
+
+    /**
+     * The actions are the positions of the tiles to move into the empty position.
+     */
+    public Iterator actions(Object n) {
+        expansions++;
+        final int neighbours[] = neighbours(((State) n).empty());
+        final List actions = new ArrayList(neighbours.length);
+        for (int i = 0; i < neighbours.length; i++)
+            actions.add(new java.lang.Integer(neighbours[i]));
+        return actions.iterator();
+    }
+
+    public Iterator states(Object action, Object n) {
+        final State s = (State) n;
+        final byte tiles[] = (byte[]) s.tiles.clone();
+        final int empty = s.empty();
+        final int next = ((java.lang.Integer) action).intValue();
+        tiles[empty] = tiles[next];
+        tiles[next] = 0;
+        return Collections.singletonList(new State(tiles, null)).iterator();
+    }
+
+    public TransitionModel.Transition transition(Object action, Object state, Object statep) {
+        return new Transition(action, 1);
+    }
+
+    public MutableFunction getAccumulatedCostFunction() {
+        return ACCUMULATED_COST;
+    }
+    private static final MutableFunction ACCUMULATED_COST = new MutableFunction() {
+            public Object apply(Object state) {
+                return ((State) state).accumulatedCost;
+            }
+            public Object set(Object state, Object accumulatedCost) {
+                final Object old = ((State) state).accumulatedCost;
+                ((State) state).accumulatedCost = (Real) accumulatedCost;
+                return old;
+            }
+            public Object clone() {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+    /**
+     * A board of the 15-puzzle, equal to all other states with the same tiles.
+     */
+    static class State {
+        final byte tiles[];
+        Real accumulatedCost;
+        State(byte tiles[], Real accumulatedCost) {
+            this.tiles = tiles;
+            this.accumulatedCost = accumulatedCost;
+        }
+        int empty() {
+            for (int i = 0; i < tiles.length; i++)
+                if (tiles[i] == 0)
+                    return i;
+            throw new IllegalStateException("no empty position");
+        }
+        public boolean equals(Object o) {
+            return o instanceof State && Arrays.equals(tiles, ((State) o).tiles);
+        }
+        public int hashCode() {
+            return Arrays.hashCode(tiles);
+        }
+        public String toString() {
+            return Arrays.toString(tiles) + "(" + accumulatedCost + ")";
+        }
+    }
+}
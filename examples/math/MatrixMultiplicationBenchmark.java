@@ -0,0 +1,55 @@
+import orbital.math.*;
+import java.util.Random;
+
+/**
+ * Compares the matrix product of fast matrices with the plain i-k-j loop.
+ * <p>
+ * Usage: <code>java MatrixMultiplicationBenchmark [size] [repetitions]</code></p>
+ */
+public class MatrixMultiplicationBenchmark {
+    public static void main(String arg[]) throws Exception {
+        final int n = arg.length > 0 ? java.lang.Integer.parseInt(arg[0]) : 1000;
+        final int repetitions = arg.length > 1 ? java.lang.Integer.parseInt(arg[1]) : 5;
+        // machine-sized precision for double[][] backed matrices
+        java.util.Map params = new java.util.HashMap();
+        params.put("orbital.math.Scalar.precision", "machine");
+        final ValueFactory vf = Values.getInstance(params);
+        final Random random = new Random();
+        double a[][] = new double[n][n];
+        double b[][] = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++) {
+                a[i][j] = random.nextDouble();
+                b[i][j] = random.nextDouble();
+            }
+        Matrix A = vf.valueOf(a);
+        Matrix B = vf.valueOf(b);
+        // warm up
+        A.multiply(B);
+        naive(a, b);
+
+        long start = System.currentTimeMillis();
+        for (int r = 0; r < repetitions; r++)
+            naive(a, b);
+        final long naive = (System.currentTimeMillis() - start) / repetitions;
+        start = System.currentTimeMillis();
+        for (int r = 0; r < repetitions; r++)
+            A.multiply(B);
+        final long fast = (System.currentTimeMillis() - start) / repetitions;
+        System.out.println(n + "x" + n + " matrix product with " + A.getClass());
+        System.out.println("i-k-j loop\t" + naive + " ms");
+        System.out.println("Matrix.multiply\t" + fast + " ms");
+        System.out.println("speedup\t" + ((double) naive / Math.max(fast, 1)));
+    }
+
+    private static double[][] naive(double a[][], double b[][]) {
+        double c[][] = new double[a.length][b[0].length];
+        for (int i = 0; i < a.length; i++)
+            for (int k = 0; k < b.length; k++) {
+                final double r = a[i][k];
+                for (int j = 0; j < b[0].length; j++)
+                    c[i][j] += r * b[k][j];
+            }
+        return c;
+    }
+}
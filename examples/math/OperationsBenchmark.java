@@ -0,0 +1,78 @@
+import orbital.math.*;
+import orbital.math.functional.Operations;
+import orbital.logic.functor.BinaryFunction;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Measures the dynamic dispatch of Operations for every pair of scalar types.
+ * Compares the precomputed coercions of Operations with applying the coercer.
+ * <p>
+ * Usage: <code>java OperationsBenchmark [iterations] [i j]</code></p>
+ * <p>
+ * Measuring all pairs in one virtual machine makes the call sites megamorphic.
+ * Passing the indices i and j of a single pair of operands measures that pair, only.</p>
+ */
+public class OperationsBenchmark {
+    public static void main(String arg[]) throws Exception {
+        final int n = arg.length > 0 ? java.lang.Integer.parseInt(arg[0]) : 200000;
+        final ValueFactory vf = Values.getDefault();
+        final Arithmetic x[] = {
+            vf.valueOf(5), vf.valueOf(1L << 40), vf.valueOf(BigInteger.ONE.shiftLeft(80)),
+            vf.rational(1, 4), vf.valueOf(1.25), vf.valueOf(new BigDecimal("2.5")),
+            vf.complex(-1, 2)
+        };
+        final BinaryFunction ops[] = {Operations.plus, Operations.subtract, Operations.times};
+        final boolean single = arg.length > 2;
+        final int first = single ? java.lang.Integer.parseInt(arg[1]) : 0;
+        final int second = single ? java.lang.Integer.parseInt(arg[2]) : 0;
+        // warm up
+        for (int i = first; i < (single ? first + 1 : x.length); i++)
+            for (int j = second; j < (single ? second + 1 : x.length); j++)
+                for (int k = 0; k < ops.length; k++) {
+                    dispatch(ops[k], x[i], x[j], n / 10);
+                    coerce(vf, k, x[i], x[j], n / 10);
+                }
+
+        System.out.println("operands\toperation\tOperations ns/op\tcoercer ns/op");
+        for (int i = first; i < (single ? first + 1 : x.length); i++)
+            for (int j = second; j < (single ? second + 1 : x.length); j++)
+                for (int k = 0; k < ops.length; k++) {
+                    long start = System.nanoTime();
+                    dispatch(ops[k], x[i], x[j], n);
+                    final double dispatch = (double) (System.nanoTime() - start) / n;
+                    start = System.nanoTime();
+                    coerce(vf, k, x[i], x[j], n);
+                    final double coerce = (double) (System.nanoTime() - start) / n;
+                    System.out.println(name(x[i]) + "," + name(x[j]) + "\t" + ops[k] + "\t" + Math.round(dispatch) + "\t" + Math.round(coerce));
+                }
+    }
+
+    private static Object dispatch(BinaryFunction op, Arithmetic a, Arithmetic b, int n) {
+        Object r = null;
+        for (int i = 0; i < n; i++)
+            r = op.apply(a, b);
+        return r;
+    }
+
+    /**
+     * The generic dispatch via the coercer, without precomputed coercions.
+     */
+    private static Object coerce(ValueFactory vf, int op, Arithmetic a, Arithmetic b, int n) {
+        Object r = null;
+        for (int i = 0; i < n; i++) {
+            Arithmetic operands[] = (Arithmetic[]) vf.getCoercer(op != 1).apply(new Arithmetic[] {a, b});
+            switch (op) {
+            case 0: r = operands[0].add(operands[1]); break;
+            case 1: r = operands[0].subtract(operands[1]); break;
+            case 2: r = operands[0].multiply(operands[1]); break;
+            }
+        }
+        return r;
+    }
+
+    private static String name(Arithmetic a) {
+        final String name = a.getClass().getName();
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+}
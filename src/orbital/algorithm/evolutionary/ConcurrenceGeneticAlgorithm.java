@@ -205,6 +205,7 @@ abstract class ComparingPopulation extends ParallelEvaluationPopulation {
     public boolean add(Object o) {
         Genome g = (Genome) o;
         g.setPopulation(this);
+        modCount++;
         return getMyMembers().add(g);
     } 
 
@@ -319,10 +320,7 @@ class FlatHierarchyComparingPopulation extends ComparingPopulation {
                     (Genome) comparing.get(p.next()), (Genome) comparing.get(p.next())
                 };
                 if (PARALLEL_MODE) {
-                    Runnable runnable = new Evaluator(genome, redo, out);
-                    synchronized(this) {
-                        new Thread(getGenerationEvaluators(), runnable).start();
-                    }
+                    execute(new Evaluator(genome, redo, out));
                 } else {
                     double[] weights = weight(genome);
                     assert weights.length == 2 : "binary comparison";
@@ -346,6 +344,7 @@ class FlatHierarchyComparingPopulation extends ComparingPopulation {
         } 
 
         Collections.sort(getMyMembers(), Genome.comparator);
+        modCount++;
     } 
 
         
@@ -427,10 +426,7 @@ class RoundRobinComparingPopulation extends ComparingPopulation {
                     g1, (Genome) k.next()
                 };
                 if (PARALLEL_MODE) {
-                    Runnable runnable = new Evaluator(genome, redo);
-                    synchronized(this) {
-                        new Thread(getGenerationEvaluators(), runnable).start();
-                    }
+                    execute(new Evaluator(genome, redo));
                 } else {
                     double[] weights = weight(genome);
                     assert weights.length == 2 : "binary comparison";
@@ -443,5 +439,6 @@ class RoundRobinComparingPopulation extends ComparingPopulation {
         if (PARALLEL_MODE)
             waitForEvaluators();
         Collections.sort(getMyMembers(), Genome.comparator);
+        modCount++;
     } 
 }
@@ -13,6 +13,8 @@ import java.io.Serializable;
 import orbital.math.Metric;
 import orbital.util.DelegateList;
 import java.util.Iterator;
+import java.util.Random;
+import java.util.Arrays;
 
 import orbital.math.Real;
 import orbital.math.Values;
@@ -420,65 +422,91 @@ public interface Gene {
     /**
      * Bit string gene.
      * <p>
-     * Much like DNA, this implementation uses a boolean-array as Gene data.
+     * Much like DNA, this implementation uses a bit string as Gene data.
      * However, the interpretation of this bit string is, of course, problem specific.
      * </p>
+     * <p>
+     * The bits are packed into words of 64 bits, such that copying, comparing, hashing, inversion,
+     * distances and recombination operate on whole words.
+     * Mutation skips to the next flipped bit at random, instead of deciding for each bit
+     * whether it flips, such that its cost grows with the number of bits flipped.
+     * </p>
      * 
      * @version $Id$
      * @author  Andr&eacute; Platzer
      */
-    public static class BitSet implements Gene, Serializable {
+    public static class BitSet implements Gene, Serializable, Cloneable {
         /**
          * version of this class for versioning with serialization and deserialization.
          */
-        private static final long          serialVersionUID = -2845226398297436088L;
+        private static final long          serialVersionUID = 5021583839373311432L;
+
+        private static final int ADDRESS_BITS = 6;
+        private static final int WORD_SIZE = 1 << ADDRESS_BITS;
     
         /**
-         * The set of Gene data represented as booleans.
+         * The set of Gene data packed into words, with bit i at bit i%64 of word i/64.
+         * The bits beyond length in the last word are always clear.
          * binary string implementation.
          * @serial
          */
-        private boolean[] data;
+        private long[] words;
+        /**
+         * The number of bits.
+         * @serial
+         */
+        private int length;
+        /**
+         * Cached hash code, or 0 if not yet computed.
+         */
+        private transient int hashCode = 0;
     
         /**
          * Create a Gene of a certain length.
          * @param length the number of boolean data flags in this Gene.
          */
         public BitSet(int length) {
-            this.data = new boolean[length];
-            for (int i = 0; i < length; i++)
-                data[i] = false;
+            if (length < 0)
+                throw new IllegalArgumentException("negative length " + length);
+            this.words = new long[(length + WORD_SIZE - 1) >>> ADDRESS_BITS];
+            this.length = length;
         }
-        private BitSet(boolean[] data) {
-            this.data = data;
+        private BitSet(long[] words, int length) {
+            this.words = words;
+            this.length = length;
         }
     
         public Object clone() {
-            return new BitSet((boolean[]) data.clone());
+            try {
+                BitSet n = (BitSet) super.clone();
+                n.words = (long[]) words.clone();
+                return n;
+            }
+            catch (CloneNotSupportedException impossible) {
+                throw new InnerCheckedException(impossible);
+            }
         } 
     
         public boolean equals(Object o) {
             if (o instanceof BitSet) {
                 BitSet B = (BitSet) o;
-                if (length() != B.length())
-                    return false;
-                for (int i = 0; i < length(); i++)
-                    if (data[i] != B.data[i])
-                        return false;
-                return true;
+                return length == B.length && Arrays.equals(words, B.words);
             } 
             return false;
         } 
     
-        /**
-         * @todo see java.util.BitSet#hashCode() is somewhat tricky
-         */
         public int hashCode() {
-            int hashCode = 1;
-            for(int i = 0; i < data.length; i++) {
-                hashCode = (hashCode << 1) + (data[i] ? 0 : 1);
+            int h = hashCode;
+            if (h == 0) {
+                long hash = 1234 ^ length;
+                for (int i = words.length; --i >= 0; )
+                    hash ^= words[i] * (i + 1);
+                h = (int) ((hash >> 32) ^ hash);
+                if (h == 0)
+                    h = 1;
+                hashCode = h;
             }
-            return hashCode;
+            return h;
         }
 
         // get/set methods
@@ -487,7 +515,7 @@ public interface Gene {
          * Get the length of the boolean data.
          */
         public final int length() {
-            return data.length;
+            return length;
         } 
     
         /**
@@ -495,9 +523,9 @@ public interface Gene {
          * @return the boolean data at the bit with index.
          */
         public boolean get(int index) {
-            if (index < 0 || index > length())
-                throw new ArrayIndexOutOfBoundsException(index + " should be in [0;" + length() + "[");
-            return data[index];
+            if (index < 0 || index >= length)
+                throw new ArrayIndexOutOfBoundsException(index + " should be in [0;" + length + "[");
+            return (words[index >>> ADDRESS_BITS] & (1L << index)) != 0;
         } 
     
         /**
@@ -507,79 +535,258 @@ public interface Gene {
          * @param value  the boolean value to be set at index.
          */
         public void set(int index, boolean value) {
-            if (index < 0 || index > length())
-                throw new ArrayIndexOutOfBoundsException(index + " should be in [0;" + length() + "[");
-            data[index] = value;
+            if (index < 0 || index >= length)
+                throw new ArrayIndexOutOfBoundsException(index + " should be in [0;" + length + "[");
+            if (value)
+                words[index >>> ADDRESS_BITS] |= 1L << index;
+            else
+                words[index >>> ADDRESS_BITS] &= ~(1L << index);
+            hashCode = 0;
         } 
+
+        /**
+         * Get the bits from index on as a number.
+         * @param index the index of the first bit, which is the least significant bit of the result.
+         * @param count the number of bits to get, at most 64.
+         */
+        protected long getBits(int index, int count) {
+            if (count < 0 || count > WORD_SIZE)
+                throw new IllegalArgumentException("illegal number of bits " + count);
+            if (index < 0 || index + count > length)
+                throw new ArrayIndexOutOfBoundsException("[" + index + ";" + (index + count) + "[ should be in [0;" + length + "[");
+            if (count == 0)
+                return 0;
+            final int w = index >>> ADDRESS_BITS;
+            final int offset = index & (WORD_SIZE - 1);
+            long bits = words[w] >>> offset;
+            if (offset + count > WORD_SIZE)
+                bits |= words[w + 1] << (WORD_SIZE - offset);
+            return count == WORD_SIZE ? bits : bits & ((1L << count) - 1);
+        }
     
+        /**
+         * Get the bit string.
+         * <p>
+         * <b>Incompatible change:</b> Earlier versions returned the boolean[] in which this gene stored its bits,
+         * such that modifying the array modified this gene in-place.
+         * Since the bits are packed into words, the array returned is a copy, and modifying it has no effect on this gene.
+         * Call {@link #set(Object)} with the modified array, or {@link #set(int,boolean)}, instead.</p>
+         * @return a copy of the bit string as a boolean[].
+         */
         public Object/*boolean[]*/ get() {
+            final boolean data[] = new boolean[length];
+            for (int i = 0; i < data.length; i++)
+                data[i] = (words[i >>> ADDRESS_BITS] & (1L << i)) != 0;
             return data;
         }
         
+        /**
+         * Set the bit string.
+         * @param n the bit string as a boolean[], which is copied, such that later modifications of n have no effect on this gene.
+         */
         public void set(Object/*boolean[]*/ n) {
-            data = (boolean[]) n;
+            final boolean data[] = (boolean[]) n;
+            this.words = new long[(data.length + WORD_SIZE - 1) >>> ADDRESS_BITS];
+            this.length = data.length;
+            for (int i = 0; i < data.length; i++)
+                if (data[i])
+                    words[i >>> ADDRESS_BITS] |= 1L << i;
+            hashCode = 0;
         } 
+
+        /**
+         * Clear the bits beyond length in the last word.
+         */
+        private void clearUnused() {
+            if ((length & (WORD_SIZE - 1)) != 0)
+                words[words.length - 1] &= -1L >>> -length;
+        }
     
         // central virtual methods
         // transformation methods
     
         /**
          * Get a mutated version of this Gene.
-         * <p>Implemented as uniform mutation. Each bit of Gene data will be flipped with a specified probability.</p>
+         * <p>Implemented as uniform mutation. Each bit of Gene data will be flipped with a specified probability.
+         * The distances between the bits flipped are sampled from the geometric distribution.</p>
          * @param probability the probability with that each bit of the Gene mutates.
          */
         public Gene mutate(double probability) {
             if (!MathUtilities.isProbability(probability))
                 throw new IllegalArgumentException("invalid probability " + probability);
             BitSet n = (BitSet) clone();
-            for (int i = 0; i < n.length(); i++)
-                if (Utility.flip(GeneticAlgorithm.geneticAlgorithm.getRandom(), probability))
-                    n.data[i] = !n.data[i];
+            n.hashCode = 0;
+            if (probability == 0)
+                return n;
+            else if (probability == 1) {
+                for (int w = 0; w < n.words.length; w++)
+                    n.words[w] = ~n.words[w];
+                n.clearUnused();
+                return n;
+            }
+            final Random random = GeneticAlgorithm.geneticAlgorithm.getRandom();
+            final double logq = Math.log1p(-probability);
+            for (long i = skip(random, logq); i < length; i += 1 + skip(random, logq))
+                n.words[(int) (i >>> ADDRESS_BITS)] ^= 1L << i;
             return n;
         } 
-    
+
+        /**
+         * The number of bits to skip until the next success of Bernoulli trials.
+         * @param logq the logarithm of the probability of failure.
+         */
+        private static long skip(Random random, double logq) {
+            // geometric distribution by inversion, 1-nextDouble()&isin;(0,1]
+            final double skip = Math.floor(Math.log(1 - random.nextDouble()) / logq);
+            return skip < java.lang.Integer.MAX_VALUE ? (long) skip : java.lang.Integer.MAX_VALUE;
+        }
     
         /**
          * {@inheritDoc}.
-         * <p>Implemented as uniform recombination.</p>
+         * <p>Implemented as uniform recombination.
+         * At each bit, the parents are shuffled for the children with recombinationProbability.
+         * Otherwise, the i-th child inherits the bit of the i-th parent.</p>
          */
         public Gene[] recombine(final Gene[] parents, int childrenCount, double recombinationProbability) {
             if (!MathUtilities.isProbability(recombinationProbability))
                 throw new IllegalArgumentException("invalid probability " + recombinationProbability);
-            BitSet[]      parentsc = (BitSet[]) parents;
-            BitSet[]      children = new BitSet[childrenCount];
-            final int     a = parentsc.length;    // a
-            final int     n = children.length;    // n
-            final double  p = a;                                  // p
-    
-            // create new children gene objects
-            for (int i = 0; i < children.length; i++)
-                //TODO: optimize: filling .data is not required here
-                children[i] = new BitSet(length());
-
-            // uniformly distribute Gene data of all parents over the children
-            UniqueShuffle par = new UniqueShuffle(a);
-            for (int i = 0; i < parentsc[0].length(); i++) {
-                if (Utility.flip(GeneticAlgorithm.geneticAlgorithm.getRandom(), recombinationProbability))
-                    par.reShuffle(GeneticAlgorithm.geneticAlgorithm.getRandom());
-                else
-                    par.unShuffle();
-                for (int c = 0; c < n; c++)
-                    children[c].data[i] = parentsc[par.next()].data[i];
-            } 
+            final int     a = parents.length;
+            final BitSet  children[] = newChildren(parents, childrenCount);
+            final Random  random = GeneticAlgorithm.geneticAlgorithm.getRandom();
+            if (recombinationProbability == 0)
+                return children;
+            if (a == 2) {
+                // shuffling two parents swaps them with probability 1/2 for each bit shuffled
+                final long p0[] = ((BitSet) parents[0]).words;
+                // newChildren has checked the lengths of both parents, even for a single child
+                final long p1[] = ((BitSet) parents[1]).words;
+                final double logq = Math.log1p(-recombinationProbability);
+                long next = recombinationProbability == 1 ? 0 : skip(random, logq);
+                for (int w = 0; w < p0.length; w++) {
+                    long shuffled;
+                    if (recombinationProbability == 1)
+                        shuffled = -1L;
+                    else {
+                        shuffled = 0;
+                        for (; next < (long) (w + 1) << ADDRESS_BITS; next += 1 + skip(random, logq))
+                            shuffled |= 1L << next;
+                    }
+                    final long swap = shuffled & random.nextLong();
+                    for (int c = 0; c < childrenCount; c++)
+                        children[c].words[w] = c == 0
+                            ? (p0[w] & ~swap) | (p1[w] & swap)
+                            : (p1[w] & ~swap) | (p0[w] & swap);
+                }
+                for (int c = 0; c < childrenCount; c++)
+                    children[c].clearUnused();
+            } else {
+                // uniformly distribute Gene data of all parents over the children at the bits shuffled
+                UniqueShuffle par = new UniqueShuffle(a);
+                for (int i = 0; i < length; i++) {
+                    if (!Utility.flip(random, recombinationProbability))
+                        continue;
+                    par.reShuffle(random);
+                    for (int c = 0; c < childrenCount; c++)
+                        children[c].set(i, ((BitSet) parents[par.next()]).get(i));
+                } 
+            }
             return children;
         } 
+
+        /**
+         * n-point crossover.
+         * Cuts the bit strings at crossoverPoints random positions.
+         * Between two subsequent cuts, the i-th child inherits the bits of the (i+k)-th parent, where k is the number of cuts before.
+         * @param parents the parents to recombine.
+         * @param childrenCount the number of children to produce, at most as many as there are parents.
+         * @param crossoverPoints the number of cuts.
+         * @return the children.
+         * @see #recombine(Gene[],int,double)
+         */
+        public Gene[] crossover(final Gene[] parents, int childrenCount, int crossoverPoints) {
+            if (crossoverPoints < 0 || crossoverPoints > length)
+                throw new IllegalArgumentException("illegal number of crossover points " + crossoverPoints);
+            final int     a = parents.length;
+            final BitSet  children[] = newChildren(parents, childrenCount);
+            final Random  random = GeneticAlgorithm.geneticAlgorithm.getRandom();
+            // choose distinct cut positions in [1,length] by selection sampling in ascending order
+            final int cut[] = new int[crossoverPoints + 1];
+            for (int i = 1, k = 0; k < crossoverPoints; i++)
+                if (random.nextInt(length - i + 1) < crossoverPoints - k)
+                    cut[k++] = i;
+            cut[crossoverPoints] = length;
+            for (int k = 1; k <= crossoverPoints; k++) {
+                final int from = cut[k - 1];
+                final int to = cut[k];
+                for (int c = 0; c < childrenCount; c++)
+                    children[c].copy((BitSet) parents[(c + k) % a], from, to);
+            }
+            return children;
+        }
+
+        /**
+         * Copy the bits of the parents for the children.
+         * @throws IllegalArgumentException if any of the parents differs in length from this gene,
+         *  including the parents that no child is copied from.
+         */
+        private BitSet[] newChildren(Gene[] parents, int childrenCount) {
+            if (childrenCount > parents.length)
+                throw new IllegalArgumentException("cannot produce " + childrenCount + " children from " + parents.length + " parents");
+            for (int p = 0; p < parents.length; p++)
+                if (((BitSet) parents[p]).length != length)
+                    throw new IllegalArgumentException("parents of different length " + ((BitSet) parents[p]).length + " and " + length);
+            final BitSet children[] = new BitSet[childrenCount];
+            for (int c = 0; c < childrenCount; c++) {
+                children[c] = (BitSet) parents[c].clone();
+                children[c].hashCode = 0;
+            }
+            return children;
+        }
+
+        /**
+         * Copy the bits [from,to[ of source.
+         */
+        private void copy(BitSet source, int from, int to) {
+            if (from >= to)
+                return;
+            final int first = from >>> ADDRESS_BITS;
+            final int last = (to - 1) >>> ADDRESS_BITS;
+            for (int w = first; w <= last; w++) {
+                long mask = -1L;
+                if (w == first)
+                    mask &= -1L << from;
+                if (w == last)
+                    mask &= -1L >>> -to;
+                words[w] = (words[w] & ~mask) | (source.words[w] & mask);
+            }
+            hashCode = 0;
+        }
     
         /**
          * Get an inverted version of this Gene.
          * @return the complementary inverted Gene where all data booleans are negated.
          */
         public Gene inverse() {
-            BitSet r = new BitSet(length());
-            for (int i = 0; i < length(); i++)
-                r.data[i] = !data[i];
+            BitSet r = (BitSet) clone();
+            for (int w = 0; w < r.words.length; w++)
+                r.words[w] = ~r.words[w];
+            r.clearUnused();
+            r.hashCode = 0;
             return r;
         } 
+
+        /**
+         * Get the number of bits in which two bit strings differ.
+         * @preconditions length() == b.length()
+         */
+        public int hammingDistance(BitSet b) {
+            if (length != b.length)
+                throw new IllegalArgumentException("bit strings of different length");
+            int differences = 0;
+            for (int w = 0; w < words.length; w++)
+                differences += Long.bitCount(words[w] ^ b.words[w]);
+            return differences;
+        }
     
         public Metric distanceMeasure() {
             return metric;
@@ -590,11 +797,7 @@ public interface Gene {
                     BitSet b = (BitSet) o2;
                     if (a.length() != b.length())
                         return Values.getDefault().ONE();
-                    int    differences = 0;
-                    for (int i = 0; i < a.length(); i++)
-                        if (a.data[i] != b.data[i])
-                            differences++;
-                    return Values.getDefaultInstance().valueOf((double) differences / a.length());
+                    return Values.getDefaultInstance().valueOf((double) a.hammingDistance(b) / a.length());
                 } 
             };
     
@@ -602,9 +805,9 @@ public interface Gene {
          * Returns a string representation of this object.
          */
         public String toString() {
-            StringBuffer sb = new StringBuffer();
-            for (int i = 0; i < length(); i++)
-                sb.append(data[i] ? "1" : "0");
+            StringBuffer sb = new StringBuffer(length);
+            for (int i = 0; i < length; i++)
+                sb.append(get(i) ? "1" : "0");
             return sb.toString();
         } 
     }
@@ -1179,6 +1382,7 @@ public interface Gene {
          * The number of bits for the sign part.
          */
         private static final int signGranularity = 1;
+        private static final int WORD_BITS = 64;
     
         public Fixed(int integerGranularity, int fractionalGranularity) {
             super(signGranularity + fractionalGranularity + integerGranularity);
@@ -1218,15 +1422,23 @@ public interface Gene {
 
         /** 2-adische Entwicklung */ 
         private double interpretDouble() {
+            if (fractionalGranularity < WORD_BITS - 1 && integerGranularity < WORD_BITS - 1) {
+                // the first fractional bit is the most significant one
+                final long fraction = Long.reverse(getBits(0, fractionalGranularity)) >>> (WORD_BITS - fractionalGranularity);
+                double r = (fractionalGranularity == 0 ? 0.0 : fraction / (double) (1L << fractionalGranularity))
+                    + getBits(fractionalGranularity, integerGranularity);
+                return this.get(fractionalGranularity + integerGranularity) ? -r : r;
+            }
+            // powers of 2 by scalb, since int shifts overflow beyond 30 bits
             int position = 0;
             double r = 0.0;
             for(int i=1;i<=fractionalGranularity;i++) {
                 if (this.get(position++))
-                    r += 1./(1<<i);
+                    r += Math.scalb(1.0, -i);
             }
             for(int i=0;i<integerGranularity;i++) {
                 if (this.get(position++))
-                    r += 1<<i;
+                    r += Math.scalb(1.0, i);
             }
             if (this.get(position++))
                 r *= -1;
@@ -1238,11 +1450,12 @@ public interface Gene {
             int position = 0;
             boolean sgn = r<0;
             if (sgn) r*=-1;
+            // bit i of r is the parity of floor(r*2^i), which is exact in double arithmetic
             for(int i=1;i<=fractionalGranularity;i++) {
-                this.set(position++, ((long)(r*(1<<i))&1)==1);
+                this.set(position++, Math.floor(Math.scalb(r, i)) % 2 == 1);
             }
             for(int i=0;i<integerGranularity;i++) {
-                this.set(position++, (((long)r>>i)&1)==1);
+                this.set(position++, Math.floor(Math.scalb(r, -i)) % 2 == 1);
             }
             this.set(position++, sgn);
         }
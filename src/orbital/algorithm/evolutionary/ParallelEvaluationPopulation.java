@@ -10,6 +10,15 @@ import java.io.Serializable;
 
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.Future;
+import java.util.concurrent.ExecutionException;
 
 import java.io.IOException;
 
@@ -25,11 +34,16 @@ import java.util.logging.Level;
  * Especially call evaluate after creation or evolving (with {@link GeneticAlgorithm#evolve()}).</p>
  * <p>
  * Better not try calling add() again while evaluate() is still running, although it should work.</p>
+ * <p>
+ * The genomes are evaluated in batches of {@link #getBatchSize()} genomes per task
+ * on a {@link #getExecutor() shared executor} with a bounded number of threads,
+ * instead of starting a thread for each genome.
+ * Optionally, the fitness of identical genomes can be {@link #setMemoizing(boolean) memoized}
+ * for the {@link #getMemoCapacity() most recently} evaluated genomes.</p>
  * 
  * @version $Id$
  * @author  Andr&eacute; Platzer
- * @invariants evaluators != null is final-like (either due to constructor call, or after a call to readObject).
- * @todo test
+ * @invariants generation != null is final-like (either due to constructor call, or after a call to readObject).
  * @see #ParallelEvaluationPopulation(Population)
  */
 public class ParallelEvaluationPopulation extends Population implements Serializable {
@@ -40,46 +54,86 @@ public class ParallelEvaluationPopulation extends Population implements Serializ
     private static final long serialVersionUID = -2229283476470476347L;
 
     /**
-     * The master thread group for all evaluation threads started
-     * to evaluate some fitness values of the members.
-     * @see #generationEvaluators
-     * @internal see #readObject(java.io.ObjectOutputStream)
-     * @todo evaluators should have a good uncaughtException(Thread t, Throwable e) implementation
+     * The default number of genomes evaluated per task.
      */
-    private transient /*final*/ ThreadGroup evaluators = new EvaluatorsGroup(this);
+    private static final int DEFAULT_BATCH_SIZE = 16;
+
     /**
-     * The current thread group for all evaluation threads started
-     * during this generation to evaluate some fitness values of the members.
-     * Exchanged whenever {@link #waitForEvaluators()} or {@link #exchangeEvaluators()} is called.
-     * @see #evaluators
-     * @see #exchangeEvaluators()
-     * @see #waitForEvaluators()
-     * @todo protectedize accessor method?
+     * The default maximum number of fitness values memoized.
      */
-    private transient volatile ThreadGroup generationEvaluators;
+    private static final int DEFAULT_MEMO_CAPACITY = 4096;
 
-    private static class EvaluatorsGroup extends ThreadGroup {
-        private ParallelEvaluationPopulation population;
-        public EvaluatorsGroup(ParallelEvaluationPopulation population) {
-            super(population.getClass().getName());
-            this.population = population;
-        }
-                
-        /**
-         * Stops the whole evaluation since it is undefined, now.
-         */
-        public void uncaughtException(Thread t, Throwable e) {
-            if (!(e instanceof ThreadDeath)) {
-                logger.log(Level.WARNING, "uncaught exception in " + t, e);
-                population.evaluators.stop();
-            }
-        }
-    }
+    /**
+     * The thread group of the threads of the shared executor.
+     * @see #getEvaluators()
+     */
+    private static final ThreadGroup evaluators = new ThreadGroup(ParallelEvaluationPopulation.class.getName());
 
-    public ParallelEvaluationPopulation() {
-        generationEvaluators = new ThreadGroup(evaluators, evaluators.getName()+ '-' + getGeneration());
+    /**
+     * The shared executor for all parallel evaluation populations, created on demand.
+     * @see #getDefaultExecutor()
+     */
+    private static ExecutorService defaultExecutor = null;
+
+    /**
+     * Get the shared executor with as many (daemon) threads as there are processors available.
+     */
+    protected static synchronized ExecutorService getDefaultExecutor() {
+        if (defaultExecutor == null)
+            defaultExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+                    private int count = 0;
+                    public synchronized Thread newThread(Runnable r) {
+                        Thread t = new Thread(evaluators, r, evaluators.getName() + '-' + (count++));
+                        // unfinished evaluations should not prevent termination
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+        return defaultExecutor;
     }
 
+    /**
+     * The executor to use, or <code>null</code> for the {@link #getDefaultExecutor() shared executor}.
+     */
+    private transient ExecutorService executor = null;
+
+    /**
+     * The number of genomes evaluated per task.
+     * @serial
+     */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * The fitness values memoized for identical genomes (with cleared fitness),
+     * or <code>null</code> if not memoizing.
+     */
+    private transient Map/*<Genome,Double>*/ memo = null;
+
+    /**
+     * The maximum number of fitness values memoized.
+     * @serial
+     */
+    private int memoCapacity = DEFAULT_MEMO_CAPACITY;
+
+    /**
+     * The evaluation tasks of the current generation.
+     * Exchanged whenever {@link #waitForEvaluators()} is called.
+     * @see #exchangeGeneration()
+     * @see #waitForEvaluators()
+     */
+    private transient volatile Generation generation = new Generation();
+
+    /**
+     * The number of genomes evaluated during the last completed evaluation.
+     */
+    private transient int lastEvaluationCount = 0;
+    /**
+     * The wall-clock duration of the last completed evaluation in milliseconds.
+     */
+    private transient long lastEvaluationTime = 0;
+
+    public ParallelEvaluationPopulation() {}
+
     /**
      * Convert a population into a parallel evaluating population using its members list per reference.
      * To parallelize the evaluation in create as well consider using {@link Population#create(Population, Genome, int)} instead.
@@ -94,8 +148,14 @@ public class ParallelEvaluationPopulation extends Population implements Serializ
     /**
      * Get the master thread group for all evaluation threads started
      * to evaluate some fitness values of the members.
+     * @return the thread group of the threads of the {@link #getDefaultExecutor() shared executor}.
+     *  The threads of an executor {@link #setExecutor(ExecutorService) set explicitly} do not belong to it.
      * @see #getGenerationEvaluators()
+     * @deprecated Since evaluations run in batches on an {@link #getExecutor() executor},
+     *  the threads are shared among all parallel evaluation populations, and do not terminate.
+     *  Use {@link #waitForEvaluators()} to wait for the evaluations to finish, instead.
      */
+    @Deprecated
     protected final ThreadGroup getEvaluators() {
         return evaluators;
     }
@@ -103,15 +163,128 @@ public class ParallelEvaluationPopulation extends Population implements Serializ
     /**
      * Get the current thread group for all evaluation threads started
      * during this generation to evaluate some fitness values of the members.
-     * Exchanged whenever {@link #waitForEvaluators()} or {@link #exchangeEvaluators()} is called.
+     * @return the same thread group as {@link #getEvaluators()},
+     *  because the threads of the executor are no longer bound to a single generation.
      * @see #getEvaluators()
-     * @see #exchangeEvaluators()
      * @see #waitForEvaluators()
+     * @deprecated Since evaluations run in batches on an {@link #getExecutor() executor},
+     *  there are no separate threads per generation any more.
+     *  Use {@link #waitForEvaluators()} to wait for the evaluations to finish, instead.
      */
+    @Deprecated
     protected final ThreadGroup getGenerationEvaluators() {
-        return generationEvaluators;
+        return evaluators;
     }
 
+    /**
+     * Get the executor running the evaluations.
+     * @see #getDefaultExecutor()
+     */
+    public ExecutorService getExecutor() {
+        return executor != null ? executor : getDefaultExecutor();
+    }
+
+    /**
+     * Set the executor running the evaluations.
+     * @param executor the executor to use, or <code>null</code> to use the shared default executor.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Get the number of genomes evaluated per task.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Set the number of genomes evaluated per task.
+     * Larger batches reduce the scheduling overhead for cheap fitness evaluations,
+     * while smaller batches balance the load better for expensive fitness evaluations.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("positive batch size expected: " + batchSize);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Whether the fitness of identical genomes is memoized.
+     */
+    public boolean isMemoizing() {
+        return memo != null;
+    }
+
+    /**
+     * Set whether to memoize the fitness of identical genomes.
+     * Memoizing is only valid if the evaluation function is deterministic and
+     * the fitness of a genome does not depend on the other members of the population.
+     */
+    public synchronized void setMemoizing(boolean memoizing) {
+        if (!memoizing)
+            this.memo = null;
+        else if (memo == null)
+            this.memo = Collections.synchronizedMap(new LinkedHashMap(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1541305452208154155L;
+                    protected boolean removeEldestEntry(Map.Entry eldest) {
+                        return size() > memoCapacity;
+                    }
+                });
+    }
+
+    /**
+     * Get the maximum number of fitness values memoized.
+     * If more genomes have been evaluated, the fitness values of the least recently used genomes are forgotten.
+     */
+    public int getMemoCapacity() {
+        return memoCapacity;
+    }
+
+    /**
+     * Set the maximum number of fitness values memoized.
+     * @see #setMemoizing(boolean)
+     */
+    public void setMemoCapacity(int memoCapacity) {
+        if (memoCapacity <= 0)
+            throw new IllegalArgumentException("positive memo capacity expected: " + memoCapacity);
+        this.memoCapacity = memoCapacity;
+        final Map memo = this.memo;
+        if (memo != null)
+            synchronized(memo) {
+                // forget the least recently used fitness values
+                for (Iterator i = memo.keySet().iterator(); memo.size() > memoCapacity && i.hasNext(); ) {
+                    i.next();
+                    i.remove();
+                }
+            }
+    }
+
+    /**
+     * Get the number of fitness values currently memoized.
+     */
+    int getMemoSize() {
+        final Map memo = this.memo;
+        return memo != null ? memo.size() : 0;
+    }
+
+    /**
+     * Get the number of genomes evaluated during the last completed evaluation.
+     * @see #waitForEvaluators()
+     */
+    public int getLastEvaluationCount() {
+        return lastEvaluationCount;
+    }
+
+    /**
+     * Get the wall-clock latency of the last completed evaluation in milliseconds,
+     * from the first evaluation requested until all evaluations have finished.
+     * @see #waitForEvaluators()
+     */
+    public long getLastEvaluationTime() {
+        return lastEvaluationTime;
+    }
 
     /**
      * Adds at an arbitrary position since fitness evaluation is done later.
@@ -124,6 +297,7 @@ public class ParallelEvaluationPopulation extends Population implements Serializ
         if (!getMyMembers().add(g))
             return false;
         else {
+            modCount++;
             evaluate(g, false);
             g.setPopulation(this);
             return true;
@@ -131,25 +305,28 @@ public class ParallelEvaluationPopulation extends Population implements Serializ
     } 
 
     /**
-     * Evaluate and resort population waiting for all current evaluator threads to stop.
+     * Evaluate and resort population waiting for all current evaluations to finish.
      * @see #add(Object)
      * @internal #waitForEvaluators()
      * @param redo force whole evaluation again, even for cached fitness values.
-     *  If <code>true</code> we will {@link Thread#stop()}(!) all running evaluator threads.
+     *  If <code>true</code> we will cancel all pending evaluations of the superseded generation.
      */
     public void evaluate(boolean redo) {
         if (redo) {
-            // stop generationEvaluators and restart all calculation
-            ThreadGroup oldSnapshot = exchangeEvaluators();
-            oldSnapshot.stop();
-            // oldSnapshot is no daemon group so destroy explicitly
-            oldSnapshot.destroy();
-            //@todo also stop old evaluators, already exchanged by evaluate(boolean), but still running?
+            // cancel generation and restart all calculation
+            Generation old = exchangeGeneration();
+            old.cancel();
+            // wait for the old evaluations to stop such that they do not interfere
+            old.await();
+            Map memo = this.memo;
+            if (memo != null)
+                memo.clear();
             for (Iterator i = iterator(); i.hasNext(); )
                 evaluate((Genome) i.next(), redo);
         }
         waitForEvaluators();
         Collections.sort(getMyMembers(), Genome.comparator);
+        modCount++;
     } 
     
 
@@ -157,89 +334,223 @@ public class ParallelEvaluationPopulation extends Population implements Serializ
     
     /**
      * Concurrently evaluate a genome.
-     * When called threads fitness calculation.
+     * Queues the genome for evaluation in the current batch.
      * @see #waitForEvaluators()
      */
     protected void evaluate(Genome g, boolean redo) {
-        Runnable runnable = new Evaluator(g, redo);
-        Thread evaluator;
-        //@todo we don't actually need to synchronize two threads from adding but just
-        // one thread from adding and another one from exchaning evaluators
-        // in fact, we do not need to synchronize here at all, since the evaluator assignement is
-        // atomical
-        /*synchronized(this)*/ {
-            evaluator = new Thread(generationEvaluators, runnable);
+        synchronized(this) {
+            generation.evaluate(g, redo);
         }
-        evaluator.setDaemon(true);
-        evaluator.start();
     }
+
     /**
-     * Evaluates the fitness of the given Genome.
-     * @see ParallelEvaluationPopulation#add(Object)
+     * Concurrently execute an evaluation task as part of the current generation.
+     * @see #waitForEvaluators()
      */
-    private class Evaluator implements Runnable {
+    protected void execute(Runnable task) {
+        synchronized(this) {
+            generation.execute(task);
+        }
+    }
+
+    /**
+     * Evaluates the fitness of a genome, using memoized fitness values if memoizing.
+     */
+    private void evaluateImpl(Genome genome, boolean redo) {
+        final Map memo = this.memo;
+        if (memo == null || (!redo && genome.hasFitness())) {
+            genome.evaluate(this, redo);
+            return;
+        }
+        final Genome key = (Genome) genome.clone();
+        key.clearFitness();
+        if (!redo) {
+            final Double fitness = (Double) memo.get(key);
+            if (fitness != null) {
+                genome.setFitness(fitness.doubleValue());
+                return;
+            }
+        }
+        genome.evaluate(this, redo);
+        memo.put(key, new Double(genome.getFitness()));
+    }
+
+    /**
+     * The evaluation tasks started during one generation.
+     * @invariants all methods except cancel are called with a lock on the population.
+     */
+    private final class Generation {
+        /**
+         * The genomes queued for evaluation in the next batch.
+         */
+        private List/*<Genome>*/ pending = new ArrayList();
+        /**
+         * The redo argument of the genomes queued.
+         */
+        private boolean pendingRedo;
+        /**
+         * The evaluation tasks submitted.
+         */
+        private final List/*<Future>*/ futures = new ArrayList();
         /**
-         * The genome to evaluate
-         * @serial
+         * Whether this generation has been superseded or failed.
          */
-        private Genome  genome;
+        private volatile boolean cancelled = false;
         /**
-         * argument to pass to genome.evaluate(boolean)
-         * @serial
+         * The number of genomes evaluated.
          */
-        private boolean redo;
-        public Evaluator(Genome genome, boolean redo) {
-            this.genome = genome;
-            this.redo = redo;
+        private int count = 0;
+        /**
+         * The time of the first evaluation requested.
+         */
+        private long start = -1;
+
+        void evaluate(Genome g, boolean redo) {
+            if (!pending.isEmpty() && pendingRedo != redo)
+                flush();
+            if (start < 0)
+                start = System.currentTimeMillis();
+            pending.add(g);
+            pendingRedo = redo;
+            count++;
+            if (pending.size() >= batchSize)
+                flush();
+        }
+
+        void execute(final Runnable task) {
+            if (start < 0)
+                start = System.currentTimeMillis();
+            count++;
+            futures.add(getExecutor().submit(new Runnable() {
+                    public void run() {
+                        if (cancelled)
+                            return;
+                        try {
+                            task.run();
+                        }
+                        catch (RuntimeException ex) {
+                            fail(ex);
+                        }
+                    }
+                }));
+        }
+
+        /**
+         * Submit the genomes queued as a batch.
+         */
+        void flush() {
+            if (pending.isEmpty())
+                return;
+            final Genome[] batch = (Genome[]) pending.toArray(new Genome[pending.size()]);
+            final boolean redo = pendingRedo;
+            pending.clear();
+            futures.add(getExecutor().submit(new Runnable() {
+                    /*concurrent*/
+                    public void run() {
+                        try {
+                            for (int i = 0; i < batch.length && !cancelled; i++)
+                                evaluateImpl(batch[i], redo);
+                        }
+                        catch (RuntimeException ex) {
+                            fail(ex);
+                        }
+                    }
+                }));
+        }
+
+        /**
+         * Stops the whole evaluation since it is undefined, now.
+         */
+        private void fail(RuntimeException ex) {
+            logger.log(Level.WARNING, "uncaught exception during evaluation", ex);
+            cancelled = true;
+        }
+
+        /**
+         * Cooperatively cancel all evaluations of this generation that are still pending.
+         */
+        void cancel() {
+            cancelled = true;
         }
-        /*concurrent*/
-        public void run() {
-            genome.evaluate(ParallelEvaluationPopulation.this, redo);
+
+        /**
+         * Waits for all evaluation tasks to finish.
+         * @return whether all tasks have finished.
+         */
+        boolean await() {
+            flush();
+            for (Iterator i = futures.iterator(); i.hasNext(); )
+                try {
+                    ((Future) i.next()).get();
+                }
+                catch (ExecutionException ex) {
+                    logger.log(Level.WARNING, "uncaught exception during evaluation", ex.getCause());
+                }
+                catch (InterruptedException irq) {
+                    logger.log(Level.WARNING, "had wait interrupted", irq);
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            return true;
         }
-    };
+    }
 
     /**
-     * Waits for all current evaluator threads to stop.
-     * @internal #exchangeEvaluators()
+     * Waits for all current evaluations to finish.
+     * Records the latency and throughput of this generation's evaluation.
+     * @internal #exchangeGeneration()
      */
     protected void waitForEvaluators() {
-        ThreadGroup running = exchangeEvaluators();
-        // loop waiting for all generationEvaluators to stop
-        while (running.activeCount() > 0)
-            try {
-                Thread t[] = new Thread[1];
-                if (running.enumerate(t) == 0)
-                    break;
-                t[0].join();
-            }
-            catch (InterruptedException irq) {
-                logger.log(Level.WARNING, "had wait interrupted", irq);
-                Thread.currentThread().interrupt();
-            }
-        // running is no daemon group so destroy explicitly (otherwise it would destroy itself meanwhile)
-        running.destroy();
+        Generation running = exchangeGeneration();
+        // running has not been published to other threads, so it is safe to flush without the lock, now
+        if (!running.await() || running.count == 0)
+            return;
+        lastEvaluationCount = running.count;
+        lastEvaluationTime = System.currentTimeMillis() - running.start;
+        if (logger.isLoggable(Level.FINE))
+            logger.log(Level.FINE, "evaluated " + lastEvaluationCount + " genomes of generation " + getGeneration() + " in " + lastEvaluationTime + "ms"
+                       + (lastEvaluationTime > 0 ? " with " + (1000 * lastEvaluationCount / lastEvaluationTime) + " genomes/s" : ""));
     }
 
     /**
      * Exchanges evaluators for this generation.
-     * @see #generationEvaluators
+     * The evaluations already requested continue, but {@link #waitForEvaluators()}
+     * will no longer wait for them.
+     * @return the thread group of the evaluation threads.
+     * @see #getGenerationEvaluators()
+     * @deprecated Since evaluations run in batches on an {@link #getExecutor() executor},
+     *  there are no separate threads per generation to exchange any more.
+     *  Use {@link #waitForEvaluators()} to wait for the evaluations to finish, instead.
      */
+    @Deprecated
     protected final ThreadGroup exchangeEvaluators() {
-        ThreadGroup groupSnapshot;
+        synchronized(this) {
+            // submit the genomes queued such that their evaluation is not lost
+            exchangeGeneration().flush();
+        }
+        return evaluators;
+    }
+
+    /**
+     * Exchanges the evaluation tasks for this generation.
+     * @see #generation
+     */
+    private Generation exchangeGeneration() {
+        Generation snapshot;
         // synchronize such that
-        //  1) no other thread exchanges the generationEvaluators, now
-        //  2) no other thread calls add using generationEvaluators, now (not really necessary)
+        //  1) no other thread exchanges the generation, now
+        //  2) no other thread calls add using generation, now
         synchronized(this) {
-            // exchange generationEvaluators. We will not wait for evaluations from future calls to add() any more
-            groupSnapshot = generationEvaluators;
-            generationEvaluators = new ThreadGroup(evaluators, evaluators.getName()+ '-' + getGeneration());
+            // exchange generation. We will not wait for evaluations from future calls to add() any more
+            snapshot = generation;
+            generation = new Generation();
         }
-        return groupSnapshot;
+        return snapshot;
     }
 
     /**
      * @serialData serialization should only occur once all <em>evaluation has finished</em>
-     *  because neither evaluators, nor generationEvaluators and its threads are serializable.
+     *  because neither the executor, nor the evaluation tasks are serializable.
      */
     private void writeObject(java.io.ObjectOutputStream s) throws java.io.IOException {
         s.defaultWriteObject();
@@ -247,16 +558,15 @@ public class ParallelEvaluationPopulation extends Population implements Serializ
 
     /**
      * @serialData serialization should only occur once all <em>evaluation has finished</em>
-     *  because neither evaluators, nor generationEvaluators and its threads are serializable.
+     *  because neither the executor, nor the evaluation tasks are serializable.
      *  Exchanges evaluators.
      */
     private void readObject(java.io.ObjectInputStream s) throws IOException, ClassNotFoundException {
-        // synchronize such that
-        //  1) no other thread uses evaluators, now
-        synchronized(this) {
-            evaluators = new EvaluatorsGroup(this);
-        }
-        exchangeEvaluators();
         s.defaultReadObject();
+        if (batchSize <= 0)
+            batchSize = DEFAULT_BATCH_SIZE;
+        if (memoCapacity <= 0)
+            memoCapacity = DEFAULT_MEMO_CAPACITY;
+        exchangeGeneration();
     }
 }
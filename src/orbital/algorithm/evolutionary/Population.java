@@ -73,6 +73,14 @@ public abstract class Population implements Serializable /*//TODO: extends Deleg
      */
     private List              members;
 
+    /**
+     * The number of times this population has been modified structurally or re-evaluated.
+     * Selection schemes use it for knowing when to update the data they precomputed for this population.
+     * Sub classes that modify {@link #getMyMembers() members} directly must increment it.
+     * @see java.util.AbstractList#modCount
+     */
+    protected transient int   modCount = 0;
+
     /**
      * Create an empty population.
      */
@@ -212,6 +220,7 @@ public abstract class Population implements Serializable /*//TODO: extends Deleg
         Genome g = (Genome) o;
         merge(g);
         g.setPopulation(this);
+        modCount++;
         return true;
     } 
     public boolean remove(Object o) {
@@ -220,12 +229,14 @@ public abstract class Population implements Serializable /*//TODO: extends Deleg
             return false;
         else {
             g.setPopulation(null);
+            modCount++;
             return true;
         }
     } 
     public Object remove(int index) {
         Genome g = (Genome) members.remove(index);
         g.setPopulation(null);
+        modCount++;
         return g;
     } 
     public Iterator iterator() {
@@ -240,6 +251,11 @@ public abstract class Population implements Serializable /*//TODO: extends Deleg
     public ListIterator listIterator(int index) {
         return members.listIterator(index);
     } 
+    /**
+     * Get the list of member genomes.
+     * <p>
+     * <b>Note:</b> modifying the list directly does not inform selection schemes about the modification.</p>
+     */
     public List getMembers() {
         SecurityManager security = System.getSecurityManager();
         if (security != null) {
@@ -252,6 +268,7 @@ public abstract class Population implements Serializable /*//TODO: extends Deleg
     }
     void setMyMembers(List newMembers) {
         this.members = newMembers;
+        modCount++;
     } 
     /**
      * Just for indexed BeanInfo until beans support template typed lists.
@@ -282,10 +299,18 @@ public abstract class Population implements Serializable /*//TODO: extends Deleg
             logger.log(Level.WARNING, "merging", "no fitness after evaluation");
             i = 0;                              //XXX: is this always a good idea, or only for creation?
         }
-        else
-            for (i = 0; i < size(); i++)
-                if (!(((Genome) members.get(i)).getFitness() > fitness))
-                    break;
+        else {
+            // binary search for the first member that is not better, since members are sorted
+            int upper = size();
+            i = 0;
+            while (i < upper) {
+                final int mid = (i + upper) >>> 1;
+                if (((Genome) members.get(mid)).getFitness() > fitness)
+                    i = mid + 1;
+                else
+                    upper = mid;
+            }
+        }
         members.add(i, n);
     } 
 
@@ -305,6 +330,7 @@ public abstract class Population implements Serializable /*//TODO: extends Deleg
                 c.evaluate(this, redo);
         }
         Collections.sort(members, Genome.comparator);
+        modCount++;
     } 
 
     /**
@@ -376,6 +402,7 @@ public abstract class Population implements Serializable /*//TODO: extends Deleg
         // odd population size
         if (population.size() < size)
             population.members.add(prototype.mutate(1.0));
+        population.modCount++;
         return population;
     }
 
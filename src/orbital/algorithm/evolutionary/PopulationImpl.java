@@ -222,11 +222,16 @@ public class PopulationImpl extends Population {
         DataCopy copy = null;
         assert (copy = new DataCopy(this)) != null;
                 
-        final Genome parents[] = new Genome[getParentCount()];
+        final Genome parents[];
 
         // select parents
-        for (int i = 0; i < parents.length; i++)
-            parents[i] = (Genome) selection.apply(this);
+        if (selection instanceof Selectors.BatchSelection)
+            parents = ((Selectors.BatchSelection) selection).select(this, getParentCount());
+        else {
+            parents = new Genome[getParentCount()];
+            for (int i = 0; i < parents.length; i++)
+                parents[i] = (Genome) selection.apply(this);
+        }
         SelectionStatistics.selectionStatistics.setSelected(this, parents);
 
         // overall parental similarity
@@ -10,6 +10,7 @@ import orbital.logic.functor.Function;
 import java.io.Serializable;
 
 import java.util.Random;
+import java.util.Arrays;
 import orbital.util.Utility;
 
 /**
@@ -29,16 +30,33 @@ public class Selectors {
      */
     private Selectors() {}
         
+    /**
+     * Selection of several genomes at once.
+     * All selectors of this class support selecting several genomes at once,
+     * which some of them implement more efficiently than single selections.
+     * @see PopulationImpl#reproduce()
+     */
+    public static interface BatchSelection extends Function/*<Population, Genome>*/ {
+        /**
+         * Select several genomes at once.
+         * @param population the population to select from.
+         * @param count the number of genomes to select.
+         * @return the selected genomes, possibly selecting the same genome several times.
+         */
+        Genome[] select(Population population, int count);
+    }
+
     /**
      * Better genomes will more likely be selected.
      * Weighted roulette wheel selector.
      * @preconditions requires either strictly negative or strictly positive fitness values.
      * @see #likelyBetter()
+     * @see #alias()
      */
     public static final Function/*<Population, Genome>*/ rouletteWheel() {
         return new RouletteWheelSelector();
     }
-    private static class RouletteWheelSelector extends SelectionImpl {
+    private static class RouletteWheelSelector extends PrecomputedSelection {
         private static final long serialVersionUID = -8558724347382003603L;
         /**
          * partial sums.
@@ -52,9 +70,16 @@ public class Selectors {
          */
         public Object/*>Genome<*/ apply(Object/*>Population<*/ p) {
             Population population = (Population) p;
-            //@todo would not need calling every time, but how to achieve that we get notified when population changed?
-            update(population);
-            return selectImpl(population);
+            prepare(population);
+            return selectImpl(population, population.getGeneticAlgorithm().getRandom().nextDouble());
+        }
+        public Genome[] select(Population population, int count) {
+            prepare(population);
+            final Random random = population.getGeneticAlgorithm().getRandom();
+            final Genome selected[] = new Genome[count];
+            for (int i = 0; i < count; i++)
+                selected[i] = selectImpl(population, random.nextDouble());
+            return selected;
         }
         /**
          * weighted roulette wheel.  Likliehood of selection is proportionate to the fitness.
@@ -62,9 +87,14 @@ public class Selectors {
          * @see "Goldberg, D. E. Genetic Algorithms in Search, Optimization and Machine Learning. 1989."
          * @preconditions p is sorted && partialSum updated
          */
-        private Object/*>Genome<*/ selectImpl(Population population) {
-            double cutoff = population.getGeneticAlgorithm().getRandom().nextDouble();
-            int lower = 0, upper = population.size() - 1;
+        private Genome selectImpl(Population population, double cutoff) {
+            return population.get(indexOf(cutoff));
+        }
+        /**
+         * Get the index of the first partial sum exceeding cutoff.
+         */
+        final int indexOf(double cutoff) {
+            int lower = 0, upper = partialSum.length - 1;
             while (lower <= upper){
                 int i = lower + (upper - lower) / 2;
                 if (partialSum[i] > cutoff)
@@ -72,31 +102,143 @@ public class Selectors {
                 else
                     lower = i + 1;
             }
-            if (lower >= population.size())
-                lower = population.size() - 1;
-            return population.get(lower);
+            if (lower >= partialSum.length)
+                lower = partialSum.length - 1;
+            return lower;
         }
-        private void update(Population population) {
-            partialSum = new double[population.size()];
-            double min = population.get(0, false).getFitness();
-            double max = population.get(0, true).getFitness();
-            if (max == min)
-                for(int i = 0; i < partialSum.length; i++)
-                    // equal likelihoods
-                    partialSum[i] = (double) (i+1) / (double) partialSum.length;
-            else if ((max > 0 && min >= 0) || (max <= 0 && min < 0)) {
-                partialSum[0] = population.get(0).getFitness();
-                for (int i=1; i < partialSum.length; i++)
-                    partialSum[i] = population.get(i).getFitness() + partialSum[i-1];
-                for (int i = 0; i < partialSum.length; i++)
-                    partialSum[i] /= partialSum[partialSum.length - 1];
-            }
-            else
-                throw new IllegalArgumentException("rouletteWheel selection requires either strictly negative or strictly positive fitness values");
+        final double partialSum(int i) {
+            return partialSum[i];
+        }
+        protected void update(Population population) {
+            partialSum = weights(population);
+            for (int i = 1; i < partialSum.length; i++)
+                partialSum[i] += partialSum[i - 1];
+            // the wheel ends at 1, up to rounding errors
+            partialSum[partialSum.length - 1] = 1;
         }
         public String toString() {return "roulette wheel selector";}
     }
 
+    /**
+     * Better genomes will more likely be selected.
+     * Weighted roulette wheel selector with constant time per selection.
+     * Selects with the same probabilities as {@link #rouletteWheel()},
+     * but from an alias table instead of by binary search.
+     * @preconditions requires either strictly negative or strictly positive fitness values.
+     * @see "Walker, A. J. An efficient method for generating discrete random variables with general distributions. <i>ACM Transactions on Mathematical Software</i>, 3(3):253-256, 1977."
+     * @see "Vose, M. D. A linear algorithm for generating random numbers with a given distribution. <i>IEEE Transactions on Software Engineering</i>, 17(9):972-975, 1991."
+     */
+    public static final Function/*<Population, Genome>*/ alias() {
+        return new AliasSelector();
+    }
+    private static class AliasSelector extends PrecomputedSelection {
+        private static final long serialVersionUID = 2290764069186327046L;
+        /**
+         * The probability of selecting the i-th genome itself instead of its alias,
+         * once the i-th column of the table has been chosen.
+         */
+        private transient double probability[];
+        /**
+         * The alias of the i-th genome in the i-th column of the table.
+         */
+        private transient int alias[];
+        public Object/*>Genome<*/ apply(Object/*>Population<*/ p) {
+            Population population = (Population) p;
+            prepare(population);
+            return selectImpl(population, population.getGeneticAlgorithm().getRandom());
+        }
+        public Genome[] select(Population population, int count) {
+            prepare(population);
+            final Random random = population.getGeneticAlgorithm().getRandom();
+            final Genome selected[] = new Genome[count];
+            for (int i = 0; i < count; i++)
+                selected[i] = selectImpl(population, random);
+            return selected;
+        }
+        private Genome selectImpl(Population population, Random random) {
+            // one random number for choosing the column, and within the column
+            final double x = random.nextDouble() * probability.length;
+            final int i = Math.min((int) x, probability.length - 1);
+            return population.get(x - i < probability[i] ? i : alias[i]);
+        }
+        protected void update(Population population) {
+            final int n = population.size();
+            // fitness weights scaled to average 1
+            final double scaled[] = weights(population);
+            for (int i = 0; i < n; i++)
+                scaled[i] *= n;
+            probability = new double[n];
+            alias = new int[n];
+            final int small[] = new int[n];
+            final int large[] = new int[n];
+            int smalls = 0, larges = 0;
+            for (int i = 0; i < n; i++)
+                if (scaled[i] < 1)
+                    small[smalls++] = i;
+                else
+                    large[larges++] = i;
+            // fill each column of a small weight with the excess of a large weight
+            while (smalls > 0 && larges > 0) {
+                final int s = small[--smalls];
+                final int l = large[--larges];
+                probability[s] = scaled[s];
+                alias[s] = l;
+                scaled[l] = (scaled[l] + scaled[s]) - 1;
+                if (scaled[l] < 1)
+                    small[smalls++] = l;
+                else
+                    large[larges++] = l;
+            }
+            // the remaining columns are full, up to rounding errors
+            while (larges > 0)
+                probability[large[--larges]] = 1;
+            while (smalls > 0)
+                probability[small[--smalls]] = 1;
+        }
+        public String toString() {return "alias selector";}
+    }
+
+    /**
+     * Better genomes will more likely be selected, with minimum spread.
+     * Stochastic universal sampling selects several genomes at once with equally spaced pointers
+     * on a single spin of the roulette wheel. Each genome is selected at least
+     * <code>&lfloor;k*p<sub>i</sub>&rfloor;</code> and at most <code>&lceil;k*p<sub>i</sub>&rceil;</code> times
+     * among k selections, with its roulette wheel probability p<sub>i</sub>.
+     * Single selections are roulette wheel selections.
+     * @preconditions requires either strictly negative or strictly positive fitness values.
+     * @see "Baker, J. E. Reducing bias and inefficiency in the selection algorithm. In <i>Proceedings of the Second International Conference on Genetic Algorithms</i>, pages 14-21, 1987."
+     * @see #rouletteWheel()
+     */
+    public static final Function/*<Population, Genome>*/ stochasticUniversal() {
+        return new StochasticUniversalSelector();
+    }
+    private static class StochasticUniversalSelector extends RouletteWheelSelector {
+        private static final long serialVersionUID = 7624330981063717016L;
+        public Genome[] select(Population population, int count) {
+            prepare(population);
+            final Random random = population.getGeneticAlgorithm().getRandom();
+            final Genome selected[] = new Genome[count];
+            final double offset = random.nextDouble() / count;
+            final int n = population.size();
+            int i = 0;
+            for (int j = 0; j < count; j++) {
+                final double pointer = offset + (double) j / count;
+                while (i < n - 1 && !(partialSum(i) > pointer))
+                    i++;
+                selected[j] = population.get(i);
+            }
+            // shuffle, such that the order does not depend on the fitness
+            for (int j = count - 1; j > 0; j--) {
+                final int k = random.nextInt(j + 1);
+                final Genome t = selected[j];
+                selected[j] = selected[k];
+                selected[k] = t;
+            }
+            return selected;
+        }
+        public String toString() {return "stochastic universal selector";}
+    }
+
     /**
      * Better genomes will more likely be selected.
      * Unconstrained but less accurate version of roulette wheel.
@@ -137,9 +279,8 @@ public class Selectors {
         private final RouletteWheelSelector roulette = new RouletteWheelSelector();
         public Object/*>Genome<*/ apply(Object/*>Population<*/ p) {
             Population population = (Population) p;
-            roulette.update(population);
-            Genome a = (Genome) roulette.selectImpl(population);
-            Genome b = (Genome) roulette.selectImpl(population);
+            Genome a = (Genome) roulette.apply(population);
+            Genome b = (Genome) roulette.apply(population);
             return b.getFitness() > a.getFitness() ? b : a;
         } 
         public String toString() {return "tournament selector";}
@@ -199,8 +340,18 @@ public class Selectors {
 /**
  * Selection implementation for selections schemes that do not require preprocessing.
  */
-abstract class SelectionImpl implements Function/*<Population, Genome>*/, Serializable {
+abstract class SelectionImpl implements Selectors.BatchSelection, Serializable {
     private static final long serialVersionUID = -3217305129591017547L;
+
+    /**
+     * Select several genomes with single selections.
+     */
+    public Genome[] select(Population population, int count) {
+        final Genome selected[] = new Genome[count];
+        for (int i = 0; i < count; i++)
+            selected[i] = (Genome) apply(population);
+        return selected;
+    }
     /**
      * Generic instantiation clone
      */
@@ -222,3 +373,60 @@ abstract class SelectionImpl implements Function/*<Population, Genome>*/, Serial
         return getClass().hashCode();
     }
 }
+
+/**
+ * Selection implementation for selection schemes that preprocess the population.
+ * The data precomputed is kept until the population has been modified.
+ * @see Population#modCount
+ */
+abstract class PrecomputedSelection extends SelectionImpl {
+    private static final long serialVersionUID = 4460188011893416325L;
+    /**
+     * The population for which the data has been precomputed, or <code>null</code>.
+     */
+    private transient Population population = null;
+    /**
+     * The modification count of population when the data has been precomputed.
+     */
+    private transient int modCount;
+
+    /**
+     * Precompute the data for the population unless it is up to date.
+     */
+    final void prepare(Population population) {
+        if (population != this.population || population.modCount != modCount) {
+            update(population);
+            this.population = population;
+            this.modCount = population.modCount;
+        }
+    }
+
+    /**
+     * Precompute the data for the population.
+     * @preconditions population is sorted
+     */
+    protected abstract void update(Population population);
+
+    /**
+     * Get the probabilities of selection proportionate to the fitness.
+     * @throws IllegalArgumentException if the fitness values are neither all negative nor all positive.
+     */
+    static double[] weights(Population population) {
+        final double weight[] = new double[population.size()];
+        double min = population.get(0, false).getFitness();
+        double max = population.get(0, true).getFitness();
+        if (max == min)
+            // equal likelihoods
+            Arrays.fill(weight, 1.0 / weight.length);
+        else if ((max > 0 && min >= 0) || (max <= 0 && min < 0)) {
+            double sum = 0;
+            for (int i = 0; i < weight.length; i++)
+                sum += (weight[i] = population.get(i).getFitness());
+            for (int i = 0; i < weight.length; i++)
+                weight[i] /= sum;
+        }
+        else
+            throw new IllegalArgumentException("proportionate selection requires either strictly negative or strictly positive fitness values");
+        return weight;
+    }
+}
@@ -41,6 +41,10 @@ import orbital.math.Values;
  * This behaviour for g=0 resembles HillClimbing but is not limited to selecting
  * from most recently expaned nodes,
  * nevertheless with g=0 it is still incomplete and not optimal.</p>
+ * <p>
+ * The open nodes are kept in the {@link BestFirstSearch.OptionIterator indexed heap} of best first search,
+ * which evaluates f only once per node, and replaces an open node that is reached again by a cheaper path.
+ * Together with the closed set of {@link OpenClosedGeneralSearchProblem}, this is A<sup>*</sup> graph search.</p>
  *
  * @version $Id$
  * @author  Andr&eacute; Platzer
@@ -48,7 +52,6 @@ import orbital.math.Values;
  * @attribute specializes {@link WAStar} with W=1.
  * @internal A search is a search with inadmissible heuristics (but any other differences?).
  * @internal A<sup>*</sup> ressembles gradient descent (but with memory).
- * @todo update g(n) to fit minimum cost to reach n?
  */
 public class AStar/*<A,S>*/ extends BestFirstSearch/*<A,S>*/
     implements HeuristicAlgorithm/*<GeneralSearchProblem<A,S>,S>*/ {
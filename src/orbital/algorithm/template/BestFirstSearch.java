@@ -10,21 +10,16 @@ import java.util.Collection;
 import orbital.logic.functor.Function;
 import orbital.math.Real;
  
-import java.util.List;
-import java.util.LinkedList;
-import java.util.TreeSet;
 import java.util.Iterator;
-import java.util.Comparator;
-
-import java.util.Collections;
-import orbital.util.Setops;
+import java.util.Map;
+import java.util.HashMap;
 
 /**
  * BestFirstSearch class (BFS). An heuristic search algorithm.
  * <p>
  * Expands best nodes first, i.e. those that have min f(n).</p>
  * <p>
- * Implementation data structure is a Heap.</p>
+ * Implementation data structure is an indexed binary heap of the open nodes with their f-values.</p>
  *
  * @version $Id$
  * @author  Andr&eacute; Platzer
@@ -41,65 +36,196 @@ public abstract class BestFirstSearch/*<A,S>*/ extends GeneralSearch/*<A,S>*/
     /**
      * An iterator over a state space in best-first order.
      * Expands nodes with better f-costs, first.
-     * @invariants isSorted(nodes)
+     * <p>
+     * The open nodes are kept in a binary heap ordered by their f-values, which are evaluated
+     * only once when a node is added. Nodes with equal f-values are expanded in the order in which
+     * they have been added.
+     * Open nodes are indexed, such that a node that is equal to an open node replaces it, if it has
+     * a better f-value (decrease-key), and is dropped, otherwise.
+     * Hence, equal states should be interchangeable for the search problem.
+     * </p>
+     * @invariants heap condition on nodes[0..size-1]
      * @version $Id$
      * @author  Andr&eacute; Platzer
      */
     public static class OptionIterator/*<A,S>*/ extends GeneralSearch.OptionIterator/*<A,S>*/ {
-        private static final long serialVersionUID = 1955160705943645903L;
+        private static final long serialVersionUID = 3203457932650211418L;
         /**
-         * the sorted list of nodes.
+         * the evaluation function f for ordering the nodes.
          * @serial
          */
-        // @todo return new Heap();
-        // or return new TreeSet(new HeuristicSearch.EvaluationComparator(getEvaluation())) and optimize add(..)
-        // or even return new PriorityQueue();
-
-        // @todo use a data structure that caches the evaluation values and does not need to reevaluate them over and over again, just because we want to sort it.
-        private List/*<S>*/ nodes;
+        private final Function/*<S,Real>*/ evaluation;
+        /**
+         * the binary heap of the open nodes, with their f-values.
+         * @serial
+         */
+        private Entry/*<S>*/ nodes[];
+        /**
+         * the number of open nodes in the heap.
+         * @serial
+         */
+        private int size;
+        /**
+         * the number of nodes added so far, for ordering nodes with equal f-values.
+         * @serial
+         */
+        private long added;
         /**
-         * the comparator used for sorting nodes.
+         * the open nodes mapped to their entries in the heap.
          * @serial
          */
-        private Comparator/*<S>*/ comparator;
+        private final Map/*<S,Entry<S>>*/ open;
         /**
          * @param evaluation the evaluation function to use for sorting the options monotonically.
          *  Usually {@link EvaluativeAlgorithm#getEvaluation()}.
          */
         public OptionIterator(GeneralSearchProblem/*<A,S>*/ problem, Function/*<S,Real>*/ evaluation) {
             super(problem);
-            this.nodes = new LinkedList/*<S>*/();
-            nodes.add(problem.getInitialState());
-            this.comparator = new EvaluationComparator/*<S>*/(evaluation);
+            this.evaluation = evaluation;
+            this.nodes = new Entry[16];
+            this.size = 0;
+            this.added = 0;
+            this.open = new HashMap();
+            add(problem.getInitialState());
         }
         protected boolean isEmpty() {
-            return nodes.isEmpty();
+            return size == 0;
         }
         /**
          * Select the node with min f(n).
-         * Due to the sorted list that is the first object.
-         * @preconditions sorted(nodes)
+         * Due to the heap that is the root.
+         * @preconditions heap condition
          */
         protected Object/*>S<*/ select() {
-            return nodes.remove(0);
+            final Entry/*<S>*/ e = nodes[0];
+            open.remove(e.node);
+            final Entry/*<S>*/ last = nodes[--size];
+            nodes[size] = null;
+            if (size > 0) {
+                nodes[0] = last;
+                last.position = 0;
+                siftDown(last);
+            }
+            return e.node;
         }
         /**
-         * merge old and new lists.
-         * @preconditions sorted(nodes)
-         * @postconditions sorted(nodes)
-         * @see orbital.util.Setops#merge(List, List, Comparator)
+         * Add the new nodes to the heap.
+         * Nodes equal to open nodes only replace them if they have a better f-value.
+         * @preconditions heap condition
+         * @postconditions heap condition
          */
         protected boolean add(Iterator/*<S>*/ newNodes) {
-            if (!newNodes.hasNext())
-                return false;
-            List l = Setops.asList(newNodes);
-            // sort newNodes because it most likely is not yet sorted
-            Collections.sort(l, comparator);
-            nodes = Setops.merge(nodes, l, comparator);
+            boolean changed = false;
+            while (newNodes.hasNext())
+                changed |= add(newNodes.next());
+            return changed;
+        }
+
+        private boolean add(Object/*>S<*/ node) {
+            final Real f = castedApply(evaluation, node);
+            Entry/*<S>*/ e = (Entry) open.get(node);
+            if (e != null) {
+                // decrease-key of an equal open node, if node is better
+                if (f.compareTo(e.value) >= 0)
+                    return false;
+                open.remove(e.node);
+                e.node = node;
+                e.value = f;
+                e.order = added++;
+                open.put(node, e);
+                siftUp(e);
+                return true;
+            }
+            if (size == nodes.length) {
+                final Entry/*<S>*/ grown[] = new Entry[2 * size];
+                System.arraycopy(nodes, 0, grown, 0, size);
+                nodes = grown;
+            }
+            e = new Entry/*<S>*/(node, f, added++);
+            e.position = size;
+            nodes[size++] = e;
+            open.put(node, e);
+            siftUp(e);
             return true;
         }
+
+        private void siftUp(Entry/*<S>*/ e) {
+            int i = e.position;
+            while (i > 0) {
+                final int parent = (i - 1) >> 1;
+                final Entry/*<S>*/ p = nodes[parent];
+                if (!e.before(p))
+                    break;
+                nodes[i] = p;
+                p.position = i;
+                i = parent;
+            }
+            nodes[i] = e;
+            e.position = i;
+        }
+
+        private void siftDown(Entry/*<S>*/ e) {
+            int i = e.position;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size)
+                    break;
+                if (child + 1 < size && nodes[child + 1].before(nodes[child]))
+                    child++;
+                final Entry/*<S>*/ c = nodes[child];
+                if (!c.before(e))
+                    break;
+                nodes[i] = c;
+                c.position = i;
+                i = child;
+            }
+            nodes[i] = e;
+            e.position = i;
+        }
     };
 
+    /**
+     * An open node in the heap with its cached f-value.
+     * @version $Id$
+     * @author  Andr&eacute; Platzer
+     */
+    private static final class Entry/*<S>*/ implements java.io.Serializable {
+        private static final long serialVersionUID = -5219367306120458331L;
+        /**
+         * the node.
+         * @serial
+         */
+        Object/*>S<*/ node;
+        /**
+         * the f-value of node.
+         * @serial
+         */
+        Real value;
+        /**
+         * the number of nodes added before node.
+         * @serial
+         */
+        long order;
+        /**
+         * the index of this entry in the heap.
+         * @serial
+         */
+        int position;
+        Entry(Object/*>S<*/ node, Real value, long order) {
+            this.node = node;
+            this.value = value;
+            this.order = order;
+        }
+        /**
+         * Whether this entry is to be expanded before e.
+         * @return f(this) &lt; f(e), or equal f-values but this has been added before e.
+         */
+        boolean before(Entry/*<S>*/ e) {
+            final int c = value.compareTo(e.value);
+            return c < 0 || (c == 0 && order < e.order);
+        }
+    }
+
     //  protected Collection createCollection() {
     //          // @todo return new Heap();
     //          // or return new TreeSet(new HeuristicSearch.EvaluationComparator(getEvaluation())) and optimize add(..)
@@ -50,6 +50,7 @@ import java.util.logging.Level;
  * @version $Id$
  * @author  Andr&eacute; Platzer
  * @see DynamicProgrammingProblem
+ * @see ValueIteration
  * @see "A. Barto, S. Bradtke, and S. Singh. Learning to act using real-time dynamic programming. <i>Artificial Intelligence</i>, 72:81-138, 1995."
  */
 public class GaussSeidelDynamicProgramming/*<A,S,M extends MarkovDecisionProblem.Transition>*/
@@ -106,7 +107,8 @@ public class GaussSeidelDynamicProgramming/*<A,S,M extends MarkovDecisionProblem
 
                 // update U(s) (alias backup)
                 U.set(state, p.getB());
-                logger.log(Level.FINER, "GSDP", "  U(" + state + ")\t:= " + p.getB());
+                if (logger.isLoggable(Level.FINER))
+                    logger.log(Level.FINER, "  U({0})\t:= {1}", new Object[] {state, p.getB()});
                         
                 delta = Math.max(delta, Math.abs(old - ((Number) p.getB()).doubleValue()));
             }
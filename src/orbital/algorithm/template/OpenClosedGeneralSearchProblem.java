@@ -17,6 +17,8 @@ import orbital.util.Setops;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.Map;
+import java.util.IdentityHashMap;
 
 /**
  * GeneralSearchProblem wrapper keeping track of open and closed sets.
@@ -26,6 +28,10 @@ import java.util.LinkedList;
  * circular expansions. However, this book-keeping will prove useless and time-consuming
  * on search spaces that form real trees (without repetitive nodes and cross edges).</p>
  * <p>
+ * Open nodes that can be reached by a shorter path are replaced by the open list of
+ * {@link BestFirstSearch best first search}, such that together, they implement
+ * graph search for {@link AStar A<sup>*</sup>}.</p>
+ * <p>
  * The closed set is the set of closed nodes that have already been expanded.
  * Nodes in the search space that are not closed are called open.</p>
  *
@@ -33,7 +39,7 @@ import java.util.LinkedList;
  * @author  Andr&eacute; Platzer
  * @internal @see DynamicBacktracking
  * @see <a href="{@docRoot}/Patterns/Design/Decorator.html">Decorator</a>
- * @todo optimizable for A* since then we can replace a child c which is already in the open set of candidates by c when c can be reached by a shorter path.
+ * @see BestFirstSearch.OptionIterator
  */
 public class OpenClosedGeneralSearchProblem/*<A,S>*/ implements GeneralSearchProblem/*<A,S>*/, Serializable {
     private static final long serialVersionUID = 7335267055267390660L;
@@ -48,6 +54,15 @@ public class OpenClosedGeneralSearchProblem/*<A,S>*/ implements GeneralSearchPro
      * @serial
      */
     private Set/*<S>*/ closedSet;
+    /**
+     * The state last expanded by {@link #actions(Object)}.
+     */
+    private transient Object/*>S<*/ expanded;
+    /**
+     * The successor states of the open actions of expanded,
+     * which have already been computed for checking whether they are closed.
+     */
+    private transient Map/*<A,S>*/ successors;
     /**
      * Create a GeneralSearchProblem keeping track of closed sets.
      * @param problem the proper problem to solve which does not yet keep track of closed sets.
@@ -69,6 +84,8 @@ public class OpenClosedGeneralSearchProblem/*<A,S>*/ implements GeneralSearchPro
      */
     public Object/*>S<*/ getInitialState() {
         closedSet = new HashSet();
+        expanded = null;
+        successors = null;
         return problem.getInitialState();
     }
     
@@ -81,18 +98,32 @@ public class OpenClosedGeneralSearchProblem/*<A,S>*/ implements GeneralSearchPro
         // visit s by expanding it, so add s to the closed list
         closedSet.add(s);
         LinkedList/*<A>*/ copy = new LinkedList();
+        this.expanded = s;
+        this.successors = new IdentityHashMap();
         for (Iterator/*<A>*/ i = problem.actions(s); i.hasNext(); ) {
             Object/*>A<*/ a = i.next();
-            if (closedSet.contains(problem.states(a, s).next()))
+            Object/*>S<*/ sp = problem.states(a, s).next();
+            if (closedSet.contains(sp))
                 i.remove();
-            else
+            else {
                 copy.add(a);
+                successors.put(a, sp);
+            }
         }
         return Setops.unmodifiableIterator(copy.iterator());
     }
 
+    /**
+     * Reuses the successor states that {@link #actions(Object)} has already computed.
+     */
     public Iterator/*<S>*/ states(Object/*>A<*/ a, Object/*>S<*/ s) {
         //@internal we do not again check like actions already did, but assume the usual case that a results from actions(s)
+        if (s == expanded) {
+            // each successor is only reused once, since it will be modified by the search
+            final Object/*>S<*/ sp = successors.remove(a);
+            if (sp != null)
+                return Collections.singletonList(sp).iterator();
+        }
         return problem.states(a, s);
     }
 
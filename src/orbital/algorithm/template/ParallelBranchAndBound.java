@@ -9,13 +9,22 @@ package orbital.algorithm.template;
 import orbital.logic.functor.Function;
 import java.util.Iterator;
 import java.util.Collection;
+import java.util.List;
+import java.util.ArrayList;
 
 import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import orbital.math.functional.Operations;
 import orbital.math.functional.Functions;
 import orbital.math.Values;
 import orbital.math.Real;
 
+import java.util.logging.Logger;
+import java.util.logging.Level;
+
 /**
  * Parallel branch-and-bound algorithm.
  * <p>
@@ -61,6 +70,19 @@ import orbital.math.Real;
  * ParallelBranchAndBound can result in a better performance even on
  * single-processor systems.
  * </p>
+ * <h3 id="implementation">Implementation</h3>
+ * <p>
+ * The search runs on a work-stealing {@link ForkJoinPool} with a
+ * bounded number of {@link #getParallelism() worker threads}. Each task
+ * explores its part of the search tree depth-first with an explicit
+ * stack, and splits off the oldest (thus usually largest) pending
+ * siblings as a new task whenever the pool runs short of queued work,
+ * such that idle workers can steal them.
+ * The best solution known, and thus the bound, is shared between all
+ * tasks lock-free. Whenever the bound improves, subtrees that are
+ * already out of bounds are cancelled before they are explored.
+ * This requires the problem's expand and cost functions to be thread-safe.
+ * </p>
  *
  * @version $Id$
  * @author  Andr&eacute; Platzer
@@ -69,11 +91,49 @@ import orbital.math.Real;
  */
 public class ParallelBranchAndBound/*<A,S>*/ extends BranchAndBound/*<A,S>*/ {
     private static final long serialVersionUID = -7665864997088831748L;
+    private static final Logger logger = Logger.getLogger(ParallelBranchAndBound.class.getName());
+    /**
+     * Split off pending siblings as a new task while the current worker
+     * has fewer than this number of surplus tasks queued.
+     */
+    private static final int SURPLUS_THRESHOLD = 2;
+
+    /**
+     * The number of worker threads to use.
+     * @serial
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    public ParallelBranchAndBound(Function/*<S,Real>*/ heuristic, Real maximumUpperBound) {
+        super(heuristic, maximumUpperBound);
+    }
+    /**
+     * @deprecated Since Orbital1.1 use {@link #ParallelBranchAndBound(Function,Real)} instead.
+     */
+    @Deprecated
     public ParallelBranchAndBound(Function/*<S,Real>*/ heuristic, double bound) {
         super(heuristic, bound);
     }
     ParallelBranchAndBound() {}
 
+    /**
+     * Get the number of worker threads to use for searching.
+     * Defaults to the number of available processors.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set the number of worker threads to use for searching.
+     * @param parallelism the (positive) maximum number of threads exploring in parallel.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("positive parallelism expected: " + parallelism);
+        this.parallelism = parallelism;
+    }
+
     /**
      * O(d) on parallel machines where d the solution depth.
      */
@@ -98,120 +158,207 @@ public class ParallelBranchAndBound/*<A,S>*/ extends BranchAndBound/*<A,S>*/ {
     }
 
     protected Object/*>S<*/ search(Iterator/*<S>*/ nodes) {
-        bestSolution = null;
-        //@todo should we stop when a thread in tg throws an uncaught exception? Or ignore it?
-        final ThreadGroup bnb = new ThreadGroup("BranchAndBound");
-        // gescheiterte Suchprozesse am Ende automatisch schließen
-        bnb.setDaemon(true);
-        // start searching
-        final ExploreBranch root = new ExploreBranch(nodes);
-        new Thread(bnb, root).start();
-
-        // loop waiting for best solution
-        while (bnb.activeCount() > 0)
-            try {
-                Thread t[] = new Thread[1];
-                if (bnb.enumerate(t) == 0)
-                    break;
-                t[0].join();
-            }
-            catch (InterruptedException irq) {
-                Thread.currentThread().interrupt();
-            }
-        
-        return bestSolution;
+        best.set(null);
+        nodeCount.set(0);
+        cancelCount.set(0);
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            // exceptions of a task are rethrown here
+            pool.invoke(new ExploreBranch(nodes, null));
+            stealCount = pool.getStealCount();
+        }
+        finally {
+            pool.shutdownNow();
+        }
+        if (logger.isLoggable(Level.FINE))
+            logger.log(Level.FINE, "explored " + nodeCount.get() + " nodes with " + parallelism + " threads, " + stealCount + " steals, " + cancelCount.get() + " subtrees cancelled");
+        final Solution solution = (Solution) best.get();
+        return solution != null ? solution.solution : null;
     }
-        
+
     /**
-     * The lock to obtain for sychronized access to bestSolution.
-     * necessary since bestSolution might still be null.
+     * Tightens the bound to the solution cost.
+     * Since better solutions can only be found below this bound.
+     * The bound is only ever decreased, even if threads find solutions concurrently.
      */
-    private transient Object bestSolutionLock = new Object();
+    protected Object/*>S<*/ processSolution(Object/*>S<*/ node) {
+        final Real accumulatedCost = castedApply(getProblem().getAccumulatedCostFunction(), node);
+        for (Real current = getBound(); accumulatedCost.compareTo(current) < 0; current = getBound())
+            if (sharedBound.compareAndSet(current, accumulatedCost))
+                break;
+        return node;
+    }
+
+    protected Real getBound() {
+        return (Real) sharedBound.get();
+    }
+
+    protected void setBound(Real bound) {
+        super.setBound(bound);
+        sharedBound.set(bound);
+    }
+
     /**
-     * Contains current best solution.
-     * @serial
-     * @todo serialization?
+     * Get the number of nodes explored during the last search.
      */
-    /*volatile for Double-checked locking with new semantics*/
-    private Object/*>S<*/ bestSolution;
+    public long getNodeCount() {
+        return nodeCount.get();
+    }
+
     /**
-     * Contains the accumulated cost of {@link #bestSolution}, thus the current best accumulated cost.
-     * @serial
-     * @todo serialization?
+     * Get the number of tasks stolen between worker threads during the last search.
+     * @see ForkJoinPool#getStealCount()
      */
-    private Real bestAccumulatedCost = Values.getDefault().NaN();
+    public long getStealCount() {
+        return stealCount;
+    }
+
+    /**
+     * The current bound shared lock-free among all threads.
+     */
+    private transient AtomicReference/*<Real>*/ sharedBound = new AtomicReference();
+    /**
+     * Contains the current best solution along with its accumulated cost,
+     * or <code>null</code> if there is none, yet.
+     */
+    private transient AtomicReference/*<Solution>*/ best = new AtomicReference();
+    /**
+     * The number of nodes explored.
+     */
+    private transient AtomicLong nodeCount = new AtomicLong();
+    /**
+     * The number of subtrees cancelled because they got out of bounds.
+     */
+    private transient AtomicLong cancelCount = new AtomicLong();
+    /**
+     * The number of tasks stolen during the last search.
+     */
+    private transient long stealCount;
 
     /**
      * Sustain transient variable initialization when deserializing.
      */
     private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
         in.defaultReadObject();
-        bestSolutionLock = new Object();
+        sharedBound = new AtomicReference(super.getBound());
+        best = new AtomicReference();
+        nodeCount = new AtomicLong();
+        cancelCount = new AtomicLong();
     }
 
     /**
-     * Explore a list of nodes by spawning a new child thread for each node selected,
-     * with the nodes that are expanded to explore.
-     * Implemented as a multi-threaded version of a right-linear tail-recursion.
+     * Updates the best solution lock-free.
      */
-    private final class ExploreBranch implements Runnable {
+    private void offer(Object/*>S<*/ solution, Real accumulatedCost) {
+        final Solution candidate = new Solution(solution, accumulatedCost);
+        for (Solution current = (Solution) best.get();
+             current == null || accumulatedCost.compareTo(current.accumulatedCost) < 0;
+             current = (Solution) best.get())
+            //@link orbital.util.Setops#argmin
+            if (best.compareAndSet(current, candidate))
+                break;
+    }
+
+    /**
+     * A solution along with its accumulated cost.
+     * Immutable.
+     */
+    private static final class Solution {
+        final Object/*>S<*/ solution;
+        final Real accumulatedCost;
+        Solution(Object/*>S<*/ solution, Real accumulatedCost) {
+            this.solution = solution;
+            this.accumulatedCost = accumulatedCost;
+        }
+    }
+
+    /**
+     * Explore a list of nodes depth-first, splitting off the oldest pending siblings as
+     * new tasks for other worker threads to steal.
+     * Implemented as an iterative unrolling of the recursion with an explicit stack.
+     */
+    private final class ExploreBranch extends RecursiveAction {
+        private static final long serialVersionUID = 6042366128541452946L;
+        /**
+         * The list of nodes to explore.
+         */
         private final Iterator/*<S>*/ nodes;
+        /**
+         * The node which nodes have been expanded from, or <code>null</code> for the root.
+         */
+        private final Object/*>S<*/ parent;
         /**
          * Explore a branch.
          * @param nodes the list of the nodes to explore.
+         * @param parent the node which nodes have been expanded from,
+         *  or <code>null</code> for the root.
          */
-        public ExploreBranch(Iterator/*<S>*/ nodes) {
+        public ExploreBranch(Iterator/*<S>*/ nodes, Object/*>S<*/ parent) {
             this.nodes = nodes;
+            this.parent = parent;
+        }
+
+        /**
+         * Whether the bound has improved such that this whole subtree is out of bounds.
+         */
+        boolean isStale() {
+            return parent != null && isOutOfBounds(parent);
         }
 
-        public final void run() {
+        protected void compute() {
+            if (isStale()) {
+                cancelCount.incrementAndGet();
+                return;
+            }
             final Function/*<S,Real>*/ g = getProblem().getAccumulatedCostFunction();
-            while (nodes.hasNext()) {
-                // this will lead to DepthFirstSearch selection, although we work on the expanded iterator, directly!
-                Object/*>S<*/ node = nodes.next();
+            // stack of the nodes still to explore, and of the parents they have been expanded from
+            final List/*<Iterator<S>>*/ stack = new ArrayList();
+            final List/*<S>*/ parents = new ArrayList();
+            final List/*<ExploreBranch>*/ forked = new ArrayList();
+            stack.add(nodes);
+            parents.add(parent);
+            long explored = 0;
+            while (!stack.isEmpty()) {
+                final Iterator/*<S>*/ top = (Iterator) stack.get(stack.size() - 1);
+                if (!top.hasNext()) {
+                    stack.remove(stack.size() - 1);
+                    parents.remove(parents.size() - 1);
+                    continue;
+                }
+                Object/*>S<*/ node = top.next();
+                explored++;
                 
                 if (isOutOfBounds(node))
                     continue;                                                                   // prune node
                         
                 if (getProblem().isSolution(node)) {
                     Object/*>S<*/ solution = processSolution(node);
-                    /*
-                    // non-synchronized unwrapping pre-check reduces synchronization overhead (*) @see #bestSolutionLock
-                    if (bestSolution == null || solution.compareTo(bestSolution) < 0)
-                    synchronized(bestSolutionLock) {
-                    // comparison is not necessary for BranchAndBound(!), but its more safe to
-                    // synchronized Double-checked locking to ensure concurrent thread-safety (*) @see #bestSolutionLock
-                    if (bestSolution == null || solution.compareTo(bestSolution) < 0)
-                    bestSolution = solution;
-                    }
-                    */
-                    final Real accumulatedCost = castedApply(g, solution);
-                    synchronized(bestSolutionLock) {
-                        // comparison is not necessary for BranchAndBound(!), but its more safe to
-                        // no Double-checked locking due to errors until after new semantics @see #bestSolution
-                        //@link orbital.util.Setops#argmin
-                        if (bestSolution == null || accumulatedCost.compareTo(bestAccumulatedCost) < 0) {
-                            bestSolution = solution;
-                            bestAccumulatedCost = accumulatedCost;
-                        }
+                    offer(solution, castedApply(g, solution));
+                }
+                stack.add(expand(getProblem(), node));
+                parents.add(node);
+
+                // offer the oldest pending siblings to idle workers
+                if (stack.size() > 1 && getSurplusQueuedTaskCount() < SURPLUS_THRESHOLD) {
+                    final Iterator/*<S>*/ oldest = (Iterator) stack.remove(0);
+                    final Object/*>S<*/ oldestParent = parents.remove(0);
+                    if (oldest.hasNext()) {
+                        ExploreBranch child = new ExploreBranch(oldest, oldestParent);
+                        child.fork();
+                        forked.add(child);
                     }
                 }
-                Iterator/*<S>*/ children = expand(getProblem(), node);
-                // since nodes implementation is a Stack (DepthFirstSearch)
-                // we don't need to add and pass the rest of nodes on the child threads.
-                Runnable child = new ExploreBranch(children);
-                if (nodes.hasNext())
-                    //TODO: could use a n-sized "singleton" ThreadPool coordinating threads such that at most n are running
-                    // this would lead to an enormous decrease of thread construction and improve performance
-                    new Thread(child).start();
+            }
+            nodeCount.addAndGet(explored);
+
+            for (int i = forked.size() - 1; i >= 0; i--) {
+                final ExploreBranch child = (ExploreBranch) forked.get(i);
+                // cancel stale subtrees that have not been started or stolen, yet
+                if (child.isStale() && child.tryUnfork())
+                    cancelCount.incrementAndGet();
                 else
-                    // reuse this thread for join to work efficiently, and performance reasons
-                    child.run();
+                    child.join();
             }
         }
     }
-
-    //  protected Option search(Collection nodes) {
-    //          return search(nodes.iterator());
-    //  }
 }
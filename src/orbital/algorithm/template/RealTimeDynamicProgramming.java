@@ -99,7 +99,8 @@ public class RealTimeDynamicProgramming/*<A,S,M extends MarkovDecisionProblem.Tr
 
                     // update U(s) (alias backup)
                     U.set(state, p.getB());
-                    logger.log(Level.FINER, "RTDP", "  U(" + state + ")\t:= " + p.getB());
+                    if (logger.isLoggable(Level.FINER))
+                        logger.log(Level.FINER, "  U({0})\t:= {1}", new Object[] {state, p.getB()});
 
                     // return the action chosen to take
                     return p.getA();
@@ -0,0 +1,653 @@
+/**
+ * @(#)ValueIteration.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.algorithm.template;
+import orbital.algorithm.template.MarkovDecisionProblem.Transition;
+
+import orbital.logic.functor.Function;
+import orbital.math.Real;
+import orbital.math.Values;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import java.util.logging.Logger;
+import java.util.logging.Level;
+
+/**
+ * Value iteration on a compiled Markov decision problem.
+ * <p>
+ * Performs the same value iteration as {@link GaussSeidelDynamicProgramming}
+ * <center class="Formula">
+ *   U(s) := min<sub>a&isin;A(s)</sub> Q<sub>U</sub>(s,a) = min<sub>a&isin;A(s)</sub> <big>(</big>c(s,a) + &gamma;*&sum;<sub>t&isin;S</sub> P<sub>a</sub>(t|s) * U(t)<big>)</big>
+ * </center>
+ * on all states until the values change by less than the tolerance,
+ * but first compiles the problem:
+ * The states are enumerated once, the actions and transitions of each state are stored
+ * in compressed arrays indexed by the numbers of the states, and the utilities U are kept in
+ * an array of primitive values.
+ * Successor states that are not among the states specified keep their heuristic values.
+ * </p>
+ * <p>
+ * The states can be updated in one of the following orders:
+ * <dl>
+ *   <dt>{@link #GAUSS_SEIDEL}</dt>
+ *   <dd>sweeps through all states in the order specified, using the updated values immediately.</dd>
+ *   <dt>{@link #JACOBI}</dt>
+ *   <dd>sweeps through all states computing the new values from the values of the previous sweep, only.
+ *     This requires more sweeps than Gau&szlig;-Seidel, but the states of each sweep can be updated in parallel.</dd>
+ *   <dt>{@link #PRIORITIZED_SWEEPING}</dt>
+ *   <dd>updates the state with the largest Bellman residual |min<sub>a&isin;A(s)</sub> Q<sub>U</sub>(s,a) - U(s)|, next.
+ *     Updating a state increases the bounds on the residuals of its predecessors by the discounted change of its value,
+ *     weighted with the probability of reaching it.
+ *     This concentrates the updates on the states whose values still change.</dd>
+ * </dl>
+ * After planning, the number of sweeps and backups, and the remaining residual are available as convergence metrics.
+ * </p>
+ *
+ * @invariants getDiscount()&isin;[0,1]
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ * @see GaussSeidelDynamicProgramming
+ * @see "A. W. Moore and C. G. Atkeson. Prioritized sweeping: reinforcement learning with less data and less time. <i>Machine Learning</i>, 13:103-130, 1993."
+ * @see "D. P. Bertsekas and J. N. Tsitsiklis. Parallel and Distributed Computation: Numerical Methods. Prentice-Hall, Englewood Cliffs, NJ, 1989."
+ */
+public class ValueIteration/*<A,S,M extends MarkovDecisionProblem.Transition>*/
+    extends MarkovDecisionProcess.DynamicProgramming/*<A,S,M>*/
+    implements HeuristicAlgorithm/*<MarkovDecisionProblem<A,S,M>,S>*/ {
+    private static final long serialVersionUID = -1390442906251633175L;
+    private static final Logger logger = Logger.getLogger(ValueIteration.class.getName());
+
+    /**
+     * Update states in sweeps using updated values immediately.
+     */
+    public static final int GAUSS_SEIDEL = 0;
+    /**
+     * Update states in parallel sweeps using the values of the previous sweep.
+     */
+    public static final int JACOBI = 1;
+    /**
+     * Update the state with the largest residual first.
+     */
+    public static final int PRIORITIZED_SWEEPING = 2;
+
+    /**
+     * The minimum number of states updated by a single task of a parallel sweep.
+     */
+    private static final int MIN_TASK_STATES = 1 << 10;
+
+    /**
+     * the tolerance value below which the evaluation function is considered
+     *  to have converged.
+     * @serial
+     */
+    private double tolerance;
+    /**
+     * the full set S of <em>all</em> states of the problem.
+     * @serial
+     */
+    private Collection/*<S>*/ states;
+    /**
+     * the order of updates.
+     * @serial
+     */
+    private int sweep;
+    /**
+     * The number of worker threads to use for Jacobi sweeps.
+     * @serial
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    /**
+     * The number of sweeps during the last planning.
+     * @serial
+     */
+    private int sweepCount;
+    /**
+     * The number of backups of single states during the last planning.
+     * @serial
+     */
+    private long backupCount;
+    /**
+     * The maximum change of a value during the last sweep of the last planning.
+     * @serial
+     */
+    private double residual;
+
+    /**
+     * @param states the full set S of <em>all</em> states of the problem.
+     * @param tolerance the tolerance value below which the evaluation function is considered
+     *  to have converged.
+     * @param sweep the order of updates, one of {@link #GAUSS_SEIDEL}, {@link #JACOBI}, or {@link #PRIORITIZED_SWEEPING}.
+     */
+    public ValueIteration(Function/*<S,Real>*/ heuristic, Collection/*<S>*/ states, double tolerance, int sweep) {
+        super(heuristic);
+        this.states = states;
+        this.tolerance = tolerance;
+        setSweep(sweep);
+    }
+    /**
+     * Value iteration with Gau&szlig;-Seidel sweeps.
+     * @param states the full set S of <em>all</em> states of the problem.
+     * @param tolerance the tolerance value below which the evaluation function is considered
+     *  to have converged.
+     */
+    public ValueIteration(Function/*<S,Real>*/ heuristic, Collection/*<S>*/ states, double tolerance) {
+        this(heuristic, states, tolerance, GAUSS_SEIDEL);
+    }
+
+    /**
+     * Get the order of updates.
+     */
+    public int getSweep() {
+        return sweep;
+    }
+
+    /**
+     * Set the order of updates.
+     * @param sweep one of {@link #GAUSS_SEIDEL}, {@link #JACOBI}, or {@link #PRIORITIZED_SWEEPING}.
+     */
+    public void setSweep(int sweep) {
+        if (sweep != GAUSS_SEIDEL && sweep != JACOBI && sweep != PRIORITIZED_SWEEPING)
+            throw new IllegalArgumentException("illegal sweep " + sweep);
+        this.sweep = sweep;
+    }
+
+    /**
+     * Get the number of worker threads to use for Jacobi sweeps.
+     * Defaults to the number of available processors.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set the number of worker threads to use for Jacobi sweeps.
+     * @param parallelism the (positive) maximum number of threads updating in parallel.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("positive parallelism expected: " + parallelism);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Get the number of sweeps through all states during the last planning.
+     * Prioritized sweeping only sweeps for computing the initial and the final residuals.
+     */
+    public int getSweepCount() {
+        return sweepCount;
+    }
+
+    /**
+     * Get the number of backups of single states during the last planning.
+     */
+    public long getBackupCount() {
+        return backupCount;
+    }
+
+    /**
+     * Get the residual after the last planning.
+     * @return the maximum change of the value of a state during the last sweep.
+     *  For prioritized sweeping, the maximum Bellman residual after the last update.
+     */
+    public double getResidual() {
+        return residual;
+    }
+
+    protected Function/*<S,A>*/ plan() {
+        final Model model = new Model(getProblem(), states, getEvaluation(), getDiscount().doubleValue());
+        double U[] = model.initialValues();
+        sweepCount = 0;
+        backupCount = 0;
+        switch (sweep) {
+        case GAUSS_SEIDEL:
+            gaussSeidel(model, U);
+            break;
+        case JACOBI:
+            U = jacobi(model, U);
+            break;
+        case PRIORITIZED_SWEEPING:
+            prioritizedSweeping(model, U);
+            break;
+        default:
+            throw new AssertionError("illegal sweep " + sweep);
+        }
+        if (logger.isLoggable(Level.FINE))
+            logger.log(Level.FINE, "converged after {0} sweeps and {1} backups of {2} states to residual {3}", new Object[] {new java.lang.Integer(sweepCount), new java.lang.Long(backupCount), new java.lang.Integer(model.size), new java.lang.Double(residual)});
+        return model.policy(U, getGreedyPolicy(getActionValue(model.values(U))));
+    }
+
+    private void gaussSeidel(Model model, double U[]) {
+        double delta;
+        do {
+            delta = 0;
+            for (int s = 0; s < model.size; s++) {
+                if (!model.hasActions(s))
+                    continue;
+                final double old = U[s];
+                U[s] = model.backup(s, U);
+                delta = Math.max(delta, Math.abs(old - U[s]));
+            }
+            sweepCount++;
+            backupCount += model.size;
+            logSweep(delta);
+        } while (!(delta < tolerance));
+        residual = delta;
+    }
+
+    /**
+     * @return the array with the final values.
+     */
+    private double[] jacobi(final Model model, double U[]) {
+        double V[] = (double[]) U.clone();
+        final ForkJoinPool pool = parallelism > 1 && model.size > MIN_TASK_STATES ? new ForkJoinPool(parallelism) : null;
+        try {
+            double delta;
+            do {
+                final Sweep task = new Sweep(model, U, V, 0, model.size);
+                delta = ((java.lang.Double) (pool != null ? pool.invoke(task) : task.compute())).doubleValue();
+                final double t[] = U;
+                U = V;
+                V = t;
+                sweepCount++;
+                backupCount += model.size;
+                logSweep(delta);
+            } while (!(delta < tolerance));
+            residual = delta;
+        }
+        finally {
+            if (pool != null)
+                pool.shutdownNow();
+        }
+        return U;
+    }
+
+    /**
+     * A Jacobi sweep over a range of states, split into parallel tasks.
+     * @return the maximum change of a value in the range.
+     */
+    private static class Sweep extends RecursiveTask/*<Double>*/ {
+        private static final long serialVersionUID = -1820541307626311426L;
+        private final Model model;
+        private final double U[];
+        private final double V[];
+        private final int low;
+        private final int high;
+        public Sweep(Model model, double U[], double V[], int low, int high) {
+            this.model = model;
+            this.U = U;
+            this.V = V;
+            this.low = low;
+            this.high = high;
+        }
+        protected Object/*>Double<*/ compute() {
+            if (high - low <= MIN_TASK_STATES) {
+                double delta = 0;
+                for (int s = low; s < high; s++) {
+                    if (!model.hasActions(s))
+                        continue;
+                    V[s] = model.backup(s, U);
+                    delta = Math.max(delta, Math.abs(V[s] - U[s]));
+                }
+                return new java.lang.Double(delta);
+            }
+            final int mid = (low + high) >>> 1;
+            final Sweep left = new Sweep(model, U, V, low, mid);
+            left.fork();
+            final double delta = ((java.lang.Double) new Sweep(model, U, V, mid, high).compute()).doubleValue();
+            return new java.lang.Double(Math.max(delta, ((java.lang.Double) left.join()).doubleValue()));
+        }
+    }
+
+    private void prioritizedSweeping(Model model, double U[]) {
+        final double weight[][] = new double[model.size][];
+        final int predecessors[][] = model.predecessors(weight);
+        // indexed max-heap of the states by upper bounds of their residuals
+        final int heap[] = new int[model.size];
+        final int position[] = new int[model.size];
+        final double priority[] = new double[model.size];
+        Arrays.fill(position, -1);
+        int size = 0;
+        for (int s = 0; s < model.size; s++) {
+            if (!model.hasActions(s))
+                continue;
+            priority[s] = Math.abs(model.backup(s, U) - U[s]);
+            if (priority[s] >= tolerance) {
+                heap[size] = s;
+                position[s] = size;
+                siftUp(heap, position, priority, size++);
+            }
+        }
+        sweepCount++;
+        backupCount += model.size;
+        while (size > 0) {
+            final int s = heap[0];
+            position[s] = -1;
+            if (--size > 0) {
+                heap[0] = heap[size];
+                position[heap[0]] = 0;
+                siftDown(heap, position, priority, size, 0);
+            }
+            final double old = U[s];
+            U[s] = model.backup(s, U);
+            priority[s] = 0;
+            backupCount++;
+            // the residual of each predecessor grows by at most the discounted change weighted with its probability
+            final double change = model.gamma * Math.abs(U[s] - old);
+            final int pred[] = predecessors[s];
+            for (int i = 0; i < pred.length; i++) {
+                final int p = pred[i];
+                priority[p] += weight[s][i] * change;
+                if (position[p] >= 0)
+                    siftUp(heap, position, priority, position[p]);
+                else if (priority[p] >= tolerance) {
+                    heap[size] = p;
+                    position[p] = size;
+                    siftUp(heap, position, priority, size++);
+                }
+            }
+        }
+        // final residual
+        double delta = 0;
+        for (int s = 0; s < model.size; s++)
+            if (model.hasActions(s))
+                delta = Math.max(delta, Math.abs(model.backup(s, U) - U[s]));
+        sweepCount++;
+        backupCount += model.size;
+        residual = delta;
+    }
+
+    private static void siftUp(int heap[], int position[], double priority[], int i) {
+        final int s = heap[i];
+        while (i > 0) {
+            final int parent = (i - 1) >> 1;
+            if (!(priority[heap[parent]] < priority[s]))
+                break;
+            heap[i] = heap[parent];
+            position[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = s;
+        position[s] = i;
+    }
+
+    private static void siftDown(int heap[], int position[], double priority[], int size, int i) {
+        final int s = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && priority[heap[child + 1]] > priority[heap[child]])
+                child++;
+            if (!(priority[heap[child]] > priority[s]))
+                break;
+            heap[i] = heap[child];
+            position[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = s;
+        position[s] = i;
+    }
+
+    private void logSweep(double delta) {
+        if (logger.isLoggable(Level.FINER))
+            logger.log(Level.FINER, "sweep {0} changed values by at most {1}", new Object[] {new java.lang.Integer(sweepCount), new java.lang.Double(delta)});
+    }
+
+    /**
+     * A Markov decision problem compiled into arrays.
+     * The states are numbered, with the states to update first, followed by their other successors.
+     * The actions of state s are actions[actionStart[s]],...,actions[actionStart[s+1]-1],
+     * and the outcomes of action a are successor[outcomeStart[a]],... with their probabilities.
+     */
+    private static final class Model {
+        /**
+         * The problem compiled.
+         */
+        final MarkovDecisionProblem/*<A,S,M>*/ problem;
+        /**
+         * The heuristic function for the initial values.
+         */
+        final Function/*<S,Real>*/ heuristic;
+        /**
+         * The discount factor &gamma;.
+         */
+        final double gamma;
+        /**
+         * The number of states to update.
+         */
+        final int size;
+        /**
+         * Maps states to their numbers.
+         */
+        final Map/*<S,Integer>*/ ids = new HashMap();
+        /**
+         * The states by their numbers, including successor states that are not updated.
+         */
+        final List/*<S>*/ states = new ArrayList();
+        final int actionStart[];
+        final Object/*>A<*/ actions[];
+        final double cost[];
+        final int outcomeStart[];
+        final int successor[];
+        final double probability[];
+
+        Model(MarkovDecisionProblem/*<A,S,M>*/ problem, Collection/*<S>*/ S, Function/*<S,Real>*/ heuristic, double gamma) {
+            this.problem = problem;
+            this.heuristic = heuristic;
+            this.gamma = gamma;
+            for (Iterator i = S.iterator(); i.hasNext(); )
+                id(i.next());
+            this.size = states.size();
+            final List/*<A>*/ actionList = new ArrayList();
+            final List/*<Real>*/ costList = new ArrayList();
+            int outcomeStart[] = new int[16];
+            int successor[] = new int[16];
+            double probability[] = new double[16];
+            int outcomes = 0;
+            this.actionStart = new int[size + 1];
+            for (int s = 0; s < size; s++) {
+                final Object/*>S<*/ state = states.get(s);
+                actionStart[s] = actionList.size();
+                for (Iterator/*<A>*/ i = problem.actions(state); i.hasNext(); ) {
+                    final Object/*>A<*/ action = i.next();
+                    if (actionList.size() + 1 >= outcomeStart.length)
+                        outcomeStart = grow(outcomeStart);
+                    outcomeStart[actionList.size()] = outcomes;
+                    Real c = null;
+                    for (Iterator/*<S>*/ r = problem.states(action, state); r.hasNext(); ) {
+                        final Object/*>S<*/ sp = r.next();
+                        final Transition/*<A,S,M>*/ t = (Transition) problem.transition(action, state, sp);
+                        if (outcomes == successor.length) {
+                            successor = grow(successor);
+                            final double p[] = new double[2 * probability.length];
+                            System.arraycopy(probability, 0, p, 0, outcomes);
+                            probability = p;
+                        }
+                        successor[outcomes] = id(sp);
+                        probability[outcomes] = ((Number) t.getProbability()).doubleValue();
+                        outcomes++;
+                        c = t.getCost();
+                    }
+                    actionList.add(action);
+                    costList.add(c);
+                }
+            }
+            actionStart[size] = actionList.size();
+            outcomeStart[actionList.size()] = outcomes;
+            this.actions = actionList.toArray();
+            this.cost = new double[actions.length];
+            for (int a = 0; a < cost.length; a++)
+                cost[a] = ((Number) costList.get(a)).doubleValue();
+            this.outcomeStart = new int[actions.length + 1];
+            System.arraycopy(outcomeStart, 0, this.outcomeStart, 0, actions.length + 1);
+            this.successor = new int[outcomes];
+            System.arraycopy(successor, 0, this.successor, 0, outcomes);
+            this.probability = new double[outcomes];
+            System.arraycopy(probability, 0, this.probability, 0, outcomes);
+        }
+
+        private static int[] grow(int a[]) {
+            final int b[] = new int[2 * a.length];
+            System.arraycopy(a, 0, b, 0, a.length);
+            return b;
+        }
+
+        /**
+         * Get the number of a state, numbering it if it is new.
+         */
+        private int id(Object/*>S<*/ state) {
+            final java.lang.Integer id = (java.lang.Integer) ids.get(state);
+            if (id != null)
+                return id.intValue();
+            final int s = states.size();
+            ids.put(state, new java.lang.Integer(s));
+            states.add(state);
+            return s;
+        }
+
+        boolean hasActions(int s) {
+            return actionStart[s] < actionStart[s + 1];
+        }
+
+        /**
+         * The heuristic values of all states.
+         */
+        double[] initialValues() {
+            final double U[] = new double[states.size()];
+            for (int s = 0; s < U.length; s++)
+                U[s] = ((Number) heuristic.apply(states.get(s))).doubleValue();
+            return U;
+        }
+
+        /**
+         * Get the action-value cost Q<sub>U</sub>(s,a).
+         */
+        double actionValue(int a, double U[]) {
+            double q = 0;
+            for (int o = outcomeStart[a]; o < outcomeStart[a + 1]; o++)
+                q += probability[o] * U[successor[o]];
+            return cost[a] + gamma * q;
+        }
+
+        /**
+         * Get min<sub>a&isin;A(s)</sub> Q<sub>U</sub>(s,a).
+         * @preconditions hasActions(s)
+         */
+        double backup(int s, double U[]) {
+            double best = actionValue(actionStart[s], U);
+            for (int a = actionStart[s] + 1; a < actionStart[s + 1]; a++)
+                best = Math.min(best, actionValue(a, U));
+            return best;
+        }
+
+        /**
+         * Get the first action a&isin;A(s) with minimal Q<sub>U</sub>(s,a).
+         * @preconditions hasActions(s)
+         */
+        int argmin(int s, double U[]) {
+            int arg = actionStart[s];
+            double best = actionValue(arg, U);
+            for (int a = arg + 1; a < actionStart[s + 1]; a++) {
+                final double q = actionValue(a, U);
+                if (q < best) {
+                    best = q;
+                    arg = a;
+                }
+            }
+            return arg;
+        }
+
+        /**
+         * Get the predecessors of each state to update, without duplicates.
+         * @param weight the array in which to return the maximum probability of reaching a state from each of its predecessors.
+         */
+        int[][] predecessors(double weight[][]) {
+            final int count[] = new int[size];
+            final int last[] = new int[size];
+            Arrays.fill(last, -1);
+            for (int s = 0; s < size; s++)
+                for (int o = outcomeStart[actionStart[s]]; o < outcomeStart[actionStart[s + 1]]; o++) {
+                    final int t = successor[o];
+                    if (t < size && last[t] != s) {
+                        last[t] = s;
+                        count[t]++;
+                    }
+                }
+            final int predecessors[][] = new int[size][];
+            for (int t = 0; t < size; t++) {
+                predecessors[t] = new int[count[t]];
+                weight[t] = new double[count[t]];
+                count[t] = 0;
+            }
+            Arrays.fill(last, -1);
+            for (int s = 0; s < size; s++)
+                for (int o = outcomeStart[actionStart[s]]; o < outcomeStart[actionStart[s + 1]]; o++) {
+                    final int t = successor[o];
+                    if (t >= size)
+                        continue;
+                    if (last[t] != s) {
+                        last[t] = s;
+                        predecessors[t][count[t]++] = s;
+                    }
+                    weight[t][count[t] - 1] = Math.max(weight[t][count[t] - 1], probability[o]);
+                }
+            return predecessors;
+        }
+
+        /**
+         * Get the evaluation function U:S&rarr;<b>R</b> of the values of the states, and heuristic values for other states.
+         */
+        Function/*<S,Real>*/ values(final double U[]) {
+            return new Function/*<S,Real>*/() {
+                    public Object/*>Real<*/ apply(Object/*>S<*/ state) {
+                        final java.lang.Integer s = (java.lang.Integer) ids.get(state);
+                        return s != null
+                            ? Values.getDefaultInstance().valueOf(U[s.intValue()])
+                            : heuristic.apply(state);
+                    }
+                };
+        }
+
+        /**
+         * Get the greedy policy with respect to the values U.
+         * @param greedy the greedy policy for states other than those to update.
+         */
+        Function/*<S,A>*/ policy(final double U[], final Function/*<S,A>*/ greedy) {
+            return new Function/*<S,A>*/() {
+                    public Object/*>A<*/ apply(Object/*>S<*/ state) {
+                        final java.lang.Integer s = (java.lang.Integer) ids.get(state);
+                        return s != null && s.intValue() < size && hasActions(s.intValue())
+                            ? actions[argmin(s.intValue(), U)]
+                            : greedy.apply(state);
+                    }
+                };
+        }
+    }
+
+    public orbital.math.functional.Function complexity() {
+        return orbital.math.functional.Functions.constant(orbital.math.Values.getDefault().POSITIVE_INFINITY());
+    }
+
+    /**
+     * Linear in the size of the compiled problem.
+     * @return the identity, for the size
+     *  n = |S| + &sum;<sub>s&isin;S</sub> |A(s)| + &sum;<sub>s&isin;S,a&isin;A(s)</sub> |{t &brvbar; P<sub>a</sub>(t|s)&gt;0}|
+     *  of the compiled problem with its states, actions and outcomes.
+     *  The values, the predecessors for prioritized sweeping, and the second values of Jacobi sweeps fit into this size as well.
+     */
+    public orbital.math.functional.Function spaceComplexity() {
+        return orbital.math.functional.Functions.id;
+    }
+}
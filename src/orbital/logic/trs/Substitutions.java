@@ -6,6 +6,7 @@
 
 package orbital.logic.trs;
 import orbital.moon.logic.bridge.SubstitutionImpl;
+import orbital.moon.logic.bridge.Rewriter;
 import orbital.logic.trs.Substitution.Matcher;
 
 import orbital.logic.Composite;
@@ -278,6 +279,26 @@ public class Substitutions {
         return new SubstitutionImpl.UnifyingMatcher(pattern);
     }
 
+    /**
+     * Create a new rewriter that rewrites terms to normal form with a term rewrite system.
+     * <p>
+     * The rewriter applies the elementary replacements of <code>trs</code>
+     * until none of them matches anywhere, just like the fixed point
+     * <code>{@link orbital.logic.functor.Functionals#fixedPoint(Function,Object) Functionals.fixedPoint}(trs, t)</code>,
+     * but in a single pass over the term. Rules are indexed by the head symbols of their patterns,
+     * and normal forms of (shared) sub terms are only computed once.
+     * Since the order of rewrites differs, the normal forms of term rewrite systems
+     * that are not confluent may differ from those of the fixed point.
+     * </p>
+     * @param trs the term rewrite system to rewrite with.
+     * @return the normal form function of <code>trs</code>.
+     *  It will throw an {@link orbital.logic.IterationLimitException} if the rewrite does not seem to terminate.
+     * @see <a href="{@docRoot}/Patterns/Design/FacadeFactory.html">&quot;FacadeFactory&quot;</a>
+     */
+    public static final Function/*<Object,Object>*/ createRewriter(Substitution trs) {
+        return new Rewriter(trs);
+    }
+
     // Substitution operations
         
     /**
@@ -602,8 +623,7 @@ public class Substitutions {
     }
     /**
      * @todo generalize on sets and not only two terms t1, t2
-     * @todo could possibly implement the almost linear unification algorithm
-     * @todo 21 use a context binding list for t1 and t2 (instead of explicitly applying substitutions in advance) and/or term sharing to improve performance
+     * @see orbital.moon.logic.bridge.Unifier for the almost linear unification algorithm, and for unification with binding lists on shared terms.
      */
     static final Substitution unify(Object t1, Object t2) {
         try {
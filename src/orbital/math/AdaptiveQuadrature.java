@@ -0,0 +1,361 @@
+/**
+ * @(#)AdaptiveQuadrature.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.math;
+
+import orbital.moon.GetPropertyAction;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Logger;
+import java.util.logging.Level;
+
+/**
+ * Adaptive Gauss-Kronrod quadrature on primitive doubles.
+ * <p>
+ * Each subinterval is integrated with the 15 point Kronrod rule, whose difference to the embedded
+ * 7 point Gauss rule estimates the error. The subintervals with the largest error estimates are
+ * bisected until the sum of the error estimates is within tolerance,
+ * or within the rounding errors of the Kronrod rule, whichever is larger.
+ * Infinite intervals are transformed to finite intervals before.
+ * </p>
+ * <p>
+ * The subintervals are kept in a priority queue ordered by their error estimates.
+ * Several subintervals are bisected in one round, as long as the remaining error would not
+ * already be within tolerance. For expensive integrands, the halves of one round are evaluated
+ * in parallel on a fork/join pool. Since the rounds do not depend on whether they are evaluated
+ * in parallel or not, the results are the same either way.
+ * </p>
+ * <p>
+ * The behaviour can be configured via the system properties
+ * <code>orbital.math.AdaptiveQuadrature.limit</code> (maximum number of subintervals),
+ * <code>orbital.math.AdaptiveQuadrature.parallelThreshold</code> (nanoseconds that one rule needs at least
+ * for parallel evaluation),
+ * and <code>orbital.math.AdaptiveQuadrature.parallelism</code> (number of worker threads).
+ * </p>
+ *
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ * @see NumericalAlgorithms#integrate(NumericalAlgorithms.RealFunction,double,double,double,double[])
+ * @internal The rule and its error estimate are those of QK15 of QUADPACK.
+ */
+final class AdaptiveQuadrature {
+    private static final Logger logger = Logger.getLogger(AdaptiveQuadrature.class.getName());
+    /**
+     * prevent instantiation - module class
+     */
+    private AdaptiveQuadrature() {}
+
+    /**
+     * The maximum number of subintervals.
+     * @invariants LIMIT &gt; 0
+     */
+    private static final int LIMIT = intProperty("limit", 2000);
+    /**
+     * The time in nanoseconds that the evaluation of one rule needs at least for parallel evaluation.
+     */
+    private static final long PARALLEL_THRESHOLD = intProperty("parallelThreshold", 50000);
+    /**
+     * The maximum number of subintervals bisected in one round.
+     */
+    private static final int BATCH_SIZE = 8;
+
+    /**
+     * The relative machine precision.
+     */
+    private static final double EPSILON = Math.ulp(1.0);
+
+    /**
+     * The abscissae of the 15 point Kronrod rule on [-1,1].
+     * xgk[1], xgk[3], xgk[5] are the abscissae of the 7 point Gauss rule,
+     * the others are optimally added. Only the non-negative half of the symmetric abscissae is listed.
+     */
+    private static final double xgk[] = {
+        0.991455371120812639206854697526329,
+        0.949107912342758524526189684047851,
+        0.864864423359769072789712788640926,
+        0.741531185599394439863864773280788,
+        0.586087235467691130294144845693013,
+        0.405845151377397166906606412076961,
+        0.207784955007898467600689403773245,
+        0.000000000000000000000000000000000
+    };
+    /**
+     * The weights of the 15 point Kronrod rule.
+     */
+    private static final double wgk[] = {
+        0.022935322010529224963732008058970,
+        0.063092092629978553290700663189204,
+        0.104790010322250183839876322541518,
+        0.140653259715525918745189590510238,
+        0.169004726639267902826583426598550,
+        0.190350578064785409913256402421014,
+        0.204432940075298892414161999234649,
+        0.209482141084727828012999174891714
+    };
+    /**
+     * The weights of the 7 point Gauss rule.
+     */
+    private static final double wg[] = {
+        0.129484966168869693270611432679082,
+        0.279705391489276667901467771423780,
+        0.381830050505118944950369775488975,
+        0.417959183673469387755102040816327
+    };
+
+    /**
+     * The fork/join pool evaluating subintervals in parallel, created lazily.
+     */
+    private static ForkJoinPool pool = null;
+
+    private static int intProperty(String name, int defaultValue) {
+        final String property = AdaptiveQuadrature.class.getName() + "." + name;
+        try {
+            final String desc = GetPropertyAction.getProperty(property, defaultValue + "");
+            final int value = java.lang.Integer.parseInt(desc);
+            if (value > 0)
+                return value;
+            logger.log(Level.SEVERE, "invalid property setting {0}={1}" , new Object[] {property, desc});
+        } catch (NumberFormatException nonumber) {
+            logger.log(Level.SEVERE, "invalid property setting {0}" , property);
+        } catch (SecurityException nevertheless) {
+            // especially catch SecurityExceptions if we were not allowed to read properties
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Get the fork/join pool used for evaluating subintervals in parallel.
+     */
+    private static synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            final int parallelism = intProperty("parallelism", Runtime.getRuntime().availableProcessors());
+            logger.log(Level.CONFIG, "adaptive quadrature with parallelism {0}", new java.lang.Integer(parallelism));
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    /**
+     * Returns &asymp; &int;<span class="doubleIndex"><sub>a</sub><sup>b</sup></span> f <i>d</i>x.
+     * @param a the lower bound, which may be -&infin;.
+     * @param b the upper bound, which may be +&infin;.
+     * @param tolerance the tolerance &epsilon; for both the absolute and the relative error.
+     * @param error if not <code>null</code>, error[0] will be set to the estimate of the absolute error.
+     * @throws ArithmeticException if the tolerance could not be reached.
+     * @see NumericalAlgorithms#integrate(NumericalAlgorithms.RealFunction,double,double,double,double[])
+     */
+    static double integrate(final NumericalAlgorithms.RealFunction f, final double a, final double b, double tolerance, double error[]) {
+        if (Double.isNaN(a) || Double.isNaN(b))
+            throw new IllegalArgumentException("no integration bounds [" + a + "," + b + "]");
+        if (!(tolerance >= 0))
+            throw new IllegalArgumentException("non-negative tolerance expected: " + tolerance);
+        if (a == b) {
+            if (error != null)
+                error[0] = 0;
+            return 0;
+        } else if (a > b)
+            return -integrate(f, b, a, tolerance, error);
+
+        final boolean lowerInfinite = Double.isInfinite(a), upperInfinite = Double.isInfinite(b);
+        if (lowerInfinite && upperInfinite)
+            // x = t/(1-t^2) with dx = (1+t^2)/(1-t^2)^2 dt
+            return adaptive(new NumericalAlgorithms.RealFunction() {
+                    public double apply(double t) {
+                        final double s = 1 / (1 - t * t);
+                        return f.apply(t * s) * (1 + t * t) * s * s;
+                    }
+                }, -1, 1, tolerance, error);
+        else if (upperInfinite)
+            // x = a + t/(1-t) with dx = 1/(1-t)^2 dt
+            return adaptive(new NumericalAlgorithms.RealFunction() {
+                    public double apply(double t) {
+                        final double s = 1 / (1 - t);
+                        return f.apply(a + t * s) * s * s;
+                    }
+                }, 0, 1, tolerance, error);
+        else if (lowerInfinite)
+            // x = b - t/(1-t) with dx = -1/(1-t)^2 dt
+            return adaptive(new NumericalAlgorithms.RealFunction() {
+                    public double apply(double t) {
+                        final double s = 1 / (1 - t);
+                        return f.apply(b - t * s) * s * s;
+                    }
+                }, 0, 1, tolerance, error);
+        else
+            return adaptive(f, a, b, tolerance, error);
+    }
+
+    /**
+     * Adaptively integrates f on the finite interval [a,b].
+     */
+    private static double adaptive(NumericalAlgorithms.RealFunction f, double a, double b, double tolerance, double error[]) {
+        final long start = System.nanoTime();
+        final Interval whole = new Interval(a, b);
+        whole.evaluate(f);
+        final boolean parallel = System.nanoTime() - start >= PARALLEL_THRESHOLD && pool().getParallelism() > 1;
+        final PriorityQueue/*<Interval>*/ queue = new PriorityQueue();
+        queue.add(whole);
+        double result = whole.value;
+        double abserr = whole.error;
+        double resabs = whole.absolute;
+        final Interval split[] = new Interval[BATCH_SIZE];
+        final Interval halves[] = new Interval[2 * BATCH_SIZE];
+        while (!(abserr <= bound(tolerance, result, resabs))) {
+            if (Double.isNaN(abserr) || Double.isInfinite(abserr))
+                throw new ArithmeticException("integrand is not finite on [" + a + "," + b + "]");
+            // recompute the sums to get rid of accumulated rounding
+            result = 0;
+            abserr = 0;
+            resabs = 0;
+            for (java.util.Iterator i = queue.iterator(); i.hasNext(); ) {
+                final Interval r = (Interval) i.next();
+                result += r.value;
+                abserr += r.error;
+                resabs += r.absolute;
+            }
+            if (abserr <= bound(tolerance, result, resabs))
+                break;
+            if (queue.size() >= LIMIT)
+                throw new ArithmeticException("integral does not converge within " + LIMIT + " subintervals with error estimate " + abserr + " of " + result);
+            // bisect the worst subintervals as long as they are necessary to reach the tolerance
+            int n = 0;
+            double remaining = abserr;
+            do {
+                final Interval r = (Interval) queue.poll();
+                final double mid = 0.5 * (r.left + r.right);
+                if (!(r.left < mid && mid < r.right))
+                    throw new ArithmeticException("integral does not converge up to machine precision with error estimate " + abserr + " of " + result + " at " + mid);
+                split[n] = r;
+                halves[2 * n] = new Interval(r.left, mid);
+                halves[2 * n + 1] = new Interval(mid, r.right);
+                remaining -= r.error;
+                n++;
+            } while (n < BATCH_SIZE && !queue.isEmpty() && queue.size() + 2 * n < LIMIT && remaining > bound(tolerance, result, resabs));
+            if (parallel)
+                evaluate(f, halves, 2 * n);
+            else
+                for (int i = 0; i < 2 * n; i++)
+                    halves[i].evaluate(f);
+            for (int i = 0; i < n; i++) {
+                result += halves[2 * i].value + halves[2 * i + 1].value - split[i].value;
+                abserr += halves[2 * i].error + halves[2 * i + 1].error - split[i].error;
+                resabs += halves[2 * i].absolute + halves[2 * i + 1].absolute - split[i].absolute;
+                queue.add(halves[2 * i]);
+                queue.add(halves[2 * i + 1]);
+            }
+        }
+        if (logger.isLoggable(Level.FINE))
+            logger.log(Level.FINE, "integrated on [{0},{1}] with {2} subintervals to {3} with error estimate {4}", new Object[] {new java.lang.Double(a), new java.lang.Double(b), new java.lang.Integer(queue.size()), new java.lang.Double(result), new java.lang.Double(abserr)});
+        if (error != null)
+            error[0] = abserr;
+        return result;
+    }
+
+    /**
+     * The admissible absolute error for a result.
+     * Since the error estimate of each subinterval is at least its rounding error 50&epsilon;&int;|f|,
+     * the error estimates cannot drop below 50&epsilon;&int;|f| in total.
+     * This rounding limit is admissible as well, because integrals that cancel to about 0
+     * would not converge relative to their result, otherwise.
+     * @param resabs the estimate of &int;|f| on the whole interval.
+     */
+    private static double bound(double tolerance, double result, double resabs) {
+        return Math.max(tolerance * Math.max(1, Math.abs(result)), 50 * EPSILON * resabs);
+    }
+
+    /**
+     * Evaluates the first n intervals in parallel.
+     */
+    private static void evaluate(final NumericalAlgorithms.RealFunction f, final Interval intervals[], final int n) {
+        pool().invoke(new RecursiveAction() {
+                protected void compute() {
+                    final RecursiveAction rules[] = new RecursiveAction[n];
+                    for (int i = 0; i < n; i++) {
+                        final Interval r = intervals[i];
+                        rules[i] = new RecursiveAction() {
+                                protected void compute() {
+                                    r.evaluate(f);
+                                }
+                            };
+                    }
+                    ForkJoinTask.invokeAll(rules);
+                }
+            });
+    }
+
+    /**
+     * A subinterval with its integral and error estimate, ordered by decreasing error estimates.
+     */
+    private static final class Interval implements Comparable {
+        final double left;
+        final double right;
+        /**
+         * The Kronrod estimate of the integral on [left,right].
+         */
+        double value;
+        /**
+         * The estimate of the absolute error of value.
+         */
+        double error;
+        /**
+         * The Kronrod estimate of the integral of |f| on [left,right].
+         */
+        double absolute;
+        Interval(double left, double right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        public int compareTo(Object o) {
+            return Double.compare(((Interval) o).error, error);
+        }
+
+        /**
+         * Applies the 15 point Kronrod rule and its embedded 7 point Gauss rule to f on this interval.
+         */
+        void evaluate(NumericalAlgorithms.RealFunction f) {
+            final double center = 0.5 * (left + right);
+            final double halfLength = 0.5 * (right - left);
+            final double fv1[] = new double[7];
+            final double fv2[] = new double[7];
+            final double fc = f.apply(center);
+            double resg = fc * wg[3];
+            double resk = fc * wgk[7];
+            double resabs = Math.abs(resk);
+            for (int j = 0; j < 7; j++) {
+                final double abscissa = halfLength * xgk[j];
+                final double f1 = f.apply(center - abscissa);
+                final double f2 = f.apply(center + abscissa);
+                fv1[j] = f1;
+                fv2[j] = f2;
+                if (j % 2 == 1)
+                    // Gauss abscissa
+                    resg += wg[j / 2] * (f1 + f2);
+                resk += wgk[j] * (f1 + f2);
+                resabs += wgk[j] * (Math.abs(f1) + Math.abs(f2));
+            }
+            // the integral of |f - mean| as a measure of the smoothness of f
+            final double reskh = 0.5 * resk;
+            double resasc = wgk[7] * Math.abs(fc - reskh);
+            for (int j = 0; j < 7; j++)
+                resasc += wgk[j] * (Math.abs(fv1[j] - reskh) + Math.abs(fv2[j] - reskh));
+            final double length = Math.abs(halfLength);
+            resabs *= length;
+            resasc *= length;
+            this.value = resk * halfLength;
+            this.absolute = resabs;
+            double abserr = Math.abs((resk - resg) * halfLength);
+            if (resasc != 0 && abserr != 0)
+                abserr = resasc * Math.min(1, Math.pow(200 * abserr / resasc, 1.5));
+            if (resabs > Double.MIN_NORMAL / (50 * EPSILON))
+                abserr = Math.max(50 * EPSILON * resabs, abserr);
+            this.error = abserr;
+        }
+    }
+}
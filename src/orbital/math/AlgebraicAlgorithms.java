@@ -24,6 +24,7 @@ import java.util.TreeSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import orbital.math.functional.Functionals;
 import orbital.logic.functor.Functions;
@@ -39,6 +40,7 @@ import orbital.math.functional.Operations;
 
 import java.util.logging.Logger;
 import java.util.logging.Level;
+import orbital.moon.GetPropertyAction;
 
 /**
  * Algebraic algorithms and computer algebra.
@@ -73,15 +75,10 @@ public final class AlgebraicAlgorithms {
      * @note Reduced Gr&ouml;bner bases w.r.t. lexicographic orders have triangular shape.
      * @see #LEXICOGRAPHIC(int[])
      */
-    public static final Comparator/*<Vector<Integer>>*/ LEXICOGRAPHIC = new Comparator/*<Vector<Integer>>*/() {
-            public int compare(Object/*>Vector<Integer><*/ m1, Object/*>Vector<Integer><*/ m2) {
-                final Vector/*<Integer>*/ nu = getExponentVector(m1);
-                final Vector/*<Integer>*/ mu = getExponentVector(m2);
-                if (nu.dimension() != mu.dimension())
-                    throw new IllegalArgumentException("incompatible monomial exponents from polynomial rings with a different number of variables");
-                for (Iterator k = nu.iterator(), j = mu.iterator(); k.hasNext() || j.hasNext(); ) {
-                    assert k.hasNext() && j.hasNext() : "equal dimensions have equally structured iterators";
-                    int c = ((Integer)k.next()).subtract((Integer)j.next()).intValue();
+    public static final Comparator/*<Vector<Integer>>*/ LEXICOGRAPHIC = new DistributedPolynomial.MonomialOrder() {
+            int compare(int nu[], int i, int mu[], int j, int n) {
+                for (int k = 0; k < n; k++) {
+                    int c = nu[i + k] - mu[j + k];
                     if (c != 0)
                         return c;
                 }
@@ -106,14 +103,10 @@ public final class AlgebraicAlgorithms {
      * Especially 1 &lt; X<sub>0</sub> &lt; X<sub>0</sub><sup>2</sup> &lt; X<sub>1</sub> &lt; X<sub>1</sub><sup>2</sup> &lt; &#8230; &lt; X<sub>n-1</sub>.
      * @see #LEXICOGRAPHIC(int[])
      */
-    public static final Comparator/*<Vector<Integer>>*/ REVERSE_LEXICOGRAPHIC = new Comparator/*<Vector<Integer>>*/() {
-            public int compare(Object/*>Vector<Integer><*/ m1, Object/*>Vector<Integer><*/ m2) {
-                final Vector/*<Integer>*/ nu = getExponentVector(m1);
-                final Vector/*<Integer>*/ mu = getExponentVector(m2);
-                if (nu.dimension() != mu.dimension())
-                    throw new IllegalArgumentException("incompatible monomial exponents from polynomial rings with a different number of variables");
-                for (int k = nu.dimension() - 1; k >= 0; k--) {
-                    int c = ((Integer)nu.get(k)).subtract((Integer)mu.get(k)).intValue();
+    public static final Comparator/*<Vector<Integer>>*/ REVERSE_LEXICOGRAPHIC = new DistributedPolynomial.MonomialOrder() {
+            int compare(int nu[], int i, int mu[], int j, int n) {
+                for (int k = n - 1; k >= 0; k--) {
+                    int c = nu[i + k] - mu[j + k];
                     if (c != 0)
                         return c;
                 }
@@ -148,15 +141,13 @@ public final class AlgebraicAlgorithms {
      */
     public static final Comparator/*<Vector<Integer>>*/ LEXICOGRAPHIC(final int permutation[]) {
         checkPermutation(permutation);
-        return new Comparator/*<Vector<Integer>>*/() {
-            public int compare(Object/*>Vector<Integer><*/ m1, Object/*>Vector<Integer><*/ m2) {
-                final Vector/*<Integer>*/ nu = getExponentVector(m1);
-                final Vector/*<Integer>*/ mu = getExponentVector(m2);
-                if (nu.dimension() != mu.dimension())
+        return new DistributedPolynomial.MonomialOrder() {
+            int compare(int nu[], int i, int mu[], int j, int n) {
+                if (n != permutation.length)
                     throw new IllegalArgumentException("incompatible monomial exponents from polynomial rings with a different number of variables");
-                for (int k = 0; k < nu.dimension(); k++) {
+                for (int k = 0; k < n; k++) {
                     int index = permutation[k];
-                    int c = ((Integer)nu.get(index)).subtract((Integer)mu.get(index)).intValue();
+                    int c = nu[i + index] - mu[j + index];
                     if (c != 0)
                         return c;
                 }
@@ -202,18 +193,16 @@ public final class AlgebraicAlgorithms {
      * @param monomialBaseOrder the order <var>base</var> to use when degree order is equal.
      */
     public static final Comparator/*<Vector<Integer>>*/ DEGREE(final Comparator/*<Vector<Integer>>*/ monomialBaseOrder) {
-        return new Comparator/*<Vector<Integer>>*/() {
-            public int compare(Object/*>Vector<Integer><*/ m1, Object/*>Vector<Integer><*/ m2) {
-                final Vector/*<Integer>*/ nu = getExponentVector(m1);
-                final Vector/*<Integer>*/ mu = getExponentVector(m2);
-                if (nu.dimension() != mu.dimension())
-                    throw new IllegalArgumentException("incompatible monomial exponents from polynomial rings with a different number of variables");
-                int c = ((Integer)Operations.sum.apply(nu)).intValue()
-                    - ((Integer)Operations.sum.apply(mu)).intValue();
+        final DistributedPolynomial.MonomialOrder baseOrder = DistributedPolynomial.MonomialOrder.valueOf(monomialBaseOrder);
+        return new DistributedPolynomial.MonomialOrder() {
+            int compare(int nu[], int i, int mu[], int j, int n) {
+                int c = 0;
+                for (int k = 0; k < n; k++)
+                    c += nu[i + k] - mu[j + k];
                 if (c != 0)
                     return c;
                 else
-                    return monomialBaseOrder.compare(m1, m2);
+                    return baseOrder.compare(nu, i, mu, j, n);
             }
 
             public String toString() {
@@ -610,7 +599,7 @@ public final class AlgebraicAlgorithms {
         Euclidean M = (Euclidean) xStar.one();
         for (int i = 1; i < m.length; i++) {
             M = (Euclidean) M.multiply(m[i-1]);
-            final Arithmetic c = vf.quotient(M, (Euclidean) m[i]).inverse()/*.representative()*/;               // the inverse modulo m[i] of m
+            final Arithmetic c = ((Quotient) vf.quotient(M, (Euclidean) m[i]).inverse()).representative();               // the inverse modulo m[i] of m
             final Arithmetic s = vf.quotient((Euclidean) (x[i].subtract(xStar)).multiply(c), (Euclidean) m[i]).representative();
             xStar = (Euclidean) xStar.add(s.multiply(M));
         }
@@ -781,6 +770,10 @@ public final class AlgebraicAlgorithms {
          * Caches whether any g polynomial is numerical
          */
         private final boolean symbolicg;
+        /**
+         * Sparse distributed representation of g, or <code>null</code> if g has other exponents.
+         */
+        private transient List/*<DistributedPolynomial>*/ distributedg;
         public ReductionFunctionFast(final Collection/*<Polynomial<R,S>>*/ g, Comparator/*<S>*/ newmonomialOrder) {
                 if (!Setops.all(g, Functionals.bindSecond(Utility.instanceOf, Polynomial.class))) {
                         throw new IllegalArgumentException("prerequisite failed: " + "collection<" + Polynomial.class.getName() + "> expected, found violation " + Setops.find(g, Functionals.not(Functionals.bindSecond(Utility.instanceOf, Polynomial.class))) + " in "+ g);
@@ -801,6 +794,9 @@ public final class AlgebraicAlgorithms {
                                 basis[i] = new Pair(gi, leadingMonomial);
                         }
                 }
+                this.distributedg = DistributedPolynomial.isDistributable(this.g)
+                    ? distribute(this.g, DistributedPolynomial.MonomialOrder.valueOf(monomialOrder))
+                    : null;
         }
         public boolean equals(Object o) {
                 return (o instanceof ReductionFunctionFast)
@@ -815,6 +811,13 @@ public final class AlgebraicAlgorithms {
                 if (g.isEmpty()) {
                         return o;
                 }
+                if (distributedg != null && DistributedPolynomial.isDistributable(Collections.singleton(o))) {
+                        // specialized reduction kernel on primitive exponents
+                        final DistributedPolynomial.MonomialOrder order = ((DistributedPolynomial) distributedg.get(0)).order;
+                        final Polynomial f = DistributedPolynomial.valueOf((Polynomial)o, order).reduce(distributedg).toPolynomial();
+                        assert f.equals(new ReductionFunction(g, monomialOrder).apply(o)) : "optimized result " + f + " equals canonical result " + new ReductionFunction(g, monomialOrder).apply(o);
+                        return f;
+                }
                 Polynomial f = (Polynomial)o;
                         final ValueFactory vf = f.valueFactory();
                         //@internal we would prefer reverse direction (because we want to start eliminating large not small monomials), also starting with leading coefficient
@@ -966,6 +969,16 @@ public final class AlgebraicAlgorithms {
      * @note The Buchberger algorithm used to construct a Gr&ouml;bner basis is equivalent
      *  to {@link #gcd(Euclidean[])} in case of one variable,
      *  and to {@link LUDecomposition} in case of linear polynomials.
+     * @note The system property <code>orbital.math.AlgebraicAlgorithms.groebnerBasis</code> selects the engine
+     *  for polynomials with exponents in <b>N</b><sup>n</sup>:
+     *  <code>"gebauer-moeller"</code> (default) processes critical pairs by the sugar strategy
+     *  and skips pairs by Buchberger's product and chain criteria, resulting in a monic reduced Gr&ouml;bner basis.
+     *  <code>"buchberger"</code> forms all S-polynomials of each new basis polynomial.
+     * @note Behaviour change: the default engine yields monic polynomials, i.e., with leading coefficient 1,
+     *  for polynomials with exponents in <b>N</b><sup>n</sup>. Previous versions, the engine <code>"buchberger"</code>,
+     *  and the engine for other polynomials yield leading coefficients that depend on the course of the reduction.
+     *  Either way, the Gr&ouml;bner basis is unique only up to constant factors of its elements, so
+     *  callers should not rely on particular leading coefficients unless they normalize them.
      * @internal whenever an elementary reduction is possible, use the reduced polynomial instead of the original polynomial.
      * @internal Gr&ouml;bnerBasis = "if the term rewrite system for reduce is confluent"
      * @internal generalisations to non-field rings (or non-commutative) are possible, see the much more expensive Ritt-reduction.
@@ -1005,7 +1018,41 @@ public final class AlgebraicAlgorithms {
 
     private static final /*<R extends Arithmetic, S extends Arithmetic>*/
     Set/*<Polynomial<R,S>>*/ groebnerBasisImpl(Collection/*<Polynomial<R,S>>*/ gg, final Comparator/*<S>*/ monomialOrder) {
-        return groebnerBasisImpl_Opt(gg, monomialOrder);
+        if (!DistributedPolynomial.isDistributable(gg))
+            return groebnerBasisImpl_Opt(gg, monomialOrder);
+        else if (BUCHBERGER.equals(groebnerEngine()))
+            return groebnerBasisImpl_Distributed(gg, monomialOrder);
+        else
+            return new GebauerMoeller(DistributedPolynomial.MonomialOrder.valueOf(monomialOrder)).groebnerBasis(gg);
+    }
+
+    /**
+     * Gr&ouml;bner basis engine forming all S-polynomials of each new basis polynomial.
+     * @see #groebnerBasis(Set,Comparator)
+     */
+    private static final String BUCHBERGER = "buchberger";
+    /**
+     * Gr&ouml;bner basis engine with critical pairs, the criteria of Buchberger installed by Gebauer and M&ouml;ller, and the sugar strategy.
+     * @see #groebnerBasis(Set,Comparator)
+     */
+    private static final String GEBAUER_MOELLER = "gebauer-moeller";
+
+    /**
+     * Get the Gr&ouml;bner basis engine selected by the system property
+     * <code>orbital.math.AlgebraicAlgorithms.groebnerBasis</code>.
+     */
+    private static final String groebnerEngine() {
+        final String property = AlgebraicAlgorithms.class.getName() + ".groebnerBasis";
+        try {
+            final String engine = GetPropertyAction.getProperty(property, GEBAUER_MOELLER);
+            if (BUCHBERGER.equals(engine) || GEBAUER_MOELLER.equals(engine))
+                return engine;
+            logger.log(Level.SEVERE, "invalid property setting {0}={1}" , new Object[] {property, engine});
+        }
+        catch (SecurityException nevertheless) {
+            // especially catch SecurityExceptions if we were not allowed to read properties
+        }
+        return GEBAUER_MOELLER;
     }
     /**
      * Get the non-reduced Gr&ouml;bner basis of g (Implementation).
@@ -1102,6 +1149,312 @@ public final class AlgebraicAlgorithms {
         return rgb;
     }
     
+    /**
+     * Get the non-reduced Gr&ouml;bner basis of g (Implementation) in sparse distributed representation.
+     * Performs the same algorithm as {@link #groebnerBasisImpl_Opt(Collection,Comparator)}
+     * but with the specialized reduction and S-polynomial kernels of
+     * {@link DistributedPolynomial} on primitive exponents.
+     * @preconditions DistributedPolynomial.isDistributable(gg)
+     */
+    private static final /*<R extends Arithmetic, S extends Arithmetic>*/
+        Set/*<Polynomial<R,S>>*/ groebnerBasisImpl_Distributed(final Collection/*<Polynomial<R,S>>*/ gg, final Comparator/*<S>*/ monomialOrder) {
+        final DistributedPolynomial.MonomialOrder order = DistributedPolynomial.MonomialOrder.valueOf(monomialOrder);
+        // partial Groebner Basis
+        // @invariant: all S-polynomials within g have already been considered
+        final List/*<DistributedPolynomial>*/ g = new ArrayList();
+        // working list, start with small polynomials to improve efficiency
+        final PriorityQueue/*<DistributedPolynomial>*/ working = new PriorityQueue(gg.size()+1, DistributedPolynomial.INDUCED);
+        // auto-reduce original polynomials so that no inter-reductions are possible any more
+        working.addAll(autoReduceDistributed(distribute(gg, order)));
+        // the first element is in the candidate groebner basis, otherwise nothing happens later, all others are in working list
+        g.add(working.poll());
+        while (!working.isEmpty()) {
+            // get (smallest) polynomial from working, moving it to g
+            // pre-reduce gi with respect to current G
+            final DistributedPolynomial gi = ((DistributedPolynomial)working.poll()).reduce(g);
+            if (gi.isZero()) {
+                continue;
+            }
+            // forward subsumption to avoid divisible leading monomials in g
+            // add gi to g, moving all polynomials with leading monomials that are multiples of gi' leading monomial to the working list again
+            for (Iterator j = g.iterator(); j.hasNext(); ) {
+                final DistributedPolynomial gj = (DistributedPolynomial)j.next();
+                if (DistributedPolynomial.divides(gi.exponent, 0, gj.exponent, 0, gi.n)) {
+                    List/*<DistributedPolynomial>*/ others = new LinkedList(g);
+                    others.remove(gj);
+                    others.add(gi);
+                    j.remove();
+                    final DistributedPolynomial r = gj.reduce(others);
+                    if (r.isZero()) {
+                        logger.log(Level.FINER, "skip partial auto-reduction {0} of {1} from adding {2}", new Object[] {r, gj, gi});
+                    } else {
+                        logger.log(Level.FINE, "partial auto-reduction {0} of {1} from adding {2}", new Object[] {r, gj, gi});
+                        working.add(r);
+                    }
+                }
+            }
+            List/*<DistributedPolynomial>*/ gnew = new ArrayList(g);
+            gnew.add(gi);
+            // critical syzygy pair formation
+            // form all S-polynomials of gi with g
+            for (Iterator/*<DistributedPolynomial>*/ j = g.iterator(); j.hasNext(); ) {
+                final DistributedPolynomial gj = (DistributedPolynomial)j.next();
+                final DistributedPolynomial Sgigj = DistributedPolynomial.sPolynomial(gi, gj, true);
+                if (Sgigj == null) {
+                    // optimizations know that S(g[i],g[j]) will reduce to 0, hence skip
+                    logger.log(Level.FINER, "skip optimization reduction from {0} and {1}", new Object[] {gi, gj});
+                } else {
+                    // this is the major bottleneck, especially if it turns out that r=0
+                    final DistributedPolynomial r = Sgigj.reduce(gnew);
+                    logger.log(Level.FINER, "S({0},{1}) = {2} reduced to {3}", new Object[] {gi, gj, Sgigj, r});
+                    if (r.isZero()) {
+                        logger.log(Level.FINER, "skip reduction {0} of {1} from {2} and {3}", new Object[] {r, Sgigj, gi, gj});
+                    } else {
+                        logger.log(Level.FINE, "add work size {4} reduction {0} of {1} from {2} and {3}", new Object[] {r, Sgigj, gi, gj, new java.lang.Integer(working.size())});
+                        working.add(r);
+                    }
+                }
+            }
+            g.add(gi);
+            logger.log(Level.FINE, "add reduction giving size {1} with {0}", new Object[] {gi, new java.lang.Integer(g.size())});
+        }
+        final List/*<DistributedPolynomial>*/ rg = autoReduceDistributed(g);
+        Set nrgb = null;
+        assert (nrgb = new LinkedHashSet(undistribute(g))) != null;
+        Set rgb = new LinkedHashSet(undistribute(rg));
+        assert containsAll(nrgb, gg, monomialOrder) : "the original generating system " + gg + " is in the ideal spanned by its (non-reduced) Groebner basis " + nrgb;
+        assert containsAllSPolynomials(nrgb, monomialOrder) : "the (non-reduced) Groebner Basis " + nrgb + " reduces all its S-polynomials to 0";
+        assert equalSpan(rgb, nrgb, monomialOrder) : "reduced Groebner basis " + rgb + " and (non-reduced) Groebner basis " + nrgb + " of " + gg + " have equal span";
+        return rgb;
+    }
+
+    /**
+     * Gr&ouml;bner basis computation with critical pairs (Implementation).
+     * <p>
+     * Instead of forming all S-polynomials of a new basis polynomial h immediately,
+     * the critical pairs are queued and filtered with Buchberger's criteria in the
+     * installation of Gebauer and M&ouml;ller:
+     * <ul>
+     *   <li>product criterion: S(f,h) reduces to 0 if l(f) and l(h) are coprime.</li>
+     *   <li>chain criterion: S(f,g) need not be considered if l(h) divides lcm(l(f),l(g)),
+     *     and the pairs (f,h) and (g,h) have different lcms, since they will be considered instead.</li>
+     * </ul>
+     * Polynomials whose leading monomials are multiples of l(h) are removed from the basis,
+     * but still take part in the critical pairs that have already been queued.
+     * The critical pairs are selected by the sugar strategy, i.e., the pair with the least
+     * sugar (the degree it would have if the input was homogenized) comes first,
+     * and otherwise the one with the least lcm of leading monomials.
+     * </p>
+     * <p>
+     * The numbers of critical pairs created, pruned by either criterion, and reduced (to 0)
+     * are logged with level {@link Level#FINE}.
+     * </p>
+     * @see "Gebauer, R&uuml;diger and M&ouml;ller, H. Michael. On an installation of Buchberger's algorithm. <i>Journal of Symbolic Computation</i>, 6(2-3):275-286, 1988."
+     * @see "Giovini, Alessandro, Mora, Teo, Niesi, Gianfranco, Robbiano, Lorenzo and Traverso, Carlo. &quot;One sugar cube, please&quot; or selection strategies in the Buchberger algorithm. In <i>Proc. ISSAC '91</i>. p49-54. ACM, 1991."
+     * @see "Becker, Thomas and Weispfenning, Volker. <i>Gr&ouml;bner Bases</i>. Springer, 1993."
+     */
+    private static final class GebauerMoeller {
+        private final DistributedPolynomial.MonomialOrder order;
+        /**
+         * All polynomials that ever belonged to the basis, referenced by their index in critical pairs.
+         */
+        private final List/*<DistributedPolynomial>*/ polynomials = new ArrayList();
+        /**
+         * The sugar of the polynomials.
+         */
+        private int sugar[] = new int[16];
+        /**
+         * The indices of the polynomials forming the current basis G.
+         */
+        private final List/*<Integer>*/ basis = new LinkedList();
+        /**
+         * The critical pairs B still to consider, ordered by the sugar strategy.
+         */
+        private final PriorityQueue/*<CriticalPair>*/ pairs;
+
+        // statistics
+        private int pairsCreated = 0;
+        private int productCriterion = 0;
+        private int chainCriterion = 0;
+        private int reductions = 0;
+        private int zeroReductions = 0;
+
+        public GebauerMoeller(final DistributedPolynomial.MonomialOrder order) {
+            this.order = order;
+            this.pairs = new PriorityQueue(16, new Comparator/*<CriticalPair>*/() {
+                    public int compare(Object/*>CriticalPair<*/ o1, Object/*>CriticalPair<*/ o2) {
+                        final CriticalPair p = (CriticalPair) o1;
+                        final CriticalPair q = (CriticalPair) o2;
+                        if (p.sugar != q.sugar)
+                            return p.sugar < q.sugar ? -1 : 1;
+                        final int cmp = order.compare(p.lcm, 0, q.lcm, 0, p.lcm.length);
+                        if (cmp != 0)
+                            return cmp;
+                        return p.j != q.j ? p.j - q.j : p.i - q.i;
+                    }
+                });
+        }
+
+        /**
+         * Get the reduced Gr&ouml;bner basis of gg.
+         * @preconditions DistributedPolynomial.isDistributable(gg)
+         */
+        public Set/*<Polynomial<R,S>>*/ groebnerBasis(Collection/*<Polynomial<R,S>>*/ gg) {
+            final long start = System.currentTimeMillis();
+            final List/*<DistributedPolynomial>*/ initial = autoReduceDistributed(distribute(gg, order));
+            // start with small polynomials to improve efficiency
+            Collections.sort(initial, DistributedPolynomial.INDUCED);
+            for (Iterator i = initial.iterator(); i.hasNext(); ) {
+                final DistributedPolynomial f = (DistributedPolynomial) i.next();
+                update(f.monic(), f.degree());
+            }
+            while (!pairs.isEmpty()) {
+                final CriticalPair p = (CriticalPair) pairs.poll();
+                final DistributedPolynomial Sij = DistributedPolynomial.sPolynomial(polynomial(p.i), polynomial(p.j), false);
+                // this is the major bottleneck, especially if it turns out that r=0
+                final DistributedPolynomial r = Sij.reduce(currentBasis());
+                reductions++;
+                logger.log(Level.FINER, "S({0},{1}) = {2} reduced to {3}", new Object[] {polynomial(p.i), polynomial(p.j), Sij, r});
+                if (r.isZero()) {
+                    zeroReductions++;
+                } else {
+                    update(r.monic(), p.sugar);
+                    logger.log(Level.FINE, "add reduction {0} of sugar {1} giving size {2} with {3} critical pairs", new Object[] {r, new java.lang.Integer(p.sugar), new java.lang.Integer(basis.size()), new java.lang.Integer(pairs.size())});
+                }
+            }
+            final List/*<DistributedPolynomial>*/ g = currentBasis();
+            final List/*<DistributedPolynomial>*/ rg = autoReduceDistributed(g);
+            for (ListIterator i = rg.listIterator(); i.hasNext(); )
+                i.set(((DistributedPolynomial) i.next()).monic());
+            logger.log(Level.FINE, "Groebner basis of size {0} in {1} ms: {2} critical pairs, {3} pruned by product criterion, {4} pruned by chain criterion, {5} reductions, {6} reductions to 0",
+                       new Object[] {new java.lang.Integer(rg.size()), new java.lang.Long(System.currentTimeMillis() - start),
+                                     new java.lang.Integer(pairsCreated), new java.lang.Integer(productCriterion), new java.lang.Integer(chainCriterion),
+                                     new java.lang.Integer(reductions), new java.lang.Integer(zeroReductions)});
+            Set nrgb = null;
+            assert (nrgb = new LinkedHashSet(undistribute(g))) != null;
+            Set rgb = new LinkedHashSet(undistribute(rg));
+            assert containsAll(nrgb, gg, order) : "the original generating system " + gg + " is in the ideal spanned by its (non-reduced) Groebner basis " + nrgb;
+            assert containsAllSPolynomials(nrgb, order) : "the (non-reduced) Groebner Basis " + nrgb + " reduces all its S-polynomials to 0";
+            assert equalSpan(rgb, nrgb, order) : "reduced Groebner basis " + rgb + " and (non-reduced) Groebner basis " + nrgb + " of " + gg + " have equal span";
+            return rgb;
+        }
+
+        private DistributedPolynomial polynomial(int i) {
+            return (DistributedPolynomial) polynomials.get(i);
+        }
+
+        /**
+         * Get the polynomials of the current basis G.
+         */
+        private List/*<DistributedPolynomial>*/ currentBasis() {
+            final List g = new ArrayList(basis.size());
+            for (Iterator i = basis.iterator(); i.hasNext(); )
+                g.add(polynomials.get(((java.lang.Integer) i.next()).intValue()));
+            return g;
+        }
+
+        /**
+         * Adds h to the basis G and updates the critical pairs B.
+         * @param s the sugar of h.
+         */
+        private void update(DistributedPolynomial h, int s) {
+            final int k = polynomials.size();
+            polynomials.add(h);
+            if (k == sugar.length) {
+                int newSugar[] = new int[2 * k];
+                System.arraycopy(sugar, 0, newSugar, 0, k);
+                sugar = newSugar;
+            }
+            sugar[k] = s;
+            final int n = h.n;
+
+            // C: the new critical pairs (g,h) for g in G
+            final List/*<CriticalPair>*/ C = new ArrayList(basis.size());
+            for (Iterator i = basis.iterator(); i.hasNext(); )
+                C.add(new CriticalPair(((java.lang.Integer) i.next()).intValue(), k));
+            pairsCreated += C.size();
+            // D: drop (g,h) if the lcm of another new pair properly divides its lcm, or equals it and comes first,
+            // but keep coprime pairs for dropping other pairs with equal lcm
+            final List/*<CriticalPair>*/ D = new ArrayList(C.size());
+            for (int i = 0; i < C.size(); i++) {
+                final CriticalPair p = (CriticalPair) C.get(i);
+                boolean drop = false;
+                if (!p.coprime) {
+                    for (int j = i + 1; j < C.size() && !drop; j++)
+                        drop = DistributedPolynomial.divides(((CriticalPair) C.get(j)).lcm, 0, p.lcm, 0, n);
+                    for (Iterator j = D.iterator(); j.hasNext() && !drop; )
+                        drop = DistributedPolynomial.divides(((CriticalPair) j.next()).lcm, 0, p.lcm, 0, n);
+                }
+                if (drop)
+                    chainCriterion++;
+                else
+                    D.add(p);
+            }
+            // B: drop (f,g) if l(h) divides lcm(l(f),l(g)) and lcm(l(f),l(h)), lcm(l(g),l(h)) both differ from it
+            final int lcm[] = new int[n];
+            for (Iterator i = pairs.iterator(); i.hasNext(); ) {
+                final CriticalPair p = (CriticalPair) i.next();
+                if (DistributedPolynomial.divides(h.exponent, 0, p.lcm, 0, n)) {
+                    DistributedPolynomial.leadingLcm(polynomial(p.i), h, lcm);
+                    if (Arrays.equals(lcm, p.lcm))
+                        continue;
+                    DistributedPolynomial.leadingLcm(polynomial(p.j), h, lcm);
+                    if (Arrays.equals(lcm, p.lcm))
+                        continue;
+                    i.remove();
+                    chainCriterion++;
+                }
+            }
+            // E: product criterion on the remaining new pairs
+            for (Iterator i = D.iterator(); i.hasNext(); ) {
+                final CriticalPair p = (CriticalPair) i.next();
+                if (p.coprime)
+                    productCriterion++;
+                else
+                    pairs.add(p);
+            }
+            // G: remove polynomials whose leading monomials are multiples of l(h)
+            for (Iterator i = basis.iterator(); i.hasNext(); ) {
+                if (DistributedPolynomial.divides(h.exponent, 0, polynomial(((java.lang.Integer) i.next()).intValue()).exponent, 0, n))
+                    i.remove();
+            }
+            basis.add(new java.lang.Integer(k));
+        }
+
+        /**
+         * Critical pair (i,j) of polynomials with the lcm of their leading monomials.
+         */
+        private final class CriticalPair {
+            final int i;
+            final int j;
+            /**
+             * The exponent of lcm(l(g<sub>i</sub>),l(g<sub>j</sub>)).
+             */
+            final int lcm[];
+            /**
+             * Whether l(g<sub>i</sub>) and l(g<sub>j</sub>) are coprime.
+             */
+            final boolean coprime;
+            /**
+             * The sugar of S(g<sub>i</sub>,g<sub>j</sub>).
+             */
+            final int sugar;
+            public CriticalPair(int i, int j) {
+                this.i = i;
+                this.j = j;
+                final DistributedPolynomial gi = polynomial(i);
+                final DistributedPolynomial gj = polynomial(j);
+                this.lcm = new int[gi.n];
+                this.coprime = DistributedPolynomial.leadingLcm(gi, gj, lcm);
+                int d = 0;
+                for (int l = 0; l < lcm.length; l++)
+                    d += lcm[l];
+                this.sugar = Math.max(GebauerMoeller.this.sugar[i] + d - gi.leadingDegree(),
+                                      GebauerMoeller.this.sugar[j] + d - gj.leadingDegree());
+            }
+        }
+    }
+
     private static final /*<R extends Arithmetic, S extends Arithmetic>*/
     Set/*<Polynomial<R,S>>*/ groebnerBasisImpl_Direct(Collection/*<Polynomial<R,S>>*/ gg, final Comparator/*<S>*/ monomialOrder) {
         final List/*<Polynomial<R,S>>*/ g = new ArrayList(gg);
@@ -1226,6 +1579,59 @@ public final class AlgebraicAlgorithms {
         return basis;
     }
 
+    /**
+     * Auto-Reduce the list of polynomials g in sparse distributed representation, so that each polynomial is reduced with respect to all the others.
+     * @see #autoReduce(Collection,Comparator)
+     */
+    private static final List/*<DistributedPolynomial>*/ autoReduceDistributed(Collection/*<DistributedPolynomial>*/ g) {
+        final List basis = new ArrayList(g);
+        replaceWithReductions:
+        while (true) {
+            for (int i = 0; i < basis.size(); i++) {
+                final DistributedPolynomial gi = (DistributedPolynomial) basis.get(i);
+                final List others = new ArrayList(basis);
+                others.remove(i);
+                final DistributedPolynomial r = gi.reduce(others);
+                // reduce only returns a different polynomial if there were elementary reductions
+                if (r != gi) {
+                    // g[i]  reduced with respect to the others, so replace by its reduction
+                    basis.remove(i);
+                    if (r.isZero()) 
+                        // skip adding 0
+                        logger.log(Level.FINER, "remove {0} and skip adding reduction {1}", new Object[] {gi, r});
+                    else {
+                        basis.add(r);
+                        logger.log(Level.FINER, "replace {0} by reduction {1}", new Object[] {gi, r});
+                    }
+                    continue replaceWithReductions;
+                }
+            }
+            break replaceWithReductions;
+        }
+        return basis;
+    }
+
+    /**
+     * Converts polynomials into their sparse distributed representation.
+     * @preconditions DistributedPolynomial.isDistributable(g)
+     */
+    private static final List/*<DistributedPolynomial>*/ distribute(Collection/*<Polynomial<R,S>>*/ g, DistributedPolynomial.MonomialOrder order) {
+        final List r = new ArrayList(g.size());
+        for (Iterator i = g.iterator(); i.hasNext(); )
+            r.add(DistributedPolynomial.valueOf((Polynomial) i.next(), order));
+        return r;
+    }
+
+    /**
+     * Converts polynomials back from their sparse distributed representation.
+     */
+    private static final List/*<Polynomial<R,S>>*/ undistribute(Collection/*<DistributedPolynomial>*/ g) {
+        final List r = new ArrayList(g.size());
+        for (Iterator i = g.iterator(); i.hasNext(); )
+            r.add(((DistributedPolynomial) i.next()).toPolynomial());
+        return r;
+    }
+
     // Implementation helpers
     
     /**
@@ -610,7 +610,24 @@ public class ArithmeticFormat extends Format {
     public StringBuffer format(Integer v, StringBuffer result, FieldPosition fieldPosition) {
         if (!Integer.hasType.apply(v))
             return format((Scalar)v, result, fieldPosition);
-        return numberFormat.format(v.longValue(), result, fieldPosition);
+        final ValueFactory vf = v.valueFactory();
+        if (v.equals(vf.valueOf(v.longValue())))
+            return numberFormat.format(v.longValue(), result, fieldPosition);
+        // arbitrary precision integers exceeding long, formatted in chunks of 18 decimal digits
+        final Integer chunk = vf.valueOf(1000000000000000000L);
+        final StringBuffer digits = new StringBuffer();
+        Integer x = (Integer) v.norm();
+        while (x.compareTo(chunk) >= 0) {
+            String part = String.valueOf(((Integer) x.modulo(chunk)).longValue());
+            digits.insert(0, part);
+            for (int i = part.length(); i < 18; i++)
+                digits.insert(0, '0');
+            x = (Integer) x.quotient(chunk);
+        }
+        digits.insert(0, x.longValue());
+        if (v.compareTo(vf.ZERO()) < 0)
+            digits.insert(0, '-');
+        return result.append(digits);
     }
 
     /**
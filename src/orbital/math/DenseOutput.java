@@ -0,0 +1,298 @@
+/**
+ * @(#)DenseOutput.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.math;
+
+import orbital.math.functional.Function;
+import orbital.moon.math.functional.AbstractFunctor;
+
+/**
+ * The dense output of a numerical solution x of an ordinary differential equation
+ * x'(t) = f(t,x(t)), x(&tau;)=&eta;.
+ * <p>
+ * Keeps the accepted steps of the solver together with the coefficients of an interpolation
+ * polynomial for each step, such that all components of the solution are available at every time of
+ * the solution range with the order of the interpolation, not only at the steps.
+ * As a {@link Function}, it maps times to the vectors of all components of the solution.
+ * </p>
+ * <p>
+ * For n components, each step occupies 4n doubles. For long simulations that only need the
+ * solution at some times, sampling the solution while solving needs less memory.
+ * </p>
+ *
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ * @stereotype Structure
+ * @see NumericalAlgorithms#dSolve(NumericalAlgorithms.DifferentialEquation,double,double[],double,double,NumericalAlgorithms.EventFunction[])
+ * @see NumericalAlgorithms#dSolve(NumericalAlgorithms.DifferentialEquation,double,double[],double[],double)
+ * @invariants getDimension() &gt; 0 &and; getStepCount() &ge; 0
+ * @note this class is more or less just a workaround for returning multiple values.
+ * @internal Implements the continuous extension of order 4 of Dormand-Prince 5(4) by Hairer, N&oslash;rsett and Wanner.
+ */
+public final class DenseOutput extends AbstractFunctor implements Function/*<Real,Vector<Real>>*/ {
+    /**
+     * The number of components of the solution.
+     */
+    private final int dimension;
+    /**
+     * The direction of the time, +1 for forward, and -1 for backward.
+     */
+    private final int direction;
+    /**
+     * Whether to retain all steps, or only the last step.
+     */
+    private final boolean retain;
+    /**
+     * The number of accepted steps.
+     */
+    private int steps;
+    /**
+     * The times t<sub>0</sub>,...,t<sub>steps</sub> of the steps.
+     * Step k leads from t[k] to t[k+1].
+     */
+    private double t[];
+    /**
+     * The values x(t<sub>0</sub>),...,x(t<sub>steps</sub>) of all components at the times of the steps,
+     * with x(t<sub>k</sub>)<sub>i</sub> at x[k*dimension+i].
+     */
+    private double x[];
+    /**
+     * The higher-order coefficients of the interpolation polynomial of each step,
+     * with coefficient j of step k for component i at coefficients[(3*k+j)*dimension+i].
+     */
+    private double coefficients[];
+    /**
+     * The end of the solution range, which may be before t[steps] if an event occurred.
+     */
+    private double max;
+    /**
+     * The index of the event that terminated the solution, or -1.
+     */
+    private int event = -1;
+    /**
+     * Statistics about the solver.
+     */
+    private int evaluations = 0;
+    private int rejected = 0;
+
+    /**
+     * Create the dense output for a solution starting at x(tau)=eta, and proceeding in the given direction.
+     * @param retain whether to retain all steps, or only the last step for sampling the solution while solving.
+     */
+    DenseOutput(double tau, double eta[], int direction, int capacity, boolean retain) {
+        this.dimension = eta.length;
+        this.direction = direction;
+        this.retain = retain;
+        capacity = Math.max(capacity, 1);
+        this.t = new double[capacity + 1];
+        this.x = new double[(capacity + 1) * dimension];
+        this.coefficients = new double[3 * capacity * dimension];
+        this.steps = 0;
+        this.t[0] = tau;
+        System.arraycopy(eta, 0, this.x, 0, dimension);
+        this.max = tau;
+    }
+
+    /**
+     * Append a step to t1 with the values x1 and the interpolation coefficients r3, r4, r5.
+     * The storage grows geometrically, such that appending takes amortized constant time.
+     */
+    void append(double t1, double x1[], double r3[], double r4[], double r5[]) {
+        if (!retain && steps > 0) {
+            // forget the previous step
+            t[0] = t[steps];
+            System.arraycopy(x, steps * dimension, x, 0, dimension);
+            steps = 0;
+        }
+        if (steps + 1 >= t.length) {
+            final int capacity = 2 * t.length;
+            final double t2[] = new double[capacity];
+            System.arraycopy(t, 0, t2, 0, steps + 1);
+            t = t2;
+            final double x2[] = new double[capacity * dimension];
+            System.arraycopy(x, 0, x2, 0, (steps + 1) * dimension);
+            x = x2;
+            final double coefficients2[] = new double[3 * capacity * dimension];
+            System.arraycopy(coefficients, 0, coefficients2, 0, 3 * steps * dimension);
+            coefficients = coefficients2;
+        }
+        final int c = 3 * steps * dimension;
+        System.arraycopy(r3, 0, coefficients, c, dimension);
+        System.arraycopy(r4, 0, coefficients, c + dimension, dimension);
+        System.arraycopy(r5, 0, coefficients, c + 2 * dimension, dimension);
+        steps++;
+        t[steps] = t1;
+        System.arraycopy(x1, 0, x, steps * dimension, dimension);
+        max = t1;
+    }
+
+    /**
+     * Terminate the solution range at the time of an event.
+     * @preconditions tEvent lies within the last step
+     */
+    void terminate(double tEvent, int event) {
+        this.max = tEvent;
+        this.event = event;
+    }
+
+    /**
+     * Set the statistics of the solver.
+     */
+    void setStatistics(int evaluations, int rejected) {
+        this.evaluations = evaluations;
+        this.rejected = rejected;
+    }
+
+    /**
+     * Get the number of components of the solution.
+     */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Get the initial time &tau; of the solution.
+     */
+    public double getMin() {
+        return t[0];
+    }
+
+    /**
+     * Get the end of the solution range.
+     * This is the time of the event that terminated the solution, if any.
+     * @see #getEvent()
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Get the index of the event function that terminated the solution.
+     * @return the index of the event function whose zero has been reached at {@link #getMax()},
+     *  or -1 if the solution has not been terminated by an event.
+     */
+    public int getEvent() {
+        return event;
+    }
+
+    /**
+     * Get the number of accepted steps.
+     */
+    public int getStepCount() {
+        return steps;
+    }
+
+    /**
+     * Get the number of rejected steps.
+     */
+    public int getRejectedCount() {
+        return rejected;
+    }
+
+    /**
+     * Get the number of evaluations of the right-hand side of the differential equation.
+     */
+    public int getEvaluationCount() {
+        return evaluations;
+    }
+
+    /**
+     * Get the times of the accepted steps.
+     * @return the times t<sub>0</sub>=&tau;,...,t<sub>n</sub> of the n accepted steps.
+     *  If an event occurred, the last step may end after {@link #getMax()}.
+     */
+    public double[] getSteps() {
+        final double r[] = new double[steps + 1];
+        System.arraycopy(t, 0, r, 0, r.length);
+        return r;
+    }
+
+    /**
+     * Get the values of all components of the solution at a time.
+     * @param s the time, which must be within the solution range.
+     * @param r the array to fill with the values of all components of x(s).
+     * @return r.
+     * @throws IllegalArgumentException if s is not within the solution range.
+     */
+    public double[] apply(double s, double r[]) {
+        final int k = step(s);
+        final double h = t[k + 1] - t[k];
+        final double theta = h == 0 ? 0 : (s - t[k]) / h;
+        final double theta1 = 1 - theta;
+        final int x0 = k * dimension;
+        final int x1 = x0 + dimension;
+        final int c = 3 * k * dimension;
+        for (int i = 0; i < dimension; i++) {
+            final double difference = x[x1 + i] - x[x0 + i];
+            r[i] = x[x0 + i] + theta * (difference + theta1 * (coefficients[c + i]
+                                                              + theta * (coefficients[c + dimension + i]
+                                                                         + theta1 * coefficients[c + 2 * dimension + i])));
+        }
+        return r;
+    }
+
+    /**
+     * Get the value of a single component of the solution at a time.
+     * @param s the time, which must be within the solution range.
+     * @param i the index of the component.
+     * @return x(s)<sub>i</sub>.
+     * @throws IllegalArgumentException if s is not within the solution range.
+     */
+    public double apply(double s, int i) {
+        if (i < 0 || i >= dimension)
+            throw new IndexOutOfBoundsException("component " + i + " of " + dimension);
+        final int k = step(s);
+        final double h = t[k + 1] - t[k];
+        final double theta = h == 0 ? 0 : (s - t[k]) / h;
+        final double theta1 = 1 - theta;
+        final int c = 3 * k * dimension;
+        final double x0 = x[k * dimension + i];
+        return x0 + theta * (x[(k + 1) * dimension + i] - x0 + theta1 * (coefficients[c + i]
+                                                                        + theta * (coefficients[c + dimension + i]
+                                                                                   + theta1 * coefficients[c + 2 * dimension + i])));
+    }
+
+    /**
+     * Get the vector of all components of the solution at a time.
+     * @param s the time, which must be a real number within the solution range.
+     * @return the vector x(s).
+     */
+    public Object apply(Object s) {
+        return Values.getDefaultInstance().valueOf(apply(((Number) s).doubleValue(), new double[dimension]));
+    }
+
+    /**
+     * Find the step that contains time s.
+     * @return the index k of the step with s between t[k] and t[k+1].
+     */
+    private int step(double s) {
+        if (!((s - t[0]) * direction >= 0 && (max - s) * direction >= 0))
+            throw new IllegalArgumentException("time " + s + " out of solution range [" + Math.min(t[0], max) + "," + Math.max(t[0], max) + "]");
+        if (steps == 0)
+            throw new IllegalArgumentException("time " + s + " out of empty solution range");
+        // binary search for the last step with t[k] before s
+        int low = 0;
+        int high = steps - 1;
+        while (low < high) {
+            final int mid = (low + high + 1) >>> 1;
+            if ((s - t[mid]) * direction >= 0)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+
+    public Function derive() {
+        throw new UnsupportedOperationException("derivative of dense output not yet implemented");
+    }
+    public Function integrate() {
+        throw new UnsupportedOperationException("integral of dense output not yet implemented");
+    }
+    public String toString() {
+        return "[dense output on [" + Math.min(t[0], max) + "," + Math.max(t[0], max) + "] with " + steps + " steps]";
+    }
+}
@@ -0,0 +1,499 @@
+/**
+ * @(#)DistributedPolynomial.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.math;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import orbital.util.KeyValuePair;
+
+/**
+ * Sparse distributed representation of multivariate polynomials in R[X<sub>0</sub>,...,X<sub>n-1</sub>]
+ * for Gr&ouml;bner basis computations.
+ * <p>
+ * The terms with coefficients &ne;0 are stored sorted descending with respect to an
+ * admissible {@link MonomialOrder monomial order}, so the leading term is the first term.
+ * The exponents of all terms are packed into a single <code>int[]</code>
+ * with the exponent vector of term k at the positions k&sdot;n,...,k&sdot;n+n-1.
+ * Hence comparing and dividing monomials does not need to walk boxed
+ * {@link Vector}s of {@link Integer}s.
+ * Since multiplication with monomials preserves an admissible order,
+ * the specialized reduction and S-polynomial kernels are merges of sorted term lists.
+ * </p>
+ * <p>
+ * Instances are immutable.
+ * </p>
+ *
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ * @see AlgebraicAlgorithms#groebnerBasis(java.util.Set,Comparator)
+ * @see AlgebraicAlgorithms#reduce(Collection,Comparator)
+ * @internal only the coefficients are still arithmetic objects, since exact rational arithmetic is required.
+ */
+final class DistributedPolynomial {
+    /**
+     * The zero of the polynomial ring R[S] that this polynomial originated from.
+     */
+    private final Polynomial/*<R,S>*/ zero;
+    /**
+     * The admissible monomial order by which the terms are sorted.
+     */
+    final MonomialOrder order;
+    /**
+     * The number n of variables.
+     */
+    final int n;
+    /**
+     * The non-zero coefficients, corresponding to the monomials in descending order.
+     */
+    final Arithmetic/*>R<*/ coefficient[];
+    /**
+     * The packed exponents with the exponent vector of term k at k*n,...,k*n+n-1.
+     */
+    final int exponent[];
+    /**
+     * The number of terms.
+     */
+    final int size;
+
+    private DistributedPolynomial(Polynomial/*<R,S>*/ zero, MonomialOrder order, int n, Arithmetic/*>R<*/ coefficient[], int exponent[], int size) {
+        this.zero = zero;
+        this.order = order;
+        this.n = n;
+        this.coefficient = coefficient;
+        this.exponent = exponent;
+        this.size = size;
+    }
+
+    /**
+     * Whether all polynomials of the given collection have exponents in <b>N</b><sup>n</sup>,
+     * represented as {@link Vector}s or, for univariate polynomials, as {@link Integer}s.
+     */
+    static boolean isDistributable(Collection/*<Polynomial<R,S>>*/ g) {
+        for (Iterator i = g.iterator(); i.hasNext(); ) {
+            final Object o = i.next();
+            if (!(o instanceof Polynomial))
+                return false;
+            final Iterator/*<S>*/ j = ((Polynomial) o).indices();
+            if (j.hasNext()) {
+                final Object nu = j.next();
+                if (!(nu instanceof Vector || nu instanceof Integer))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts a polynomial into its sparse distributed representation.
+     * @preconditions isDistributable({p})
+     */
+    static DistributedPolynomial valueOf(Polynomial/*<R,S>*/ p, MonomialOrder order) {
+        int n = -1;
+        int size = 0;
+        Arithmetic/*>R<*/ c[] = new Arithmetic[8];
+        int e[][] = new int[8][];
+        for (Iterator/*<KeyValuePair<S,R>>*/ i = p.monomials(); i.hasNext(); ) {
+            final KeyValuePair/*<S,R>*/ m = (KeyValuePair) i.next();
+            final Arithmetic/*>R<*/ cnu = (Arithmetic/*>R<*/) m.getValue();
+            if (cnu.isZero())
+                continue;
+            final int nu[] = exponents(m.getKey());
+            if (n < 0)
+                n = nu.length;
+            else if (n != nu.length)
+                throw new IllegalArgumentException("incompatible monomial exponents from polynomial rings with a different number of variables");
+            if (size == c.length) {
+                c = (Arithmetic[]) resize(c, 2 * size);
+                e = (int[][]) resize(e, 2 * size);
+            }
+            c[size] = cnu;
+            e[size++] = nu;
+        }
+        if (n < 0)
+            n = p.rank();
+        // sort terms descending with respect to the monomial order
+        final int nvars = n;
+        final MonomialOrder monomialOrder = order;
+        final int term[][] = e;
+        java.lang.Integer permutation[] = new java.lang.Integer[size];
+        for (int k = 0; k < size; k++)
+            permutation[k] = new java.lang.Integer(k);
+        Arrays.sort(permutation, new Comparator/*<Integer>*/() {
+                public int compare(Object/*>Integer<*/ a, Object/*>Integer<*/ b) {
+                    return monomialOrder.compare(term[((java.lang.Integer) b).intValue()], 0, term[((java.lang.Integer) a).intValue()], 0, nvars);
+                }
+            });
+        final Arithmetic/*>R<*/ coefficient[] = new Arithmetic[size];
+        final int exponent[] = new int[size * n];
+        for (int k = 0; k < size; k++) {
+            final int l = permutation[k].intValue();
+            coefficient[k] = c[l];
+            System.arraycopy(e[l], 0, exponent, k * n, n);
+        }
+        return new DistributedPolynomial((Polynomial) p.zero(), order, n, coefficient, exponent, size);
+    }
+
+    private static Object[] resize(Object a[], int capacity) {
+        Object r[] = (Object[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), capacity);
+        System.arraycopy(a, 0, r, 0, a.length);
+        return r;
+    }
+
+    /**
+     * Get the exponent vector of a monomial exponent in S as an <code>int[]</code>.
+     * @param nu the exponent represented as a {@link Vector} of {@link Integer}s or, in the univariate case, as an {@link Integer}.
+     */
+    static int[] exponents(Object/*>S<*/ nu) {
+        if (nu instanceof Vector) {
+            final Vector/*<Integer>*/ v = (Vector) nu;
+            final int e[] = new int[v.dimension()];
+            for (int i = 0; i < e.length; i++)
+                e[i] = ((Integer) v.get(i)).intValue();
+            return e;
+        } else if (nu instanceof Integer) {
+            // univariate case
+            return new int[] {((Integer) nu).intValue()};
+        } else {
+            throw new ClassCastException("Cannot convert exponent representation into Vector<Integer> from " + nu);
+        }
+    }
+
+    /**
+     * Converts back to a polynomial in the ring R[S] that this polynomial originated from.
+     */
+    Polynomial/*<R,S>*/ toPolynomial() {
+        if (size == 0)
+            return zero;
+        final ValueFactory vf = zero.valueFactory();
+        if (zero instanceof UnivariatePolynomial) {
+            assert n == 1 : "univariate polynomials have 1 variable";
+            final Arithmetic/*>R<*/ c[] = new Arithmetic[exponent[0] + 1];
+            Arrays.fill(c, coefficient[0].zero());
+            for (int k = 0; k < size; k++)
+                c[exponent[k]] = coefficient[k];
+            return vf.polynomial(c);
+        }
+        final Map/*<Vector<Integer>,R>*/ m = new LinkedHashMap();
+        for (int k = 0; k < size; k++) {
+            final int nu[] = new int[n];
+            System.arraycopy(exponent, k * n, nu, 0, n);
+            m.put(vf.valueOf(nu), coefficient[k]);
+        }
+        return vf.polynomial(m);
+    }
+
+    /**
+     * Whether this polynomial is (roughly, for numerical quantities) 0.
+     */
+    boolean isZero() {
+        if (size == 0)
+            return true;
+        final Real tolerance = zero.valueFactory().valueOf(MathUtilities.getDefaultTolerance());
+        for (int k = 0; k < size; k++) {
+            if (!Arithmetic.numerical.apply(coefficient[k]) || !coefficient[k].equals(coefficient[k].zero(), tolerance))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Get the total degree of the leading monomial.
+     * @preconditions size &gt; 0
+     */
+    int leadingDegree() {
+        int d = 0;
+        for (int l = 0; l < n; l++)
+            d += exponent[l];
+        return d;
+    }
+
+    /**
+     * Get the total degree, i.e., the maximum total degree of the monomials occurring.
+     */
+    int degree() {
+        int max = -1;
+        for (int k = 0; k < size; k++) {
+            int d = 0;
+            for (int l = 0; l < n; l++)
+                d += exponent[k * n + l];
+            max = Math.max(max, d);
+        }
+        return max;
+    }
+
+    /**
+     * Get the monic polynomial 1/l<sub>c</sub>(f) f whose leading coefficient is 1.
+     * @preconditions size &gt; 0
+     */
+    DistributedPolynomial monic() {
+        if (coefficient[0].isOne())
+            return this;
+        final ValueFactory vf = zero.valueFactory();
+        final Arithmetic/*>R<*/ inverse = coefficient[0].inverse();
+        final Arithmetic/*>R<*/ c[] = new Arithmetic[size];
+        for (int k = 0; k < size; k++) {
+            c[k] = inverse.multiply(coefficient[k]);
+            if (c[k] instanceof Scalar)
+                c[k] = vf.narrow((Scalar) c[k]);
+        }
+        return new DistributedPolynomial(zero, order, n, c, exponent, size);
+    }
+
+    /**
+     * Sets r := lcm(l(f),l(g)), the exponent of the least common multiple of the leading monomials.
+     * @return whether l(f) and l(g) are coprime.
+     */
+    static boolean leadingLcm(DistributedPolynomial f, DistributedPolynomial g, int r[]) {
+        boolean coprime = true;
+        for (int l = 0; l < r.length; l++) {
+            r[l] = Math.max(f.exponent[l], g.exponent[l]);
+            coprime &= f.exponent[l] == 0 || g.exponent[l] == 0;
+        }
+        return coprime;
+    }
+
+    /**
+     * Whether the exponent a[i..i+n-1] divides the exponent b[j..j+n-1] componentwise.
+     */
+    static boolean divides(int a[], int i, int b[], int j, int n) {
+        for (int l = 0; l < n; l++)
+            if (a[i + l] > b[j + l])
+                return false;
+        return true;
+    }
+
+    /**
+     * Reduce this polynomial with respect to the basis g.
+     * Iteratedly performs the Buchberger-reduction on the largest monomial
+     * that can still be reduced, choosing the first polynomial in g whose leading monomial divides it.
+     * @param g the list of polynomials (in the same representation) for reducing this polynomial.
+     * @return a reduced reduction of this polynomial with respect to g, which is this polynomial itself
+     *  if there were no elementary reductions.
+     * @see AlgebraicAlgorithms#reduce(Collection,Comparator)
+     */
+    DistributedPolynomial reduce(List/*<DistributedPolynomial>*/ g) {
+        if (g.isEmpty())
+            return this;
+        final DistributedPolynomial basis[] = (DistributedPolynomial[]) g.toArray(new DistributedPolynomial[g.size()]);
+        final ValueFactory vf = zero.valueFactory();
+        final int shift[] = new int[n];
+        DistributedPolynomial f = this;
+        // the terms 0,...,k-1 of f are irreducible with respect to g
+        int k = 0;
+        leadingReductions:
+        while (k < f.size) {
+            final int nu = k * n;
+            reductionPolynomials:
+            for (int j = 0; j < basis.length; j++) {
+                final DistributedPolynomial gj = basis[j];
+                // test divisibility of monomial X^nu by l(gj)
+                if (gj.size == 0 || !divides(gj.exponent, 0, f.exponent, nu, n))
+                    continue reductionPolynomials;
+                // test divisibility of coefficient cnu by lc(gj)
+                Arithmetic/*>R<*/ cdiv;
+                try {
+                    cdiv = f.coefficient[k].divide(gj.coefficient[0]);
+                    if (cdiv instanceof Scalar) {
+                        // simplify domain and cancel rationals leading to less complex coefficients.
+                        cdiv = vf.narrow((Scalar) cdiv);
+                    }
+                }
+                catch (ArithmeticException indivisible) {
+                    continue reductionPolynomials;
+                }
+                for (int l = 0; l < n; l++)
+                    shift[l] = f.exponent[nu + l] - gj.exponent[l];
+                // f - cdiv*X^shift*gj where the term X^nu cancels by construction, and the terms before remain unchanged
+                f = combine(f, k, null, null, f, k + 1, cdiv, shift, gj, 1);
+                continue leadingReductions;
+            }
+            // gj could not reduce this monomial at all, and it will stay irreducible
+            k++;
+        }
+        return f;
+    }
+
+    /**
+     * Construct the syzygy S-polynomial S(f,g) of f and g.
+     * <div>S(f,g) = 1/l<sub>c</sub>(f) X<sup>&nu;</sup> f - 1/l<sub>c</sub>(g) X<sup>&mu;</sup> g</div>
+     * with X<sup>&nu;</sup>l(f) = X<sup>&mu;</sup>l(g) = lcm(l(f),l(g)), whose leading terms cancel.
+     * @param optimize whether to return <code>null</code> if S(f,g) is known to reduce to 0,
+     *  i.e., if l(f) and l(g) are equal or coprime.
+     * @return S(f,g), or <code>null</code> if the S-polynomial is known to reduce to 0 (if <code>optimize==true</code>).
+     */
+    static DistributedPolynomial sPolynomial(DistributedPolynomial f, DistributedPolynomial g, boolean optimize) {
+        final int n = f.n;
+        if (n != g.n)
+            throw new IllegalArgumentException("incompatible monomial exponents from polynomial rings with a different number of variables");
+        final int nu[] = new int[n];
+        final int mu[] = new int[n];
+        boolean equal = true;
+        boolean coprime = true;
+        for (int l = 0; l < n; l++) {
+            final int lf = f.exponent[l];
+            final int lg = g.exponent[l];
+            final int d = Math.max(lf, lg);
+            nu[l] = d - lf;
+            mu[l] = d - lg;
+            equal &= lf == lg;
+            coprime &= lf == 0 || lg == 0;
+        }
+        if (optimize && (equal || coprime)) {
+            // identical leading exponents can be reduced
+            // if l(f) and l(g) are coprime, i.e., lcm(l(f),l(g))=l(f)*l(g), then S(f,g) reduces to 0
+            return null;
+        }
+        return combine(null, 0, f.coefficient[0].inverse(), nu, f, 1, g.coefficient[0].inverse(), mu, g, 1);
+    }
+
+    /**
+     * Merges the terms of p<sub>0</sub>+...+p<sub>prefix-1</sub> + a&sdot;X<sup>s</sup>&sdot;(f<sub>fstart</sub>+...) - b&sdot;X<sup>t</sup>&sdot;(g<sub>gstart</sub>+...).
+     * @param p the polynomial whose first <code>prefix</code> terms are all larger than the remaining terms.
+     * @param a the coefficient factor for f, or <code>null</code> for 1.
+     * @param s the exponent of the monomial factor for f, or <code>null</code> for 1.
+     * @param b the coefficient factor for g, or <code>null</code> for 1.
+     * @param t the exponent of the monomial factor for g, or <code>null</code> for 1.
+     */
+    private static DistributedPolynomial combine(DistributedPolynomial p, int prefix,
+                                                 Arithmetic/*>R<*/ a, int s[], DistributedPolynomial f, int fstart,
+                                                 Arithmetic/*>R<*/ b, int t[], DistributedPolynomial g, int gstart) {
+        final int n = f.n;
+        final MonomialOrder order = f.order;
+        final int capacity = prefix + (f.size - fstart) + (g.size - gstart);
+        final Arithmetic/*>R<*/ coefficient[] = new Arithmetic[capacity];
+        final int exponent[] = new int[capacity * n];
+        if (prefix > 0) {
+            System.arraycopy(p.coefficient, 0, coefficient, 0, prefix);
+            System.arraycopy(p.exponent, 0, exponent, 0, prefix * n);
+        }
+        int size = prefix;
+        // the (shifted) exponents of the current terms of f and g
+        final int fe[] = new int[n];
+        final int ge[] = new int[n];
+        int k = fstart, l = gstart;
+        if (k < f.size)
+            shift(f.exponent, k * n, s, fe, n);
+        if (l < g.size)
+            shift(g.exponent, l * n, t, ge, n);
+        while (k < f.size || l < g.size) {
+            final int cmp = l >= g.size ? 1 : k >= f.size ? -1 : order.compare(fe, 0, ge, 0, n);
+            final Arithmetic/*>R<*/ v;
+            final int nu[];
+            if (cmp > 0) {
+                v = a == null ? f.coefficient[k] : a.multiply(f.coefficient[k]);
+                nu = fe;
+            } else if (cmp < 0) {
+                v = (b == null ? g.coefficient[l] : b.multiply(g.coefficient[l])).minus();
+                nu = ge;
+            } else {
+                v = (a == null ? f.coefficient[k] : a.multiply(f.coefficient[k]))
+                    .subtract(b == null ? g.coefficient[l] : b.multiply(g.coefficient[l]));
+                nu = fe;
+            }
+            if (!v.isZero()) {
+                coefficient[size] = v;
+                System.arraycopy(nu, 0, exponent, size * n, n);
+                size++;
+            }
+            if (cmp >= 0 && ++k < f.size)
+                shift(f.exponent, k * n, s, fe, n);
+            if (cmp <= 0 && ++l < g.size)
+                shift(g.exponent, l * n, t, ge, n);
+        }
+        return new DistributedPolynomial(f.zero, order, n, coefficient, exponent, size);
+    }
+
+    /**
+     * Sets r := e[i..i+n-1] + s.
+     */
+    private static void shift(int e[], int i, int s[], int r[], int n) {
+        if (s == null)
+            System.arraycopy(e, i, r, 0, n);
+        else
+            for (int l = 0; l < n; l++)
+                r[l] = e[i + l] + s[l];
+    }
+
+    /**
+     * The partial lexicographial order on polynomials induced by their admissible monomial order.
+     * p&gt;q iff the largest monomial which occurs in p or q but not both is in p.
+     * @see AlgebraicAlgorithms#INDUCED(Comparator)
+     */
+    static final Comparator/*<DistributedPolynomial>*/ INDUCED = new Comparator/*<DistributedPolynomial>*/() {
+            public int compare(Object/*>DistributedPolynomial<*/ o1, Object/*>DistributedPolynomial<*/ o2) {
+                final DistributedPolynomial p = (DistributedPolynomial) o1;
+                final DistributedPolynomial q = (DistributedPolynomial) o2;
+                final int n = p.n;
+                for (int k = 0; k < p.size && k < q.size; k++) {
+                    final int cmp = p.order.compare(p.exponent, k * n, q.exponent, k * n, n);
+                    if (cmp != 0)
+                        return cmp;
+                }
+                // the larger polynomial is the one that still has monomials
+                return p.size < q.size ? -1 : p.size > q.size ? 1 : 0;
+            }
+        };
+
+    public String toString() {
+        return toPolynomial().toString();
+    }
+
+    /**
+     * Admissible total orders on the monoid of monomials with primitive exponents.
+     * <p>
+     * Compares exponents packed into <code>int[]</code>s without creating any
+     * {@link Vector}s, and still implements {@link Comparator} on
+     * exponents in the form of {@link Vector}s of {@link Integer}s.
+     * </p>
+     * @see AlgebraicAlgorithms#LEXICOGRAPHIC
+     */
+    static abstract class MonomialOrder implements Comparator/*<Vector<Integer>>*/ {
+        /**
+         * Compares the exponents nu[i..i+n-1] and mu[j..j+n-1].
+         * @return a negative integer, zero, or a positive integer as the monomial
+         *  X<sup>nu</sup> is less than, equal to, or greater than X<sup>mu</sup>.
+         */
+        abstract int compare(int nu[], int i, int mu[], int j, int n);
+
+        public int compare(Object/*>Vector<Integer><*/ m1, Object/*>Vector<Integer><*/ m2) {
+            final int nu[] = exponents(m1);
+            final int mu[] = exponents(m2);
+            if (nu.length != mu.length)
+                throw new IllegalArgumentException("incompatible monomial exponents from polynomial rings with a different number of variables");
+            return compare(nu, 0, mu, 0, nu.length);
+        }
+
+        /**
+         * Get a monomial order with primitive exponents for a comparator on exponents.
+         * Comparators that are not already instances of MonomialOrder are
+         * called with the exponents converted to {@link Vector}s.
+         */
+        static MonomialOrder valueOf(final Comparator/*<Vector<Integer>>*/ monomialOrder) {
+            if (monomialOrder instanceof MonomialOrder)
+                return (MonomialOrder) monomialOrder;
+            return new MonomialOrder() {
+                    int compare(int nu[], int i, int mu[], int j, int n) {
+                        final ValueFactory vf = Values.getDefault();
+                        final int a[] = new int[n];
+                        final int b[] = new int[n];
+                        System.arraycopy(nu, i, a, 0, n);
+                        System.arraycopy(mu, j, b, 0, n);
+                        return monomialOrder.compare(vf.valueOf(a), vf.valueOf(b));
+                    }
+                    public String toString() {
+                        return monomialOrder.toString();
+                    }
+                };
+        }
+    }
+}
@@ -0,0 +1,335 @@
+/**
+ * @(#)DormandPrince.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.math;
+
+import java.util.logging.Logger;
+import java.util.logging.Level;
+
+/**
+ * Explicit Runge-Kutta method of Dormand and Prince of order 5(4) with step-size control
+ * and event detection, on primitive doubles.
+ * <p>
+ * The difference of the embedded solution of order 4 estimates the local error of each step.
+ * Steps whose error exceeds the tolerance are rejected, and the step size is adapted with a
+ * PI controller. Since the last stage is evaluated at the new solution, it is reused as the first
+ * stage of the next step (first same as last), such that each accepted step needs 6 evaluations.
+ * All stages are kept in arrays that are allocated once, such that steps do not allocate anything
+ * but the amortized growth of the {@link DenseOutput}.
+ * </p>
+ * <p>
+ * Zeros of event functions are detected by sign changes between steps, and located with the
+ * Illinois variant of regula falsi on the interpolation polynomial of the step.
+ * </p>
+ *
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ * @see NumericalAlgorithms#dSolve(NumericalAlgorithms.DifferentialEquation,double,double[],double,double,NumericalAlgorithms.EventFunction[])
+ * @see DenseOutput
+ * @internal Follows DOPRI5 by Hairer, N&oslash;rsett and Wanner with equal absolute and relative tolerances.
+ */
+final class DormandPrince {
+    private static final Logger logger = Logger.getLogger(DormandPrince.class.getName());
+    /**
+     * prevent instantiation - module class
+     */
+    private DormandPrince() {}
+
+    // Butcher tableau
+    private static final double
+        c2 = 1.0 / 5, c3 = 3.0 / 10, c4 = 4.0 / 5, c5 = 8.0 / 9,
+        a21 = 1.0 / 5,
+        a31 = 3.0 / 40, a32 = 9.0 / 40,
+        a41 = 44.0 / 45, a42 = -56.0 / 15, a43 = 32.0 / 9,
+        a51 = 19372.0 / 6561, a52 = -25360.0 / 2187, a53 = 64448.0 / 6561, a54 = -212.0 / 729,
+        a61 = 9017.0 / 3168, a62 = -355.0 / 33, a63 = 46732.0 / 5247, a64 = 49.0 / 176, a65 = -5103.0 / 18656,
+        a71 = 35.0 / 384, a73 = 500.0 / 1113, a74 = 125.0 / 192, a75 = -2187.0 / 6784, a76 = 11.0 / 84;
+    // differences to the embedded solution of order 4
+    private static final double
+        e1 = 71.0 / 57600, e3 = -71.0 / 16695, e4 = 71.0 / 1920, e5 = -17253.0 / 339200, e6 = 22.0 / 525, e7 = -1.0 / 40;
+    // continuous extension
+    private static final double
+        d1 = -12715105075.0 / 11282082432.0, d3 = 87487479700.0 / 32700410799.0, d4 = -10690763975.0 / 1880347072.0,
+        d5 = 701980252875.0 / 199316789632.0, d6 = -1453857185.0 / 822651844.0, d7 = 69997945.0 / 29380423.0;
+
+    // step-size control
+    /**
+     * The safety factor of new step sizes.
+     */
+    private static final double SAFETY = 0.9;
+    /**
+     * The bounds of the factor by which the step size changes in one step.
+     */
+    private static final double MIN_FACTOR = 0.2, MAX_FACTOR = 10;
+    /**
+     * The exponent &beta; of the stabilization of the PI controller.
+     */
+    private static final double BETA = 0.04;
+    private static final double EXPONENT = 0.2 - BETA * 0.75;
+    /**
+     * The maximum number of iterations for locating an event.
+     */
+    private static final int MAX_EVENT_ITERATIONS = 100;
+
+    /**
+     * Solves x'(t) = f(t,x(t)), x(&tau;)=&eta; from &tau; to max.
+     * @see NumericalAlgorithms#dSolve(NumericalAlgorithms.DifferentialEquation,double,double[],double,double,NumericalAlgorithms.EventFunction[])
+     */
+    static DenseOutput dSolve(NumericalAlgorithms.DifferentialEquation f, double tau, double eta[], double max,
+                              double tolerance, NumericalAlgorithms.EventFunction events[]) {
+        return dSolve(f, tau, eta, max, tolerance, events, true, null, null);
+    }
+
+    /**
+     * Solves x'(t) = f(t,x(t)), x(&tau;)=&eta; and samples the solution at the given times.
+     * Only the last step is retained, such that the memory does not depend on the number of steps.
+     * @see NumericalAlgorithms#dSolve(NumericalAlgorithms.DifferentialEquation,double,double[],double[],double)
+     */
+    static double[][] dSolve(NumericalAlgorithms.DifferentialEquation f, double tau, double eta[], double times[],
+                             double tolerance) {
+        if (times.length == 0)
+            return new double[0][];
+        final double max = times[times.length - 1];
+        final int direction = max >= tau ? 1 : -1;
+        for (int j = 0; j < times.length; j++)
+            if (!((times[j] - tau) * direction >= 0 && (j == 0 || (times[j] - times[j - 1]) * direction >= 0)))
+                throw new IllegalArgumentException("times expected to be sorted from " + tau + " on, but found " + times[j] + " at " + j);
+        final double samples[][] = new double[times.length][eta.length];
+        dSolve(f, tau, eta, max, tolerance, null, false, times, samples);
+        return samples;
+    }
+
+    /**
+     * Solves x'(t) = f(t,x(t)), x(&tau;)=&eta; from &tau; to max.
+     * @param retain whether to retain all steps in the dense output.
+     * @param times the times at which to sample the solution, or null.
+     * @param samples the arrays to fill with the values at times.
+     */
+    private static DenseOutput dSolve(NumericalAlgorithms.DifferentialEquation f, double tau, double eta[], double max,
+                                      double tolerance, NumericalAlgorithms.EventFunction events[],
+                                      boolean retain, double times[], double samples[][]) {
+        if (Double.isNaN(tau) || Double.isInfinite(tau) || Double.isNaN(max) || Double.isInfinite(max))
+            throw new IllegalArgumentException("no solution range from " + tau + " to " + max);
+        if (!(tolerance > 0))
+            throw new IllegalArgumentException("positive tolerance expected: " + tolerance);
+        if (eta.length == 0)
+            throw new IllegalArgumentException("initial values expected");
+        final int n = eta.length;
+        final int direction = max >= tau ? 1 : -1;
+        final double hmax = Math.abs(max - tau);
+        final DenseOutput solution = new DenseOutput(tau, eta, direction, retain ? 16 : 1, retain);
+        // the next time to sample
+        int sample = 0;
+        // stages and work arrays
+        final double y[] = (double[]) eta.clone();
+        final double y1[] = new double[n];
+        final double ysti[] = new double[n];
+        final double k1[] = new double[n], k2[] = new double[n], k3[] = new double[n], k4[] = new double[n],
+            k5[] = new double[n], k6[] = new double[n], k7[] = new double[n];
+        final double r3[] = new double[n], r4[] = new double[n], r5[] = new double[n];
+        // event functions at the beginning of the current step
+        final double g[] = events == null ? new double[0] : new double[events.length];
+        for (int e = 0; e < g.length; e++)
+            g[e] = events[e].apply(tau, y);
+
+        if (hmax == 0) {
+            solution.append(tau, y, r3, r4, r5);
+            for (; times != null && sample < times.length; sample++)
+                solution.apply(times[sample], samples[sample]);
+            return solution;
+        }
+
+        double t = tau;
+        f.apply(t, y, k1);
+        int evaluations = 1;
+        double h = initialStep(f, t, y, k1, direction, hmax, tolerance, y1, k2);
+        evaluations++;
+        double errold = 1e-4;
+        boolean rejected = false;
+        int rejections = 0;
+        boolean last = false;
+        while (!last) {
+            if (Math.abs(h) <= 10 * Math.ulp(t))
+                throw new ArithmeticException("step size too small at " + t + " with step size " + h + ", the differential equation is stiff or singular");
+            if ((t + 1.01 * h - max) * direction > 0) {
+                h = max - t;
+                last = true;
+            }
+            // stages
+            for (int i = 0; i < n; i++)
+                ysti[i] = y[i] + h * a21 * k1[i];
+            f.apply(t + c2 * h, ysti, k2);
+            for (int i = 0; i < n; i++)
+                ysti[i] = y[i] + h * (a31 * k1[i] + a32 * k2[i]);
+            f.apply(t + c3 * h, ysti, k3);
+            for (int i = 0; i < n; i++)
+                ysti[i] = y[i] + h * (a41 * k1[i] + a42 * k2[i] + a43 * k3[i]);
+            f.apply(t + c4 * h, ysti, k4);
+            for (int i = 0; i < n; i++)
+                ysti[i] = y[i] + h * (a51 * k1[i] + a52 * k2[i] + a53 * k3[i] + a54 * k4[i]);
+            f.apply(t + c5 * h, ysti, k5);
+            for (int i = 0; i < n; i++)
+                ysti[i] = y[i] + h * (a61 * k1[i] + a62 * k2[i] + a63 * k3[i] + a64 * k4[i] + a65 * k5[i]);
+            final double tph = last ? max : t + h;
+            f.apply(tph, ysti, k6);
+            for (int i = 0; i < n; i++)
+                y1[i] = y[i] + h * (a71 * k1[i] + a73 * k3[i] + a74 * k4[i] + a75 * k5[i] + a76 * k6[i]);
+            f.apply(tph, y1, k7);
+            evaluations += 6;
+            // error estimate
+            double err = 0;
+            for (int i = 0; i < n; i++) {
+                final double sk = tolerance + tolerance * Math.max(Math.abs(y[i]), Math.abs(y1[i]));
+                final double erri = h * (e1 * k1[i] + e3 * k3[i] + e4 * k4[i] + e5 * k5[i] + e6 * k6[i] + e7 * k7[i]) / sk;
+                err += erri * erri;
+            }
+            err = Math.sqrt(err / n);
+            if (Double.isNaN(err))
+                throw new ArithmeticException("differential equation is not finite at " + t);
+            // computation of the new step size
+            final double fac11 = Math.pow(err, EXPONENT);
+            if (err <= 1) {
+                // accepted step
+                double fac = fac11 / Math.pow(errold, BETA);
+                fac = Math.max(1 / MAX_FACTOR, Math.min(1 / MIN_FACTOR, fac / SAFETY));
+                double hnew = h / fac;
+                errold = Math.max(err, 1e-4);
+                for (int i = 0; i < n; i++) {
+                    final double difference = y1[i] - y[i];
+                    final double bspl = h * k1[i] - difference;
+                    r3[i] = bspl;
+                    r4[i] = difference - h * k7[i] - bspl;
+                    r5[i] = h * (d1 * k1[i] + d3 * k3[i] + d4 * k4[i] + d5 * k5[i] + d6 * k6[i] + d7 * k7[i]);
+                }
+                solution.append(tph, y1, r3, r4, r5);
+                for (; times != null && sample < times.length && (times[sample] - tph) * direction <= 0; sample++)
+                    solution.apply(times[sample], samples[sample]);
+                if (g.length > 0 && event(events, g, solution, t, tph, y1, ysti)) {
+                    last = true;
+                } else {
+                    System.arraycopy(y1, 0, y, 0, n);
+                    System.arraycopy(k7, 0, k1, 0, n);
+                    t = tph;
+                }
+                if (Math.abs(hnew) > hmax)
+                    hnew = direction * hmax;
+                if (rejected)
+                    hnew = direction * Math.min(Math.abs(hnew), Math.abs(h));
+                rejected = false;
+                h = hnew;
+            } else {
+                // rejected step
+                h = h / Math.min(1 / MIN_FACTOR, fac11 / SAFETY);
+                rejected = true;
+                rejections++;
+                last = false;
+            }
+        }
+        solution.setStatistics(evaluations, rejections);
+        if (logger.isLoggable(Level.FINE))
+            logger.log(Level.FINE, "solved from {0} to {1} with {2} steps, {3} rejected steps and {4} evaluations", new Object[] {new java.lang.Double(tau), new java.lang.Double(solution.getMax()), new java.lang.Integer(solution.getStepCount()), new java.lang.Integer(rejections), new java.lang.Integer(evaluations)});
+        return solution;
+    }
+
+    /**
+     * Guesses an initial step size from the derivatives at the initial values.
+     * @param f0 f(t,y).
+     * @param y1 work array.
+     * @param f1 work array.
+     */
+    private static double initialStep(NumericalAlgorithms.DifferentialEquation f, double t, double y[], double f0[],
+                                      int direction, double hmax, double tolerance, double y1[], double f1[]) {
+        final int n = y.length;
+        double dnf = 0;
+        double dny = 0;
+        for (int i = 0; i < n; i++) {
+            final double sk = tolerance + tolerance * Math.abs(y[i]);
+            dnf += (f0[i] / sk) * (f0[i] / sk);
+            dny += (y[i] / sk) * (y[i] / sk);
+        }
+        double h = dnf <= 1e-10 || dny <= 1e-10 ? 1e-6 : Math.sqrt(dny / dnf) * 0.01;
+        h = direction * Math.min(h, hmax);
+        // explicit Euler step to estimate the second derivative
+        for (int i = 0; i < n; i++)
+            y1[i] = y[i] + h * f0[i];
+        f.apply(t + h, y1, f1);
+        double der2 = 0;
+        for (int i = 0; i < n; i++) {
+            final double sk = tolerance + tolerance * Math.abs(y[i]);
+            der2 += ((f1[i] - f0[i]) / sk) * ((f1[i] - f0[i]) / sk);
+        }
+        der2 = Math.sqrt(der2) / Math.abs(h);
+        final double der12 = Math.max(der2, Math.sqrt(dnf));
+        final double h1 = der12 <= 1e-15 ? Math.max(1e-6, Math.abs(h) * 1e-3) : Math.pow(0.01 / der12, 0.2);
+        return direction * Math.min(Math.min(100 * Math.abs(h), h1), hmax);
+    }
+
+    /**
+     * Detects zeros of the event functions within the last step from t0 to t1, and terminates the solution at the first zero.
+     * @param g the values of the event functions at t0, which are updated to t1 if no event occurs.
+     * @param x1 the values at t1.
+     * @param x work array.
+     * @return whether an event occurred.
+     */
+    private static boolean event(NumericalAlgorithms.EventFunction events[], double g[], DenseOutput solution,
+                                 double t0, double t1, double x1[], double x[]) {
+        final int direction = t1 >= t0 ? 1 : -1;
+        int first = -1;
+        double tfirst = t1;
+        for (int e = 0; e < events.length; e++) {
+            final double g0 = g[e];
+            final double g1 = events[e].apply(t1, x1);
+            if (g0 != 0 && (g1 == 0 || (g0 < 0) != (g1 < 0))) {
+                final double te = zero(events[e], solution, t0, g0, t1, g1, x);
+                if (first < 0 || (te - tfirst) * direction < 0) {
+                    first = e;
+                    tfirst = te;
+                }
+            }
+            g[e] = g1;
+        }
+        if (first < 0)
+            return false;
+        solution.terminate(tfirst, first);
+        return true;
+    }
+
+    /**
+     * Locates a zero of event between a and b on the interpolation polynomial of the last step.
+     * @preconditions ga and gb have different signs, or gb is 0
+     */
+    private static double zero(NumericalAlgorithms.EventFunction event, DenseOutput solution,
+                               double a, double ga, double b, double gb, double x[]) {
+        // Illinois variant of regula falsi
+        int side = 0;
+        for (int iteration = 0; iteration < MAX_EVENT_ITERATIONS && gb != 0; iteration++) {
+            if (Math.abs(b - a) <= 4 * Math.ulp(Math.max(Math.abs(a), Math.abs(b))))
+                break;
+            double c = (a * gb - b * ga) / (gb - ga);
+            if (!((c - a) * (c - b) < 0))
+                // regula falsi step left the interval due to rounding
+                c = 0.5 * (a + b);
+            final double gc = event.apply(c, solution.apply(c, x));
+            if (gc == 0)
+                return c;
+            if ((gc < 0) == (gb < 0)) {
+                // the zero is between a and c
+                b = c;
+                gb = gc;
+                if (side == -1)
+                    ga *= 0.5;
+                side = -1;
+            } else {
+                a = c;
+                ga = gc;
+                if (side == 1)
+                    gb *= 0.5;
+                side = 1;
+            }
+        }
+        return b;
+    }
+}
@@ -17,6 +17,7 @@ import orbital.logic.functor.Predicate;
 
 import orbital.math.functional.Functions;
 import orbital.logic.functor.Predicates;
+import orbital.util.Utility;
 
 /**
  * LUDecomposition class, decomposing <span class="matrix">A</span>
@@ -51,6 +52,25 @@ public final class LUDecomposition/*<R extends Arithmetic>*/ implements Serializ
      * @serial
      */
     private boolean sign;
+    /**
+     * packed decomposition data of the primitive implementation, contains
+     * lower triangular (without its diagonal 1s) as well as upper triangular.
+     * Only used instead of <var>A</var> and <var>P</var> for <code>double</code> valued matrices.
+     * @serial
+     */
+    private double[][] LU;
+    /**
+     * the permutation of the primitive implementation,
+     * row <var>i</var> of <span class="matrix">P</span>&#8729;<span class="matrix">A</span>
+     * is row <code>pivot[i]</code> of <span class="matrix">A</span>.
+     * @serial
+     */
+    private int[] pivot;
+    /**
+     * the value factory for the results of the primitive implementation.
+     * @serial
+     */
+    private ValueFactory valueFactory;
     /**
      * Gaussian LU-decomposition implementation.
      * Such that <span class="matrix">P</span>.<span class="matrix">A</span> = <span class="matrix">L</span>.<span class="matrix">U</span>
@@ -60,6 +80,7 @@ public final class LUDecomposition/*<R extends Arithmetic>*/ implements Serializ
         this.A = A;
         this.P = P;
         this.sign = sign;
+        this.valueFactory = A.valueFactory();
     }
     /**
      * Gaussian LU-decomposition implementation.
@@ -81,9 +102,14 @@ public final class LUDecomposition/*<R extends Arithmetic>*/ implements Serializ
             {
                 // @see orbital.util.Setops#argmax
                 int pivot = k;
-                for (int i = k + 1; i < A.dimension().height; i++)
-                    if ((A.get(i, k).norm()).compareTo(A.get(pivot, k).norm()) > 0)
+                Real pivotNorm = A.get(k, k).norm();
+                for (int i = k + 1; i < A.dimension().height; i++) {
+                    final Real norm = A.get(i, k).norm();
+                    if (norm.compareTo(pivotNorm) > 0) {
                         pivot = i;
+                        pivotNorm = norm;
+                    }
+                }
                 if (pivot != k) {
                     A.swapRows(k, pivot);
                     P.swapRows(k, pivot);
@@ -106,6 +132,7 @@ public final class LUDecomposition/*<R extends Arithmetic>*/ implements Serializ
         } 
         this.A = A;
         this.P = P;
+        this.valueFactory = M.valueFactory();
         assert P.multiply(M).equals(getL().multiply(getU()), M.valueFactory().valueOf(MathUtilities.getDefaultTolerance())) : "P.A = L.U: " + P + "*" + M + "=" + P.multiply(M) + "  =  " + getL().multiply(getU()) + "=" + getL() + "*" + getU();
 
         /*
@@ -138,21 +165,111 @@ public final class LUDecomposition/*<R extends Arithmetic>*/ implements Serializ
         */
     } 
     
+    /**
+     * Gaussian LU-decomposition implementation on primitive <code>double</code> values.
+     * Decomposes in-place with partial pivoting, and
+     * keeps track of the row swaps in a permutation vector instead of a permutation matrix.
+     * @param LU the matrix to decompose, which will be overwritten with the packed factors.
+     * @preconditions LU is square
+     */
+    private LUDecomposition(double[][] LU, ValueFactory valueFactory) {
+        final int n = LU.length;
+        for (int i = 0; i < n; i++)
+            if (LU[i].length != n)
+                throw new IllegalArgumentException("only square matrices can be LU-decomposed");
+        final int[] pivot = new int[n];
+        for (int i = 0; i < n; i++)
+            pivot[i] = i;
+        boolean sign = true;
+        for (int k = 0; k < n - 1; k++) {        /* last column need not be eliminated, so -1 */
+
+            // column pivotising
+            {
+                int p = k;
+                double max = Math.abs(LU[k][k]);
+                for (int i = k + 1; i < n; i++) {
+                    final double norm = Math.abs(LU[i][k]);
+                    if (norm > max) {
+                        p = i;
+                        max = norm;
+                    }
+                }
+                if (p != k) {
+                    // swap row references instead of their contents
+                    final double[] row = LU[k];
+                    LU[k] = LU[p];
+                    LU[p] = row;
+                    final int t = pivot[k];
+                    pivot[k] = pivot[p];
+                    pivot[p] = t;
+                    sign = !sign;
+                }
+            }
+
+            final double[] LUk = LU[k];
+            if (LUk[k] == 0)
+                continue;
+            final double apinv = 1 / LUk[k];
+            // partial multiplication (of upper triangular part, only)
+            for (int i = k + 1; i < n; i++) {
+                final double[] LUi = LU[i];
+                final double l = LUi[k] * apinv;
+                LUi[k] = l;
+                if (l == 0)
+                    continue;
+                for (int j = k + 1; j < n; j++)
+                    LUi[j] -= l * LUk[j];
+            }
+        }
+        this.LU = LU;
+        this.pivot = pivot;
+        this.sign = sign;
+        this.valueFactory = valueFactory;
+    }
+    
     /**
      * Get the Gaussian LU-decomposition of a matrix.
      * Such that <span class="matrix">P</span>&#8729;<span class="matrix">A</span> = <span class="matrix">L</span>&#8729;<span class="matrix">U</span>
      * <p>Number of multiplications is 1/3*(n<sup>3</sup>-n)</p>
+     * <p>
+     * Matrices of machine-sized <code>double</code> values are decomposed with primitive arithmetic.
+     * </p>
      * @preconditions M.isSquare()
      */
     public static /*<R extends Arithmetic>*/ LUDecomposition/*<R>*/ decompose(Matrix/*<R>*/ M) {
+        if (M instanceof AbstractMatrix && ((AbstractMatrix) M).isDoubleValued()) {
+            if (!M.isSquare())
+                throw new IllegalArgumentException("only square matrices can be LU-decomposed");
+            return new LUDecomposition/*<R>*/(((AbstractMatrix) M).toDoubleArray(), M.valueFactory());
+        }
         return new LUDecomposition/*<R>*/(M);
     }
 
+    /**
+     * Get the Gaussian LU-decomposition of a matrix of <code>double</code> values.
+     * Such that <span class="matrix">P</span>&#8729;<span class="matrix">A</span> = <span class="matrix">L</span>&#8729;<span class="matrix">U</span>
+     * <p>Number of multiplications is 1/3*(n<sup>3</sup>-n)</p>
+     * @param A the matrix with the rows as first index, and the columns as second index. A will not be modified.
+     * @preconditions A is square, i.e. A[i].length==A.length
+     */
+    public static LUDecomposition/*<Real>*/ decompose(double[][] A) {
+        double[][] LU = new double[A.length][];
+        for (int i = 0; i < A.length; i++)
+            LU[i] = (double[]) A[i].clone();
+        return new LUDecomposition/*<Real>*/(LU, Values.getDefault());
+    }
+
     /**
      * <span class="matrix">A</span> is regular if and only if <span class="matrix">U</span> is which depends upon whether there is a 0 on the diagonal.
      * @see Matrix#isInvertible()
      */
     public boolean isInvertible() throws ArithmeticException {
+        if (LU != null) {
+            for (int i = 0; i < LU.length; i++)
+                if (LU[i][i] == 0)
+                    return false;
+            return true;
+        }
         for (int i = 0; i < A.dimension().height; i++)
             if (A.get(i, i).isZero())
                 return false;
@@ -171,6 +288,13 @@ public final class LUDecomposition/*<R extends Arithmetic>*/ implements Serializ
      * @see Matrix#linearRank()
      */
     public int linearRank() {
+        if (LU != null) {
+            int rank = 0;
+            for (int i = 0; i < LU.length; i++)
+                if (LU[i][i] != 0)
+                    rank++;
+            return rank;
+        }
         return Setops.count(A.getDiagonal().iterator(), Functionals.compose(Functionals.bindSecond(Predicates.unequal, A.valueFactory().ZERO()), Functions.norm));
     }
 
@@ -182,6 +306,12 @@ public final class LUDecomposition/*<R extends Arithmetic>*/ implements Serializ
      * @see Matrix#det()
      */
     public Arithmetic/*>R<*/ det() {
+        if (LU != null) {
+            double detU = 1;
+            for (int i = 0; i < LU.length; i++)
+                detU *= LU[i][i];
+            return (Arithmetic/*>R<*/) valueFactory.valueOf(sign ? detU : -detU);
+        }
         Arithmetic/*>R<*/ detU = (Arithmetic/*>R<*/) Functionals.foldRight(Operations.times, A.valueFactory().ONE(), A.getDiagonal().iterator());
         return sign ? detU : (Arithmetic/*>R<*/) detU.minus();
     }
@@ -194,6 +324,14 @@ public final class LUDecomposition/*<R extends Arithmetic>*/ implements Serializ
      * with an absolute &le;1.</p>
      */
     public Matrix/*<R>*/ getL() {
+        if (LU != null) {
+            double[][] L = new double[LU.length][LU.length];
+            for (int i = 0; i < LU.length; i++) {
+                System.arraycopy(LU[i], 0, L[i], 0, i);
+                L[i][i] = 1;
+            }
+            return valueFactory.valueOf(L);
+        }
         Matrix/*<R>*/ L = A.valueFactory().IDENTITY(A.dimension());
         for (int i = 0; i < A.dimension().height; i++)
             for (int j = 0; j < i; j++)
@@ -205,6 +343,12 @@ public final class LUDecomposition/*<R extends Arithmetic>*/ implements Serializ
      * upper triangular matrix <span class="matrix">U</span>.
      */
     public Matrix/*<R>*/ getU() {
+        if (LU != null) {
+            double[][] U = new double[LU.length][LU.length];
+            for (int i = 0; i < LU.length; i++)
+                System.arraycopy(LU[i], i, U[i], i, LU.length - i);
+            return valueFactory.valueOf(U);
+        }
         Matrix/*<R>*/ U = A.valueFactory().ZERO(A.dimension());
         for (int i = 0; i < A.dimension().height; i++)
             for (int j = i; j < A.dimension().width; j++)
@@ -216,6 +360,12 @@ public final class LUDecomposition/*<R extends Arithmetic>*/ implements Serializ
      * permutation matrix.
      */
     public Matrix/*<R>*/ getP() {
+        if (LU != null) {
+            double[][] P = new double[LU.length][LU.length];
+            for (int i = 0; i < LU.length; i++)
+                P[i][pivot[i]] = 1;
+            return valueFactory.constant(valueFactory.valueOf(P));
+        }
         return A.valueFactory().constant(P);
     }
 
@@ -229,6 +379,18 @@ public final class LUDecomposition/*<R extends Arithmetic>*/ implements Serializ
      * @return x such that <span class="matrix">A</span>&#8729;<span class="vector">x</span> = <span class="vector">b</span>.
      */
     public Vector/*<R>*/ solve(Vector/*<R>*/ b) {
+        if (LU != null) {
+            Utility.pre(b.dimension() == LU.length, "vector b must have the dimension of the matrix A");
+            double[] c = new double[b.dimension()];
+            for (int i = 0; i < c.length; i++) {
+                final Arithmetic bi = b.get(i);
+                if (!(bi instanceof Real))
+                    // fall-back to more general operation
+                    return new LUDecomposition/*<R>*/(valueFactory.valueOf(LU), getP(), sign).solve(b);
+                c[i] = ((Real) bi).doubleValue();
+            }
+            return (Vector/*<R>*/) b.valueFactory().valueOf(solve(c));
+        }
         Vector/*<R>*/ c = P.multiply(b);
         Vector/*<R>*/ z = b.valueFactory().newInstance(A.dimension().width);
         // forward-substitution of L.z = P.b = c
@@ -243,11 +405,43 @@ public final class LUDecomposition/*<R extends Arithmetic>*/ implements Serializ
         Vector/*<R>*/ x = b.valueFactory().newInstance(A.dimension().width);
         // backward-substitution of R.x = z
         for (int i = A.dimension().height - 1; i >= 0; i--) {
-            Arithmetic/*>R<*/ t = c.get(i);
+            Arithmetic/*>R<*/ t = z.get(i);
             for (int j = i + 1; j < A.dimension().width; j++)
                 t = (Arithmetic/*>R<*/) t.subtract(A.get(i, j).multiply(x.get(j)));
             x.set(i, (Arithmetic/*>R<*/) t.divide(A.get(i,i)));
         }
         return x;
     }
+
+    /**
+     * Solve linear equation system <span class="matrix">A</span>&#8729;<span class="vector>x</span>=<span class="vector>b</span>
+     * of <code>double</code> values.
+     * @return x such that <span class="matrix">A</span>&#8729;<span class="vector">x</span> = <span class="vector">b</span>.
+     * @see #solve(Vector)
+     */
+    public double[] solve(double[] b) {
+        if (LU == null)
+            return MathUtilities.toDoubleArray(solve(valueFactory.valueOf(b)));
+        final int n = LU.length;
+        Utility.pre(b.length == n, "vector b must have the dimension of the matrix A");
+        double[] x = new double[n];
+        // forward-substitution of L.z = P.b, with z stored in x
+        for (int i = 0; i < n; i++) {
+            final double[] LUi = LU[i];
+            double t = b[pivot[i]];
+            for (int j = 0; j < i; j++)
+                t -= LUi[j] * x[j];
+            // need not divide by l[i,i]=1
+            x[i] = t;
+        }
+        // backward-substitution of R.x = z
+        for (int i = n - 1; i >= 0; i--) {
+            final double[] LUi = LU[i];
+            double t = x[i];
+            for (int j = i + 1; j < n; j++)
+                t -= LUi[j] * x[j];
+            x[i] = t / LUi[i];
+        }
+        return x;
+    }
 }
@@ -123,10 +123,14 @@ public final class NumericalAlgorithms {
     /**
      * cg-algorithm for solving A&#8729;x=b iteratively starting with x0.
      * Conjugate gradients algorithm.
+     * <p>
+     * Each iteration only needs a single matrix-vector product A&#8729;p, which makes
+     * the cg-algorithm well suited for large {@link ValueFactory#sparse(int,int) sparse} matrices
+     * without ever converting them to dense matrices.
+     * </p>
      * @preconditions A.isPositiveDefinite() && b.dimension()==A.dimension().width && x0.dimension() == A.dimension().width
      * @postconditions A.multiply(x) == b
      * @return the solution vector x solving Ax=b.
-     * @todo test sometime
      */
     public static Vector cgSolve(Matrix A, Vector x0, Vector b) {
         assert A.isSquare() : "Only square matrices can be solved with cg-algorithm";
@@ -137,15 +141,17 @@ public final class NumericalAlgorithms {
         Vector x = (Vector) x0.clone();                   // trial solution
         Vector r = b.subtract(A.multiply(x0));    // residual
         p = (Vector) r.clone();
+        Scalar rr = (Scalar/*__*/) r.multiply(r);           // squared norm of the residual
         final Vector zero = Values.getDefaultInstance().ZERO(r.dimension());
         final Real tolerance = Values.getDefaultInstance().valueOf(MathUtilities.getDefaultTolerance());
         for (int m = 0; m < A.dimension().width && !r.equals(zero, tolerance); m++) {
-            Vector o_r = (Vector) r.clone();    // old residual
             Vector a = A.multiply(p);
-            Scalar alpha = (Scalar/*__*/) ((Scalar/*__*/)Functions.square.apply(r.norm(2))).divide(a.multiply(p));
+            Scalar alpha = (Scalar/*__*/) rr.divide(a.multiply(p));
             x = x.add(p.scale(alpha));
             r = r.subtract(a.scale(alpha));
-            Scalar beta = (Scalar/*__*/) ((Scalar/*__*/)Functions.square.apply(r.norm(2))).divide((Scalar/*__*/)Functions.square.apply(o_r.norm(2)));
+            final Scalar o_rr = rr;         // old squared norm of the residual
+            rr = (Scalar/*__*/) r.multiply(r);
+            Scalar beta = (Scalar/*__*/) rr.divide(o_rr);
             p = r.add(p.scale(beta));
             logger.log(Level.FINE, "cg-iteration {0}, a={1}\nalpha={2}\nx={3}\nr={4}\nbeta={5}\np={6}", new Object[] {new java.lang.Integer(m), a, alpha, x, r, beta, p});
         } 
@@ -462,28 +468,86 @@ public final class NumericalAlgorithms {
     // numerical integration (numerische Quadratur)
     
     /**
-     * Returns &asymp; &int;<span class="doubleIndex"><sub>a</sub><sup>b</sup></span> f <i>d</i>x.
-     * <p>
-     * Currently implemented as Newton-Cotes numerical integration.
-     * </p>
+     * A real-valued function of a real variable on primitive doubles.
+     * Avoids boxing arguments and results for numerical algorithms that evaluate functions very often.
+     * @see #integrate(NumericalAlgorithms.RealFunction,double,double,double,double[])
+     */
+    public static interface RealFunction {
+        /**
+         * Get the value of this function at x.
+         */
+        double apply(double x);
+    }
+
+    /**
+     * Returns &asymp; &int;<span class="doubleIndex"><sub>a</sub><sup>b</sup></span> f <i>d</i>x
+     * up to the {@link MathUtilities#getDefaultTolerance() default tolerance}.
+     * @throws ArithmeticException if the default tolerance could not be reached.
+     * @see #integrate(orbital.math.functional.Function, Arithmetic, Arithmetic, double)
      * @see MathUtilities#integrate(orbital.math.functional.Function, Arithmetic, Arithmetic)
      */
     public static Arithmetic integrate(orbital.math.functional.Function f, Arithmetic a, Arithmetic b) {
-        // Newton-Cotes-Formula for equi-distant supporting nodes t[k] = a + k*h
-        // lambda[k] = 1 / n * &int; &prod;<sub>j=0,..k, j!=k</sub> (s-j)/(i-j) ds
-        // @see Lagrange-Polynom
-        // Milne-Rule of error term for n = 4,
-        double lambda[] = {7/90., 32/90., 12/90., 32/90., 7/90.};
-        int        n = lambda.length - 1;
-        double h = ((Number) b.subtract(a)).doubleValue() / n;
-        
-        // return (b-a) * &sum;(lambda[k] * f(a + k*h))
-        // @see Functionals#banana
+        return integrate(f, a, b, MathUtilities.getDefaultTolerance());
+    }
+
+    /**
+     * Returns &asymp; &int;<span class="doubleIndex"><sub>a</sub><sup>b</sup></span> f <i>d</i>x.
+     * @param f the real-valued integrand.
+     * @param a the lower bound, which may be -&infin;.
+     * @param b the upper bound, which may be +&infin;.
+     * @param tolerance the tolerance &epsilon; for both the absolute and the relative error.
+     * @throws ArithmeticException if the tolerance could not be reached.
+     * @see #integrate(NumericalAlgorithms.RealFunction,double,double,double,double[])
+     */
+    public static Real integrate(final orbital.math.functional.Function f, Arithmetic a, Arithmetic b, double tolerance) {
         final ValueFactory vf = a.valueFactory();
-        double array[] = new double[lambda.length];
-        for (int k = 0; k < array.length; k++)
-            array[k] = lambda[k] * ((Number) f.apply(a.add(vf.valueOf(k * h)))).doubleValue();
-        return b.subtract(a).scale(vf.valueOf(Evaluations.sum(array)));
+        return vf.valueOf(integrate(new RealFunction() {
+                public double apply(double x) {
+                    return ((Number) f.apply(vf.valueOf(x))).doubleValue();
+                }
+            }, ((Number) a).doubleValue(), ((Number) b).doubleValue(), tolerance, null));
+    }
+
+    /**
+     * Returns &asymp; &int;<span class="doubleIndex"><sub>a</sub><sup>b</sup></span> f <i>d</i>x.
+     * @throws ArithmeticException if the tolerance could not be reached.
+     * @see #integrate(NumericalAlgorithms.RealFunction,double,double,double,double[])
+     */
+    public static double integrate(RealFunction f, double a, double b, double tolerance) {
+        return integrate(f, a, b, tolerance, null);
+    }
+
+    /**
+     * Returns &asymp; &int;<span class="doubleIndex"><sub>a</sub><sup>b</sup></span> f <i>d</i>x
+     * with an estimate of the error.
+     * <p>
+     * Currently implemented as adaptive Gauss-Kronrod quadrature.
+     * Each subinterval is integrated with the 15 point Kronrod rule, and the difference to the
+     * embedded 7 point Gauss rule estimates its error. The subintervals with the largest
+     * error estimates are bisected until the total error estimate is at most
+     * &epsilon;&sdot;max(1,|&int;<span class="doubleIndex"><sub>a</sub><sup>b</sup></span> f <i>d</i>x|),
+     * or at most the rounding errors 50&sdot;ulp(1)&sdot;&int;<span class="doubleIndex"><sub>a</sub><sup>b</sup></span> |f| <i>d</i>x,
+     * which are the limit for integrals that cancel to about 0.
+     * Infinite bounds are transformed to finite bounds by x=t/(1-t<sup>2</sup>) or x=a+t/(1-t), respectively.
+     * The integrand is never evaluated at the bounds, such that integrable singularities at the bounds are admissible.
+     * </p>
+     * <p>
+     * For expensive integrands, independent subintervals are evaluated in parallel.
+     * So f should be thread-safe.
+     * </p>
+     * @param f the integrand.
+     * @param a the lower bound, which may be -&infin;.
+     * @param b the upper bound, which may be +&infin;.
+     * @param tolerance the tolerance &epsilon; for both the absolute and the relative error.
+     *  Smaller tolerances trade speed for accuracy.
+     * @param error if not <code>null</code>, error[0] will be set to the estimate of the absolute error of the result.
+     * @return the integral of f on [a,b] within the tolerance.
+     * @throws ArithmeticException if the tolerance could not be reached, for example,
+     *  because the integral diverges, or f is not finite.
+     * @preconditions tolerance &ge; 0
+     */
+    public static double integrate(RealFunction f, double a, double b, double tolerance, double error[]) {
+        return AdaptiveQuadrature.integrate(f, a, b, tolerance, error);
     }
 
     /**
@@ -529,6 +593,7 @@ public final class NumericalAlgorithms {
      *   </table>
      * @precondition butcher is consistent, i.e., &sum;<sub>j=1</sub><sup>i-1</sup> a<sub>i,j</sub>=c<sub>i</sub>
      * @see #dSolve(orbital.math.functional.BinaryFunction,Real,Vector,Real,Real,int,int)
+     * @see #dSolve(NumericalAlgorithms.DifferentialEquation,double,double[],double,double,NumericalAlgorithms.EventFunction[])
      */
     public static orbital.math.functional.Function dSolve(orbital.math.functional.BinaryFunction/*<Real,Vector<Real>>*/ f, Real tau, Vector/*<Real>*/ eta,
                                                           Real min, Real max,
@@ -711,6 +776,124 @@ public final class NumericalAlgorithms {
         return splineInterpolation(4, nodes, NATURAL_SPLINE_INTERPOLATION);
     }
 
+    /**
+     * The right-hand side f of a system of ordinary differential equations x'(t) = f(t,x(t)) on primitive doubles.
+     * @see #dSolve(NumericalAlgorithms.DifferentialEquation,double,double[],double,double,NumericalAlgorithms.EventFunction[])
+     */
+    public static interface DifferentialEquation {
+        /**
+         * Computes the derivative f(t,x).
+         * @param t the time.
+         * @param x the values of all components at time t, which must not be modified.
+         * @param dx the array to fill with the derivatives f(t,x) of all components.
+         */
+        void apply(double t, double x[], double dx[]);
+    }
+
+    /**
+     * An event function g whose zeros g(t,x(t))=0 are events of the solution of a differential equation.
+     * @see #dSolve(NumericalAlgorithms.DifferentialEquation,double,double[],double,double,NumericalAlgorithms.EventFunction[])
+     */
+    public static interface EventFunction {
+        /**
+         * Get the value g(t,x) whose sign changes at events.
+         * @param t the time.
+         * @param x the values of all components at time t, which must not be modified.
+         */
+        double apply(double t, double x[]);
+    }
+
+    /**
+     * Returns a numerical solution x of the differential equation system
+     * x'(t) = f(t,x(t)), x(&tau;)=&eta; from &tau; to max.
+     * @see #dSolve(NumericalAlgorithms.DifferentialEquation,double,double[],double,double,NumericalAlgorithms.EventFunction[])
+     */
+    public static DenseOutput dSolve(DifferentialEquation f, double tau, double eta[], double max, double tolerance) {
+        return dSolve(f, tau, eta, max, tolerance, null);
+    }
+
+    /**
+     * Returns a numerical solution x of the differential equation system
+     * x'(t) = f(t,x(t)), x(&tau;)=&eta; from &tau; to max, or until the first event.
+     * <p>
+     * Currently implemented as the explicit Runge-Kutta method of Dormand and Prince of order 5(4)
+     * with step-size control. The local error of each step is estimated by the embedded solution of order 4,
+     * and kept below &epsilon;&sdot;(1+|x<sub>i</sub>|) in the root mean square over all components i.
+     * The state is kept in primitive arrays, such that no objects are allocated per step except
+     * for the amortized growth of the dense output.
+     * </p>
+     * <p>
+     * The integration stops at the first zero of any of the event functions.
+     * Zeros are detected by sign changes of g(t,x(t)) between steps, such that events
+     * where g merely touches 0 within one step will be missed.
+     * </p>
+     * @param f the right-hand side of the differential equation.
+     * @param tau the initial time &tau; of the initial values &eta;.
+     * @param eta the vector &eta; of initial values.
+     * @param max the time up to which to solve, which may be before &tau; for solving backwards in time.
+     * @param tolerance the tolerance &epsilon; for both the absolute and the relative local error of each step.
+     *  Smaller tolerances trade speed for accuracy.
+     * @param events the event functions, or <code>null</code>.
+     * @return the dense output of a numerical solution x of the differential equation system
+     *   <center>
+     *     x'(t)=f(t,x(t)) on [&tau;,max]<br />
+     *     x(&tau;)=&eta;
+     *   </center>
+     *   which provides all components x(t) at every time t of its range [&tau;,{@link DenseOutput#getMax()}].
+     *   If an event occurred, {@link DenseOutput#getEvent()} tells which one.
+     * @throws ArithmeticException if the step size becomes too small, for example, because the
+     *  differential equation is stiff or its solution has a singularity, or if f is not finite.
+     * @preconditions tolerance &gt; 0
+     * @see #dSolve(orbital.math.functional.BinaryFunction,Real,Vector,Real,Real,int,Matrix)
+     */
+    public static DenseOutput dSolve(DifferentialEquation f, double tau, double eta[], double max, double tolerance,
+                                     EventFunction events[]) {
+        return DormandPrince.dSolve(f, tau, eta, max, tolerance, events);
+    }
+
+    /**
+     * Returns the values of a numerical solution x of the differential equation system
+     * x'(t) = f(t,x(t)), x(&tau;)=&eta; at the given times.
+     * <p>
+     * Instead of retaining the dense output of all steps, the solution is sampled while solving,
+     * such that the memory does not depend on the number of steps.
+     * </p>
+     * @param times the times t<sub>j</sub> at which to sample the solution, sorted from &tau; on,
+     *  either increasingly or decreasingly.
+     * @return the values x(t<sub>j</sub>) of all components at times t<sub>j</sub>, with x(t<sub>j</sub>)<sub>i</sub>
+     *  at [j][i].
+     * @throws ArithmeticException if the step size becomes too small.
+     * @see #dSolve(NumericalAlgorithms.DifferentialEquation,double,double[],double,double,NumericalAlgorithms.EventFunction[])
+     */
+    public static double[][] dSolve(DifferentialEquation f, double tau, double eta[], double times[], double tolerance) {
+        return DormandPrince.dSolve(f, tau, eta, times, tolerance);
+    }
+
+    /**
+     * Returns a numerical solution x of the differential equation system
+     * x'(t) = f(t,x(t)), x(&tau;)=&eta; from &tau; to max.
+     * <p>
+     * Adapts f to primitive doubles, which is convenient, but leaves allocations for evaluating f.
+     * </p>
+     * @param f the right-hand side of the differential equation, with real values.
+     * @return a numerical solution x of the differential equation system mapping times to vectors.
+     * @see #dSolve(NumericalAlgorithms.DifferentialEquation,double,double[],double,double,NumericalAlgorithms.EventFunction[])
+     */
+    public static DenseOutput dSolve(final orbital.math.functional.BinaryFunction/*<Real,Vector<Real>>*/ f, Real tau, Vector/*<Real>*/ eta,
+                                     Real max, double tolerance) {
+        final ValueFactory vf = eta.valueFactory();
+        final double x0[] = new double[eta.dimension()];
+        for (int i = 0; i < x0.length; i++)
+            x0[i] = ((Real) eta.get(i)).doubleValue();
+        return dSolve(new DifferentialEquation() {
+                public void apply(double t, double x[], double dx[]) {
+                    final Vector r = (Vector) f.apply(vf.valueOf(t), vf.valueOf((double[]) x.clone()));
+                    for (int i = 0; i < dx.length; i++)
+                        dx[i] = ((Real) r.get(i)).doubleValue();
+                }
+            }, tau.doubleValue(), x0, max.doubleValue(), tolerance, null);
+    }
+
     private static Matrix getButcherTableau(int order) {
         switch (order) {
 	    case 1:
@@ -308,6 +308,19 @@ public interface ValueFactory {
      */
     /*<R extends Arithmetic>*/ Vector/*<R>*/ constant(Vector/*<R>*/ v);
 
+    /**
+     * Creates a new sparse real vector with the specified dimension, with all elements set to 0.
+     * <p>
+     * Only the non-zero components of sparse vectors are stored, which saves memory and
+     * computation time for vectors that mostly contain zeros.
+     * Components set in a sparse vector must be real numbers.
+     * </p>
+     * @param dimension the dimension of the vector.
+     * @postconditions RES.dimension() == dimension &and; RES.equals(ZERO(dimension))
+     * @see #sparse(int,int)
+     */
+    Vector/*<Real>*/ sparse(int dimension);
+
     // matrix constructors and conversion utilities
 
     /**
@@ -371,6 +384,35 @@ public interface ValueFactory {
      * The result is a <a href="ValueFactory.html#readOnlyView">read only view</a>.
      */
     /*<R extends Arithmetic>*/ Matrix/*<R>*/ constant(Matrix/*<R>*/ m);
+
+    /**
+     * Creates a new sparse real matrix with the specified dimensions, with all elements set to 0.
+     * <p>
+     * Only the non-zero components of sparse matrices are stored, which saves memory and
+     * computation time for large matrices that mostly contain zeros, like those of
+     * discretized differential equations, or of graphs.
+     * Components set in a sparse matrix must be real numbers.
+     * </p>
+     * @postconditions RES.dimension().equals(new Dimension(width, height)) &and; RES.equals(ZERO(height, width))
+     * @see #sparse(int,int,int[],int[],double[])
+     * @see NumericalAlgorithms#cgSolve(Matrix,Vector,Vector)
+     */
+    Matrix/*<Real>*/ sparse(int height, int width);
+    /**
+     * Returns a sparse real matrix with the specified non-zero components in compressed sparse row format.
+     * <p>
+     * The non-zero components of row i are stored at the positions
+     * <code>rowPointers[i]</code> to <code>rowPointers[i+1]-1</code> of
+     * <code>columnIndices</code> (their column) and <code>values</code> (their value).
+     * The resulting matrix may be backed by these exact arrays per reference.
+     * </p>
+     * @param rowPointers the start positions of the rows, with <code>rowPointers[height]</code> being the number of non-zeros.
+     * @param columnIndices the column indices of the non-zero components, ascending within each row.
+     * @param values the values of the non-zero components corresponding to columnIndices.
+     * @preconditions rowPointers.length == height + 1 &and; rowPointers[0] == 0 &and; rowPointers is ascending
+     *  &and; columnIndices is strictly ascending in 0..width-1 within each row
+     */
+    Matrix/*<Real>*/ sparse(int height, int width, int[] rowPointers, int[] columnIndices, double[] values);
     // tensor constructors
     
     /**
@@ -16,12 +16,14 @@ import java.util.Collection;
 import java.lang.reflect.Method;
 
 import orbital.math.Real;
+import orbital.math.Rational;
 
 import orbital.math.MathUtilities;
 import java.lang.reflect.InvocationTargetException;
 
 import orbital.math.Complex;
 import orbital.math.ValueFactory;
+import orbital.moon.math.AbstractValues;
 import orbital.math.Values;
 import orbital.math.Vector;
 import orbital.math.Matrix;
@@ -106,7 +108,14 @@ public interface Operations /* implements ArithmeticOperations */ {
     public static final BinaryFunction/*<Arithmetic,Arithmetic,Arithmetic>*/ plus = new AbstractBinaryFunction/*<Arithmetic,Arithmetic,Arithmetic>*/() {
             //@xxx either add this everywhere, or remove it here (otherwise it won't work)
             //private final orbital.logic.imp.Type logicalTypeDeclaration = orbital.logic.imp.Types.map(orbital.logic.imp.Types.product(new orbital.logic.imp.Type[] {orbital.logic.imp.Types.objectType(Arithmetic.class), orbital.logic.imp.Types.objectType(Arithmetic.class)}), orbital.logic.imp.Types.objectType(Arithmetic.class));
+            private final CoercionSite site = new CoercionSite(true);
             public Object/*>Arithmetic<*/ apply(Object/*>Arithmetic<*/ x, Object/*>Arithmetic<*/ y) {
+                if (x instanceof Rational && y instanceof Rational)
+                    // rationals of any precision combine without coercion
+                    return ((Rational) x).add((Rational) y);
+                final AbstractValues.Coercion coercion = site.coercion((Arithmetic) x, (Arithmetic) y);
+                if (coercion != null)
+                    return coercion.first((Arithmetic) x, (Arithmetic) y).add(coercion.second((Arithmetic) x, (Arithmetic) y));
                 Arithmetic operands[] = (Arithmetic[]) ((Arithmetic)x).valueFactory().getCoercer(true).apply(new Arithmetic[] {
                     (Arithmetic) x, (Arithmetic) y
                 });
@@ -200,7 +209,14 @@ public interface Operations /* implements ArithmeticOperations */ {
      * @see Arithmetic#subtract(Arithmetic)
      */
     public static final BinaryFunction/*<Arithmetic,Arithmetic,Arithmetic>*/ subtract = new AbstractBinaryFunction/*<Arithmetic,Arithmetic,Arithmetic>*/() {
+            private final CoercionSite site = new CoercionSite(false);
             public Object/*>Arithmetic<*/ apply(Object/*>Arithmetic<*/ x, Object/*>Arithmetic<*/ y) {
+                if (x instanceof Rational && y instanceof Rational)
+                    // rationals of any precision combine without coercion
+                    return ((Rational) x).subtract((Rational) y);
+                final AbstractValues.Coercion coercion = site.coercion((Arithmetic) x, (Arithmetic) y);
+                if (coercion != null)
+                    return coercion.first((Arithmetic) x, (Arithmetic) y).subtract(coercion.second((Arithmetic) x, (Arithmetic) y));
                 Arithmetic operands[] = (Arithmetic[]) ((Arithmetic)x).valueFactory().getCoercer().apply(new Arithmetic[] {
                     (Arithmetic) x, (Arithmetic) y
                 });
@@ -242,7 +258,14 @@ public interface Operations /* implements ArithmeticOperations */ {
      * @see Arithmetic#scale(Arithmetic)
      */
     public static final BinaryFunction/*<Arithmetic,Arithmetic,Arithmetic>*/ times = new AbstractBinaryFunction/*<Arithmetic,Arithmetic,Arithmetic>*/() {
+            private final CoercionSite site = new CoercionSite(true);
             public Object/*>Arithmetic<*/ apply(Object/*>Arithmetic<*/ x, Object/*>Arithmetic<*/ y) {
+                if (x instanceof Rational && y instanceof Rational)
+                    // rationals of any precision combine without coercion
+                    return ((Rational) x).multiply((Rational) y);
+                final AbstractValues.Coercion coercion = site.coercion((Arithmetic) x, (Arithmetic) y);
+                if (coercion != null)
+                    return coercion.first((Arithmetic) x, (Arithmetic) y).multiply(coercion.second((Arithmetic) x, (Arithmetic) y));
                 Arithmetic operands[] = (Arithmetic[]) ((Arithmetic)x).valueFactory().getCoercer(true).apply(new Arithmetic[] {
                     (Arithmetic) x, (Arithmetic) y
                 });
@@ -339,7 +362,11 @@ public interface Operations /* implements ArithmeticOperations */ {
      * @see Arithmetic#divide(Arithmetic)
      */
     public static final BinaryFunction/*<Arithmetic,Arithmetic,Arithmetic>*/ divide = new AbstractBinaryFunction/*<Arithmetic,Arithmetic,Arithmetic>*/() {
+            private final CoercionSite site = new CoercionSite(false);
             public Object/*>Arithmetic<*/ apply(Object/*>Arithmetic<*/ x, Object/*>Arithmetic<*/ y) {
+                final AbstractValues.Coercion coercion = site.coercion((Arithmetic) x, (Arithmetic) y);
+                if (coercion != null)
+                    return coercion.first((Arithmetic) x, (Arithmetic) y).divide(coercion.second((Arithmetic) x, (Arithmetic) y));
                 Arithmetic operands[] = (Arithmetic[]) ((Arithmetic)x).valueFactory().getCoercer().apply(new Arithmetic[] {
                     (Arithmetic) x, (Arithmetic) y
                 });
@@ -817,3 +844,61 @@ class CompareFunction implements orbital.logic.functor.BinaryFunction/*<Object,O
     }
     public String toString() { return "cmp"; }
 }
+
+
+/**
+ * Call-site cache of the precomputed coercion for the last pair of operand classes.
+ * <p>
+ * Most arithmetic call sites only ever see a single pair of operand classes.
+ * For those, this monomorphic cache avoids the array allocations of the coercer
+ * and even the lookup in the coercion table of the value factory.</p>
+ * @see AbstractValues#getCoercion(Class,Class)
+ */
+final class CoercionSite {
+    /**
+     * Whether the call site uses the commutative coercer.
+     */
+    private final boolean commutative;
+    /**
+     * The coercion cached last.
+     */
+    private volatile Entry last = null;
+
+    CoercionSite(boolean commutative) {
+        this.commutative = commutative;
+    }
+
+    /**
+     * Get the precomputed coercion of x and y.
+     * @return the coercion of x and y, or <code>null</code> if the coercer needs to be applied.
+     */
+    AbstractValues.Coercion coercion(Arithmetic x, Arithmetic y) {
+        final ValueFactory vf = x.valueFactory();
+        final orbital.logic.functor.Function coercer = vf.getCoercer(commutative);
+        final Class a = x.getClass();
+        final Class b = y.getClass();
+        final Entry e = last;
+        // the coercer identifies the value factory and changes with any coercer that has been set
+        if (e != null && e.a == a && e.b == b && e.coercer == coercer)
+            return e.coercion;
+        if (!(vf instanceof AbstractValues))
+            return null;
+        final AbstractValues.Coercion c = ((AbstractValues) vf).getCoercion(a, b);
+        if (c != null)
+            last = new Entry(a, b, coercer, c);
+        return c;
+    }
+
+    private static final class Entry {
+        final Class a;
+        final Class b;
+        final orbital.logic.functor.Function coercer;
+        final AbstractValues.Coercion coercion;
+        Entry(Class a, Class b, orbital.logic.functor.Function coercer, AbstractValues.Coercion coercion) {
+            this.a = a;
+            this.b = b;
+            this.coercer = coercer;
+            this.coercion = coercion;
+        }
+    }
+}
@@ -0,0 +1,894 @@
+/**
+ * @(#)BDD.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.moon.logic;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.NoSuchElementException;
+import java.util.ConcurrentModificationException;
+
+import java.util.logging.Logger;
+import java.util.logging.Level;
+
+/**
+ * Reduced ordered binary decision diagrams (ROBDD).
+ * <p>
+ * A BDD manager maintains a shared graph of decision nodes over the variables 0,...,n-1,
+ * and represents each boolean function over those variables by the index of its unique node.
+ * Thus, two functions are equivalent if and only if they are represented by the same node.
+ * The nodes {@link #FALSE} and {@link #TRUE} are the constant functions.
+ * </p>
+ * <p>
+ * The manager implements
+ * <ul>
+ *   <li>a unique table per variable that keeps the diagrams reduced and shared,</li>
+ *   <li>a computed cache for the results of {@link #apply(int,int,int) binary operations}
+ *     and {@link #ite(int,int,int) if-then-else},</li>
+ *   <li>garbage collection by reference counts,</li>
+ *   <li>and dynamic variable reordering by sifting.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Nodes that are not {@link #ref(int) referenced} (neither by the application,
+ * nor by other nodes) may be garbage collected at the beginning of any operation other than those
+ * on its own arguments. Hence, results that will be used in more than the next operation should be referenced,
+ * and {@link #deref(int) dereferenced} when they are no longer needed.
+ * Node indices remain valid during {@link #reorder() reordering}, although their structure changes.
+ * </p>
+ *
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ * @see "Bryant, Randal E. Graph-based algorithms for boolean function manipulation. <i>IEEE Transactions on Computers</i>, C-35(8):677-691, 1986."
+ * @see "Brace, Karl S., Rudell, Richard L. and Bryant, Randal E. Efficient implementation of a BDD package. In <i>Proc. 27th Design Automation Conference</i>. p40-45. ACM, 1990."
+ * @see "Rudell, Richard L. Dynamic variable ordering for ordered binary decision diagrams. In <i>Proc. International Conference on Computer-Aided Design</i>. p42-47. IEEE, 1993."
+ */
+public class BDD {
+    private static final Logger logger = Logger.getLogger(BDD.class.getName());
+
+    /**
+     * The node of the constant function false.
+     */
+    public static final int FALSE = 0;
+    /**
+     * The node of the constant function true.
+     */
+    public static final int TRUE = 1;
+
+    /**
+     * Binary operations for {@link #apply(int,int,int)}, encoded by their truth-tables.
+     * Bit 2a+b of the code is the result of the operation on a and b.
+     */
+    public static final int AND = 0x8;
+    public static final int OR = 0xE;
+    public static final int XOR = 0x6;
+    public static final int IMPL = 0xB;
+    public static final int REVERSE_IMPL = 0xD;
+    public static final int EQUIV = 0x9;
+
+    /**
+     * The cache code of if-then-else, which is no binary operation.
+     */
+    private static final int ITE = 16;
+    /**
+     * End of the chains of the unique table.
+     */
+    private static final int NIL = -1;
+    /**
+     * The maximum factor by which the number of nodes may grow while sifting a variable.
+     */
+    private static final double MAX_GROWTH = 1.2;
+    /**
+     * The minimum number of nodes allocated between garbage collections.
+     */
+    private static final int MIN_GC_INTERVAL = 1 << 12;
+
+    /**
+     * The number of variables.
+     */
+    private int variables = 0;
+    /**
+     * The variable, low successor, high successor, and reference count of each node,
+     * and the next node in its chain of the unique table.
+     * The reference count includes references from other nodes.
+     */
+    private int var[], low[], high[], refs[], next[];
+    /**
+     * The free nodes, chained by next.
+     */
+    private int free = NIL;
+    /**
+     * The number of nodes in use, except for the terminal nodes.
+     */
+    private int nodes = 0;
+    /**
+     * The number of nodes allocated since the last garbage collection.
+     */
+    private int allocated = 0;
+    /**
+     * The number of nodes allocated after which to collect garbage.
+     */
+    private int gcInterval = MIN_GC_INTERVAL;
+    /**
+     * The unique table of each variable, and the number of its nodes.
+     */
+    private int unique[][] = new int[0][];
+    private int uniqueCount[] = new int[0];
+    /**
+     * The variable at each level of the order, and the level of each variable.
+     */
+    private int level2var[] = new int[0], var2level[] = new int[0];
+    /**
+     * The number of reorderings, for detecting concurrent modifications.
+     */
+    private int reorderings = 0;
+    /**
+     * The computed cache, mapping an operation on operands a, b, c to its result.
+     */
+    private int cacheOp[], cacheA[], cacheB[], cacheC[], cacheResult[];
+
+    /**
+     * Create a new manager without variables.
+     */
+    public BDD() {
+        this(1 << 10);
+    }
+
+    /**
+     * Create a new manager without variables.
+     * @param capacity the initial number of nodes to allocate.
+     */
+    public BDD(int capacity) {
+        capacity = Math.max(capacity, 16);
+        this.var = new int[capacity];
+        this.low = new int[capacity];
+        this.high = new int[capacity];
+        this.refs = new int[capacity];
+        this.next = new int[capacity];
+        // the terminal nodes
+        low[FALSE] = high[FALSE] = FALSE;
+        low[TRUE] = high[TRUE] = TRUE;
+        var[FALSE] = var[TRUE] = -1;
+        for (int i = capacity - 1; i >= 2; i--) {
+            next[i] = free;
+            free = i;
+        }
+        createCache(Integer.highestOneBit(capacity));
+    }
+
+    private void createCache(int size) {
+        this.cacheOp = new int[size];
+        this.cacheA = new int[size];
+        this.cacheB = new int[size];
+        this.cacheC = new int[size];
+        this.cacheResult = new int[size];
+        Arrays.fill(cacheOp, -1);
+    }
+
+    // variables
+
+    /**
+     * Add a new variable, which will be ordered last.
+     * @return the index of the new variable.
+     */
+    public int newVariable() {
+        final int v = variables++;
+        if (v == unique.length) {
+            final int n = Math.max(8, 2 * v);
+            final int newUnique[][] = new int[n][];
+            System.arraycopy(unique, 0, newUnique, 0, v);
+            unique = newUnique;
+            uniqueCount = grow(uniqueCount, n);
+            level2var = grow(level2var, n);
+            var2level = grow(var2level, n);
+        }
+        unique[v] = new int[16];
+        Arrays.fill(unique[v], NIL);
+        uniqueCount[v] = 0;
+        level2var[v] = v;
+        var2level[v] = v;
+        return v;
+    }
+
+    /**
+     * Get the number of variables.
+     */
+    public int getVariableCount() {
+        return variables;
+    }
+
+    /**
+     * Get the function of a variable.
+     * @return the node of the function that is true if and only if variable v is.
+     */
+    public int variable(int v) {
+        if (v < 0 || v >= variables)
+            throw new IndexOutOfBoundsException("no variable " + v + " among " + variables + " variables");
+        return mk(v, FALSE, TRUE);
+    }
+
+    /**
+     * Get the variable of the top decision node of f.
+     * @return the variable that f branches on first, or -1 if f is constant.
+     */
+    public int getVariable(int f) {
+        return var[f];
+    }
+
+    /**
+     * Get the low successor of f.
+     * @return the cofactor of f with its top variable being false.
+     */
+    public int getLow(int f) {
+        return low[f];
+    }
+
+    /**
+     * Get the high successor of f.
+     * @return the cofactor of f with its top variable being true.
+     */
+    public int getHigh(int f) {
+        return high[f];
+    }
+
+    /**
+     * Get the current variable order.
+     * @return the variables in the order of their levels from the root downwards.
+     */
+    public int[] getVariableOrder() {
+        final int order[] = new int[variables];
+        System.arraycopy(level2var, 0, order, 0, variables);
+        return order;
+    }
+
+    // references
+
+    /**
+     * Reference a node, which prevents it from garbage collection.
+     * @return f
+     */
+    public int ref(int f) {
+        if (f >= 2)
+            refs[f]++;
+        return f;
+    }
+
+    /**
+     * Dereference a node that has previously been referenced.
+     * Once unreferenced, it may be garbage collected.
+     */
+    public void deref(int f) {
+        if (f >= 2) {
+            if (refs[f] <= 0)
+                throw new IllegalStateException("node " + f + " has not been referenced");
+            refs[f]--;
+        }
+    }
+
+    /**
+     * Get the number of nodes in use, excluding the terminal nodes.
+     * This includes nodes that are garbage but have not yet been collected.
+     */
+    public int getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * Get the size of the diagram of f.
+     * @return the number of decision nodes reachable from f.
+     */
+    public int size(int f) {
+        return size(f, new HashMap());
+    }
+    private int size(int f, Map/*<Integer,Integer>*/ visited) {
+        if (f < 2)
+            return 0;
+        final java.lang.Integer key = new java.lang.Integer(f);
+        if (visited.containsKey(key))
+            return 0;
+        visited.put(key, key);
+        return 1 + size(low[f], visited) + size(high[f], visited);
+    }
+
+    // operations
+
+    /**
+     * Negation.
+     */
+    public int not(int f) {
+        return apply(XOR, f, TRUE);
+    }
+    public int and(int f, int g) {
+        return apply(AND, f, g);
+    }
+    public int or(int f, int g) {
+        return apply(OR, f, g);
+    }
+    public int xor(int f, int g) {
+        return apply(XOR, f, g);
+    }
+    public int impl(int f, int g) {
+        return apply(IMPL, f, g);
+    }
+    public int equiv(int f, int g) {
+        return apply(EQUIV, f, g);
+    }
+
+    /**
+     * Whether f entails g.
+     * @return whether every assignment satisfying f also satisfies g.
+     */
+    public boolean implies(int f, int g) {
+        return apply(IMPL, f, g) == TRUE;
+    }
+
+    /**
+     * Apply a binary operation.
+     * @param op the code of the operation, like {@link #AND} or {@link #OR},
+     *  or any other 4-bit truth-table.
+     * @return the node of f op g.
+     */
+    public int apply(int op, int f, int g) {
+        if (op < 0 || op > 0xF)
+            throw new IllegalArgumentException("no binary operation " + op);
+        collect(f, g, TRUE);
+        return applyRec(op, f, g);
+    }
+
+    private int applyRec(int op, int f, int g) {
+        if (f < 2 && g < 2)
+            return (op >> ((f << 1) | g)) & 1;
+        if (f == g) {
+            // only the diagonal of the truth-table matters
+            switch (op & 0x9) {
+            case 0x0: return FALSE;
+            case 0x9: return TRUE;
+            case 0x8: return f;
+            default: break;
+            }
+        }
+        switch (op) {
+        case AND:
+            if (f == FALSE || g == FALSE)
+                return FALSE;
+            if (f == TRUE)
+                return g;
+            if (g == TRUE)
+                return f;
+            break;
+        case OR:
+            if (f == TRUE || g == TRUE)
+                return TRUE;
+            if (f == FALSE)
+                return g;
+            if (g == FALSE)
+                return f;
+            break;
+        case XOR:
+            if (f == FALSE)
+                return g;
+            if (g == FALSE)
+                return f;
+            break;
+        case IMPL:
+            if (f == FALSE || g == TRUE)
+                return TRUE;
+            if (f == TRUE)
+                return g;
+            break;
+        default:
+            break;
+        }
+        // commutative operations are cached in a canonical order
+        if (f > g && ((op >> 1) & 1) == ((op >> 2) & 1)) {
+            final int t = f;
+            f = g;
+            g = t;
+        }
+        final int slot = hash(op, f, g) & (cacheOp.length - 1);
+        if (cacheOp[slot] == op && cacheA[slot] == f && cacheB[slot] == g)
+            return cacheResult[slot];
+        final int level = Math.min(level(f), level(g));
+        final int v = level2var[level];
+        final int r0 = applyRec(op, level(f) == level ? low[f] : f, level(g) == level ? low[g] : g);
+        final int r1 = applyRec(op, level(f) == level ? high[f] : f, level(g) == level ? high[g] : g);
+        final int r = mk(v, r0, r1);
+        cacheOp[slot] = op;
+        cacheA[slot] = f;
+        cacheB[slot] = g;
+        cacheResult[slot] = r;
+        return r;
+    }
+
+    /**
+     * If-then-else.
+     * @return the node of (f&and;g) &or; (&not;f&and;h).
+     */
+    public int ite(int f, int g, int h) {
+        collect(f, g, h);
+        return iteRec(f, g, h);
+    }
+
+    private int iteRec(int f, int g, int h) {
+        if (f == TRUE || g == h)
+            return g;
+        if (f == FALSE)
+            return h;
+        if (g == TRUE && h == FALSE)
+            return f;
+        final int slot = hash(ITE + f, g, h) & (cacheOp.length - 1);
+        if (cacheOp[slot] == ITE && cacheA[slot] == f && cacheB[slot] == g && cacheC[slot] == h)
+            return cacheResult[slot];
+        final int level = Math.min(level(f), Math.min(level(g), level(h)));
+        final int v = level2var[level];
+        final int r0 = iteRec(level(f) == level ? low[f] : f, level(g) == level ? low[g] : g, level(h) == level ? low[h] : h);
+        final int r1 = iteRec(level(f) == level ? high[f] : f, level(g) == level ? high[g] : g, level(h) == level ? high[h] : h);
+        final int r = mk(v, r0, r1);
+        cacheOp[slot] = ITE;
+        cacheA[slot] = f;
+        cacheB[slot] = g;
+        cacheC[slot] = h;
+        cacheResult[slot] = r;
+        return r;
+    }
+
+    // models
+
+    /**
+     * Count the satisfying assignments of f.
+     * @return the number of assignments of all variables of this manager that satisfy f.
+     */
+    public BigInteger satCount(int f) {
+        return count(f, new HashMap()).shiftLeft(depth(f));
+    }
+
+    /**
+     * Count the satisfying assignments of the variables at the levels of f and below.
+     */
+    private BigInteger count(int f, Map/*<Integer,BigInteger>*/ counts) {
+        if (f < 2)
+            return f == TRUE ? BigInteger.ONE : BigInteger.ZERO;
+        final java.lang.Integer key = new java.lang.Integer(f);
+        BigInteger c = (BigInteger) counts.get(key);
+        if (c == null) {
+            final int level = level(f);
+            c = count(low[f], counts).shiftLeft(depth(low[f]) - level - 1)
+                .add(count(high[f], counts).shiftLeft(depth(high[f]) - level - 1));
+            counts.put(key, c);
+        }
+        return c;
+    }
+
+    /**
+     * The level of f, with the terminals below all variables.
+     */
+    private int depth(int f) {
+        return f < 2 ? variables : var2level[var[f]];
+    }
+
+    /**
+     * Get a satisfying assignment of f.
+     * @return an assignment of each variable to 1 for true, 0 for false, or -1 for either,
+     *  that satisfies f, or <code>null</code> if f is unsatisfiable.
+     */
+    public byte[] satOne(int f) {
+        final Iterator i = satisfyingAssignments(f);
+        return i.hasNext() ? (byte[]) i.next() : null;
+    }
+
+    /**
+     * Enumerate the satisfying assignments of f.
+     * <p>
+     * The assignments are disjoint partial assignments, one for each path to {@link #TRUE},
+     * of each variable to 1 for true, 0 for false, or -1 for either.
+     * f should be referenced if other operations are performed during the enumeration.
+     * </p>
+     * @return an iterator over the byte[] assignments that satisfy f.
+     * @throws ConcurrentModificationException if the variables are reordered during the enumeration.
+     */
+    public Iterator/*<byte[]>*/ satisfyingAssignments(final int f) {
+        return new Iterator() {
+                private final int expectedReorderings = reorderings;
+                // the path from f and whether the high successor has been taken at each of its nodes
+                private final int path[] = new int[variables];
+                private final boolean taken[] = new boolean[variables];
+                private int depth = 0;
+                // the node to descend from next, or NIL to backtrack
+                private int pending = f;
+                private boolean hasNext = false;
+
+                public boolean hasNext() {
+                    if (reorderings != expectedReorderings)
+                        throw new ConcurrentModificationException();
+                    if (hasNext)
+                        return true;
+                    while (true) {
+                        if (pending == TRUE) {
+                            pending = NIL;
+                            return hasNext = true;
+                        } else if (pending == FALSE)
+                            pending = NIL;
+                        else if (pending != NIL) {
+                            path[depth] = pending;
+                            taken[depth++] = false;
+                            pending = low[pending];
+                        } else {
+                            while (depth > 0 && taken[depth - 1])
+                                depth--;
+                            if (depth == 0)
+                                return false;
+                            taken[depth - 1] = true;
+                            pending = high[path[depth - 1]];
+                        }
+                    }
+                }
+
+                public Object next() {
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    hasNext = false;
+                    final byte assignment[] = new byte[variables];
+                    Arrays.fill(assignment, (byte) -1);
+                    for (int d = 0; d < depth; d++)
+                        assignment[var[path[d]]] = (byte) (taken[d] ? 1 : 0);
+                    return assignment;
+                }
+
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+    }
+
+    // garbage collection
+
+    /**
+     * Collect garbage before an operation, if enough nodes have been allocated.
+     * @param a operand of the operation that must survive garbage collection.
+     */
+    private void collect(int a, int b, int c) {
+        if (allocated < gcInterval)
+            return;
+        ref(a);
+        ref(b);
+        ref(c);
+        gc();
+        deref(a);
+        deref(b);
+        deref(c);
+    }
+
+    /**
+     * Garbage collection of all nodes that are not referenced.
+     */
+    public void gc() {
+        final int before = nodes;
+        // parents are freed before their children, since their levels are above
+        for (int level = 0; level < variables; level++) {
+            final int table[] = unique[level2var[level]];
+            for (int h = 0; h < table.length; h++) {
+                int prev = NIL;
+                for (int n = table[h]; n != NIL; ) {
+                    final int succ = next[n];
+                    if (refs[n] == 0) {
+                        if (prev == NIL)
+                            table[h] = succ;
+                        else
+                            next[prev] = succ;
+                        release(n);
+                    } else
+                        prev = n;
+                    n = succ;
+                }
+            }
+        }
+        Arrays.fill(cacheOp, -1);
+        allocated = 0;
+        gcInterval = Math.max(MIN_GC_INTERVAL, nodes);
+        logger.log(Level.FINE, "garbage collection freed {0} of {1} nodes", new Object[] {new java.lang.Integer(before - nodes), new java.lang.Integer(before)});
+    }
+
+    /**
+     * Free a node that is no longer in the unique table, and dereference its successors.
+     */
+    private void release(int n) {
+        uniqueCount[var[n]]--;
+        if (low[n] >= 2)
+            refs[low[n]]--;
+        if (high[n] >= 2)
+            refs[high[n]]--;
+        next[n] = free;
+        free = n;
+        nodes--;
+    }
+
+    // unique table
+
+    /**
+     * Get the unique node of a decision.
+     * @return the node that branches on v to lo if false, and to hi if true.
+     */
+    private int mk(int v, int lo, int hi) {
+        if (lo == hi)
+            return lo;
+        int table[] = unique[v];
+        int h = hash(v, lo, hi) & (table.length - 1);
+        for (int n = table[h]; n != NIL; n = next[n])
+            if (low[n] == lo && high[n] == hi)
+                return n;
+        if (free == NIL)
+            grow();
+        final int n = free;
+        free = next[n];
+        nodes++;
+        allocated++;
+        var[n] = v;
+        low[n] = lo;
+        high[n] = hi;
+        refs[n] = 0;
+        if (lo >= 2)
+            refs[lo]++;
+        if (hi >= 2)
+            refs[hi]++;
+        if (++uniqueCount[v] > table.length) {
+            rehash(v, 2 * table.length);
+            table = unique[v];
+            h = hash(v, lo, hi) & (table.length - 1);
+        }
+        next[n] = table[h];
+        table[h] = n;
+        return n;
+    }
+
+    /**
+     * Enlarge the node arrays.
+     */
+    private void grow() {
+        final int capacity = var.length;
+        final int n = 2 * capacity;
+        var = grow(var, n);
+        low = grow(low, n);
+        high = grow(high, n);
+        refs = grow(refs, n);
+        next = grow(next, n);
+        for (int i = n - 1; i >= capacity; i--) {
+            next[i] = free;
+            free = i;
+        }
+        if (cacheOp.length < n / 2) {
+            // a larger computed cache is valid after the current operation, but loses its results
+            createCache(n / 2);
+        }
+        logger.log(Level.FINER, "grow to {0} nodes", new java.lang.Integer(n));
+    }
+
+    private static int[] grow(int a[], int n) {
+        final int b[] = new int[n];
+        System.arraycopy(a, 0, b, 0, a.length);
+        return b;
+    }
+
+    private void rehash(int v, int size) {
+        final int old[] = unique[v];
+        final int table[] = new int[size];
+        Arrays.fill(table, NIL);
+        for (int h = 0; h < old.length; h++) {
+            for (int n = old[h]; n != NIL; ) {
+                final int succ = next[n];
+                final int k = hash(v, low[n], high[n]) & (size - 1);
+                next[n] = table[k];
+                table[k] = n;
+                n = succ;
+            }
+        }
+        unique[v] = table;
+    }
+
+    /**
+     * Insert a node into the unique table of its variable.
+     */
+    private void insert(int n) {
+        final int v = var[n];
+        if (++uniqueCount[v] > unique[v].length)
+            rehash(v, 2 * unique[v].length);
+        final int table[] = unique[v];
+        final int h = hash(v, low[n], high[n]) & (table.length - 1);
+        next[n] = table[h];
+        table[h] = n;
+    }
+
+    /**
+     * Remove a node from the unique table of its variable.
+     */
+    private void remove(int n) {
+        final int table[] = unique[var[n]];
+        final int h = hash(var[n], low[n], high[n]) & (table.length - 1);
+        if (table[h] == n)
+            table[h] = next[n];
+        else {
+            int prev = table[h];
+            while (next[prev] != n)
+                prev = next[prev];
+            next[prev] = next[n];
+        }
+    }
+
+    private static int hash(int a, int b, int c) {
+        int h = a * 0x9E3779B1 + b * 0x85EBCA77 + c * 0xC2B2AE3D;
+        return h ^ (h >>> 15);
+    }
+
+    /**
+     * The level of f, with the terminals below all variables.
+     */
+    private int level(int f) {
+        return f < 2 ? Integer.MAX_VALUE : var2level[var[f]];
+    }
+
+    // reordering
+
+    /**
+     * Reorder the variables to reduce the number of nodes.
+     * Sifts each variable, beginning with those with most nodes, through all levels,
+     * and leaves it at the level where the fewest nodes were needed.
+     * Unreferenced nodes are garbage collected, first.
+     */
+    public void reorder() {
+        gc();
+        final int before = nodes;
+        final java.lang.Integer order[] = new java.lang.Integer[variables];
+        for (int v = 0; v < variables; v++)
+            order[v] = new java.lang.Integer(v);
+        Arrays.sort(order, new java.util.Comparator() {
+                public int compare(Object a, Object b) {
+                    return uniqueCount[((java.lang.Integer) b).intValue()] - uniqueCount[((java.lang.Integer) a).intValue()];
+                }
+            });
+        for (int i = 0; i < order.length; i++)
+            sift(order[i].intValue());
+        reordered();
+        logger.log(Level.FINE, "reordering reduced {0} to {1} nodes", new Object[] {new java.lang.Integer(before), new java.lang.Integer(nodes)});
+    }
+
+    /**
+     * Reorder the variables to the specified order.
+     * Unreferenced nodes are garbage collected, first.
+     * @param order the variables in the order of their levels from the root downwards.
+     */
+    public void setVariableOrder(int order[]) {
+        if (order.length != variables)
+            throw new IllegalArgumentException("order of " + order.length + " variables for " + variables + " variables");
+        final boolean seen[] = new boolean[variables];
+        for (int i = 0; i < order.length; i++) {
+            if (order[i] < 0 || order[i] >= variables || seen[order[i]])
+                throw new IllegalArgumentException("not a permutation of the variables " + Arrays.toString(order));
+            seen[order[i]] = true;
+        }
+        gc();
+        for (int level = 0; level < variables; level++) {
+            // bubble the variable up to its level
+            for (int l = var2level[order[level]]; l > level; l--)
+                swap(l - 1);
+        }
+        reordered();
+    }
+
+    private void reordered() {
+        Arrays.fill(cacheOp, -1);
+        allocated = 0;
+        gcInterval = Math.max(MIN_GC_INTERVAL, nodes);
+        reorderings++;
+    }
+
+    /**
+     * Move variable v to the level where the fewest nodes are needed.
+     */
+    private void sift(int v) {
+        final int limit = (int) (MAX_GROWTH * nodes);
+        int level = var2level[v];
+        int best = level;
+        int bestSize = nodes;
+        while (level < variables - 1 && nodes <= limit) {
+            swap(level++);
+            if (nodes < bestSize) {
+                bestSize = nodes;
+                best = level;
+            }
+        }
+        while (level > 0 && (nodes <= limit || level > best)) {
+            swap(--level);
+            if (nodes < bestSize) {
+                bestSize = nodes;
+                best = level;
+            }
+        }
+        while (level < best)
+            swap(level++);
+        while (level > best)
+            swap(--level);
+    }
+
+    /**
+     * Swap the variables at a level and the next level, in place.
+     * Requires that all nodes are referenced, and keeps each node representing the same function.
+     */
+    private void swap(int level) {
+        final int x = level2var[level];
+        final int y = level2var[level + 1];
+        // take the nodes of x out of the unique table
+        final int xs[] = new int[uniqueCount[x]];
+        int count = 0;
+        final int table[] = unique[x];
+        for (int h = 0; h < table.length; h++) {
+            for (int n = table[h]; n != NIL; n = next[n])
+                xs[count++] = n;
+            table[h] = NIL;
+        }
+        uniqueCount[x] = 0;
+        level2var[level] = y;
+        level2var[level + 1] = x;
+        var2level[x] = level + 1;
+        var2level[y] = level;
+        // nodes that do not depend on y stay unchanged at the lower level, and are needed before the others are recombined
+        for (int i = 0; i < count; i++) {
+            final int f = xs[i];
+            if (var[low[f]] != y && var[high[f]] != y) {
+                insert(f);
+                xs[i] = NIL;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            final int f = xs[i];
+            if (f == NIL)
+                continue;
+            final int f0 = low[f];
+            final int f1 = high[f];
+            final boolean y0 = var[f0] == y;
+            final boolean y1 = var[f1] == y;
+            final int g0 = mk(x, y0 ? low[f0] : f0, y1 ? low[f1] : f1);
+            ref(g0);
+            final int g1 = mk(x, y0 ? high[f0] : f0, y1 ? high[f1] : f1);
+            ref(g1);
+            if (f0 >= 2)
+                refs[f0]--;
+            if (f1 >= 2)
+                refs[f1]--;
+            var[f] = y;
+            low[f] = g0;
+            high[f] = g1;
+            insert(f);
+        }
+        // free the nodes of y that are no longer used by the nodes that moved up
+        final int ys[] = new int[uniqueCount[y]];
+        count = 0;
+        final int table2[] = unique[y];
+        for (int h = 0; h < table2.length; h++)
+            for (int n = table2[h]; n != NIL; n = next[n])
+                if (refs[n] == 0)
+                    ys[count++] = n;
+        for (int i = 0; i < count; i++)
+            free(ys[i]);
+    }
+
+    /**
+     * Free an unreferenced node and its successors that become unreferenced.
+     */
+    private void free(int n) {
+        remove(n);
+        release(n);
+        if (low[n] >= 2 && refs[low[n]] == 0)
+            free(low[n]);
+        if (high[n] >= 2 && refs[high[n]] == 0)
+            free(high[n]);
+    }
+
+    public String toString() {
+        return getClass().getName() + "[" + variables + " variables, " + nodes + " nodes]";
+    }
+}
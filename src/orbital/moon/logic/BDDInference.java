@@ -0,0 +1,214 @@
+/**
+ * @(#)BDDInference.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.moon.logic;
+import orbital.moon.logic.ClassicalLogic.Utilities;
+import orbital.logic.imp.*;
+import orbital.logic.sign.Symbol;
+import orbital.logic.Composite;
+
+import java.util.*;
+
+import java.util.logging.Logger;
+import java.util.logging.Level;
+
+/**
+ * Specialized propositional logic inference.
+ * Implemented by reduced ordered binary decision diagrams.
+ * <p>
+ * The propositional atoms are numbered as variables of a {@link BDD} manager, and formulas are
+ * compiled into its diagrams. Then B entails D if and only if the conjunction of B implies D.
+ * Since all queries share the same manager, the conjunctions of the most recent premise sets
+ * are kept compiled, such that further queries against the same premises only need to compile
+ * their conclusion.
+ * Whenever the diagrams have grown considerably, the variables are reordered.
+ * </p>
+ *
+ * @author Andr&eacute; Platzer
+ * @version $Id$
+ * @see BDD
+ * @see CDCLInference
+ */
+class BDDInference implements Inference {
+    private static final Logger logger = Logger.getLogger(BDDInference.class.getName());
+    /**
+     * The number of compiled premise sets to keep.
+     */
+    private static final int PREMISES_CACHE_SIZE = 16;
+    /**
+     * The minimum number of nodes before reordering.
+     */
+    private static final int MIN_REORDER_SIZE = 1 << 10;
+
+    /**
+     * The manager of all diagrams.
+     */
+    private final BDD bdd = new BDD();
+    /**
+     * Maps propositional atoms to the variables of bdd.
+     */
+    private final Map/*<Symbol,Integer>*/ variables = new HashMap();
+    /**
+     * Maps the most recently used premise sets to the referenced nodes of their conjunctions.
+     */
+    private final Map/*<List<Formula>,Integer>*/ premises = new LinkedHashMap(PREMISES_CACHE_SIZE, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry eldest) {
+                if (size() <= PREMISES_CACHE_SIZE)
+                    return false;
+                bdd.deref(((java.lang.Integer) eldest.getValue()).intValue());
+                return true;
+            }
+        };
+    /**
+     * The number of nodes after which to reorder.
+     */
+    private int reorderSize = MIN_REORDER_SIZE;
+
+    public BDDInference() {
+
+    }
+    public synchronized boolean infer(Formula[] B, Formula D) {
+        final int premise = premises(B);
+        final int conclusion = compile(D);
+        final boolean entailed = bdd.implies(premise, conclusion);
+        bdd.deref(conclusion);
+        logger.log(Level.FINE, "decided {0} with {1}", new Object[] {Boolean.valueOf(entailed), bdd});
+        return entailed;
+    }
+    public boolean isSound() {
+        return true;
+    }
+    public boolean isComplete() {
+        //@internal for propositional logic
+        return true;
+    }
+
+    /**
+     * Get the manager of the diagrams.
+     */
+    BDD getBDD() {
+        return bdd;
+    }
+
+    /**
+     * Get the variable of bdd that corresponds to a propositional atom.
+     * @return the variable of s, or -1 if s does not occur in any formula compiled so far.
+     */
+    synchronized int getVariable(Symbol s) {
+        final java.lang.Integer v = (java.lang.Integer) variables.get(s);
+        return v == null ? -1 : v.intValue();
+    }
+
+    /**
+     * Get the conjunction of the premises B.
+     * @return the referenced node of the conjunction of B, which is cached, and thus must not be dereferenced.
+     */
+    private int premises(Formula[] B) {
+        final List/*<Formula>*/ key = Arrays.asList(B);
+        final java.lang.Integer known = (java.lang.Integer) premises.get(key);
+        if (known != null)
+            return known.intValue();
+        int conjunction = BDD.TRUE;
+        for (int i = 0; i < B.length; i++) {
+            final int b = compile(B[i]);
+            final int c = bdd.ref(bdd.and(conjunction, b));
+            bdd.deref(b);
+            bdd.deref(conjunction);
+            conjunction = c;
+        }
+        premises.put(new ArrayList(key), new java.lang.Integer(conjunction));
+        if (bdd.getNodeCount() > reorderSize) {
+            bdd.reorder();
+            reorderSize = Math.max(MIN_REORDER_SIZE, 2 * bdd.getNodeCount());
+        }
+        return conjunction;
+    }
+
+    /**
+     * Compile a propositional formula into a binary decision diagram.
+     * New propositional atoms become new variables of the manager.
+     * @return the referenced node of the diagram of F, which the caller needs to dereference.
+     * @throws orbital.logic.sign.type.TypeException if F is not a formula of propositional logic.
+     */
+    synchronized int compile(Formula F) {
+        Utilities.propositionalOnly(F.getSignature());
+        final Map/*<Formula,Integer>*/ compiled = new IdentityHashMap();
+        final int f = bdd.ref(compile(F, compiled));
+        // release the intermediate results
+        for (Iterator i = compiled.values().iterator(); i.hasNext(); )
+            bdd.deref(((java.lang.Integer) i.next()).intValue());
+        return f;
+    }
+
+    /**
+     * Compile f sharing the referenced intermediate results in compiled.
+     */
+    private int compile(Object f, Map/*<Formula,Integer>*/ compiled) {
+        final java.lang.Integer known = (java.lang.Integer) compiled.get(f);
+        if (known != null)
+            return known.intValue();
+        final int r;
+        if (f instanceof ModernFormula.FixedAtomicSymbol) {
+            final Object referent = ((ModernFormula.FixedAtomicSymbol) f).getReferent();
+            if (!(referent instanceof Boolean))
+                throw new IllegalArgumentException("no truth-value " + f);
+            r = ((Boolean) referent).booleanValue() ? BDD.TRUE : BDD.FALSE;
+        } else if (f instanceof ModernFormula.AtomicSymbol) {
+            final Symbol s = ((ModernFormula.AtomicSymbol) f).getSymbol();
+            java.lang.Integer v = (java.lang.Integer) variables.get(s);
+            if (v == null) {
+                v = new java.lang.Integer(bdd.newVariable());
+                variables.put(s, v);
+            }
+            r = bdd.variable(v.intValue());
+        } else if (f instanceof Composite) {
+            final Object compositor = ((Composite) f).getCompositor();
+            final Object component = ((Composite) f).getComponent();
+            if (compositor == ClassicalLogic.LogicFunctions.not)
+                r = bdd.not(compile(component, compiled));
+            else if (compositor == ClassicalLogic.LogicFunctions.andFold
+                     || compositor == ClassicalLogic.LogicFunctions.orFold) {
+                final int op = compositor == ClassicalLogic.LogicFunctions.andFold ? BDD.AND : BDD.OR;
+                int a = op == BDD.AND ? BDD.TRUE : BDD.FALSE;
+                for (Iterator i = orbital.util.Utility.asIterator(component); i.hasNext(); ) {
+                    final int b = compile(i.next(), compiled);
+                    final int c = bdd.ref(bdd.apply(op, a, b));
+                    bdd.deref(a);
+                    a = c;
+                }
+                bdd.deref(a);
+                r = a;
+            } else {
+                final int op = binaryOperation(compositor);
+                if (op < 0 || !(component instanceof Object[]) || ((Object[]) component).length != 2)
+                    throw new IllegalArgumentException("no propositional formula " + f);
+                final int a = compile(((Object[]) component)[0], compiled);
+                final int b = compile(((Object[]) component)[1], compiled);
+                r = bdd.apply(op, a, b);
+            }
+        } else
+            throw new IllegalArgumentException("no propositional formula " + f);
+        compiled.put(f, new java.lang.Integer(bdd.ref(r)));
+        return r;
+    }
+
+    private static int binaryOperation(Object compositor) {
+        if (compositor == ClassicalLogic.LogicFunctions.and)
+            return BDD.AND;
+        else if (compositor == ClassicalLogic.LogicFunctions.or)
+            return BDD.OR;
+        else if (compositor == ClassicalLogic.LogicFunctions.xor)
+            return BDD.XOR;
+        else if (compositor == ClassicalLogic.LogicFunctions.impl)
+            return BDD.IMPL;
+        else if (compositor == ClassicalLogic.LogicFunctions.reverseImpl)
+            return BDD.REVERSE_IMPL;
+        else if (compositor == ClassicalLogic.LogicFunctions.equiv)
+            return BDD.EQUIV;
+        else
+            return -1;
+    }
+}// BDDInference
@@ -0,0 +1,106 @@
+/**
+ * @(#)CDCLInference.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.moon.logic;
+import orbital.moon.logic.ClassicalLogic.Utilities;
+import orbital.logic.imp.*;
+import orbital.logic.sign.SymbolBase;
+import orbital.logic.sign.type.Types;
+import orbital.logic.Composite;
+
+import java.util.*;
+
+import java.util.logging.Logger;
+import java.util.logging.Level;
+
+/**
+ * Specialized propositional logic inference.
+ * Implemented by a SAT solver with conflict-driven clause learning.
+ * <p>
+ * The propositional atoms of the clausal forms are numbered as variables of a {@link CDCLSolver},
+ * which then refutes the premises together with the negated goal.
+ * Since refutation only depends on satisfiability, the clausal forms are
+ * {@link ClassicalLogic.Utilities#definitionalClausalForm(Formula) structure-preserving},
+ * which avoids the exponential growth of conjunctive forms.
+ * </p>
+ *
+ * @author Andr&eacute; Platzer
+ * @version $Id$
+ * @see CDCLSolver
+ * @see PropositionalInference
+ */
+class CDCLInference implements Inference {
+    private static final Logger logger = Logger.getLogger(CDCLInference.class.getName());
+    private static final Formula FORMULA_FALSE = (Formula) new ClassicalLogic().createAtomic(new SymbolBase("false", Types.TRUTH));
+    private static final Formula FORMULA_TRUE = (Formula) new ClassicalLogic().createAtomic(new SymbolBase("true", Types.TRUTH));
+
+    public CDCLInference() {
+        
+    }
+    public boolean infer(Formula[] B, Formula D) {
+        final CDCLSolver solver = new CDCLSolver();
+        // maps propositional atoms to the variables of solver
+        final Map/*<Formula,Integer>*/ variables = new HashMap();
+        for (int i = 0; i < B.length; i++) {
+            Utilities.propositionalOnly(B[i].getSignature());
+            addClauses(solver, variables, Utilities.definitionalClausalForm(B[i]));
+        }
+
+        // negate query since we are a negative test calculus
+        Formula query = D.not();
+        Utilities.propositionalOnly(query.getSignature());
+        addClauses(solver, variables, Utilities.definitionalClausalForm(query));
+
+        logger.log(Level.FINE, "refuting {0} clauses over the variables {1}", new Object[] {new java.lang.Integer(solver.getClauseCount()), variables});
+        return !solver.solve();
+    }
+    public boolean isSound() {
+        return true;
+    } 
+    public boolean isComplete() {
+        //@internal for propositional logic
+        return true;
+    }
+
+    /**
+     * Add the clauses S to solver.
+     * @param variables the variables of the atoms so far, which will be extended by new atoms in S.
+     */
+    private static void addClauses(CDCLSolver solver, Map/*<Formula,Integer>*/ variables, Set/*<Set<Formula>>*/ S) {
+        for (Iterator i = S.iterator(); i.hasNext(); ) {
+            final Set/*<Formula>*/ C = (Set) i.next();
+            final int clause[] = new int[C.size()];
+            int k = 0;
+            for (Iterator j = C.iterator(); j.hasNext(); )
+                clause[k++] = literal(solver, variables, (Formula) j.next());
+            solver.addClause(clause);
+        }
+    }
+
+    /**
+     * Get the literal of the solver that corresponds to L.
+     */
+    private static int literal(CDCLSolver solver, Map/*<Formula,Integer>*/ variables, Formula L) {
+        boolean negated = false;
+        Formula F = L;
+        // use duplex negatio est affirmatio
+        while (F instanceof Composite && ((Composite) F).getCompositor() == ClassicalLogic.LogicFunctions.not) {
+            F = (Formula) ((Composite) F).getComponent();
+            negated = !negated;
+        }
+        java.lang.Integer v = (java.lang.Integer) variables.get(F);
+        if (v == null) {
+            v = new java.lang.Integer(solver.newVariable());
+            variables.put(F, v);
+            // the truth-values have fixed interpretations
+            if (FORMULA_TRUE.equals(F))
+                solver.addClause(new int[] {v.intValue()});
+            else if (FORMULA_FALSE.equals(F))
+                solver.addClause(new int[] {-v.intValue()});
+        }
+        return negated ? -v.intValue() : v.intValue();
+    }
+}// CDCLInference
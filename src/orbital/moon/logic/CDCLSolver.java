@@ -0,0 +1,846 @@
+/**
+ * @(#)CDCLSolver.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.moon.logic;
+
+import java.io.Reader;
+import java.io.StreamTokenizer;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+
+import java.util.logging.Logger;
+import java.util.logging.Level;
+
+/**
+ * Propositional satisfiability solver with conflict-driven clause learning (CDCL).
+ * <p>
+ * The variables are numbered 1,...,n and the literals are integers as in the DIMACS CNF format,
+ * i.e., v for the positive literal of variable v and -v for its negation.
+ * Internally, the literal of variable v is encoded as 2(v-1) or 2(v-1)+1 for its negation.
+ * </p>
+ * <p>
+ * The solver implements
+ * <ul>
+ *   <li>unit propagation with two watched literals per clause,</li>
+ *   <li>conflict analysis learning the clause of the first unique implication point (1UIP),
+ *     with non-chronological backtracking,</li>
+ *   <li>VSIDS decision heuristic (variable state independent decaying sum) with phase saving,</li>
+ *   <li>restarts according to the Luby sequence,</li>
+ *   <li>and deletion of inactive learnt clauses.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Clauses can be added incrementally between calls to {@link #solve()}.
+ * </p>
+ *
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ * @see PropositionalInference
+ * @see #readDIMACS(Reader)
+ * @see "Marques-Silva, Jo&atilde;o P. and Sakallah, Karem A. GRASP: a search algorithm for propositional satisfiability. <i>IEEE Transactions on Computers</i>, 48(5):506-521, 1999."
+ * @see "Moskewicz, Matthew W., Madigan, Conor F., Zhao, Ying, Zhang, Lintao and Malik, Sharad. Chaff: engineering an efficient SAT solver. In <i>Proc. 38th Design Automation Conference</i>. p530-535. ACM, 2001."
+ * @see "E&eacute;n, Niklas and S&ouml;rensson, Niklas. An extensible SAT-solver. In <i>Theory and Applications of Satisfiability Testing</i>, LNCS 2919. p502-518. Springer, 2004."
+ */
+public class CDCLSolver {
+    private static final Logger logger = Logger.getLogger(CDCLSolver.class.getName());
+
+    /**
+     * The number of conflicts of the unit restart interval, to be scaled by the Luby sequence.
+     */
+    private static final int RESTART_BASE = 100;
+    /**
+     * The factor by which variable activities decay after each conflict.
+     */
+    private static final double VARIABLE_DECAY = 0.95;
+    /**
+     * The factor by which clause activities decay after each conflict.
+     */
+    private static final double CLAUSE_DECAY = 0.999;
+
+    /**
+     * Value of unassigned variables.
+     */
+    private static final byte UNDEFINED = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = -1;
+
+    /**
+     * The number of variables.
+     */
+    private int variables = 0;
+    /**
+     * The original clauses.
+     */
+    private final List/*<Clause>*/ clauses = new ArrayList();
+    /**
+     * The learnt clauses.
+     */
+    private final List/*<Clause>*/ learnts = new ArrayList();
+    /**
+     * watches[l] contains the clauses watching literal l, i.e., having l in one of their first two positions.
+     */
+    private ClauseList watches[] = new ClauseList[0];
+
+    /**
+     * The current value of each variable.
+     */
+    private byte assignment[] = new byte[0];
+    /**
+     * The decision level at which each variable has been assigned.
+     */
+    private int level[] = new int[0];
+    /**
+     * The clause implying the value of each variable by unit propagation, or <code>null</code> for decisions.
+     */
+    private Clause reason[] = new Clause[0];
+    /**
+     * The saved phase of each variable, used as its next decision.
+     */
+    private boolean phase[] = new boolean[0];
+    /**
+     * Temporary marks of variables during conflict analysis.
+     */
+    private boolean seen[] = new boolean[0];
+
+    /**
+     * The literals assigned so far in chronological order.
+     */
+    private int trail[] = new int[0];
+    /**
+     * The number of literals on the trail.
+     */
+    private int trailSize = 0;
+    /**
+     * trailLimit[d] is the size of the trail before decision level d+1.
+     */
+    private int trailLimit[] = new int[0];
+    /**
+     * The current decision level.
+     */
+    private int decisionLevel = 0;
+    /**
+     * The position of the next literal on the trail to propagate.
+     */
+    private int propagationHead = 0;
+
+    /**
+     * VSIDS activity of each variable.
+     */
+    private double activity[] = new double[0];
+    private double variableIncrement = 1;
+    private double clauseIncrement = 1;
+    /**
+     * The priority queue of unassigned variables by their activity.
+     */
+    private final VariableHeap order = new VariableHeap();
+
+    /**
+     * Whether the clauses have been found unsatisfiable at decision level 0.
+     */
+    private boolean unsatisfiable = false;
+    /**
+     * The model of the last successful call to {@link #solve()}.
+     */
+    private boolean model[] = null;
+
+    // statistics
+    private long decisions = 0;
+    private long propagations = 0;
+    private long conflicts = 0;
+    private long restarts = 0;
+
+    /**
+     * Create a new solver without variables and clauses.
+     */
+    public CDCLSolver() {}
+
+    /**
+     * Get the number of variables.
+     */
+    public int getVariableCount() {
+        return variables;
+    }
+
+    /**
+     * Get the number of (original) clauses.
+     */
+    public int getClauseCount() {
+        return clauses.size();
+    }
+
+    /**
+     * Create a new variable.
+     * @return the number of the new variable, which is also its positive literal.
+     */
+    public int newVariable() {
+        ensureVariables(variables + 1);
+        return variables;
+    }
+
+    /**
+     * Ensure that there are at least n variables.
+     */
+    public void ensureVariables(int n) {
+        if (n <= variables)
+            return;
+        if (n > assignment.length) {
+            final int capacity = Math.max(n, 2 * assignment.length);
+            assignment = copyOf(assignment, capacity);
+            level = copyOf(level, capacity);
+            Clause newReason[] = new Clause[capacity];
+            System.arraycopy(reason, 0, newReason, 0, reason.length);
+            reason = newReason;
+            boolean newPhase[] = new boolean[capacity];
+            System.arraycopy(phase, 0, newPhase, 0, phase.length);
+            phase = newPhase;
+            seen = new boolean[capacity];
+            trail = copyOf(trail, capacity);
+            double newActivity[] = new double[capacity];
+            System.arraycopy(activity, 0, newActivity, 0, activity.length);
+            activity = newActivity;
+            ClauseList newWatches[] = new ClauseList[2 * capacity];
+            System.arraycopy(watches, 0, newWatches, 0, watches.length);
+            for (int l = watches.length; l < newWatches.length; l++)
+                newWatches[l] = new ClauseList();
+            watches = newWatches;
+            order.ensureCapacity(capacity);
+        }
+        for (int v = variables; v < n; v++)
+            order.insert(v);
+        variables = n;
+    }
+
+    /**
+     * Add a clause.
+     * @param clause the literals of the clause in DIMACS notation, i.e., v or -v for variable v&ge;1.
+     *  Variables that do not yet exist are created.
+     * @return <code>false</code> if the clauses have become unsatisfiable,
+     *  which is already detected at this point for the empty clause and conflicting unit clauses.
+     */
+    public boolean addClause(int clause[]) {
+        if (decisionLevel > 0)
+            cancelUntil(0);
+        if (unsatisfiable)
+            return false;
+        int literals[] = new int[clause.length];
+        int size = 0;
+        for (int i = 0; i < clause.length; i++) {
+            if (clause[i] == 0)
+                throw new IllegalArgumentException("literal 0 is not allowed in clauses " + Arrays.toString(clause));
+            ensureVariables(Math.abs(clause[i]));
+            final int l = encode(clause[i]);
+            final int value = value(l);
+            if (value == TRUE || contains(literals, size, l ^ 1))
+                // satisfied or tautological clause
+                return true;
+            else if (value == FALSE || contains(literals, size, l))
+                // false at level 0 or duplicate literal
+                continue;
+            literals[size++] = l;
+        }
+        switch (size) {
+        case 0:
+            unsatisfiable = true;
+            return false;
+        case 1:
+            enqueue(literals[0], null);
+            if (propagate() != null)
+                unsatisfiable = true;
+            return !unsatisfiable;
+        default:
+            final Clause c = new Clause(copyOf(literals, size), false);
+            clauses.add(c);
+            attach(c);
+            return true;
+        }
+    }
+
+    /**
+     * Decides satisfiability of the clauses added so far.
+     * @return <code>true</code> if the clauses are satisfiable, and <code>false</code> if they are unsatisfiable.
+     * @see #getModel()
+     */
+    public boolean solve() {
+        model = null;
+        if (unsatisfiable)
+            return false;
+        final long start = System.currentTimeMillis();
+        int maxLearnts = Math.max(clauses.size() / 3, 1000);
+        for (int restart = 1; ; restart++) {
+            final int status = search(RESTART_BASE * luby(restart), maxLearnts);
+            if (status != UNDEFINED) {
+                logger.log(Level.FINE, "{0} after {1} ms with {2} variables, {3} clauses, {4} decisions, {5} propagations, {6} conflicts, {7} restarts, {8} learnt clauses",
+                           new Object[] {status == TRUE ? "satisfiable" : "unsatisfiable", new Long(System.currentTimeMillis() - start),
+                                         new Integer(variables), new Integer(clauses.size()), new Long(decisions), new Long(propagations),
+                                         new Long(conflicts), new Long(restarts), new Integer(learnts.size())});
+                cancelUntil(0);
+                return status == TRUE;
+            }
+            restarts++;
+            maxLearnts += maxLearnts / 10;
+        }
+    }
+
+    /**
+     * Get the model found by the last call to {@link #solve()}.
+     * @return the truth-values of the variables, such that RES[v] is the value of variable v&ge;1,
+     *  or <code>null</code> if the last call to solve() did not find the clauses satisfiable.
+     */
+    public boolean[] getModel() {
+        return model;
+    }
+
+    /**
+     * Search for a model until the next restart.
+     * @param conflictLimit the number of conflicts after which to restart.
+     * @param maxLearnts the number of learnt clauses that triggers the deletion of learnt clauses.
+     * @return TRUE if satisfiable, FALSE if unsatisfiable, UNDEFINED for a restart.
+     */
+    private int search(int conflictLimit, int maxLearnts) {
+        int conflictCount = 0;
+        final IntList learnt = new IntList();
+        while (true) {
+            final Clause conflict = propagate();
+            if (conflict != null) {
+                conflicts++;
+                conflictCount++;
+                if (decisionLevel == 0) {
+                    unsatisfiable = true;
+                    return FALSE;
+                }
+                learnt.clear();
+                final int backtrackLevel = analyze(conflict, learnt);
+                cancelUntil(backtrackLevel);
+                if (learnt.size == 1) {
+                    enqueue(learnt.elements[0], null);
+                } else {
+                    final Clause c = new Clause(learnt.toArray(), true);
+                    learnts.add(c);
+                    attach(c);
+                    bumpActivity(c);
+                    enqueue(learnt.elements[0], c);
+                }
+                variableIncrement /= VARIABLE_DECAY;
+                clauseIncrement /= CLAUSE_DECAY;
+            } else {
+                if (conflictCount >= conflictLimit) {
+                    cancelUntil(0);
+                    return UNDEFINED;
+                }
+                if (learnts.size() - trailSize >= maxLearnts)
+                    reduceLearnts();
+                // choose the unassigned variable of highest activity
+                int v = -1;
+                while (!order.isEmpty()) {
+                    v = order.removeMax();
+                    if (assignment[v] == UNDEFINED)
+                        break;
+                    v = -1;
+                }
+                if (v < 0) {
+                    // all variables assigned without conflict
+                    model = new boolean[variables + 1];
+                    for (int i = 0; i < variables; i++)
+                        model[i + 1] = assignment[i] == TRUE;
+                    return TRUE;
+                }
+                decisions++;
+                trailLimit = ensure(trailLimit, decisionLevel + 1);
+                trailLimit[decisionLevel++] = trailSize;
+                enqueue(2 * v + (phase[v] ? 0 : 1), null);
+            }
+        }
+    }
+
+    /**
+     * Unit propagation of all literals on the trail that have not yet been propagated.
+     * @return the conflicting clause, or <code>null</code> if there is no conflict.
+     */
+    private Clause propagate() {
+        while (propagationHead < trailSize) {
+            final int p = trail[propagationHead++];
+            propagations++;
+            // the literal that became false
+            final int falseLiteral = p ^ 1;
+            final ClauseList ws = watches[falseLiteral];
+            final Clause w[] = ws.elements;
+            int i = 0, j = 0;
+            final int n = ws.size;
+            while (i < n) {
+                final Clause c = w[i++];
+                if (c.deleted)
+                    continue;
+                final int lits[] = c.literals;
+                // make sure the false literal is lits[1]
+                if (lits[0] == falseLiteral) {
+                    lits[0] = lits[1];
+                    lits[1] = falseLiteral;
+                }
+                if (value(lits[0]) == TRUE) {
+                    // clause already satisfied, keep watching
+                    w[j++] = c;
+                    continue;
+                }
+                // look for a new literal to watch
+                boolean found = false;
+                for (int k = 2; k < lits.length; k++) {
+                    if (value(lits[k]) != FALSE) {
+                        lits[1] = lits[k];
+                        lits[k] = falseLiteral;
+                        watches[lits[1]].add(c);
+                        found = true;
+                        break;
+                    }
+                }
+                if (found)
+                    continue;
+                // clause is unit or conflicting
+                w[j++] = c;
+                if (value(lits[0]) == FALSE) {
+                    // conflict: keep the remaining watches
+                    while (i < n)
+                        w[j++] = w[i++];
+                    ws.size = j;
+                    propagationHead = trailSize;
+                    return c;
+                }
+                enqueue(lits[0], c);
+            }
+            ws.size = j;
+        }
+        return null;
+    }
+
+    /**
+     * Analyze a conflict and learn the clause of the first unique implication point.
+     * @param learnt the learnt clause with the asserting literal at position 0,
+     *  and a literal of the backtrack level at position 1.
+     * @return the decision level to backtrack to.
+     */
+    private int analyze(Clause conflict, IntList learnt) {
+        // placeholder for the asserting literal
+        learnt.add(-1);
+        int pathCount = 0;
+        int p = -1;
+        int index = trailSize - 1;
+        Clause c = conflict;
+        do {
+            if (c.learnt)
+                bumpActivity(c);
+            final int lits[] = c.literals;
+            for (int k = (p == -1 ? 0 : 1); k < lits.length; k++) {
+                final int q = lits[k];
+                final int v = q >> 1;
+                if (!seen[v] && level[v] > 0) {
+                    bumpActivity(v);
+                    seen[v] = true;
+                    if (level[v] >= decisionLevel)
+                        pathCount++;
+                    else
+                        learnt.add(q);
+                }
+            }
+            // select the next literal of the current decision level to look at
+            while (!seen[trail[index--] >> 1])
+                ;
+            p = trail[index + 1];
+            c = reason[p >> 1];
+            seen[p >> 1] = false;
+            pathCount--;
+        } while (pathCount > 0);
+        learnt.elements[0] = p ^ 1;
+
+        // find the backtrack level, and move one of its literals to position 1
+        int backtrackLevel = 0;
+        if (learnt.size > 1) {
+            int max = 1;
+            for (int k = 2; k < learnt.size; k++)
+                if (level[learnt.elements[k] >> 1] > level[learnt.elements[max] >> 1])
+                    max = k;
+            final int q = learnt.elements[max];
+            learnt.elements[max] = learnt.elements[1];
+            learnt.elements[1] = q;
+            backtrackLevel = level[q >> 1];
+        }
+        for (int k = 1; k < learnt.size; k++)
+            seen[learnt.elements[k] >> 1] = false;
+        return backtrackLevel;
+    }
+
+    /**
+     * Undo all assignments above the given decision level.
+     */
+    private void cancelUntil(int level) {
+        if (decisionLevel <= level)
+            return;
+        for (int i = trailSize - 1; i >= trailLimit[level]; i--) {
+            final int v = trail[i] >> 1;
+            // save the phase
+            phase[v] = (trail[i] & 1) == 0;
+            assignment[v] = UNDEFINED;
+            reason[v] = null;
+            if (!order.contains(v))
+                order.insert(v);
+        }
+        trailSize = trailLimit[level];
+        propagationHead = trailSize;
+        decisionLevel = level;
+    }
+
+    /**
+     * Delete half of the learnt clauses with least activity, except binary clauses and reasons.
+     */
+    private void reduceLearnts() {
+        Collections.sort(learnts, new Comparator() {
+                public int compare(Object a, Object b) {
+                    final double d = ((Clause) a).activity - ((Clause) b).activity;
+                    return d < 0 ? -1 : d > 0 ? 1 : 0;
+                }
+            });
+        final int half = learnts.size() / 2;
+        int j = 0;
+        for (int i = 0; i < learnts.size(); i++) {
+            final Clause c = (Clause) learnts.get(i);
+            if (i < half && c.literals.length > 2 && !isLocked(c))
+                // watch lists drop deleted clauses lazily
+                c.deleted = true;
+            else
+                learnts.set(j++, c);
+        }
+        learnts.subList(j, learnts.size()).clear();
+    }
+
+    /**
+     * Whether c is the reason of an assignment.
+     */
+    private boolean isLocked(Clause c) {
+        final int v = c.literals[0] >> 1;
+        return reason[v] == c && value(c.literals[0]) == TRUE;
+    }
+
+    private void attach(Clause c) {
+        watches[c.literals[0]].add(c);
+        watches[c.literals[1]].add(c);
+    }
+
+    /**
+     * Assign literal l true.
+     * @param from the reason for the assignment, or <code>null</code> for decisions.
+     */
+    private void enqueue(int l, Clause from) {
+        final int v = l >> 1;
+        assert assignment[v] == UNDEFINED : "only unassigned variables are assigned";
+        assignment[v] = (l & 1) == 0 ? TRUE : FALSE;
+        level[v] = decisionLevel;
+        reason[v] = from;
+        trail[trailSize++] = l;
+    }
+
+    /**
+     * Get the value of literal l.
+     */
+    private int value(int l) {
+        final byte a = assignment[l >> 1];
+        return (l & 1) == 0 ? a : -a;
+    }
+
+    private void bumpActivity(int v) {
+        if ((activity[v] += variableIncrement) > 1e100) {
+            // rescale to avoid overflow
+            for (int i = 0; i < variables; i++)
+                activity[i] *= 1e-100;
+            variableIncrement *= 1e-100;
+        }
+        if (order.contains(v))
+            order.increased(v);
+    }
+    private void bumpActivity(Clause c) {
+        if ((c.activity += clauseIncrement) > 1e20) {
+            // rescale to avoid overflow
+            for (int i = 0; i < learnts.size(); i++)
+                ((Clause) learnts.get(i)).activity *= 1e-20;
+            clauseIncrement *= 1e-20;
+        }
+    }
+
+    /**
+     * Get the internal literal of a DIMACS literal.
+     */
+    private static int encode(int literal) {
+        return literal > 0 ? 2 * (literal - 1) : 2 * (-literal - 1) + 1;
+    }
+
+    /**
+     * The Luby sequence 1,1,2,1,1,2,4,1,1,2,1,1,2,4,8,...
+     * @param i the index &ge;1.
+     */
+    static int luby(int i) {
+        int k = 1;
+        while ((1 << k) - 1 < i)
+            k++;
+        while (true) {
+            if (i == (1 << k) - 1)
+                return 1 << (k - 1);
+            // recurse on the tail of the sequence
+            i -= (1 << (k - 1)) - 1;
+            k = 1;
+            while ((1 << k) - 1 < i)
+                k++;
+        }
+    }
+
+    // DIMACS format
+
+    /**
+     * Read a problem in DIMACS CNF format.
+     * <p>
+     * Comment lines start with <code>c</code>, the problem line is
+     * <code>p cnf</code> <var>variables</var> <var>clauses</var>,
+     * and each clause is a list of non-zero literals terminated by <code>0</code>.
+     * A line starting with <code>%</code> ends the problem.
+     * </p>
+     * @return the solver containing the clauses read.
+     * @throws IOException if reading fails or the input is not in DIMACS CNF format.
+     */
+    public static CDCLSolver readDIMACS(Reader reader) throws IOException {
+        final StreamTokenizer in = new StreamTokenizer(new BufferedReader(reader));
+        in.resetSyntax();
+        in.whitespaceChars(0, ' ');
+        in.wordChars('!', '~');
+        in.eolIsSignificant(false);
+        final CDCLSolver solver = new CDCLSolver();
+        final IntList clause = new IntList();
+        boolean header = false;
+        while (in.nextToken() != StreamTokenizer.TT_EOF) {
+            final String token = in.sval;
+            if ("c".equals(token)) {
+                // skip the comment line
+                in.eolIsSignificant(true);
+                while (in.nextToken() != StreamTokenizer.TT_EOL && in.ttype != StreamTokenizer.TT_EOF)
+                    ;
+                in.eolIsSignificant(false);
+            } else if ("p".equals(token)) {
+                if (in.nextToken() != StreamTokenizer.TT_WORD || !"cnf".equals(in.sval))
+                    throw new IOException("DIMACS problem line 'p cnf' expected in line " + in.lineno());
+                in.nextToken();
+                solver.ensureVariables(parseInt(in));
+                in.nextToken();
+                parseInt(in);
+                header = true;
+            } else if ("%".equals(token)) {
+                break;
+            } else {
+                if (!header)
+                    throw new IOException("DIMACS problem line 'p cnf' expected before clauses in line " + in.lineno());
+                final int literal = parseInt(in);
+                if (literal == 0) {
+                    solver.addClause(clause.toArray());
+                    clause.clear();
+                } else
+                    clause.add(literal);
+            }
+        }
+        if (clause.size > 0)
+            solver.addClause(clause.toArray());
+        return solver;
+    }
+    private static int parseInt(StreamTokenizer in) throws IOException {
+        try {
+            return java.lang.Integer.parseInt(in.sval);
+        }
+        catch (NumberFormatException ex) {
+            throw new IOException("integer expected instead of " + in.sval + " in line " + in.lineno());
+        }
+    }
+
+    /**
+     * Decides the satisfiability of problems in DIMACS CNF format.
+     * <p>
+     * Usage: <code>java orbital.moon.logic.CDCLSolver</code> <var>file.cnf</var>...</p>
+     */
+    public static void main(String arg[]) throws IOException {
+        if (arg.length == 0) {
+            System.out.println("usage: java " + CDCLSolver.class.getName() + " file.cnf...");
+            return;
+        }
+        for (int i = 0; i < arg.length; i++) {
+            final long start = System.currentTimeMillis();
+            final Reader rd = new FileReader(arg[i]);
+            final CDCLSolver solver;
+            try {
+                solver = readDIMACS(rd);
+            }
+            finally {
+                rd.close();
+            }
+            final boolean satisfiable = solver.solve();
+            System.out.println("c " + arg[i] + ": " + solver.getVariableCount() + " variables, " + solver.getClauseCount() + " clauses, "
+                               + solver.conflicts + " conflicts, " + (System.currentTimeMillis() - start) + " ms");
+            System.out.println(satisfiable ? "s SATISFIABLE" : "s UNSATISFIABLE");
+        }
+    }
+
+    // helpers
+
+    private static boolean contains(int a[], int size, int x) {
+        for (int i = 0; i < size; i++)
+            if (a[i] == x)
+                return true;
+        return false;
+    }
+    private static int[] ensure(int a[], int size) {
+        return size <= a.length ? a : copyOf(a, Math.max(size, 2 * a.length));
+    }
+    private static int[] copyOf(int a[], int size) {
+        int b[] = new int[size];
+        System.arraycopy(a, 0, b, 0, Math.min(a.length, size));
+        return b;
+    }
+    private static byte[] copyOf(byte a[], int size) {
+        byte b[] = new byte[size];
+        System.arraycopy(a, 0, b, 0, Math.min(a.length, size));
+        return b;
+    }
+
+    /**
+     * A clause of internal literals, with its first two literals being watched.
+     */
+    private static final class Clause {
+        final int literals[];
+        final boolean learnt;
+        double activity = 0;
+        boolean deleted = false;
+        Clause(int literals[], boolean learnt) {
+            this.literals = literals;
+            this.learnt = learnt;
+        }
+        public String toString() {
+            StringBuffer sb = new StringBuffer("[");
+            for (int i = 0; i < literals.length; i++)
+                sb.append(i > 0 ? " " : "").append((literals[i] & 1) == 0 ? "" : "-").append((literals[i] >> 1) + 1);
+            return sb.append("]").toString();
+        }
+    }
+
+    /**
+     * Growable list of clauses.
+     */
+    private static final class ClauseList {
+        Clause elements[] = new Clause[4];
+        int size = 0;
+        void add(Clause c) {
+            if (size == elements.length) {
+                Clause newElements[] = new Clause[2 * size];
+                System.arraycopy(elements, 0, newElements, 0, size);
+                elements = newElements;
+            }
+            elements[size++] = c;
+        }
+    }
+
+    /**
+     * Growable list of ints.
+     */
+    private static final class IntList {
+        int elements[] = new int[16];
+        int size = 0;
+        void add(int x) {
+            elements = ensure(elements, size + 1);
+            elements[size++] = x;
+        }
+        void clear() {
+            size = 0;
+        }
+        int[] toArray() {
+            return copyOf(elements, size);
+        }
+    }
+
+    /**
+     * Binary max-heap of variables ordered by their activity.
+     */
+    private final class VariableHeap {
+        /**
+         * The variables in heap order.
+         */
+        private int heap[] = new int[0];
+        private int size = 0;
+        /**
+         * The position of each variable in the heap, or -1 if it is not contained.
+         */
+        private int position[] = new int[0];
+
+        void ensureCapacity(int capacity) {
+            heap = copyOf(heap, capacity);
+            final int old = position.length;
+            position = copyOf(position, capacity);
+            Arrays.fill(position, old, capacity, -1);
+        }
+        boolean isEmpty() {
+            return size == 0;
+        }
+        boolean contains(int v) {
+            return position[v] >= 0;
+        }
+        void insert(int v) {
+            heap[size] = v;
+            position[v] = size;
+            up(size++);
+        }
+        /**
+         * Notify that the activity of v has increased.
+         */
+        void increased(int v) {
+            up(position[v]);
+        }
+        int removeMax() {
+            final int v = heap[0];
+            position[v] = -1;
+            if (--size > 0) {
+                heap[0] = heap[size];
+                position[heap[0]] = 0;
+                down(0);
+            }
+            return v;
+        }
+        private void up(int i) {
+            final int v = heap[i];
+            while (i > 0) {
+                final int parent = (i - 1) >> 1;
+                if (activity[heap[parent]] >= activity[v])
+                    break;
+                heap[i] = heap[parent];
+                position[heap[i]] = i;
+                i = parent;
+            }
+            heap[i] = v;
+            position[v] = i;
+        }
+        private void down(int i) {
+            final int v = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size)
+                    break;
+                if (child + 1 < size && activity[heap[child + 1]] > activity[heap[child]])
+                    child++;
+                if (activity[heap[child]] <= activity[v])
+                    break;
+                heap[i] = heap[child];
+                position[heap[i]] = i;
+                i = child;
+            }
+            heap[i] = v;
+            position[v] = i;
+        }
+    }
+}
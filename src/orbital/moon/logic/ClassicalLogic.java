@@ -252,11 +252,17 @@ public class ClassicalLogic extends ModernLogic {
                     String expression = Utility.readLine(System.in);
                     Formula B = (Formula) logic.createExpression(expression);
                     Signature sigma = B.getSignature();
+                    // the truth-values of the compiled truth-table in the order of the interpretations, if purely propositional
+                    final TruthTable table = TruthTable.compile(new Formula[] {B}, interpretedSignatureOf(sigma));
+                    final long values[] = table != null ? table.values(0) : null;
+                    int row = 0;
                     for (Iterator Int = logic.createAllInterpretations(sigma, sigma);
                          Int.hasNext();
-                         ) {
+                         row++) {
                         Interpretation I = (Interpretation) Int.next();
-                        System.out.println(I + ":\t" + logic.satisfy(I, B));
+                        System.out.println(I + ":\t" + (values != null
+                                                        ? (values[row >>> 6] & (1L << (row & 63))) != 0
+                                                        : logic.satisfy(I, B)));
                     }
                     hasBeenProving = true;
                 } else {
@@ -1454,6 +1460,34 @@ public class ClassicalLogic extends ModernLogic {
                 return _propositional;
             }
         };
+    /**
+     * Propositional inference using CDCL.
+     * Inference mechanism specialized for fast propositional inference with many propositional atoms.
+     * Uses a SAT solver with conflict-driven clause learning (CDCL).
+     * @attribute time complexity CoNP-complete
+     * @see CDCLSolver
+     */
+    public static final InferenceMechanism PROPOSITIONAL_CDCL_INFERENCE = new InferenceMechanism("PROPOSITIONAL_CDCL",
+    		"Propositional CDCL procedure with watched literals, clause learning and restarts") {
+            private final Inference _propositional = new CDCLInference();
+            Inference inference() {
+                return _propositional;
+            }
+        };
+    /**
+     * Propositional inference using binary decision diagrams.
+     * Inference mechanism specialized for many queries against the same premises,
+     * which are compiled into reduced ordered binary decision diagrams once.
+     * @attribute time complexity CoNP-complete
+     * @see BDD
+     */
+    public static final InferenceMechanism PROPOSITIONAL_BDD_INFERENCE = new InferenceMechanism("PROPOSITIONAL_BDD",
+    		"Propositional inference with reduced ordered binary decision diagrams and dynamic variable reordering") {
+            private final Inference _propositional = new BDDInference();
+            Inference inference() {
+                return _propositional;
+            }
+        };
 
     /**
      * Semantic inference with truth-tables.
@@ -1478,6 +1512,13 @@ public class ClassicalLogic extends ModernLogic {
                             sigma = sigma.union(B[i].getSignature());
                             sigmaInt = sigmaInt.union(relevantSignatureOf(B[i]));
                         }
+                        // bit-parallel test on the compiled truth-table, if purely propositional
+                        final Formula formulas[] = new Formula[B.length + 1];
+                        System.arraycopy(B, 0, formulas, 0, B.length);
+                        formulas[B.length] = D;
+                        final TruthTable table = TruthTable.compile(formulas, interpretedSignatureOf(sigmaInt));
+                        if (table != null)
+                            return table.entails();
                         // semantic test whether all interpretations that satisfy all formulas in B, also satisfy D
                         loop:
                         for (Iterator Int = createAllInterpretations(sigmaInt, sigma);
@@ -1530,23 +1571,7 @@ public class ClassicalLogic extends ModernLogic {
     private static Iterator/*<Interpretation>*/ createAllInterpretations(Signature propositionalSigma, final Signature sigma) {
         assert sigma != null && propositionalSigma != null : "signatures are !=null: " + propositionalSigma + ", " + sigma;
         assert sigma.containsAll(propositionalSigma) : propositionalSigma + " subset of " + sigma;
-        // determine the non-fixed propositional part of propositionalSigma
-        final Signature sigmaComb = new SignatureBase(propositionalSigma);
-        for (Iterator it = sigmaComb.iterator(); it.hasNext(); ) {
-            //@see propositionalOnly(Signature)
-            final Symbol s = (Symbol)it.next();
-            final Type type = s.getType();
-            if (type.equals(Types.TRUTH))
-                // ordinary propositional logic
-                ;
-            else if (!s.isVariable() && type.subtypeOf(typeSystem.objectType(orbital.math.Scalar.class)))
-                // forget about interpreting _fixed_ constants @xxx generalize concept
-                it.remove();
-            else {
-                TypeSystem typeSystem = type.typeSystem();
-                throw new TypeException("a signature of propositional logic should not contain " + s + " of type " + type, typeSystem.sup(new Type[] {Types.TRUTH, typeSystem.objectType(orbital.math.Scalar.class)}), type);
-            }
-        }
+        final Signature sigmaComb = interpretedSignatureOf(propositionalSigma);
 
         // interpret sigmaComb in all possible ways
         return sigmaComb.isEmpty()
@@ -1576,6 +1601,34 @@ public class ClassicalLogic extends ModernLogic {
             };
     } 
 
+    /**
+     * Get the non-fixed part of a propositional signature, which all interpretations
+     * {@link #createAllInterpretations(Signature,Signature) interpret} in all possible ways.
+     * @param propositionalSigma a signature of propositional logic.
+     * @return propositionalSigma without the fixed constants.
+     * @throws TypeException if propositionalSigma is not a signature of propositional logic.
+     */
+    private static Signature interpretedSignatureOf(Signature propositionalSigma) {
+        // determine the non-fixed propositional part of propositionalSigma
+        final Signature sigmaComb = new SignatureBase(propositionalSigma);
+        for (Iterator it = sigmaComb.iterator(); it.hasNext(); ) {
+            //@see propositionalOnly(Signature)
+            final Symbol s = (Symbol)it.next();
+            final Type type = s.getType();
+            if (type.equals(Types.TRUTH))
+                // ordinary propositional logic
+                ;
+            else if (!s.isVariable() && type.subtypeOf(typeSystem.objectType(orbital.math.Scalar.class)))
+                // forget about interpreting _fixed_ constants @xxx generalize concept
+                it.remove();
+            else {
+                TypeSystem typeSystem = type.typeSystem();
+                throw new TypeException("a signature of propositional logic should not contain " + s + " of type " + type, typeSystem.sup(new Type[] {Types.TRUTH, typeSystem.objectType(orbital.math.Scalar.class)}), type);
+            }
+        }
+        return sigmaComb;
+    }
+
     
     /**
      * Formula transformation utilities.
@@ -1657,8 +1710,8 @@ public class ClassicalLogic extends ModernLogic {
             try {
                 // eliminate derived junctors not in the basis (&forall;,&and;,&or;&not;)
                 if (DNFeliminate == null)
-                    DNFeliminate = readTRS(readResource("trs/dnf/eliminate.trs"), logic);
-                f = (Formula) Functionals.fixedPoint(DNFeliminate, f);
+                    DNFeliminate = Substitutions.createRewriter(readTRS(readResource("trs/dnf/eliminate.trs"), logic));
+                f = (Formula) DNFeliminate.apply(f);
                 // simplification part (necessary and does not disturb local confluency?)
                 if (simplifying && DNFSimplification == null)
                     DNFSimplification =
@@ -1674,15 +1727,22 @@ public class ClassicalLogic extends ModernLogic {
                 if (DNFtrs == null)
                     DNFtrs = readTRS(readResource("trs/dnf/transformToDNF.trs"), logic);
                 //@todo simplifying conditional rules: commutative with lexical sort, etc.
-                return (Formula) Functionals.fixedPoint(simplifying ? Substitutions.getInstance(new ArrayList(Setops.union(DNFSimplification, DNFtrs.getReplacements()))) : DNFtrs, f);
+                if (simplifying && DNFsimplifyingRewriter == null)
+                    DNFsimplifyingRewriter = Substitutions.createRewriter(Substitutions.getInstance(new ArrayList(Setops.union(DNFSimplification, DNFtrs.getReplacements()))));
+                if (DNFrewriter == null)
+                    DNFrewriter = Substitutions.createRewriter(DNFtrs);
+                return (Formula) (simplifying ? DNFsimplifyingRewriter : DNFrewriter).apply(f);
             } catch (ParseException ex) {
                 throw (InternalError) new InternalError("Unexpected syntax in internal term").initCause(ex);
             }
         }
         // lazy initialized cache for TRS rules
-        private static Substitution DNFeliminate;
+        private static Function DNFeliminate;
         private static Substitution DNFtrs;
         private static Collection DNFSimplification;
+        // lazy initialized cache for rewriters to normal form with the TRS rules
+        private static Function DNFrewriter;
+        private static Function DNFsimplifyingRewriter;
 
         /**
          * Transforms into conjunctive normal form (CNF).
@@ -1725,8 +1785,8 @@ public class ClassicalLogic extends ModernLogic {
             try {
                 // eliminate derived junctors not in the basis (&forall;,&and;,&or;&not;)
                 if (CNFeliminate == null)
-                    CNFeliminate = readTRS(readResource("trs/cnf/eliminate.trs"), logic);
-                f = (Formula) Functionals.fixedPoint(CNFeliminate, f);
+                    CNFeliminate = Substitutions.createRewriter(readTRS(readResource("trs/cnf/eliminate.trs"), logic));
+                f = (Formula) CNFeliminate.apply(f);
                 // simplification part (necessary and does not disturb local confluency?)
                 if (simplifying && CNFSimplification == null)
                     CNFSimplification =
@@ -1743,15 +1803,22 @@ public class ClassicalLogic extends ModernLogic {
                 // transform to CNF part
                 if (CNFtrs == null)
                     CNFtrs = readTRS(readResource("trs/cnf/transformToCNF.trs"), logic);
-                return (Formula) Functionals.fixedPoint(simplifying ? Substitutions.getInstance(new ArrayList(Setops.union(CNFSimplification, CNFtrs.getReplacements()))) : CNFtrs, f);
+                if (simplifying && CNFsimplifyingRewriter == null)
+                    CNFsimplifyingRewriter = Substitutions.createRewriter(Substitutions.getInstance(new ArrayList(Setops.union(CNFSimplification, CNFtrs.getReplacements()))));
+                if (CNFrewriter == null)
+                    CNFrewriter = Substitutions.createRewriter(CNFtrs);
+                return (Formula) (simplifying ? CNFsimplifyingRewriter : CNFrewriter).apply(f);
             } catch (ParseException ex) {
                 throw (InternalError) new InternalError("Unexpected syntax in internal term").initCause(ex);
             }
         }
         // lazy initialized cache for TRS rules
-        private static Substitution CNFeliminate;
+        private static Function CNFeliminate;
         private static Substitution CNFtrs;
         private static Collection CNFSimplification;
+        // lazy initialized cache for rewriters to normal form with the TRS rules
+        private static Function CNFrewriter;
+        private static Function CNFsimplifyingRewriter;
         
         /**
          * Transforms into implicative normal form (INF)
@@ -1775,18 +1842,18 @@ public class ClassicalLogic extends ModernLogic {
                 //@fixme does not work in multi-sort case "some x:integer p:(univ->truth)(x) |= some x:univ p:(univ->truth)(x)". This is due to the lacking support of generically typed pattern matching TRS rules.
                 // eliminate derived junctors not in the basis (&forall;,&exist;,&and;,&or;&not;)
                 if (CNFeliminate == null) conjunctiveForm(logic.createFormula("true"));
-                F = (Formula) Functionals.fixedPoint(CNFeliminate, F);
+                F = (Formula) CNFeliminate.apply(F);
                 // negation normal form transform TRS
                 if (NegationNFTransform == null)
-                    NegationNFTransform = readTRS(readResource("trs/negationNF.trs"), logic);
-                return (Formula) Functionals.fixedPoint(NegationNFTransform, F);
+                    NegationNFTransform = Substitutions.createRewriter(readTRS(readResource("trs/negationNF.trs"), logic));
+                return (Formula) NegationNFTransform.apply(F);
             } catch (ParseException ex) {
                 throw (InternalError) new InternalError("Unexpected syntax in internal term").initCause(ex);
             }
         }
 
         // lazy initialized cache for TRS rules
-        private static Substitution NegationNFTransform;
+        private static Function NegationNFTransform;
 
 
         // clause and clause set handling
@@ -1901,6 +1968,231 @@ public class ClassicalLogic extends ModernLogic {
                 }
             };
 
+        /**
+         * Transforms into a structure-preserving clausal form.
+         * <p>
+         * Instead of distributing, every compound subformula G that is not a literal is abbreviated
+         * by a new atom d<sub>G</sub>, whose definition d<sub>G</sub>&harr;G is added as clauses.
+         * Definitions are only added in the direction required by the polarity of the occurrence of G,
+         * and equal subformulas share their definition.
+         * The result is not equivalent to f, but only equisatisfiable,
+         * which suffices for refutation procedures.
+         * In contrast to {@link #clausalForm(Formula,boolean)}, however, the size of the result is linear in the size of f.
+         * </p>
+         * @preconditions f does not contain quantifiers
+         * @postconditions RES is satisfiable &hArr; f is satisfiable
+         * @attribute time complexity linear
+         * @see "G. S. Tseitin. On the complexity of derivation in propositional calculus. <i>Studies in Constructive Mathematics and Mathematical Logic</i>, Part II, 1968, 115-125."
+         * @see "David A. Plaisted &amp; Steven Greenbaum. A structure-preserving clause form translation. <i>J. Symb. Comput., Academic Press, Inc.</i>, <b>1986</b>, 2, 293-304."
+         */
+        public static final Set/*<Set<Formula>>*/ definitionalClausalForm(Formula f) {
+            final DefinitionalTransform transform = new DefinitionalTransform();
+            transform.assertFormula(f);
+            // evaluate constant literals
+            final Set/*<Set<Formula>>*/ S = new LinkedHashSet();
+            clauses:
+            for (Iterator i = transform.clauses.iterator(); i.hasNext(); ) {
+                final Set/*<Formula>*/ C = (Set) i.next();
+                for (Iterator j = C.iterator(); j.hasNext(); ) {
+                    final Formula L = (Formula) j.next();
+                    final Formula A = DefinitionalTransform.atomOf(L);
+                    if (FORMULA_TRUE.equals(A) ? A == L : FORMULA_FALSE.equals(A) && A != L)
+                        // true literal
+                        continue clauses;
+                    else if (FORMULA_TRUE.equals(A) || FORMULA_FALSE.equals(A))
+                        // false literal
+                        j.remove();
+                }
+                S.add(C);
+            }
+            return S;
+        }
+
+        /**
+         * The clauses of the definitions of subformulas, with polarities.
+         * @see #definitionalClausalForm(Formula)
+         */
+        private static final class DefinitionalTransform {
+            /**
+             * The polarities of occurrences of subformulas.
+             */
+            private static final int POSITIVE = 1, NEGATIVE = 2, BOTH = POSITIVE | NEGATIVE;
+            /**
+             * The clauses so far.
+             */
+            final Set/*<Set<Formula>>*/ clauses = new LinkedHashSet();
+            /**
+             * The atoms defining the subformulas so far.
+             */
+            private final Map/*<Formula,Formula>*/ definitions = new HashMap();
+            /**
+             * The polarities of the definitions added so far.
+             */
+            private final Map/*<Formula,Integer>*/ polarities = new HashMap();
+
+            /**
+             * Add the clauses of a formula that is asserted.
+             * Top-level conjunctions and disjunctions do not need definitions.
+             */
+            void assertFormula(Formula f) {
+                final Object op = f instanceof Composite ? ((Composite) f).getCompositor() : null;
+                if (op == LogicFunctions.and || op == LogicFunctions.andFold) {
+                    for (Iterator i = Utility.asIterator(((Composite) f).getComponent()); i.hasNext(); )
+                        assertFormula((Formula) i.next());
+                } else if (op == LogicFunctions.or || op == LogicFunctions.orFold) {
+                    final Set/*<Formula>*/ C = new LinkedHashSet();
+                    for (Iterator i = Utility.asIterator(((Composite) f).getComponent()); i.hasNext(); )
+                        C.add(literal((Formula) i.next(), POSITIVE));
+                    clauses.add(C);
+                } else
+                    clauses.add(singleton(literal(f, POSITIVE)));
+            }
+
+            /**
+             * Get the literal representing a subformula, and add the definitions required.
+             * @param polarity the polarities of the occurrences of f.
+             * @return a literal that can replace f in occurrences of the given polarity.
+             */
+            private Formula literal(Formula f, int polarity) {
+                if (!(f instanceof Composite))
+                    return f;
+                final Composite c = (Composite) f;
+                final Object op = c.getCompositor();
+                if (op == LogicFunctions.not)
+                    return negation(literal((Formula) c.getComponent(), flip(polarity)));
+                final boolean conjunction = op == LogicFunctions.and || op == LogicFunctions.andFold;
+                final boolean disjunction = op == LogicFunctions.or || op == LogicFunctions.orFold
+                    || op == LogicFunctions.impl || op == LogicFunctions.reverseImpl;
+                final boolean equivalence = op == LogicFunctions.equiv || op == LogicFunctions.xor;
+                if (!(conjunction || disjunction || equivalence))
+                    // atomic parts
+                    return f;
+
+                Formula d = (Formula) definitions.get(f);
+                final java.lang.Integer defined = (java.lang.Integer) polarities.get(f);
+                final int missing = defined == null ? polarity : polarity & ~defined.intValue();
+                if (d == null) {
+                    d = newDefinition(f);
+                    definitions.put(f, d);
+                }
+                if (missing == 0)
+                    return d;
+                polarities.put(f, new java.lang.Integer(polarity | (defined == null ? 0 : defined.intValue())));
+
+                final Formula components[] = components(c);
+                if (equivalence) {
+                    final Formula a = literal(components[0], BOTH);
+                    final Formula b = op == LogicFunctions.xor
+                        ? negation(literal(components[1], BOTH))
+                        : literal(components[1], BOTH);
+                    // d -> (a<->b)
+                    if ((missing & POSITIVE) != 0) {
+                        clause(new Formula[] {negation(d), negation(a), b});
+                        clause(new Formula[] {negation(d), a, negation(b)});
+                    }
+                    // (a<->b) -> d
+                    if ((missing & NEGATIVE) != 0) {
+                        clause(new Formula[] {d, a, b});
+                        clause(new Formula[] {d, negation(a), negation(b)});
+                    }
+                    return d;
+                }
+
+                // conjunctions and disjunctions of literals, with a->b == ~a|b and a<-b == a|~b
+                final Formula L[] = new Formula[components.length];
+                for (int i = 0; i < components.length; i++) {
+                    final boolean negated = op == LogicFunctions.impl && i == 0
+                        || op == LogicFunctions.reverseImpl && i == 1;
+                    L[i] = negated
+                        ? negation(literal(components[i], flip(missing)))
+                        : literal(components[i], missing);
+                }
+                if (conjunction) {
+                    // d -> L[0]&...&L[n-1]
+                    if ((missing & POSITIVE) != 0)
+                        for (int i = 0; i < L.length; i++)
+                            clause(new Formula[] {negation(d), L[i]});
+                    // L[0]&...&L[n-1] -> d
+                    if ((missing & NEGATIVE) != 0) {
+                        final Formula C[] = new Formula[L.length + 1];
+                        C[0] = d;
+                        for (int i = 0; i < L.length; i++)
+                            C[i + 1] = negation(L[i]);
+                        clause(C);
+                    }
+                } else {
+                    // d -> L[0]|...|L[n-1]
+                    if ((missing & POSITIVE) != 0) {
+                        final Formula C[] = new Formula[L.length + 1];
+                        C[0] = negation(d);
+                        System.arraycopy(L, 0, C, 1, L.length);
+                        clause(C);
+                    }
+                    // L[0]|...|L[n-1] -> d
+                    if ((missing & NEGATIVE) != 0)
+                        for (int i = 0; i < L.length; i++)
+                            clause(new Formula[] {d, negation(L[i])});
+                }
+                return d;
+            }
+
+            private void clause(Formula C[]) {
+                clauses.add(new LinkedHashSet(Arrays.asList(C)));
+            }
+
+            private static int flip(int polarity) {
+                return ((polarity & POSITIVE) != 0 ? NEGATIVE : 0) | ((polarity & NEGATIVE) != 0 ? POSITIVE : 0);
+            }
+
+            private static Formula[] components(Composite c) {
+                final List/*<Formula>*/ components = new ArrayList();
+                for (Iterator i = Utility.asIterator(c.getComponent()); i.hasNext(); )
+                    components.add(i.next());
+                return (Formula[]) components.toArray(new Formula[components.size()]);
+            }
+
+            /**
+             * Get the negation of a literal, using duplex negatio est affirmatio.
+             */
+            private static Formula negation(Formula L) {
+                return L instanceof Composite && ((Composite) L).getCompositor() == LogicFunctions.not
+                    ? (Formula) ((Composite) L).getComponent()
+                    : L.not();
+            }
+
+            /**
+             * Get the atom of a literal.
+             */
+            static Formula atomOf(Formula L) {
+                return L instanceof Composite && ((Composite) L).getCompositor() == LogicFunctions.not
+                    ? (Formula) ((Composite) L).getComponent()
+                    : L;
+            }
+
+            /**
+             * Create a new atom d(FV(f)) for the definition of f.
+             */
+            private static Formula newDefinition(Formula f) {
+                final Set freeVariables = f.getFreeVariables();
+                if (freeVariables.isEmpty())
+                    return (Formula) logic.createAtomic(new UniqueSymbol("d", Types.TRUTH, null, false));
+                final Type arguments[] = new Type[freeVariables.size()];
+                final Expression freeVariableExpressions[] = new Expression[freeVariables.size()];
+                int i = 0;
+                for (Iterator it = freeVariables.iterator(); it.hasNext(); i++) {
+                    final Symbol x = (Symbol) it.next();
+                    arguments[i] = x.getType();
+                    freeVariableExpressions[i] = logic.createAtomic(x);
+                }
+                final Symbol d = new UniqueSymbol("d", typeSystem.map(typeSystem.product(arguments), Types.TRUTH), null, false);
+                try {
+                    return (Formula) logic.compose(logic.createAtomic(d), freeVariableExpressions);
+                } catch (ParseException ex) {
+                    throw (InternalError) new InternalError("Unexpected syntax in internal term construction").initCause(ex);
+                }
+            }
+        }
+
         private static final Set singleton(Object o) {
             Set r = new LinkedHashSet();
             r.add(o);
@@ -54,8 +54,7 @@ class LexicalConditionalUnifyingMatcher extends UnifyingMatcher {
     public boolean matches(Object t) {
         if (!super.matches(t))
             return false;
-        Substitution mu = getUnifier();
-        return compare(mu.apply(compare1), mu.apply(compare2)) < 0;
+        return compare(applyUnifier(compare1), applyUnifier(compare2)) < 0;
     }
         
     /**
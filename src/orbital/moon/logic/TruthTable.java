@@ -0,0 +1,417 @@
+/**
+ * @(#)TruthTable.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.moon.logic;
+
+import orbital.logic.imp.Formula;
+import orbital.logic.sign.Signature;
+import orbital.logic.Composite;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import java.util.logging.Logger;
+import java.util.logging.Level;
+
+import orbital.moon.GetPropertyAction;
+
+/**
+ * Truth-tables of propositional formulas compiled for bit-parallel evaluation.
+ * <p>
+ * The formulas are compiled into a flat program of logical operations on <code>long</code>s,
+ * one instruction per (shared) subformula.
+ * Every run of the program evaluates a block of 64 rows of the truth-table at once,
+ * with one row per bit. Blocks of rows are evaluated in parallel on a fork/join pool,
+ * without creating any interpretations.
+ * </p>
+ * <p>
+ * The rows of the truth-table are numbered such that the k-th symbol of the signature
+ * of n symbols is true in row r iff bit n-1-k of r is set,
+ * which is the order of interpretations in which
+ * {@link orbital.algorithm.Combinatorical#getPermutations(int,int,boolean) permutations}
+ * enumerate them.
+ * </p>
+ * <p>
+ * The parallelism can be configured via the system property
+ * <code>orbital.moon.logic.TruthTable.parallelism</code>.
+ * </p>
+ *
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ * @see ClassicalLogic#SEMANTIC_INFERENCE
+ * @internal Only formulas built of propositional atoms, truth-values and the junctors of classical logic
+ *  can be compiled.
+ */
+final class TruthTable {
+    private static final Logger logger = Logger.getLogger(TruthTable.class.getName());
+
+    /**
+     * The operation codes of instructions.
+     */
+    private static final int VARIABLE = 0, CONSTANT = 1, NOT = 2, AND = 3, OR = 4, XOR = 5, IMPL = 6, REVERSE_IMPL = 7, EQUIV = 8;
+    /**
+     * The values of the first 6 variables in the 64 rows of a block.
+     */
+    private static final long LANES[] = {
+        0xAAAAAAAAAAAAAAAAL, 0xCCCCCCCCCCCCCCCCL, 0xF0F0F0F0F0F0F0F0L,
+        0xFF00FF00FF00FF00L, 0xFFFF0000FFFF0000L, 0xFFFFFFFF00000000L
+    };
+    /**
+     * The number of blocks of rows that a single task evaluates at least.
+     */
+    private static final int MIN_BLOCKS = 256;
+
+    /**
+     * The fork/join pool evaluating blocks in parallel, created lazily.
+     */
+    private static ForkJoinPool pool = null;
+
+    /**
+     * Get the fork/join pool used for evaluating truth-tables.
+     */
+    private static synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            int parallelism = Runtime.getRuntime().availableProcessors();
+            final String property = TruthTable.class.getName() + ".parallelism";
+            try {
+                parallelism = Math.max(1, java.lang.Integer.parseInt(GetPropertyAction.getProperty(property, parallelism + "")));
+            } catch (NumberFormatException nonumber) {
+                logger.log(Level.SEVERE, "invalid property setting {0}" , property);
+            } catch (SecurityException nevertheless) {
+                // especially catch SecurityExceptions if we were not allowed to read properties
+            }
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    /**
+     * The number of variables.
+     */
+    private final int variables;
+    /**
+     * The operation codes of the program.
+     */
+    private final int op[];
+    /**
+     * The first arguments of the program, i.e., an instruction index, the variable, or the constant.
+     */
+    private final int arg1[];
+    /**
+     * The second arguments of the program, i.e., an instruction index.
+     */
+    private final int arg2[];
+    /**
+     * The instruction indices of the values of the formulas compiled.
+     */
+    private final int roots[];
+
+    private TruthTable(int variables, int op[], int arg1[], int arg2[], int roots[]) {
+        this.variables = variables;
+        this.op = op;
+        this.arg1 = arg1;
+        this.arg2 = arg2;
+        this.roots = roots;
+    }
+
+    /**
+     * Compile propositional formulas for bit-parallel evaluation.
+     * @param formulas the formulas to compile.
+     * @param sigma the propositional atoms, which are the variables of the truth-table.
+     * @return the compiled truth-table of the formulas,
+     *  or <code>null</code> if the formulas are not purely propositional over sigma.
+     */
+    static TruthTable compile(Formula formulas[], Signature sigma) {
+        final int n = sigma.size();
+        if (n > 62)
+            return null;
+        final Map/*<Symbol,Integer>*/ variables = new HashMap();
+        int k = 0;
+        for (Iterator i = sigma.iterator(); i.hasNext(); k++)
+            variables.put(i.next(), new java.lang.Integer(n - 1 - k));
+        final Compiler compiler = new Compiler(variables);
+        final int roots[] = new int[formulas.length];
+        for (int i = 0; i < formulas.length; i++) {
+            roots[i] = compiler.compile(formulas[i]);
+            if (roots[i] < 0)
+                return null;
+        }
+        final int size = compiler.size;
+        final int op[] = new int[size], arg1[] = new int[size], arg2[] = new int[size];
+        System.arraycopy(compiler.op, 0, op, 0, size);
+        System.arraycopy(compiler.arg1, 0, arg1, 0, size);
+        System.arraycopy(compiler.arg2, 0, arg2, 0, size);
+        return new TruthTable(n, op, arg1, arg2, roots);
+    }
+
+    /**
+     * Translates formulas into instructions, sharing identical subformulas.
+     */
+    private static final class Compiler {
+        private final Map/*<Symbol,Integer>*/ variables;
+        private final Map/*<Formula,Integer>*/ compiled = new IdentityHashMap();
+        int op[] = new int[16], arg1[] = new int[16], arg2[] = new int[16];
+        int size = 0;
+        Compiler(Map/*<Symbol,Integer>*/ variables) {
+            this.variables = variables;
+        }
+
+        /**
+         * Compile f.
+         * @return the index of the instruction computing f, or -1 if f cannot be compiled.
+         */
+        int compile(Object f) {
+            final java.lang.Integer known = (java.lang.Integer) compiled.get(f);
+            if (known != null)
+                return known.intValue();
+            final int r;
+            if (f instanceof ModernFormula.FixedAtomicSymbol) {
+                final Object referent = ((ModernFormula.FixedAtomicSymbol) f).getReferent();
+                if (!(referent instanceof Boolean))
+                    return -1;
+                r = emit(CONSTANT, ((Boolean) referent).booleanValue() ? 1 : 0, 0);
+            } else if (f instanceof ModernFormula.AtomicSymbol) {
+                final java.lang.Integer v = (java.lang.Integer) variables.get(((ModernFormula.AtomicSymbol) f).getSymbol());
+                if (v == null)
+                    return -1;
+                r = emit(VARIABLE, v.intValue(), 0);
+            } else if (f instanceof Composite) {
+                final Object compositor = ((Composite) f).getCompositor();
+                final Object component = ((Composite) f).getComponent();
+                if (compositor == ClassicalLogic.LogicFunctions.not) {
+                    final int a = compile(component);
+                    if (a < 0)
+                        return -1;
+                    r = emit(NOT, a, 0);
+                } else if (compositor == ClassicalLogic.LogicFunctions.andFold
+                           || compositor == ClassicalLogic.LogicFunctions.orFold) {
+                    final int code = compositor == ClassicalLogic.LogicFunctions.andFold ? AND : OR;
+                    int a = emit(CONSTANT, code == AND ? 1 : 0, 0);
+                    for (Iterator i = orbital.util.Utility.asIterator(component); i.hasNext(); ) {
+                        final int b = compile(i.next());
+                        if (b < 0)
+                            return -1;
+                        a = emit(code, a, b);
+                    }
+                    r = a;
+                } else {
+                    final int code = binaryOperation(compositor);
+                    if (code < 0 || !(component instanceof Object[]) || ((Object[]) component).length != 2)
+                        return -1;
+                    final int a = compile(((Object[]) component)[0]);
+                    final int b = a < 0 ? -1 : compile(((Object[]) component)[1]);
+                    if (b < 0)
+                        return -1;
+                    r = emit(code, a, b);
+                }
+            } else
+                return -1;
+            compiled.put(f, new java.lang.Integer(r));
+            return r;
+        }
+
+        private static int binaryOperation(Object compositor) {
+            if (compositor == ClassicalLogic.LogicFunctions.and)
+                return AND;
+            else if (compositor == ClassicalLogic.LogicFunctions.or)
+                return OR;
+            else if (compositor == ClassicalLogic.LogicFunctions.xor)
+                return XOR;
+            else if (compositor == ClassicalLogic.LogicFunctions.impl)
+                return IMPL;
+            else if (compositor == ClassicalLogic.LogicFunctions.reverseImpl)
+                return REVERSE_IMPL;
+            else if (compositor == ClassicalLogic.LogicFunctions.equiv)
+                return EQUIV;
+            else
+                return -1;
+        }
+
+        private int emit(int code, int a, int b) {
+            if (size == op.length) {
+                op = grow(op);
+                arg1 = grow(arg1);
+                arg2 = grow(arg2);
+            }
+            op[size] = code;
+            arg1[size] = a;
+            arg2[size] = b;
+            return size++;
+        }
+
+        private static int[] grow(int a[]) {
+            final int r[] = new int[2 * a.length];
+            System.arraycopy(a, 0, r, 0, a.length);
+            return r;
+        }
+    }
+
+    /**
+     * Get the number of variables.
+     */
+    int getVariableCount() {
+        return variables;
+    }
+
+    /**
+     * Get the number of rows.
+     * @return 2<sup>n</sup> for n variables.
+     */
+    long getRowCount() {
+        return 1L << variables;
+    }
+
+    /**
+     * Get the number of blocks of 64 rows.
+     */
+    private long getBlockCount() {
+        return variables <= 6 ? 1 : 1L << (variables - 6);
+    }
+
+    /**
+     * Get the rows of a block that belong to the truth-table.
+     */
+    private long validRows() {
+        return variables >= 6 ? -1L : (1L << (1 << variables)) - 1;
+    }
+
+    /**
+     * Evaluate the program on a block of rows.
+     * @param block the index of the block of rows.
+     * @param registers the values of the instructions, which will be overwritten.
+     */
+    private void run(long block, long registers[]) {
+        for (int i = 0; i < op.length; i++) {
+            final long value;
+            switch (op[i]) {
+            case VARIABLE: {
+                final int v = arg1[i];
+                value = v < 6 ? LANES[v] : ((block >>> (v - 6)) & 1) != 0 ? -1L : 0L;
+                break;
+            }
+            case CONSTANT: value = arg1[i] != 0 ? -1L : 0L; break;
+            case NOT: value = ~registers[arg1[i]]; break;
+            case AND: value = registers[arg1[i]] & registers[arg2[i]]; break;
+            case OR: value = registers[arg1[i]] | registers[arg2[i]]; break;
+            case XOR: value = registers[arg1[i]] ^ registers[arg2[i]]; break;
+            case IMPL: value = ~registers[arg1[i]] | registers[arg2[i]]; break;
+            case REVERSE_IMPL: value = registers[arg1[i]] | ~registers[arg2[i]]; break;
+            case EQUIV: value = ~(registers[arg1[i]] ^ registers[arg2[i]]); break;
+            default: throw new AssertionError("illegal operation " + op[i]);
+            }
+            registers[i] = value;
+        }
+    }
+
+    /**
+     * Get the truth-values of a formula in all rows.
+     * @param formula the index of the formula compiled.
+     * @return the bits of the truth-values, row r being bit r%64 of word r/64.
+     * @preconditions getRowCount() &le; 2<sup>37</sup>
+     */
+    long[] values(final int formula) {
+        final long blocks = getBlockCount();
+        if (blocks > java.lang.Integer.MAX_VALUE)
+            throw new UnsupportedOperationException("truth-table of " + getRowCount() + " rows is too large");
+        final long values[] = new long[(int) blocks];
+        invoke(new Block() {
+                public boolean compute(long block, long registers[]) {
+                    run(block, registers);
+                    values[(int) block] = registers[roots[formula]] & validRows();
+                    return true;
+                }
+            });
+        return values;
+    }
+
+    /**
+     * Whether the last formula compiled is true in all rows in which all the other formulas are true.
+     * @return B<sub>0</sub>,...,B<sub>k-1</sub> &#8872; D for formulas B<sub>0</sub>,...,B<sub>k-1</sub>,D.
+     * @preconditions at least one formula compiled
+     */
+    boolean entails() {
+        final int premises = roots.length - 1;
+        return invoke(new Block() {
+                public boolean compute(long block, long registers[]) {
+                    run(block, registers);
+                    long models = validRows();
+                    for (int i = 0; i < premises; i++)
+                        models &= registers[roots[i]];
+                    // continue unless there is a model of the premises that is no model of the conclusion
+                    return (models & ~registers[roots[premises]]) == 0;
+                }
+            });
+    }
+
+    /**
+     * Evaluate all blocks, in parallel if there are enough.
+     * @return <code>true</code> if all blocks have been evaluated,
+     *  or <code>false</code> if an evaluation has stopped the others.
+     */
+    private boolean invoke(Block body) {
+        final AtomicBoolean stopped = new AtomicBoolean(false);
+        final Task task = new Task(body, 0, getBlockCount(), stopped);
+        if (getBlockCount() <= MIN_BLOCKS || pool().getParallelism() <= 1)
+            task.compute();
+        else
+            pool().invoke(task);
+        return !stopped.get();
+    }
+
+    /**
+     * The evaluation of a single block of rows.
+     */
+    private static interface Block {
+        /**
+         * Evaluate a block.
+         * @param block the index of the block of rows.
+         * @param registers the registers for running the program.
+         * @return whether to continue evaluating the other blocks.
+         */
+        boolean compute(long block, long registers[]);
+    }
+
+    /**
+     * Splits the blocks of rows into sections evaluated in parallel.
+     */
+    private class Task extends RecursiveAction {
+        private static final long serialVersionUID = 1152921504606846975L;
+        private final Block body;
+        private final long low;
+        private final long high;
+        /**
+         * Whether an evaluation has stopped all others, shared by all sections.
+         */
+        private final AtomicBoolean stopped;
+        public Task(Block body, long low, long high, AtomicBoolean stopped) {
+            this.body = body;
+            this.low = low;
+            this.high = high;
+            this.stopped = stopped;
+        }
+        protected void compute() {
+            if (high - low <= MIN_BLOCKS) {
+                final long registers[] = new long[op.length];
+                for (long block = low; block < high && !stopped.get(); block++)
+                    if (!body.compute(block, registers))
+                        stopped.set(true);
+                return;
+            }
+            final long mid = (low + high) >>> 1;
+            invokeAll(new Task(body, low, mid, stopped), new Task(body, mid, high, stopped));
+        }
+    }
+
+    public String toString() {
+        return getClass().getName() + "[" + variables + " variables, " + op.length + " instructions]";
+    }
+}
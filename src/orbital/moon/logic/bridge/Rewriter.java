@@ -0,0 +1,234 @@
+/**
+ * @(#)Rewriter.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.moon.logic.bridge;
+
+import orbital.logic.trs.Substitution;
+import orbital.logic.trs.Substitution.Matcher;
+import orbital.logic.trs.Substitutions;
+import orbital.logic.Composite;
+import orbital.logic.IterationLimitException;
+
+import orbital.logic.functor.Function;
+import orbital.logic.functor.Functionals;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * Rewriting to normal form with a term rewrite system.
+ * <p>
+ * Rewrites with the elementary replacements of a substitution until no replacement matches
+ * anywhere, like {@link orbital.logic.functor.Functionals#fixedPoint(Function,Object) fixed points}
+ * of the substitution, but in a single pass over the term.
+ * Rules are tried at the root of a term first, and only if none matches, the sub terms are
+ * rewritten to normal form, after which the root is tried again.
+ * Rules are indexed by the compositor of their pattern, such that only the rules with the right
+ * head symbol are tried. Rules that cannot be indexed, like those with variable patterns, or
+ * matchers of other kinds, are tried everywhere, in their original order.
+ * </p>
+ * <p>
+ * During a rewrite, the normal forms of all sub terms are remembered by identity,
+ * and all normal forms are marked, such that shared sub terms are only normalized once,
+ * and sub terms that the rules retain are not normalized again.
+ * </p>
+ *
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ * @see Substitutions#createRewriter(Substitution)
+ * @internal Rewriting at the root before the sub terms pushes replacements like negations
+ *  inwards before the sub terms grow, which strictly innermost rewriting would not.
+ *  Normal forms of term rewrite systems that are not confluent may still differ from those
+ *  of the fixed point iteration of {@link SubstitutionImpl#apply(Object)}.
+ */
+public class Rewriter implements Function/*<Object,Object>*/ {
+    /**
+     * The term rewrite system.
+     */
+    private final Substitution trs;
+    /**
+     * The rules in their original order.
+     */
+    private final Matcher rules[];
+    /**
+     * The indices of the rules indexed by the compositors of their composite patterns.
+     */
+    private final Map/*<Object,int[]>*/ composites = new HashMap();
+    /**
+     * The indices of the rules indexed by their atomic patterns.
+     */
+    private final Map/*<Object,int[]>*/ atoms = new HashMap();
+    /**
+     * The indices of the rules that are not indexed.
+     */
+    private final int unindexed[];
+
+    /**
+     * Create a new rewriter for a term rewrite system.
+     * @param trs the term rewrite system whose elementary replacements to rewrite with.
+     */
+    public Rewriter(Substitution trs) {
+        this.trs = trs;
+        final Collection/*<Matcher>*/ replacements = trs.getReplacements();
+        this.rules = (Matcher[]) replacements.toArray(new Matcher[replacements.size()]);
+        final List/*<Integer>*/ other = new ArrayList();
+        for (int i = 0; i < rules.length; i++) {
+            final Matcher m = rules[i];
+            // patterns of unifying matchers only match terms with equal compositors
+            final Object pattern = m instanceof SubstitutionImpl.UnifyingMatcher ? m.pattern() : null;
+            if (pattern instanceof Composite && !Substitutions.isVariable(((Composite) pattern).getCompositor()))
+                index(composites, ((Composite) pattern).getCompositor(), i);
+            else if (pattern != null && !(pattern instanceof Composite) && !Substitutions.isVariable(pattern))
+                index(atoms, pattern, i);
+            else
+                other.add(new java.lang.Integer(i));
+        }
+        this.unindexed = new int[other.size()];
+        for (int i = 0; i < unindexed.length; i++)
+            unindexed[i] = ((java.lang.Integer) other.get(i)).intValue();
+    }
+
+    private static void index(Map/*<Object,int[]>*/ index, Object key, int rule) {
+        final int old[] = (int[]) index.get(key);
+        final int rules[];
+        if (old == null)
+            rules = new int[1];
+        else {
+            rules = new int[old.length + 1];
+            System.arraycopy(old, 0, rules, 0, old.length);
+        }
+        rules[rules.length - 1] = rule;
+        index.put(key, rules);
+    }
+
+    /**
+     * Get the term rewrite system.
+     */
+    public Substitution getTRS() {
+        return trs;
+    }
+
+    /**
+     * Rewrite a term to normal form.
+     * @return a normal form of term with respect to the term rewrite system.
+     * @throws IterationLimitException if a term is rewritten at the same position more than
+     *  {@link IterationLimitException#MaxIterations} times, which most likely is a non-terminating rewrite.
+     */
+    public Object apply(Object term) {
+        return normalize(term, new IdentityHashMap());
+    }
+
+    /**
+     * Rewrite a term to normal form.
+     * @param normalForms the normal forms of the terms seen so far, by identity.
+     *  Normal forms are mapped to themselves.
+     */
+    private Object normalize(final Object term, final Map/*<Object,Object>*/ normalForms) {
+        if (term == null)
+            return term;
+        Object nf = normalForms.get(term);
+        if (nf != null)
+            return nf;
+        Object t = term;
+        for (int steps = 0; ; steps++) {
+            Matcher m = redex(t);
+            if (m == null) {
+                // sub terms only if the root does not match
+                final Object u = normalizeArguments(t, normalForms);
+                if (u == t || (m = redex(u)) == null) {
+                    t = u;
+                    normalForms.put(t, t);
+                    break;
+                }
+                t = u;
+            }
+            if (steps >= IterationLimitException.MaxIterations)
+                throw new IterationLimitException("rewriting " + term + " exceeded " + steps + " steps at the same position, last with " + m);
+            t = m.replace(t);
+            nf = normalForms.get(t);
+            if (nf != null) {
+                t = nf;
+                break;
+            }
+        }
+        normalForms.put(term, t);
+        return t;
+    }
+
+    /**
+     * Rewrite the sub terms of a term to normal form.
+     * @return a term like t but with sub terms in normal form, or t itself if those did not change.
+     */
+    private Object normalizeArguments(Object t, Map/*<Object,Object>*/ normalForms) {
+        if (t instanceof Composite) {
+            final Composite f = (Composite) t;
+            final Object compositor = f.getCompositor();
+            final Object component = f.getComponent();
+            final Object nfCompositor = normalize(compositor, normalForms);
+            final Object nfComponent = normalize(component, normalForms);
+            return nfCompositor == compositor && nfComponent == component
+                ? t
+                : SubstitutionImpl.construct(f, nfCompositor, nfComponent);
+        } else if (t instanceof Object[]) {
+            final Object a[] = (Object[]) t;
+            Object r[] = null;
+            for (int i = 0; i < a.length; i++) {
+                final Object nf = normalize(a[i], normalForms);
+                if (nf != a[i] && r == null)
+                    r = (Object[]) a.clone();
+                if (r != null)
+                    r[i] = nf;
+            }
+            return r == null ? t : r;
+        } else if (t instanceof Collection) {
+            for (Iterator i = ((Collection) t).iterator(); i.hasNext(); ) {
+                final Object x = i.next();
+                if (normalize(x, normalForms) != x)
+                    return Functionals.map(new Function() {
+                            public Object apply(Object x) {
+                                return normalize(x, normalForms);
+                            }
+                        }, (Collection) t);
+            }
+            return t;
+        } else
+            return t;
+    }
+
+    /**
+     * Get the first rule that matches at the root of t.
+     * @return the first rule (in the original order) that matches t, or <code>null</code> if none does.
+     */
+    private Matcher redex(Object t) {
+        final int indexed[];
+        if (t instanceof Composite)
+            indexed = (int[]) composites.get(((Composite) t).getCompositor());
+        else if (t instanceof Object[] || t instanceof Collection)
+            indexed = null;
+        else
+            indexed = (int[]) atoms.get(t);
+        // merge indexed and unindexed rules in their original order
+        int i = 0, j = 0;
+        final int n = indexed == null ? 0 : indexed.length;
+        while (i < n || j < unindexed.length) {
+            final int rule = j >= unindexed.length || (i < n && indexed[i] < unindexed[j])
+                ? indexed[i++]
+                : unindexed[j++];
+            if (rules[rule].matches(t))
+                return rules[rule];
+        }
+        return null;
+    }
+
+    public String toString() {
+        return getClass().getName() + "[" + trs + "]";
+    }
+}
@@ -20,7 +20,6 @@ import java.util.Iterator;
 import java.util.Collection;
 
 import orbital.util.Setops;
-import java.util.Arrays;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
@@ -95,37 +94,10 @@ public class SubstitutionImpl implements Substitution, Serializable {
              * f(t1,...tn)[x->s] = f[x->s](t1[x->s],...tn[x->s])        if f/n &isin; &Sigma;
              * f(t)[x->s] = f[x->s](t[x->s])    if f/n &isin; &Sigma;, t is a generalized component term
              */
-            try {
-                final orbital.logic.Composite f = (orbital.logic.Composite) term;
-                final Object substCompositor = apply(f.getCompositor());
-                final Object substComponent = apply(f.getComponent());
-                try {
-                    return f.construct(substCompositor,
-                                       substComponent);
-                }
-                catch (Throwable illegal) {
-                    orbital.logic.Composite fp;
-                    // try instantiate in another way
-                    try {
-                        Constructor nullary = f.getClass().getDeclaredConstructor(new Class[0]);
-                        //@xxx is there a better solution which does not require accessible tricks? Especially, this trick won't do if we want to use a TRS on maths and functions inside a Browser. See MathPlotter.html stuff
-                        if (!nullary.isAccessible())
-                            nullary.setAccessible(true);
-                        fp = (orbital.logic.Composite) nullary.newInstance(new Object[0]);
-                    }
-                    catch (InvocationTargetException ex) {throw (IllegalArgumentException) new IllegalArgumentException("the argument type nullary constructor threw").initCause(ex.getTargetException());}
-                    catch (SecurityException denied) {throw new orbital.util.InnerCheckedException("the argument type nullary constructor is not accessible", denied);}
-                    catch (NoSuchMethodException ex) {throw (RuntimeException) illegal;}
-                    fp.setCompositor(substCompositor);
-                    fp.setComponent(substComponent);
-                    assert f != null : "we could not have handled null that way";
-                    logger.log(Level.WARNING, "composite object {0} of class {1} does not support construct(Object,Object) but has to be emulated with newInstance and setComponent(Object)/setCompositor(Object), due to\n{2}", new Object[] {f, f.getClass(), illegal});
-                    return fp;
-                }
-            }
-        //@todo finally type-safe assert g.getClass() == f.getClass() : "g is a new object of the exact same type as f";
-            catch (InstantiationException e) {throw (IllegalArgumentException) new IllegalArgumentException("the argument type of " + term.getClass() + " does not support a nullary constructor which is required for substitution").initCause(e);}
-            catch (IllegalAccessException e) {throw (IllegalArgumentException) new IllegalArgumentException("the argument type of " + term.getClass() + " does not support a nullary constructor which is requried for substitution").initCause(e);}
+        {
+            final orbital.logic.Composite f = (orbital.logic.Composite) term;
+            return construct(f, apply(f.getCompositor()), apply(f.getComponent()));
+        }
         
         // almost identical to @see Utility#asIterator, and @see Functionals.ListableFunction
         //@todo could we really use Functionals.ListableFunction instead? Would we benefit from that?
@@ -163,6 +135,42 @@ public class SubstitutionImpl implements Substitution, Serializable {
         return getClass().getName() + replacements;
     }
 
+    /**
+     * Construct a new composition of the same type like f, with the given parameters.
+     * Emulates {@link orbital.logic.Composite#construct(Object,Object)} if f does not support it.
+     * @see orbital.logic.Composite#construct(Object,Object)
+     */
+    static Object construct(orbital.logic.Composite f, Object substCompositor, Object substComponent) {
+        try {
+            try {
+                return f.construct(substCompositor,
+                                   substComponent);
+            }
+            catch (Throwable illegal) {
+                orbital.logic.Composite fp;
+                // try instantiate in another way
+                try {
+                    Constructor nullary = f.getClass().getDeclaredConstructor(new Class[0]);
+                    //@xxx is there a better solution which does not require accessible tricks? Especially, this trick won't do if we want to use a TRS on maths and functions inside a Browser. See MathPlotter.html stuff
+                    if (!nullary.isAccessible())
+                        nullary.setAccessible(true);
+                    fp = (orbital.logic.Composite) nullary.newInstance(new Object[0]);
+                }
+                catch (InvocationTargetException ex) {throw (IllegalArgumentException) new IllegalArgumentException("the argument type nullary constructor threw").initCause(ex.getTargetException());}
+                catch (SecurityException denied) {throw new orbital.util.InnerCheckedException("the argument type nullary constructor is not accessible", denied);}
+                catch (NoSuchMethodException ex) {throw (RuntimeException) illegal;}
+                fp.setCompositor(substCompositor);
+                fp.setComponent(substComponent);
+                assert f != null : "we could not have handled null that way";
+                logger.log(Level.WARNING, "composite object {0} of class {1} does not support construct(Object,Object) but has to be emulated with newInstance and setComponent(Object)/setCompositor(Object), due to\n{2}", new Object[] {f, f.getClass(), illegal});
+                return fp;
+            }
+        }
+        //@todo finally type-safe assert g.getClass() == f.getClass() : "g is a new object of the exact same type as f";
+        catch (InstantiationException e) {throw (IllegalArgumentException) new IllegalArgumentException("the argument type of " + f.getClass() + " does not support a nullary constructor which is required for substitution").initCause(e);}
+        catch (IllegalAccessException e) {throw (IllegalArgumentException) new IllegalArgumentException("the argument type of " + f.getClass() + " does not support a nullary constructor which is requried for substitution").initCause(e);}
+    }
+
     /**
      * Simple Matcher implementation.
      * <p>
@@ -266,6 +274,13 @@ public class SubstitutionImpl implements Substitution, Serializable {
 
     /**
      * Single sided matcher implementation with unification.
+     * <p>
+     * Matches with a {@link Unifier} on shared terms, and only materializes the unifier
+     * when {@link #getUnifier()} is requested.</p>
+     * <p>
+     * The result of the last {@link #matches(Object)}-operation is kept for the subsequent
+     * {@link #replace(Object)}-operation separately for each thread, such that the same matcher,
+     * for example of a static term rewrite system, can be used concurrently by several threads.</p>
      *
      * @version $Id$
      * @author  Andr&eacute; Platzer
@@ -294,26 +309,84 @@ public class SubstitutionImpl implements Substitution, Serializable {
         }
 
         /**
-         * The unifier of the last {@link #matches(Object)}-operation for use in {@link #replace(Object)}.
+         * The maximum number of terms to keep shared in between matches.
+         * @see Unifier#size()
+         */
+        private static final int MAX_SHARED = 1024;
+        /**
+         * The state of the last {@link #matches(Object)}-operation of the current thread,
+         * created lazily.
          */
-        private transient Substitution unifier = null;
+        private transient volatile ThreadLocal/*<Match>*/ state = null;
 
         /**
-         * Get the unifier of the last {@link #matches(Object)}-operation.
+         * The state of the last {@link #matches(Object)}-operation of a thread.
+         */
+        private static final class Match {
+            /**
+             * The bindings of the last {@link #matches(Object)}-operation for use in {@link #replace(Object)}.
+             */
+            final Unifier bindings = new Unifier();
+            /**
+             * Whether the last {@link #matches(Object)}-operation succeeded.
+             */
+            boolean matched = false;
+            /**
+             * The unifier of the last {@link #matches(Object)}-operation, once materialized.
+             */
+            Substitution unifier = null;
+        }
+
+        private Match state() {
+            ThreadLocal s = state;
+            if (s == null) {
+                synchronized (this) {
+                    if (state == null)
+                        state = new ThreadLocal() {
+                                protected Object initialValue() {
+                                    return new Match();
+                                }
+                            };
+                    s = state;
+                }
+            }
+            return (Match) s.get();
+        }
+
+        /**
+         * Get the unifier of the last {@link #matches(Object)}-operation of the current thread.
+         * @return the unifier, or <code>null</code> if the last match failed.
          */
         protected Substitution getUnifier() {
-            return unifier;
+            final Match m = state();
+            if (m.unifier == null && m.matched)
+                m.unifier = m.bindings.getUnifier();
+            return m.unifier;
+        }
+
+        /**
+         * Apply the unifier of the last {@link #matches(Object)}-operation of the current thread to a term,
+         * without materializing the unifier.
+         * @preconditions matches(t) for the last call to matches(Object)
+         */
+        protected Object applyUnifier(Object term) {
+            return state().bindings.apply(term);
         }
 
-        //@todo single side match test could be optimized with its own implementation method
         public boolean matches(Object t) {
-            this.unifier = Substitutions.unify(Arrays.asList(new Object[] {pattern(), t}));
-            return this.unifier != null
-                && (this.unifier.apply(t).equals(t));
+            final Match m = state();
+            // forget the last match, but keep the pattern shared unless too many terms have been seen
+            m.matched = false;
+            m.unifier = null;
+            if (m.bindings.size() > MAX_SHARED)
+                m.bindings.clear();
+            else
+                m.bindings.undo(0);
+            return m.matched = m.bindings.match(pattern(), t);
         }
     
         public Object replace(Object t) {
-            return isSubstituting() ? getUnifier().apply(substitute()) : t;
+            return isSubstituting() ? applyUnifier(substitute()) : t;
         }
     }
 
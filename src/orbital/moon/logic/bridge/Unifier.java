@@ -0,0 +1,774 @@
+/**
+ * @(#)Unifier.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.moon.logic.bridge;
+
+import orbital.logic.trs.Substitution;
+import orbital.logic.trs.Substitutions;
+import orbital.logic.Composite;
+
+import orbital.logic.functor.Function;
+import orbital.logic.functor.Functionals;
+
+// for typed unification
+import orbital.logic.sign.type.Type;
+import orbital.logic.sign.type.Typed;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+import java.lang.reflect.Array;
+
+/**
+ * Unification and matching on shared terms.
+ * <p>
+ * Terms are hash-consed into a shared term graph, first, such that equal sub terms are represented
+ * by the same node, and ground sub terms that are different do not need to be compared any further.
+ * Bindings of variables are then stored in the nodes, without applying any substitution to terms.
+ * Every binding is recorded on a trail, such that bindings can be undone for backtracking
+ * with {@link #mark()} and {@link #undo(int)}.
+ * </p>
+ * <p>
+ * There are two modes of unification.
+ * <ul>
+ *   <li>Triangular bindings with occur check on binding, similar to Robinson-unification,
+ *     but without applying or composing substitutions.</li>
+ *   <li>Union-find of equivalence classes of nodes with a single occur check for cycles in the end,
+ *     which has almost linear time complexity.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * The result can be used without materializing a substitution, by {@link #apply(Object) applying}
+ * the current bindings to terms. Only {@link #getUnifier()} materializes the most general unifier.
+ * Terms must not be modified while they are shared with a unifier.
+ * </p>
+ *
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ * @see Substitutions#unify(Collection)
+ * @see "Huet, G&eacute;rard. R&eacute;solution d'&eacute;quations dans des langages d'ordre 1,2,...,&omega;. Th&egrave;se d'&Eacute;tat, Universit&eacute; de Paris VII, 1976."
+ * @see "Martelli, Alberto and Montanari, Ugo. An efficient unification algorithm. <i>ACM Transactions on Programming Languages and Systems</i>, 4(2):258-282, 1982."
+ * @internal Unlike Robinson-unification, composites only unify if they have the same class.
+ *  Types of terms are checked on binding, as in Robinson-unification.
+ */
+public class Unifier implements Function/*<Object,Object>*/ {
+    /**
+     * The shapes of components of composites.
+     */
+    private static final int SINGLE = 0, ARRAY = 1, COLLECTION = 2;
+    /**
+     * The key of <code>null</code> in the table of atoms.
+     */
+    private static final Object NULL = new Object();
+
+    /**
+     * Whether to unify with union-find, or with triangular bindings.
+     */
+    private final boolean unionFind;
+    /**
+     * The nodes of the objects shared so far, by identity.
+     */
+    private final Map/*<Object,Node>*/ shared = new IdentityHashMap();
+    /**
+     * The tables of hash-consed constants and variables, by equality.
+     * Variables and constants are kept apart, since they are never equal.
+     */
+    private final Map/*<Object,Node>*/ atoms = new HashMap();
+    private final Map/*<Object,Node>*/ variables = new HashMap();
+    /**
+     * The table of hash-consed composites, by class, compositor and components.
+     */
+    private final Map/*<Node,Node>*/ composites = new HashMap();
+
+    /**
+     * The trail of modified nodes, and their previous states.
+     */
+    private Node trail[] = new Node[16];
+    private Node trailRef[] = new Node[16];
+    private Node trailSchema[] = new Node[16];
+    private Node trailVar[] = new Node[16];
+    private int trailRank[] = new int[16];
+    private int trailSize = 0;
+    /**
+     * The pending pairs of nodes to unify.
+     */
+    private final List/*<Node>*/ pending = new ArrayList();
+
+    /**
+     * The last stamp of traversals.
+     */
+    private int stamp = 0;
+    /**
+     * The version of the bindings, for caching applications of the bindings.
+     */
+    private int epoch = 1;
+    /**
+     * The stamp of the variables that must not be bound during matching, or 0.
+     */
+    private int rigid = 0;
+
+    /**
+     * Create a new unifier with triangular bindings.
+     */
+    public Unifier() {
+        this(false);
+    }
+
+    /**
+     * Create a new unifier.
+     * @param unionFind whether to unify equivalence classes with union-find,
+     *  or to bind variables triangularly.
+     */
+    public Unifier(boolean unionFind) {
+        this.unionFind = unionFind;
+    }
+
+    // central methods
+
+    /**
+     * Unifies two terms under the current bindings.
+     * @return whether s and t are unifiable. If they are, the bindings are extended
+     *  to a most general unifier, otherwise they remain unchanged.
+     * @postconditions RES &hArr; apply(s).equals(apply(t))
+     */
+    public boolean unify(Object s, Object t) {
+        if (s == null || t == null)
+            throw new NullPointerException("cannot unify (" + s + "," + t + ") because null does not unify anything.");
+        final int mark = mark();
+        if (unify(intern(s), intern(t)))
+            return true;
+        undo(mark);
+        return false;
+    }
+
+    /**
+     * Unifies terms under the current bindings.
+     * @return whether the terms in T are unifiable. If they are, the bindings are extended
+     *  to a most general unifier, otherwise they remain unchanged.
+     * @see Substitutions#unify(Collection)
+     */
+    public boolean unify(Collection T) {
+        final Iterator i = T.iterator();
+        if (!i.hasNext())
+            return true;
+        final int mark = mark();
+        final Object t0 = i.next();
+        while (i.hasNext())
+            if (!unify(t0, i.next())) {
+                undo(mark);
+                return false;
+            }
+        return true;
+    }
+
+    /**
+     * Single side matches a pattern on a term under the current bindings.
+     * Only variables of the pattern will be bound, while the variables of t remain unchanged.
+     * @return whether pattern matches t. If it does, the bindings are extended
+     *  to a most general single side matcher, otherwise they remain unchanged.
+     * @postconditions RES &hArr; apply(pattern).equals(t) &and; apply(t).equals(t)
+     * @see Substitutions#createSingleSidedMatcher(Object)
+     */
+    public boolean match(Object pattern, Object t) {
+        if (pattern == null || t == null)
+            throw new NullPointerException("cannot match (" + pattern + "," + t + ") because null does not unify anything.");
+        final int mark = mark();
+        final Node p = intern(pattern);
+        final Node s = intern(t);
+        rigid = ++stamp;
+        try {
+            markRigid(s);
+            if (unify(p, s))
+                return true;
+            undo(mark);
+            return false;
+        }
+        finally {
+            rigid = 0;
+        }
+    }
+
+    /**
+     * Apply the current bindings to a term.
+     * <p>
+     * Unchanged sub terms are shared with the terms that have been unified.</p>
+     * @return &sigma;(term) for the most general unifier &sigma; of the current bindings.
+     */
+    public Object apply(Object term) {
+        return term == null ? null : resolve(intern(term));
+    }
+
+    /**
+     * Get the most general unifier of the current bindings.
+     * <p>
+     * This method materializes the current bindings as a substitution.
+     * Use {@link #apply(Object)} for applying the bindings to some terms, instead.</p>
+     * @return the idempotent most general unifier &sigma; of the current bindings.
+     */
+    public Substitution getUnifier() {
+        final List/*<Matcher>*/ r = new ArrayList();
+        final int visit = ++stamp;
+        for (int i = 0; i < trailSize; i++) {
+            final Node x = trail[i];
+            if (!x.variable || x.visited == visit)
+                continue;
+            x.visited = visit;
+            final Object t = resolve(x);
+            if (t != x.term)
+                r.add(Substitutions.createExactMatcher(x.term, t));
+        }
+        return r.isEmpty() ? Substitutions.id : Substitutions.getInstance(r);
+    }
+
+    /**
+     * Get a mark of the current bindings.
+     * @return a mark of the trail that can be used to {@link #undo(int) undo} all later bindings.
+     */
+    public int mark() {
+        return trailSize;
+    }
+
+    /**
+     * Undo all bindings since a mark.
+     * @param mark the mark of the trail, as returned by {@link #mark()}.
+     *  The mark 0 undoes all bindings.
+     */
+    public void undo(int mark) {
+        if (mark < 0 || mark > trailSize)
+            throw new IllegalArgumentException("illegal mark " + mark + " of a trail of size " + trailSize);
+        while (trailSize > mark) {
+            trailSize--;
+            final Node n = trail[trailSize];
+            n.ref = trailRef[trailSize];
+            n.schema = trailSchema[trailSize];
+            n.var = trailVar[trailSize];
+            n.rank = trailRank[trailSize];
+            trail[trailSize] = null;
+        }
+        epoch++;
+    }
+
+    /**
+     * Undo all bindings, and forget all terms shared so far.
+     */
+    public void clear() {
+        undo(0);
+        shared.clear();
+        atoms.clear();
+        variables.clear();
+        composites.clear();
+    }
+
+    /**
+     * Get the number of terms shared so far.
+     * Equal terms of different identity count separately, since each of them is kept,
+     * such that the size bounds the memory kept until {@link #clear()}.
+     */
+    public int size() {
+        return shared.size() + atoms.size() + variables.size() + composites.size();
+    }
+
+    /**
+     * @return the string representation of the most general unifier of the current bindings.
+     */
+    public String toString() {
+        return getUnifier().toString();
+    }
+
+    // hash-consing
+
+    /**
+     * Get the shared node of a term.
+     */
+    private Node intern(Object t) {
+        Node n = (Node) shared.get(t);
+        if (n != null)
+            return n;
+        if (Substitutions.isVariable(t))
+            n = atom(t, true);
+        else if (t instanceof Composite) {
+            final Composite c = (Composite) t;
+            final Node f = intern(c.getCompositor());
+            final Object component = c.getComponent();
+            final int shape;
+            final Node args[];
+            if (component instanceof Object[]) {
+                final Object a[] = (Object[]) component;
+                shape = ARRAY;
+                args = new Node[a.length];
+                for (int i = 0; i < a.length; i++)
+                    args[i] = intern(a[i]);
+            } else if (component instanceof Collection) {
+                final Collection a = (Collection) component;
+                shape = COLLECTION;
+                args = new Node[a.size()];
+                int k = 0;
+                for (Iterator i = a.iterator(); i.hasNext(); )
+                    args[k++] = intern(i.next());
+            } else {
+                shape = SINGLE;
+                args = new Node[] {intern(component)};
+            }
+            final Node candidate = new Node(t, f, args, shape);
+            n = (Node) composites.get(candidate);
+            if (n == null) {
+                composites.put(candidate, candidate);
+                n = candidate;
+            }
+        } else
+            n = atom(t, false);
+        if (t != null)
+            shared.put(t, n);
+        return n;
+    }
+
+    private Node atom(Object t, boolean variable) {
+        final Map table = variable ? variables : atoms;
+        final Object key = t == null ? NULL : t;
+        Node n = (Node) table.get(key);
+        if (n == null) {
+            n = new Node(t, variable);
+            table.put(key, n);
+        }
+        return n;
+    }
+
+    /**
+     * Mark the variables occurring in a term as rigid.
+     */
+    private void markRigid(Node n) {
+        if (n.ground || n.visited == rigid)
+            return;
+        n.visited = rigid;
+        if (n.variable)
+            n.rigid = rigid;
+        else {
+            markRigid(n.functor);
+            for (int i = 0; i < n.args.length; i++)
+                markRigid(n.args[i]);
+        }
+    }
+
+    private boolean isRigid(Node x) {
+        return rigid != 0 && x != null && x.rigid == rigid;
+    }
+
+    // unification
+
+    private boolean unify(Node s, Node t) {
+        pending.clear();
+        pending.add(s);
+        pending.add(t);
+        return unionFind
+            ? unifyClasses() && acyclic(s, ++stamp)
+            : unifyBindings();
+    }
+
+    /**
+     * Schedule unification of the components of two composites.
+     * @return false if the two nodes are not unifiable since they are not composites of the same kind.
+     */
+    private boolean decompose(Node a, Node b) {
+        if (a.ground && b.ground)
+            // different nodes of ground terms are different terms
+            return false;
+        if (a.functor == null || a.functor != b.functor
+            || a.shape != b.shape || a.args.length != b.args.length
+            || a.term.getClass() != b.term.getClass())
+            return false;
+        for (int i = a.args.length - 1; i >= 0; i--) {
+            pending.add(a.args[i]);
+            pending.add(b.args[i]);
+        }
+        return true;
+    }
+
+    /**
+     * Unify the pending nodes with triangular bindings.
+     */
+    private boolean unifyBindings() {
+        while (!pending.isEmpty()) {
+            final Node b = deref((Node) pending.remove(pending.size() - 1));
+            final Node a = deref((Node) pending.remove(pending.size() - 1));
+            if (a == b)
+                continue;
+            else if (a.variable) {
+                if (!bind(a, b))
+                    return false;
+            } else if (b.variable) {
+                if (!bind(b, a))
+                    return false;
+            } else if (!decompose(a, b))
+                return false;
+        }
+        return true;
+    }
+
+    private static Node deref(Node n) {
+        while (n.variable && n.ref != null)
+            n = n.ref;
+        return n;
+    }
+
+    /**
+     * Bind the unbound variable x to t, if possible.
+     * @preconditions x.variable &and; x.ref == null &and; t == deref(t) &ne; x
+     */
+    private boolean bind(Node x, Node t) {
+        if (isRigid(x))
+            return t.variable && !isRigid(t) && bind(t, x);
+        if (!t.variable && !t.ground && occurs(x, t, ++stamp))
+            return false;
+        switch (compareTypes(x, t)) {
+        case 0:
+            return false;
+        case -1:
+            if (isRigid(t))
+                return false;
+            // return [t->x] since t is a variable
+            set(t, x, t.schema, t.var, t.rank);
+            return true;
+        default:
+            // return [x->t]
+            set(x, t, x.schema, x.var, x.rank);
+            return true;
+        }
+    }
+
+    /**
+     * Checks whether x occurs somewhere in t.
+     */
+    private static boolean occurs(Node x, Node t, int visit) {
+        t = deref(t);
+        if (t == x)
+            return true;
+        else if (t.ground || t.variable || t.visited == visit)
+            return false;
+        t.visited = visit;
+        if (occurs(x, t.functor, visit))
+            return true;
+        for (int i = 0; i < t.args.length; i++)
+            if (occurs(x, t.args[i], visit))
+                return true;
+        return false;
+    }
+
+    /**
+     * Unify the pending nodes by merging their equivalence classes.
+     */
+    private boolean unifyClasses() {
+        while (!pending.isEmpty()) {
+            final Node b = find((Node) pending.remove(pending.size() - 1));
+            final Node a = find((Node) pending.remove(pending.size() - 1));
+            if (a != b && !union(a, b))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Get the root of the equivalence class of a node, with path compression.
+     */
+    private Node find(Node n) {
+        Node r = n;
+        while (r.ref != null)
+            r = r.ref;
+        while (n.ref != null && n.ref != r) {
+            final Node next = n.ref;
+            // compressing paths does not change any bindings
+            save(n);
+            n.ref = r;
+            n = next;
+        }
+        return r;
+    }
+
+    /**
+     * Merge the equivalence classes of the roots a and b, if possible.
+     */
+    private boolean union(Node a, Node b) {
+        final Node sa = a.schema;
+        final Node sb = b.schema;
+        final Node va = a.var;
+        final Node vb = b.var;
+        // the most special variable representing the merged class
+        final Node v;
+        if (va != null && vb != null) {
+            switch (compareTypes(va, vb)) {
+            case 0:
+                return false;
+            case -1:
+                v = va;
+                break;
+            default:
+                v = vb;
+                break;
+            }
+            if (isRigid(va) ? v != va || isRigid(vb) : isRigid(vb) && v != vb)
+                return false;
+        } else
+            v = va != null ? va : vb;
+        if (isRigid(va) && sb != null || isRigid(vb) && sa != null)
+            return false;
+        final Node s = sa != null ? sa : sb;
+        if (v != null && s != null && compareTypes(v, s) == 0)
+            return false;
+        // union by rank
+        final Node root = a.rank < b.rank ? b : a;
+        final Node child = root == a ? b : a;
+        set(child, root, child.schema, child.var, child.rank);
+        set(root, null, s, v, a.rank == b.rank ? root.rank + 1 : root.rank);
+        return sa == null || sb == null || decompose(sa, sb);
+    }
+
+    /**
+     * Checks that there are no cycles reachable from n, i.e. the occur check of union-find.
+     */
+    private boolean acyclic(Node n, int visit) {
+        final Node r = find(n);
+        final Node s = r.schema;
+        if (s == null || s.ground || r.done == visit)
+            return true;
+        else if (r.visited == visit)
+            return false;
+        r.visited = visit;
+        if (!acyclic(s.functor, visit))
+            return false;
+        for (int i = 0; i < s.args.length; i++)
+            if (!acyclic(s.args[i], visit))
+                return false;
+        r.done = visit;
+        return true;
+    }
+
+    /**
+     * Compare the types for binding the variable x to t, like Robinson-unification.
+     * @return 1 if x can be bound to t, -1 if the variable t has to be bound to x instead,
+     *  and 0 if x and t are not unifiable due to their types.
+     * @throws UnsupportedOperationException if the types of the variables x and t are incomparable
+     *  but not disjoint.
+     */
+    private static int compareTypes(Node x, Node t) {
+        if (!(x.term instanceof Typed && t.term instanceof Typed))
+            return 1;
+        final Type taux = ((Typed) x.term).getType();
+        final Type taut = ((Typed) t.term).getType();
+        if (taut.subtypeOf(taux))
+            // ordinary unifiable subtype case
+            return 1;
+        else if (!t.variable)
+            // cannot unify because the term t does not deliver a subtype of the type that x must be bound to.
+            return 0;
+        final Type both = taux.typeSystem().inf(new Type[] {taux, taut});
+        if (both == both.typeSystem().ABSURD())
+            // variables x and t have incompatible types, cannot unify
+            return 0;
+        else if (taux.subtypeOf(taut))
+            // linear type hierachy case, i.e. type chain rather than incomparable
+            return -1;
+        throw new UnsupportedOperationException("modification cloning does not yet generally allow changing the type of a Typed object");
+    }
+
+    /**
+     * Set the state of a node, and record its previous state on the trail.
+     */
+    private void set(Node n, Node ref, Node schema, Node var, int rank) {
+        save(n);
+        n.ref = ref;
+        n.schema = schema;
+        n.var = var;
+        n.rank = rank;
+        epoch++;
+    }
+
+    /**
+     * Record the state of a node on the trail.
+     */
+    private void save(Node n) {
+        if (trailSize == trail.length) {
+            final int capacity = trailSize << 1;
+            trail = (Node[]) copyOf(trail, new Node[capacity]);
+            trailRef = (Node[]) copyOf(trailRef, new Node[capacity]);
+            trailSchema = (Node[]) copyOf(trailSchema, new Node[capacity]);
+            trailVar = (Node[]) copyOf(trailVar, new Node[capacity]);
+            trailRank = (int[]) copyOf(trailRank, new int[capacity]);
+        }
+        trail[trailSize] = n;
+        trailRef[trailSize] = n.ref;
+        trailSchema[trailSize] = n.schema;
+        trailVar[trailSize] = n.var;
+        trailRank[trailSize] = n.rank;
+        trailSize++;
+    }
+
+    private Object copyOf(Object a, Object b) {
+        System.arraycopy(a, 0, b, 0, trailSize);
+        return b;
+    }
+
+    // application
+
+    /**
+     * Get the term represented by a node under the current bindings.
+     */
+    private Object resolve(Node n) {
+        if (n.ground)
+            return n.term;
+        else if (n.resolvedEpoch == epoch)
+            return n.resolved;
+        final Object r;
+        if (n.variable) {
+            final Node d;
+            if (unionFind) {
+                final Node root = find(n);
+                d = root.schema != null ? root.schema : root.var;
+            } else
+                d = deref(n);
+            r = d == n ? n.term : resolve(d);
+        } else {
+            final Object f = resolve(n.functor);
+            boolean same = f == n.functor.term;
+            final Object args[] = new Object[n.args.length];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = resolve(n.args[i]);
+                same &= args[i] == n.args[i].term;
+            }
+            r = same ? n.term : construct(n, f, args);
+        }
+        n.resolved = r;
+        n.resolvedEpoch = epoch;
+        return r;
+    }
+
+    /**
+     * Construct a composite like n, but with the given compositor and components.
+     */
+    private static Object construct(Node n, Object compositor, Object args[]) {
+        final Composite c = (Composite) n.term;
+        final Object component;
+        switch (n.shape) {
+        case ARRAY:
+            component = Array.newInstance(c.getComponent().getClass().getComponentType(), args.length);
+            System.arraycopy(args, 0, component, 0, args.length);
+            break;
+        case COLLECTION: {
+            final Iterator i = Arrays.asList(args).iterator();
+            component = Functionals.map(new Function() {
+                    public Object apply(Object o) {
+                        return i.next();
+                    }
+                }, (Collection) c.getComponent());
+            break;
+        }
+        default:
+            component = args[0];
+            break;
+        }
+        return SubstitutionImpl.construct(c, compositor, component);
+    }
+
+    /**
+     * A node of the shared term graph.
+     * <p>
+     * Composite nodes are equal if they have the same class, compositor node and component nodes.
+     * Atomic nodes are looked up by the equality of their terms, instead.</p>
+     */
+    private static final class Node {
+        /**
+         * The (first) term represented by this node.
+         */
+        final Object term;
+        final boolean variable;
+        /**
+         * The node of the compositor, or <code>null</code> for atoms.
+         */
+        final Node functor;
+        final Node args[];
+        final int shape;
+        /**
+         * Whether no variable occurs in this term.
+         */
+        final boolean ground;
+        private final int hash;
+
+        /**
+         * The binding of a variable, or the parent in its equivalence class.
+         */
+        Node ref = null;
+        /**
+         * The non-variable node of the equivalence class of a root, or <code>null</code>.
+         */
+        Node schema;
+        /**
+         * The most special variable of the equivalence class of a root, or <code>null</code>.
+         */
+        Node var;
+        int rank = 0;
+
+        int visited = 0;
+        int done = 0;
+        int rigid = 0;
+        Object resolved = null;
+        int resolvedEpoch = 0;
+
+        Node(Object term, boolean variable) {
+            this.term = term;
+            this.variable = variable;
+            this.functor = null;
+            this.args = new Node[0];
+            this.shape = SINGLE;
+            this.ground = !variable;
+            this.hash = 0;
+            this.schema = variable ? null : this;
+            this.var = variable ? this : null;
+        }
+
+        Node(Object term, Node functor, Node args[], int shape) {
+            this.term = term;
+            this.variable = false;
+            this.functor = functor;
+            this.args = args;
+            this.shape = shape;
+            boolean ground = functor.ground;
+            int hash = term.getClass().hashCode() ^ System.identityHashCode(functor) + shape;
+            for (int i = 0; i < args.length; i++) {
+                ground &= args[i].ground;
+                hash = 31 * hash + System.identityHashCode(args[i]);
+            }
+            this.ground = ground;
+            this.hash = hash;
+            this.schema = this;
+            this.var = null;
+        }
+
+        public boolean equals(Object o) {
+            if (!(o instanceof Node))
+                return false;
+            final Node b = (Node) o;
+            if (functor != b.functor || shape != b.shape || args.length != b.args.length
+                || term.getClass() != b.term.getClass())
+                return false;
+            for (int i = 0; i < args.length; i++)
+                if (args[i] != b.args[i])
+                    return false;
+            return true;
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public String toString() {
+            return term + "";
+        }
+    }
+}
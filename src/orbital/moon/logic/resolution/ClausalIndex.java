@@ -13,12 +13,19 @@ import orbital.util.*;
 import java.util.*;
 import orbital.logic.functor.*;
 import orbital.logic.trs.Substitutions;
+import orbital.logic.Composite;
 
 import orbital.moon.logic.ClassicalLogic;
 import orbital.logic.sign.*;
 
 /**
  * Manages a clause index.
+ * <p>
+ * The literals are indexed in a (perfect) discrimination tree over the structure of the terms,
+ * with all variables identified as the same wildcard. Hence the retrieval of unifiable literals,
+ * instances and generalizations is exact, except for multiple occurrences of the same variable
+ * and except for types.
+ * </p>
  * @version $Id$
  * @author  Andr&eacute; Platzer
  */
@@ -41,63 +48,25 @@ public class ClausalIndex {
     }
 
     /**
-     * The hash-function used for mapping a literal to its hash-code
-     * for indexing. The function indexHash approximates the relation
-     * of unifiability. The indexHash of two literals must be equal if
-     * they are unifiable. If they are unifiable, the indexHash still
-     * is allowed to be equal.  Indexing has to respect that
-     * indexHash(f(x))=indexHash(f(a)) since f(x) and f(a) may unify
-     * when x is a variable and a constant.
-     * @note indexHash.apply(o) may well differ from o.hashCode() because it has a different intention.
+     * The key of variables in the discrimination tree, which stands for any subterm.
      */
-    private static final Function/*<Formula,Integer>*/ indexHash = new Function() {
-            public Object apply(Object o) {
-                //System.err.print("    hsh\t" + o);
-                //System.err.println(" -->\t" + myapply(o));
-                return new Integer(myapply(o));
-            }
-            // index by top symbol, only
-            private int myapply(Object o) {
-                assert o instanceof Formula : o + " instanceof " + Formula.class;
-                Formula F = (Formula)o;
-                if ((F instanceof Composite)) {
-                    Composite f = (Composite) F;
-                    Object    g = f.getCompositor();
-                    assert !Substitutions.isVariable(g) : "our indexing does not work for variable compositor " + g;
-                    if (g == NOT) {
-                        assert F.equals(((Formula)f.getComponent()).not()) : F + " starts with a negation, so removing and adding the negation again does not change anything";
-                        // process negations in front of L
-                        return -myapply(f.getComponent());
-                    } else {
-                        //assert ClassicalLogic.Utilities.negation(F).equals(((Formula)f.getComponent()).not()) : F + " does not start with a negation, so adding the negation leads to the same effect regardless of whether or not duplex negatio is respected";
-                        return g.hashCode();
-                    }
-                } else {
-                    assert !Substitutions.isVariable(F) : "our indexing does not work for variable literal " + F;
-                    //@internal assuming F is atomic
-                    return F.hashCode();
-                }               
-            }
-        };
+    private static final Key VARIABLE = new Key(null, 0);
+
     /**
-     * indexHash of negated formula respecting duplex negatio est affirmatio.
-     * @postconditions indexHashNegation.apply(L) == indexHash.apply(ClassicalLogic.Utilities.negation(L))
+     * The discrimination tree of positive literals.
+     * Each literal is indexed by the sequence of keys of its subterms in preorder,
+     * where all variables are identified as {@link #VARIABLE}.
      */
-    private static final Function/*<Formula,Integer>*/ indexHashNegation = new Function() {
-            //@internal this implementation is optimized under the knowledge of a symmetric indexHash, i.e. indexHash(~L) = -indexHash(L)
-            public Object apply(Object o) {
-                return new Integer(-((Integer)indexHash.apply(o)).intValue());
-            }
-        };
-
+    private final Node positive = new Node();
+    /**
+     * The discrimination tree of negative literals, without their negations.
+     * @internal respecting duplex negatio est affirmatio.
+     */
+    private final Node negative = new Node();
     /**
-     * The index hash-map mapping the indexHash of the literals
-     * occurring in clauses of this set to the set of (clause,literal)
-     * pairs where literals of the same indexHash occur (which thus
-     * are possible unifiables).
-     * @todo in principle, we could return and memorize the clause and literal which could unify, but this would lead to a catastrophic structure.
+     * The number of (clause,literal) pairs added so far, used for retrieving them in the order of addition.
      */
-    private final Map/*<Integer,Set<Pair<Clause,Formula>>>*/ index = new LinkedHashMap();
+    private int serial = 0;
 
     /**
      * Create a new empty index.
@@ -105,7 +74,7 @@ public class ClausalIndex {
     public ClausalIndex() {}
 
     public String toString() {
-        return getClass().getName() + "[" + index + "]";
+        return getClass().getName() + "[+" + positive + ", -" + negative + "]";
     }
 
     /**
@@ -113,7 +82,7 @@ public class ClausalIndex {
      * @postconditions RES = {(C,K)&isin;this &brvbar; K&isin;C &and; possibly &exist;mgU{L,K}}
      */
     public Iterator/*<Pair<Clause,Formula>>*/ getProbableUnifiables(Formula L) {
-        return getIndex(L).iterator();
+        return retrieve(L, false, UNIFIABLES);
     }
 
     /**
@@ -121,10 +90,23 @@ public class ClausalIndex {
      * @postconditions RES = getProbableUnifiables(ClassicalLogic.Utilities.negation(L))
      */
     public Iterator/*<Pair<Clause,Formula>>*/ getProbableComplements(Formula L) {
-        Integer hash = (Integer)indexHashNegation.apply(L);
-        Set probableUnifiables = (Set)index.get(hash);
-        //System.err.println("  complement " + probableUnifiables + " of " + C + "\n    in " + IndexedClausalSetImpl.this);
-        return probableUnifiables != null ? probableUnifiables.iterator() : Setops.EMPTY_ITERATOR;
+        return retrieve(L, true, UNIFIABLES);
+    }
+
+    /**
+     * Get an iterator of all (clause,literal) pairs whose literals could possibly be instances of L.
+     * @postconditions RES = {(C,K)&isin;this &brvbar; K&isin;C &and; possibly &exist;&sigma; L&sigma;=K}
+     */
+    public Iterator/*<Pair<Clause,Formula>>*/ getProbableInstances(Formula L) {
+        return retrieve(L, false, INSTANCES);
+    }
+
+    /**
+     * Get an iterator of all (clause,literal) pairs whose literals could possibly be generalizations of L.
+     * @postconditions RES = {(C,K)&isin;this &brvbar; K&isin;C &and; possibly &exist;&sigma; K&sigma;=L}
+     */
+    public Iterator/*<Pair<Clause,Formula>>*/ getProbableGeneralizations(Formula L) {
+        return retrieve(L, false, GENERALIZATIONS);
     }
 
     /**
@@ -141,6 +123,20 @@ public class ClausalIndex {
         return projectClause(getProbableComplements(L));
     }
 
+    /**
+     * Get an iterator of all clauses that contain literals which could possibly be instances of L.
+     */
+    public Iterator/*<Clause>*/ getProbableInstanceClauses(Formula L) {
+        return projectClause(getProbableInstances(L));
+    }
+
+    /**
+     * Get an iterator of all clauses that contain literals which could possibly be generalizations of L.
+     */
+    public Iterator/*<Clause>*/ getProbableGeneralizationClauses(Formula L) {
+        return projectClause(getProbableGeneralizations(L));
+    }
+
     /**
      * Get an iterator of all literals which could possibly unify with L.
      */
@@ -183,39 +179,11 @@ public class ClausalIndex {
             }, i);
     }
     
-    /**
-     * Get the list index.get(o) from the index or an empty list if not present.
-     */
-    private final Set/*<Pair<Clause,Formula>>*/ getIndex(Object o) {
-        assert o instanceof Formula;
-        Integer hash = (Integer)indexHash.apply(o);
-        Set l = (Set)index.get(hash);
-        return l != null ? l : Collections.EMPTY_SET;
-    }
-
-    /**
-     * Get the list index.get(o) from the index or create an empty
-     * list if not present.  Contrary to {@link #getIndex(Object)},
-     * this method ensures that the list returned occurs in index.
-     */
-    private final Set/*<Pair<Clause,Formula>>*/ getIndexEnsure(Object o) {
-        assert o instanceof Formula;
-        Integer hash = (Integer)indexHash.apply(o);
-        Set l = (Set)index.get(hash);
-        if (l != null) {
-            return l;
-        } else {
-            l = new LinkedHashSet();
-            index.put(hash, l);
-            return l;
-        }
-    }
-
     /**
      * Check whether this index is empty.
      */
     public boolean isEmpty() {
-        return index.isEmpty();
+        return positive.isEmpty() && negative.isEmpty();
     }
 
     // index modification methods
@@ -228,7 +196,22 @@ public class ClausalIndex {
         boolean changed = false;
         for (Iterator i = C.iterator(); i.hasNext(); ) {
             Formula L = (Formula)i.next();
-            changed |= getIndexEnsure(L).add(new Pair(C,L));
+            final List/*<Key>*/ keys = new ArrayList();
+            Node node = (keys(L, keys) ? positive : negative);
+            for (Iterator k = keys.iterator(); k.hasNext(); ) {
+                final Object key = k.next();
+                Node child = (Node) node.children.get(key);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(key, child);
+                }
+                node = child;
+            }
+            final Pair entry = new Pair(C,L);
+            if (!node.entries.containsKey(entry)) {
+                node.entries.put(entry, new java.lang.Integer(serial++));
+                changed = true;
+            }
         }
         return changed;
     }
@@ -241,14 +224,222 @@ public class ClausalIndex {
         boolean changed = false;
         for (Iterator i = C.iterator(); i.hasNext(); ) {
             Formula L = (Formula)i.next();
-            //@todo furthermore remove getIndex(L) from index if it is empty anyway
-            changed |= getIndex(L).remove(new Pair(C,L));
+            final List/*<Key>*/ keys = new ArrayList();
+            final Node root = keys(L, keys) ? positive : negative;
+            changed |= remove(root, keys, 0, new Pair(C,L));
         }
         return changed;
     }
 
+    /**
+     * Remove the entry at the path keys[i..] below node, and prune nodes that become empty.
+     * @return whether the index changed as a result of this operation.
+     */
+    private boolean remove(Node node, List/*<Key>*/ keys, int i, Pair entry) {
+        if (i == keys.size())
+            return node.entries.remove(entry) != null;
+        final Object key = keys.get(i);
+        final Node child = (Node) node.children.get(key);
+        if (child == null)
+            return false;
+        final boolean changed = remove(child, keys, i + 1, entry);
+        if (child.isEmpty())
+            node.children.remove(key);
+        return changed;
+    }
+
     public void clear() {
-        index.clear();
+        positive.children.clear();
+        positive.entries.clear();
+        negative.children.clear();
+        negative.entries.clear();
+    }
+
+    // retrieval
+
+    /**
+     * Retrieval of unifiable literals.
+     */
+    private static final int UNIFIABLES = 0;
+    /**
+     * Retrieval of instance literals.
+     */
+    private static final int INSTANCES = 1;
+    /**
+     * Retrieval of generalization literals.
+     */
+    private static final int GENERALIZATIONS = 2;
+
+    /**
+     * Get an iterator of all (clause,literal) pairs retrieved for L, in the order of their addition.
+     * @param complement whether to retrieve for the negation ~L instead of L.
+     * @param mode the kind of retrieval, one of {@link #UNIFIABLES}, {@link #INSTANCES}, {@link #GENERALIZATIONS}.
+     */
+    private Iterator/*<Pair<Clause,Formula>>*/ retrieve(Formula L, boolean complement, int mode) {
+        final List/*<Key>*/ keys = new ArrayList();
+        final Node root = keys(L, keys) != complement ? positive : negative;
+        final Key query[] = (Key[]) keys.toArray(new Key[keys.size()]);
+        // end[i] is the index after the subterm starting at query[i]
+        final int end[] = new int[query.length];
+        for (int i = query.length - 1; i >= 0; i--) {
+            int j = i + 1;
+            for (int a = 0; a < query[i].arity; a++)
+                j = end[j];
+            end[i] = j;
+        }
+        final List/*<Map<Pair<Clause,Formula>,Integer>>*/ leaves = new ArrayList();
+        retrieve(root, query, end, 0, mode, leaves);
+        switch (leaves.size()) {
+        case 0: return Setops.EMPTY_ITERATOR;
+        case 1: return ((Map) leaves.get(0)).keySet().iterator();
+        default:
+            // merge the leaves in the order of addition
+            final SortedMap/*<Integer,Pair<Clause,Formula>>*/ sorted = new TreeMap();
+            for (Iterator i = leaves.iterator(); i.hasNext(); ) {
+                for (Iterator j = ((Map) i.next()).entrySet().iterator(); j.hasNext(); ) {
+                    final Map.Entry e = (Map.Entry) j.next();
+                    sorted.put(e.getValue(), e.getKey());
+                }
+            }
+            return sorted.values().iterator();
+        }
+    }
+
+    /**
+     * Collect the non-empty leaves below node that match query[i..].
+     * @param end end[i] is the index after the subterm starting at query[i].
+     */
+    private static void retrieve(Node node, Key query[], int end[], int i, int mode, List/*<Map<Pair<Clause,Formula>,Integer>>*/ leaves) {
+        if (i == query.length) {
+            if (!node.entries.isEmpty())
+                leaves.add(node.entries);
+            return;
+        }
+        final Key q = query[i];
+        if (q == VARIABLE) {
+            if (mode == GENERALIZATIONS) {
+                // only variables generalize variables
+                final Node child = (Node) node.children.get(VARIABLE);
+                if (child != null)
+                    retrieve(child, query, end, i + 1, mode, leaves);
+            } else
+                // a variable matches any subterm in the index
+                skip(node, 1, query, end, i + 1, mode, leaves);
+        } else {
+            final Node child = (Node) node.children.get(q);
+            if (child != null)
+                retrieve(child, query, end, i + 1, mode, leaves);
+            if (mode != INSTANCES) {
+                // variables in the index match the whole subterm of the query
+                final Node variable = (Node) node.children.get(VARIABLE);
+                if (variable != null)
+                    retrieve(variable, query, end, end[i], mode, leaves);
+            }
+        }
+    }
+
+    /**
+     * Skip n subterms in the index below node, then continue retrieval with query[i..].
+     */
+    private static void skip(Node node, int n, Key query[], int end[], int i, int mode, List/*<Map<Pair<Clause,Formula>,Integer>>*/ leaves) {
+        if (n == 0) {
+            retrieve(node, query, end, i, mode, leaves);
+            return;
+        }
+        for (Iterator j = node.children.entrySet().iterator(); j.hasNext(); ) {
+            final Map.Entry e = (Map.Entry) j.next();
+            skip((Node) e.getValue(), n - 1 + ((Key) e.getKey()).arity, query, end, i, mode, leaves);
+        }
+    }
+
+    // helpers
+
+    /**
+     * Get the keys of the literal L in preorder, without its negations.
+     * The keys approximate the relation of unifiability, just like
+     * {@link Substitutions#unify(Collection)} decomposes terms.
+     * @param keys the list to which to append the keys of L.
+     * @return whether L is a positive literal, respecting duplex negatio est affirmatio.
+     */
+    private static boolean keys(Formula L, List/*<Key>*/ keys) {
+        boolean positive = true;
+        Object F = L;
+        // process negations in front of L
+        while (F instanceof Composite && ((Composite)F).getCompositor() == NOT) {
+            final Object G = ((Composite)F).getComponent();
+            assert F.equals(((Formula)G).not()) : F + " starts with a negation, so removing and adding the negation again does not change anything";
+            F = G;
+            positive = !positive;
+        }
+        assert !Substitutions.isVariable(F) : "our indexing does not work for variable literal " + F;
+        keysOf(F, keys);
+        return positive;
+    }
+    private static void keysOf(Object t, List/*<Key>*/ keys) {
+        if (Substitutions.isVariable(t))
+            keys.add(VARIABLE);
+        else if (t instanceof Composite) {
+            final Composite f = (Composite) t;
+            final Collection components = Utility.asCollection(f.getComponent());
+            if (components == null) {
+                keys.add(new Key(f.getCompositor(), 0));
+                return;
+            }
+            keys.add(new Key(f.getCompositor(), components.size()));
+            for (Iterator i = components.iterator(); i.hasNext(); )
+                keysOf(i.next(), keys);
+        } else
+            keys.add(new Key(t, 0));
+    }
+
+    /**
+     * The key of a symbol of the discrimination tree.
+     */
+    private static final class Key {
+        /**
+         * The symbol (compositor or atomic term).
+         */
+        final Object symbol;
+        /**
+         * The number of subterms composed with symbol.
+         */
+        final int arity;
+        public Key(Object symbol, int arity) {
+            this.symbol = symbol;
+            this.arity = arity;
+        }
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+            final Key b = (Key) o;
+            return arity == b.arity && Utility.equals(symbol, b.symbol);
+        }
+        public int hashCode() {
+            return Utility.hashCode(symbol) ^ arity;
+        }
+        public String toString() {
+            return this == VARIABLE ? "*" : symbol + "/" + arity;
+        }
+    }
+
+    /**
+     * A node of the discrimination tree.
+     */
+    private static final class Node {
+        /**
+         * The children of this node, reached by their keys.
+         */
+        final Map/*<Key,Node>*/ children = new HashMap();
+        /**
+         * The (clause,literal) pairs whose keys end at this node, mapped to their serial number.
+         */
+        final Map/*<Pair<Clause,Formula>,Integer>*/ entries = new LinkedHashMap();
+        boolean isEmpty() {
+            return children.isEmpty() && entries.isEmpty();
+        }
+        public String toString() {
+            return entries.isEmpty() ? children.toString() : entries.keySet() + "" + (children.isEmpty() ? "" : children.toString());
+        }
     }
 
 }
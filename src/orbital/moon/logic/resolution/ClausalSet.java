@@ -43,6 +43,21 @@ public interface ClausalSet extends Set/*<Clause>*/ {
      */
     public boolean removeAllSubsumedBy(ClausalSet T);
 
+    /**
+     * Remove all clauses from this set which are subsumed by C (backward subsumption).
+     * Does not remove C itself from this set.
+     * <p>Implementations may use indexing to find the candidates very quickly.</p>
+     * @return whether this set has changed as a result of the deletion by subsumption.
+     */
+    public boolean removeAllSubsumedBy(Clause C);
+
+    /**
+     * Checks whether any of the clauses of this set subsumes D (forward subsumption).
+     * <p>Implementations may use indexing to find the candidates very quickly.</p>
+     * @postconditions RES = &exist;C&isin;this C.subsumes(D)
+     */
+    public boolean subsumes(Clause D);
+
     // lookup methods
 
     /**
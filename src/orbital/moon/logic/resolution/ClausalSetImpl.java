@@ -74,6 +74,26 @@ removeSubsumed:
         return changed;
     }
 
+    public boolean removeAllSubsumedBy(Clause C) {
+        boolean changed = false;
+        for (Iterator i = iterator(); i.hasNext(); ) {
+            final Clause D = (Clause)i.next();
+            if (D != C && !D.equals(C) && C.subsumes(D)) {
+                i.remove();
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    public boolean subsumes(Clause D) {
+        for (Iterator i = iterator(); i.hasNext(); ) {
+            if (((Clause)i.next()).subsumes(D))
+                return true;
+        }
+        return false;
+    }
+
     public Formula toFormula() {
         Iterator i = Functionals.map(new Function() {
                 public Object apply(Object C) {
@@ -14,8 +14,8 @@ import orbital.logic.sign.type.Types;
 
 import orbital.logic.functor.*;
 import orbital.logic.sign.Expression.Composite;
-import orbital.logic.trs.Substitution;
 import orbital.logic.trs.Substitutions;
+import orbital.moon.logic.bridge.Unifier;
 
 import orbital.util.Utility;
 import orbital.util.Setops;
@@ -143,7 +143,7 @@ public class ClauseImpl extends LinkedHashSet/*<Formula>*/ implements Clause {
                         }
                         final ClauseImpl factorF = (ClauseImpl)pF.B;
                         // factorL corresponds to L (is one remaining literal after factorization)
-                        final Formula factorL = (Formula) ((Substitution)pF.A).apply(L);
+                        final Formula factorL = (Formula) ((Function)pF.A).apply(L);
 
                         for (Iterator g = factorGLiteralCombinations.iterator(); g.hasNext(); ) {
                             final Set/*<Formula>*/ factorGLiterals = (Set)g.next();
@@ -159,7 +159,7 @@ public class ClauseImpl extends LinkedHashSet/*<Formula>*/ implements Clause {
                             }
                             final Clause factorG = (Clause)pG.B;
                             // factorK corresponds to K (is one remaining literal after factorization)
-                            final Formula factorK = (Formula) ((Substitution)pG.A).apply(K);
+                            final Formula factorK = (Formula) ((Function)pG.A).apply(K);
 
                             // resolution of factors
                             final Clause factorR = factorF.resolventWith(factorG, factorL, factorK);
@@ -189,14 +189,16 @@ public class ClauseImpl extends LinkedHashSet/*<Formula>*/ implements Clause {
     }
     /**
      * Workaround for returning 2 arguments.
-     * @return the pair of substitution and resulting clause, respectively <code>(null,null)</code>.
+     * @return the pair of unifier and resulting clause, respectively <code>(null,null)</code>.
+     *  The unifier applies the bindings of mgU{L,&not;K} without materializing them as a substitution.
      */
-    protected Pair/*<Substitution,Clause>*/ resolventWith2(Clause G, Formula L, Formula K) {
+    protected Pair/*<Function,Clause>*/ resolventWith2(Clause G, Formula L, Formula K) {
         final Clause F = this;
         final Formula notL = Utilities.negation(L);
-        final Substitution mu = Substitutions.unify(Arrays.asList(new Object[] {K, notL}));
-        logger.log(Level.FINEST, "resolving literals\n   \t{0} (negation of {3})\n with\t{1}\n is\t{2}", new Object[] {notL, K, mu, L});
-        if (mu == null) {
+        final Unifier mu = new Unifier();
+        final boolean unifiable = mu.unify(K, notL);
+        logger.log(Level.FINEST, "resolving literals\n   \t{0} (negation of {3})\n with\t{1}\n is\t{2}", new Object[] {notL, K, unifiable ? mu : null, L});
+        if (!unifiable) {
             return new Pair(null, null);
         } else {
             // resolve F and G at complementary literals L resp. K
@@ -321,9 +323,10 @@ public class ClauseImpl extends LinkedHashSet/*<Formula>*/ implements Clause {
     }
     /**
      * Workaround for returning 2 arguments.
-     * @return the pair of substitution and resulting factor, respectively <code>(null,null)</code>.
+     * @return the pair of unifier and resulting factor, respectively <code>(null,null)</code>.
+     *  The unifier applies the bindings of mgU(literals) without materializing them as a substitution.
      */
-    protected Pair/*<Substitution,Clause>*/ factorize2(Collection/*<Clause>*/ literals) {
+    protected Pair/*<Function,Clause>*/ factorize2(Collection/*<Clause>*/ literals) {
         assert this.containsAll(literals) : "can only factorize literals contained in this clause";
         if (literals.size() < 2) {
             //@internal just a speedup optimization
@@ -331,9 +334,10 @@ public class ClauseImpl extends LinkedHashSet/*<Formula>*/ implements Clause {
         }
         Clause previous = null;
         assert (previous = getClausalFactory().createClause(this)) != null;
-        final Substitution mu = Substitutions.unify(literals);
+        final Unifier mu = new Unifier();
+        final boolean unifiable = mu.unify(literals);
         assert this.equals(previous) : "modifications during factorization work on copies, and leave the original clause unmodified";
-        if (mu == null) {
+        if (!unifiable) {
             return new Pair(null, null);
         } else {
             // factorize
@@ -351,10 +355,17 @@ public class ClauseImpl extends LinkedHashSet/*<Formula>*/ implements Clause {
 
     /**
      * Implements subsumption based on unit input semi-ground resolution.
+     * Candidates are filtered with a {@link ClausalIndex} of the literals of D first.
      */
     public boolean subsumes(Clause D) {
         if (size() > D.size())
             return false;
+        // each literal of this clause needs an instance in D, since the variables of D will become constants
+        final ClausalIndex index = indexOf(D);
+        for (Iterator i = iterator(); i.hasNext(); ) {
+            if (!index.getProbableInstances((Formula)i.next()).hasNext())
+                return false;
+        }
         // negate D and replace all variables with distinct constants (also distinct for each literal)
         final ClausalSet notDground = newClausalSet();
         for (Iterator i = D.iterator(); i.hasNext(); ) {
@@ -438,6 +449,17 @@ public class ClauseImpl extends LinkedHashSet/*<Formula>*/ implements Clause {
 
     // Helpers
     
+    /**
+     * Get an index of the literals of D.
+     */
+    private static ClausalIndex indexOf(Clause D) {
+        if (D instanceof IndexedClauseImpl)
+            return ((IndexedClauseImpl)D).getIndex();
+        final ClausalIndex index = new ClausalIndex();
+        index.add(D);
+        return index;
+    }
+
     /**
      * Get all literals contained in C that unify with L.
      * @postconditions RES = {K&isin;C &exist;mgU{L,K}}
@@ -449,11 +471,14 @@ public class ClauseImpl extends LinkedHashSet/*<Formula>*/ implements Clause {
     }
     private static Set/*<Formula>*/ getUnifiablesOf(Iterator/*<Formula>*/ C, Formula L) {
         Set/*<Formula>*/ r = new LinkedHashSet();
+        // L remains shared in between the unifications
+        final Unifier mu = new Unifier();
         while (C.hasNext()) {
             Formula F = (Formula)C.next();
             //@todo optimizable, we could remember the unifier instead of recalculating it lateron (f.ex. during factorization)
-            if (Substitutions.unify(Arrays.asList(new Formula[] {L,F})) != null) {
+            if (mu.unify(L, F)) {
                 r.add(F);
+                mu.undo(0);
             }
         }
         return r;
@@ -67,6 +67,46 @@ public class IndexedClausalSetImpl extends ClausalSetImpl {
         return index.getProbableUnifiableClauses(L);
     }
     
+    public boolean removeAllSubsumedBy(Clause C) {
+        if (C.isEmpty())
+            return super.removeAllSubsumedBy(C);
+        // each literal of C has an instance in any clause subsumed by C
+        Set candidates = null;
+        for (Iterator i = C.iterator(); i.hasNext(); ) {
+            final Set instances = Setops.asSet(index.getProbableInstanceClauses((Formula)i.next()));
+            if (candidates == null)
+                candidates = instances;
+            else
+                candidates.retainAll(instances);
+            if (candidates.isEmpty())
+                return false;
+        }
+        assert Setops.asSet(super.iterator()).containsAll(candidates) : "ClausalIndex.getProbableInstanceClauses only returns clauses of this set";
+        boolean changed = false;
+        for (Iterator i = candidates.iterator(); i.hasNext(); ) {
+            final Clause D = (Clause)i.next();
+            if (D != C && !D.equals(C) && C.subsumes(D)) {
+                remove(D);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    public boolean subsumes(Clause D) {
+        // any clause subsuming D has a literal that is a generalization of a literal of D
+        final Set tried = new HashSet();
+        for (Iterator i = D.iterator(); i.hasNext(); ) {
+            for (Iterator j = index.getProbableGeneralizationClauses((Formula)i.next()); j.hasNext(); ) {
+                final Clause C = (Clause)j.next();
+                if (tried.add(C) && C.subsumes(D))
+                    return true;
+            }
+        }
+        assert !super.subsumes(D) : "ClausalIndex.getProbableGeneralizationClauses returns all clauses that could subsume " + D;
+        return false;
+    }
+
     // manage index in sync with the current data
 
     public boolean add(Object o) {
@@ -42,12 +42,20 @@ public class IndexedClauseImpl extends ClauseImpl {
     }
     public IndexedClauseImpl() {}
 
-    public Iterator/*<Formula>*/ getProbableUnifiables(Formula L) {
+    /**
+     * Get the index of the literals of this clause.
+     */
+    ClausalIndex getIndex() {
         if (index == null) {
             // lazy initialization
             index = new ClausalIndex();
             index.add(this);
         }
+        return index;
+    }
+
+    public Iterator/*<Formula>*/ getProbableUnifiables(Formula L) {
+        final ClausalIndex index = getIndex();
         if (true) return index.getProbableUnifiableLiterals(L);
         Collection i = Setops.asList(index.getProbableUnifiableLiterals(L));
         System.err.println("  punifiables " + i + " of " + L + "\n    in " + this);
@@ -17,7 +17,6 @@ import orbital.moon.logic.UniqueSymbol;
 import orbital.logic.sign.*;
 import orbital.logic.sign.Expression.Composite;
 import orbital.logic.sign.type.*;
-import orbital.logic.trs.Substitution;
 
 import java.util.logging.Logger;
 import java.util.logging.Level;
@@ -159,7 +158,7 @@ public class OrderedClauseImpl extends IndexedClauseImpl {
         if (R == null) {
             return null;
         } else {
-            Formula Lmu = (Formula) ((Substitution)p.A).apply(L);
+            Formula Lmu = (Formula) ((Function)p.A).apply(L);
             Set RLmu = new HashSet();
             RLmu.add(Lmu);
             RLmu.addAll(R);
@@ -13,57 +13,109 @@ import orbital.logic.sign.*;
 
 import orbital.logic.functor.*;
 
-import orbital.util.SequenceIterator;
+import orbital.logic.Composite;
+import orbital.util.Utility;
 import java.util.*;
 
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
 /**
- * Na&iuml;ve saturation. Repeatedly adds all resolvents of the first
- * clause with other clauses to the clausal set.
+ * Saturation by the given-clause algorithm.
+ * <p>
+ * The clauses are divided into <dfn>passive</dfn> clauses that still need to be resolved,
+ * and <dfn>active</dfn> clauses that have already been resolved with each other.
+ * Repeatedly, a given clause is selected from the passive clauses, made active,
+ * and resolved with all active clauses. The resulting resolvents become passive clauses.
+ * Like in DISCOUNT, only the active clauses are indexed and take part in resolution and subsumption,
+ * so the passive clauses do not slow down the inferences.
+ * </p>
+ * <p>
+ * The given clause is the passive clause of least weight, i.e., the least number of symbols,
+ * except for every {@link #PICK_GIVEN_RATIO}-th selection, which selects the oldest passive clause
+ * for fairness. Given clauses and resolvents that are subsumed by an active clause are discarded
+ * (forward subsumption), and active clauses that are subsumed by the given clause are removed
+ * (backward subsumption).
+ * </p>
+ * <p>
+ * Saturation may be limited by the maximum number of given clauses and by a time limit.
+ * The statistics of each proof attempt are logged with level {@link Level#FINE}.
+ * </p>
  *
  * @version $Id$
  * @author  Andr&eacute; Platzer
+ * @see "McCune, William. Otter 3.0 Reference Manual and Guide. Technical Report ANL-94/6, Argonne National Laboratory, 1994."
+ * @see "Denzinger, J&ouml;rg, Kronenburg, Martin and Schulz, Stephan. DISCOUNT - a distributed and learning equational prover. <i>Journal of Automated Reasoning</i>, 18(2):189-198, 1997."
  */
 public class SaturationResolution extends ResolutionBase {
     private static final Logger logger = Logger.getLogger(SaturationResolution.class.getName());
 
     /**
-     * Perform a <em>fair</em> selection of one clause out of S.
-     * Does not remove the selected clause from S.
-     * @preconditions !S.isEmpty()
-     * @postconditions OLD(S) = S &and; RES&isin;S
+     * Every PICK_GIVEN_RATIO-th given clause is the oldest passive clause instead of the lightest.
      */
-    protected Clause selectClause(ClausalSet S) {
-        assert S instanceof LinkedHashSet : "instance of " + LinkedHashSet.class + " expected for fair selection";
-        Iterator i = S.iterator();
-        Clause C = (Clause) i.next();
-        return C;
+    protected static final int PICK_GIVEN_RATIO = 5;
+
+    /**
+     * The maximum number of given clauses to select during saturation.
+     */
+    private int maxIterations = Integer.MAX_VALUE;
+    /**
+     * The time limit for saturation in milliseconds.
+     */
+    private long timeLimit = Long.MAX_VALUE;
+
+    /**
+     * Get the maximum number of given clauses to select during saturation,
+     * before giving up.
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+    /**
+     * Set the maximum number of given clauses to select during saturation,
+     * before giving up.
+     */
+    public void setMaxIterations(int maxIterations) {
+        if (maxIterations < 0)
+            throw new IllegalArgumentException("illegal maximum number of iterations " + maxIterations);
+        this.maxIterations = maxIterations;
     }
 
+    /**
+     * Get the time limit for saturation in milliseconds, before giving up.
+     */
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+    /**
+     * Set the time limit for saturation in milliseconds, before giving up.
+     */
+    public void setTimeLimit(long timeLimit) {
+        if (timeLimit < 0)
+            throw new IllegalArgumentException("illegal time limit " + timeLimit);
+        this.timeLimit = timeLimit;
+    }
 
     /**
-     * Delete superfluous clauses.
-     * Apply any deletion strategies to the specified sets of clauses R and S.
-     * @param newResolvents the new resolvents just resolved most recently.
-     * @param setOfClauses the current set of clauses prior to adding newResolvents.
-     * @internal run-time is heavily dependent on the precise order of operations (by factors of 4).
+     * Get the weight of a clause for the selection of the given clause.
+     * @return the number of symbols occurring in C.
      */
-    protected void deletion(ClausalSet newResolvents, ClausalSet setOfClauses) {
-        //@internal first letting setOfClauses subsume newResolvents seems better, perhaps because setOfClauses already survived a longer time so it is more likely for them to be more general in the subsumption hierarchy.
-        newResolvents.removeAllSubsumedBy(setOfClauses);
-        //setOfClauses.removeAllSubsumedBy(newResolvents);
-        if (true)
-            return;
-        // remove tautologies and handle contradictions
-        // for all clauses F&isin;newResolvents
-        for (Iterator i = newResolvents.iterator(); i.hasNext(); ) {
-            final Clause F = (Clause) i.next();
-            if (F.isElementaryValid())
-                // if F is obviously valid, forget about it for resolving a contradiction
-                i.remove();
+    protected int weight(Clause C) {
+        int weight = 0;
+        for (Iterator i = C.iterator(); i.hasNext(); )
+            weight += symbols(i.next());
+        return weight;
+    }
+    private static int symbols(Object t) {
+        if (!(t instanceof Composite))
+            return 1;
+        int symbols = 1;
+        final Collection components = Utility.asCollection(((Composite)t).getComponent());
+        if (components != null) {
+            for (Iterator i = components.iterator(); i.hasNext(); )
+                symbols += symbols(i.next());
         }
+        return symbols;
     }
 
     /**
@@ -71,82 +123,165 @@ public class SaturationResolution extends ResolutionBase {
      * W is kept in clausal normal form, and thus contains sets of literals.
      * @param query the initial set of support.
      * @preconditions knowledgebase is satisfiable
+     * @return whether a contradiction has been resolved, or <code>false</code> if
+     *  the clauses have been saturated, or the budget of iterations or time has been exceeded.
      * @see <a href="{@docRoot}/Patterns/Design/TemplateMethod.html">Template Method</a>
      * @todo add unit-preference, i.e. do k unit resolutions then 1 resolution, etc.
      */
     protected boolean prove(final ClausalSet knowledgebase, final ClausalSet query) {
         assert !knowledgebase.contains(Clause.CONTRADICTION) : "knowledgebase W assumed consistent, so contains no elementary contradiction";
         assert !query.contains(Clause.CONTRADICTION) : "query contains no elementary contradiction any more";
-        ClausalSet setOfClauses = SetOfSupportResolution.INDEXING
-            ? new IndexedClausalSetImpl(query)
-            : getClausalFactory().createClausalSet(query);
-        setOfClauses.addAll(knowledgebase);
-        setOfClauses.removeAllSubsumedBy(setOfClauses);
-
-        logger.log(Level.FINEST, "saturation resolution starting with {0}", new ClausalSetImpl(setOfClauses));
-
-        // counts how many clauses of setOfClauses have no resolution possibilities, consequtively
-        int noResolutionsCounter = 0;
-        while (!setOfClauses.isEmpty()) {
-            // fairly choose any clause C&isin;S
-            final Clause C = selectClause(setOfClauses);
+        final Statistics statistics = new Statistics();
+        final ClausalSet active = SetOfSupportResolution.INDEXING
+            ? new IndexedClausalSetImpl()
+            : getClausalFactory().newClausalSet();
+        final Passive passive = new Passive();
+        // the clauses of the query first, since they are the most relevant
+        for (Iterator i = query.iterator(); i.hasNext(); )
+            passive.add((Clause) i.next());
+        for (Iterator i = knowledgebase.iterator(); i.hasNext(); )
+            passive.add((Clause) i.next());
+
+        logger.log(Level.FINEST, "saturation resolution starting with {0}", passive);
+
+        while (!passive.isEmpty()) {
+            if (statistics.given >= maxIterations || System.currentTimeMillis() - statistics.start > timeLimit) {
+                logger.log(Level.FINE, "saturation gave up after {0} given clauses", new Integer(statistics.given));
+                statistics.log(active, passive);
+                return false;
+            }
+            final Clause C = passive.select(statistics.given % PICK_GIVEN_RATIO == PICK_GIVEN_RATIO - 1);
+            statistics.given++;
             assert !C.equals(Clause.CONTRADICTION) : "already checked for contradiction";
+            if (active.subsumes(C)) {
+                statistics.forwardSubsumed++;
+                continue;
+            }
+            final int size = active.size();
+            active.removeAllSubsumedBy(C);
+            statistics.backwardSubsumed += size - active.size();
+            active.add(C);
 
             logger.log(Level.FINEST, "resolving {0} with ...", new ClauseImpl(C));
-
-            // the set of resolvents obtained from resolution of C with any D that are new to us
-            ClausalSet newResolvents = getClausalFactory().newClausalSet();
-            // whether C has been resolved with any D
-            boolean resolvable = false;
-            // choose any clause D&isin;S
-            for (Iterator i2 = setOfClauses.getProbableComplementsOf(C);
-                 i2.hasNext(); ) {
+            // choose any clause D&isin;active including C itself
+            for (Iterator i2 = active.getProbableComplementsOf(C); i2.hasNext(); ) {
                 final Clause D = (Clause) i2.next();
                 logger.log(Level.FINEST, "resolving {0} with {1}", new Object[] {new ClauseImpl(C), new ClauseImpl(D)});
                 // try to resolve C with D
                 for (Iterator resolvents = ((ClauseImpl)C).resolveWithVariantFactors(D); resolvents.hasNext(); ) {
-                    resolvable = true;
                     final Clause R = (Clause)resolvents.next();
-                    if (setOfClauses.contains(R)) {
-                        continue;
-                    } else if (R.equals(Clause.CONTRADICTION)) {
+                    statistics.resolvents++;
+                    if (R.equals(Clause.CONTRADICTION)) {
                         logger.log(Level.FINE, "resolved contradiction {0} from {1} and {2}",  new Object[] {R, C, D});
+                        statistics.log(active, passive);
                         return true;
+                    } else if (R.isElementaryValid()) {
+                        // if R is obviously valid, forget about it for resolving a contradiction
+                        statistics.tautologies++;
+                    } else if (active.contains(R) || passive.contains(R)) {
+                        continue;
+                    } else if (active.subsumes(R)) {
+                        statistics.forwardSubsumed++;
                     } else {
-                        newResolvents.add(R);
+                        passive.add(R);
                     }
                 }
             }
-            //assert !newResolvents.isEmpty() || !resolvable: "there are no resolvents => !resolvable";
-            if (!resolvable || newResolvents.isEmpty()) {
-                //@internal even when there are resolvents which we already knew, we should terminate resolution if no new things happen.
-                //@internal better not remove link-less C in case a refinement like ordered resolution is used. Then possible resolutions may have been deferred until bigger literals have been resolved.
-                noResolutionsCounter++;
-                if (noResolutionsCounter >= 2*setOfClauses.size()) {
-                    //@xxx factor 2 is just to be sure
-                    // no clause in setOfClauses can resolve anymore
-                    logger.log(Level.FINEST, "saturation stuck with no more clauses appearing {0}", new ClausalSetImpl(setOfClauses));
-                    return false;
-                }
-                //@internal removing and adding C ensures that we consider the other clauses next before resolving C again
-                setOfClauses.remove(C);
-                setOfClauses.add(C);
-                continue;
-            } else {
-                noResolutionsCounter = 0;
-            }
-
-            System.out.println("  setOfClauses " + setOfClauses.size() + "\tresolvents " + newResolvents.size());
-            deletion(newResolvents, setOfClauses);
-            System.out.println(" >setOfClauses " + setOfClauses.size() + "\tresolvents " + newResolvents.size());
-            //@internal removing and adding C ensures that we first consider the other clauses before resolving C again
-            setOfClauses.remove(C);
-            setOfClauses.addAll(newResolvents);
-            setOfClauses.add(C);
+            logger.log(Level.FINER, "  active {0}\tpassive {1}", new Object[] {new Integer(active.size()), new Integer(passive.size())});
         }
 
-        logger.log(Level.FINEST, "saturation has no clauses {0}", new ClausalSetImpl(setOfClauses));
+        logger.log(Level.FINEST, "saturation has no more passive clauses with active clauses {0}", active);
+        statistics.log(active, passive);
         return false;
     }
 
+    /**
+     * The passive clauses, ordered by weight and by age.
+     */
+    private final class Passive {
+        /**
+         * The passive clauses in the order of their addition.
+         */
+        private final Map/*<Clause,Entry>*/ byAge = new LinkedHashMap();
+        /**
+         * The passive clauses ordered by weight, and then by age.
+         */
+        private final SortedSet/*<Entry>*/ byWeight = new TreeSet();
+        /**
+         * The number of clauses added so far.
+         */
+        private int age = 0;
+
+        public boolean add(Clause C) {
+            if (byAge.containsKey(C))
+                return false;
+            final Entry e = new Entry(C, weight(C), age++);
+            byAge.put(C, e);
+            byWeight.add(e);
+            return true;
+        }
+        public boolean contains(Clause C) {
+            return byAge.containsKey(C);
+        }
+        public boolean isEmpty() {
+            return byAge.isEmpty();
+        }
+        public int size() {
+            return byAge.size();
+        }
+        /**
+         * Select and remove the given clause.
+         * @param oldest whether to select the oldest clause instead of the lightest.
+         * @preconditions !isEmpty()
+         */
+        public Clause select(boolean oldest) {
+            final Entry e = oldest
+                ? (Entry) byAge.values().iterator().next()
+                : (Entry) byWeight.first();
+            byAge.remove(e.clause);
+            byWeight.remove(e);
+            return e.clause;
+        }
+        public String toString() {
+            return byAge.keySet().toString();
+        }
+    }
+
+    /**
+     * A passive clause with its weight and age.
+     */
+    private static final class Entry implements Comparable {
+        final Clause clause;
+        final int weight;
+        final int age;
+        public Entry(Clause clause, int weight, int age) {
+            this.clause = clause;
+            this.weight = weight;
+            this.age = age;
+        }
+        public int compareTo(Object o) {
+            final Entry b = (Entry) o;
+            if (weight != b.weight)
+                return weight < b.weight ? -1 : 1;
+            return age < b.age ? -1 : age > b.age ? 1 : 0;
+        }
+    }
+
+    /**
+     * The statistics of a proof attempt.
+     */
+    private static final class Statistics {
+        final long start = System.currentTimeMillis();
+        int given = 0;
+        int resolvents = 0;
+        int tautologies = 0;
+        int forwardSubsumed = 0;
+        int backwardSubsumed = 0;
+        void log(ClausalSet active, Passive passive) {
+            logger.log(Level.FINE, "saturation took {0} ms with {1} given clauses, {2} resolvents, {3} tautologies, {4} forward subsumed, {5} backward subsumed, and finally {6} active and {7} passive clauses",
+                       new Object[] {new Long(System.currentTimeMillis() - start), new Integer(given), new Integer(resolvents), new Integer(tautologies),
+                                     new Integer(forwardSubsumed), new Integer(backwardSubsumed), new Integer(active.size()), new Integer(passive.size())});
+        }
+    }
+
 }
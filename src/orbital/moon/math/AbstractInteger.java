@@ -13,7 +13,16 @@ import java.math.BigInteger;
 import java.math.BigDecimal;
 import orbital.math.functional.Operations;
 
-// @todo non-associative precisions: note that Long+Int and Int+Long etc. may differ due to brutal casting per b.intValue() or even b.longValue().
+/**
+ * Base class for integers of different precisions.
+ * <p>
+ * The arithmetic operations are exact: machine-sized results are computed in long precision
+ * and promoted Int &rarr; Long &rarr; Big on overflow. Conversely, results are demoted to the
+ * smallest representation of the value factory that holds their value.
+ * </p>
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ */
 abstract class AbstractInteger extends AbstractRational implements Integer {
     private static final long serialVersionUID = -5859818959999970653L;
     protected AbstractInteger(ValueFactory valueFactory) {
@@ -31,16 +40,22 @@ abstract class AbstractInteger extends AbstractRational implements Integer {
     public Arithmetic add(Arithmetic b) {
         if (b instanceof Integer)
             return add((Integer) b);
+        else if (b instanceof Rational)
+            return add((Rational) b);
         return (Arithmetic) Operations.plus.apply(this, b);
     } 
     public Arithmetic subtract(Arithmetic b) {
         if (b instanceof Integer)
             return subtract((Integer) b);
+        else if (b instanceof Rational)
+            return subtract((Rational) b);
         return (Arithmetic) Operations.subtract.apply(this, b);
     } 
     public Arithmetic multiply(Arithmetic b) {
         if (b instanceof Integer)
             return multiply((Integer) b);
+        else if (b instanceof Rational)
+            return multiply((Rational) b);
         return (Arithmetic) Operations.times.apply(this, b);
     } 
     public Arithmetic divide(Arithmetic b) {
@@ -94,17 +109,23 @@ abstract class AbstractInteger extends AbstractRational implements Integer {
         return (Integer) norm();
     }
 
-    // delegate super class operations
+    // delegate super class operations to the rational, without coercion
     public Rational add(Rational b) {
-        return (Rational) Operations.plus.apply(this, b);
+        if (b instanceof Integer)
+            return add((Integer) b);
+        return b.add(this);
     } 
 
     public Rational subtract(Rational b) {
-        return (Rational) Operations.subtract.apply(this, b);
+        if (b instanceof Integer)
+            return subtract((Integer) b);
+        return ((Rational) b.minus()).add(this);
     } 
 
     public Rational multiply(Rational b) {
-        return (Rational) Operations.times.apply(this, b);
+        if (b instanceof Integer)
+            return multiply((Integer) b);
+        return b.multiply(this);
     } 
 
     public Rational divide(Rational b) {
@@ -135,6 +156,100 @@ abstract class AbstractInteger extends AbstractRational implements Integer {
         return a instanceof Big ? (Big)a : new Big((Number)a, a.valueFactory());
     }
 
+    // exact machine-sized arithmetic with promotion
+
+    /**
+     * Get the integer v in the smallest representation of vf that holds v.
+     */
+    static Integer valueOf(long v, ValueFactory vf) {
+        return (int) v == v ? vf.valueOf((int) v) : vf.valueOf(v);
+    }
+    /**
+     * Get the integer v, demoted to a machine-sized representation if v fits.
+     */
+    static Integer valueOf(BigInteger v, ValueFactory vf) {
+        return v.bitLength() < 64 ? valueOf(v.longValue(), vf) : new Big(v, vf);
+    }
+
+    /**
+     * Exact a+b promoted to arbitrary precision on overflow.
+     */
+    static Integer add(long a, long b, ValueFactory vf) {
+        final long r = a + b;
+        // overflow iff both a and b have the opposite sign of r
+        if (((a ^ r) & (b ^ r)) < 0)
+            return vf.valueOf(BigInteger.valueOf(a).add(BigInteger.valueOf(b)));
+        return valueOf(r, vf);
+    }
+    /**
+     * Exact a-b promoted to arbitrary precision on overflow.
+     */
+    static Integer subtract(long a, long b, ValueFactory vf) {
+        final long r = a - b;
+        // overflow iff a and b have different signs and r has the opposite sign of a
+        if (((a ^ b) & (a ^ r)) < 0)
+            return vf.valueOf(BigInteger.valueOf(a).subtract(BigInteger.valueOf(b)));
+        return valueOf(r, vf);
+    }
+    /**
+     * Exact a*b promoted to arbitrary precision on overflow.
+     */
+    static Integer multiply(long a, long b, ValueFactory vf) {
+        final long r = a * b;
+        // factors of at most 31 bits cannot overflow, others are checked by division
+        if (((Math.abs(a) | Math.abs(b)) >>> 31) != 0
+            && (b != 0 && r / b != a || a == java.lang.Long.MIN_VALUE && b == -1))
+            return vf.valueOf(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)));
+        return valueOf(r, vf);
+    }
+    /**
+     * Exact a/b (rounded towards 0) promoted to arbitrary precision on overflow.
+     */
+    static Integer quotient(long a, long b, ValueFactory vf) {
+        if (a == java.lang.Long.MIN_VALUE && b == -1)
+            return vf.valueOf(BigInteger.valueOf(a).negate());
+        return valueOf(a / b, vf);
+    }
+    /**
+     * Exact -a promoted to arbitrary precision on overflow.
+     */
+    static Integer negate(long a, ValueFactory vf) {
+        return a == java.lang.Long.MIN_VALUE
+            ? vf.valueOf(BigInteger.valueOf(a).negate())
+            : valueOf(-a, vf);
+    }
+    /**
+     * Exact a<sup>k</sup> by repeated squaring, promoted to arbitrary precision on overflow.
+     * @return a<sup>k</sup> which is only a rational for k&lt;0.
+     */
+    static Rational power(long a, long k, ValueFactory vf) {
+        if (k == 0 || a == 1)
+            return vf.ONE();
+        else if (a == -1)
+            return (k & 1) == 0 ? vf.ONE() : vf.MINUS_ONE();
+        else if (k < 0) {
+            if (k == java.lang.Long.MIN_VALUE)
+                throw new ArithmeticException("exponentation is possibly too big: " + a + " ^ " + k);
+            return vf.rational(vf.ONE(), (Integer) power(a, -k, vf));
+        } else if (a == 0)
+            return vf.ZERO();
+        // |a|<2<sup>bits</sup> hence |a|<sup>k</sup> < 2<sup>bits*k</sup>
+        final int bits = a == java.lang.Long.MIN_VALUE ? 64 : 64 - java.lang.Long.numberOfLeadingZeros(Math.abs(a));
+        if (k < 63 && k * bits < 63) {
+            long r = 1;
+            for (long base = a; k > 0; k >>= 1) {
+                if ((k & 1) != 0)
+                    r *= base;
+                if (k > 1)
+                    base *= base;
+            }
+            return valueOf(r, vf);
+        }
+        if (k > java.lang.Integer.MAX_VALUE)
+            throw new ArithmeticException("exponentation is possibly too big: " + a + " ^ " + k);
+        return valueOf(BigInteger.valueOf(a).pow((int) k), vf);
+    }
+
 
     /**
      * Represents an integer number in <b>Z</b> as an int value.
@@ -181,7 +296,7 @@ abstract class AbstractInteger extends AbstractRational implements Integer {
         } 
 
         public Real norm() {
-            return valueFactory().valueOf(Math.abs(intValue()));
+            return value < 0 ? (Real) minus() : this;
         } 
 
         public boolean isZero() {
@@ -203,47 +318,34 @@ abstract class AbstractInteger extends AbstractRational implements Integer {
     
         // Arithmetic implementation synonyms
         public Integer add(Integer b) {
-            if (b instanceof Int)
-                return new Int(intValue() + b.intValue(), valueFactory());
-            else if (b instanceof Long)
-                return new Long(intValue() + b.longValue(), b.valueFactory());
+            if (b instanceof Int || b instanceof Long)
+                return AbstractInteger.add(value, b.longValue(), valueFactory());
             else if (b instanceof Big)
                 return new Big(intValue(), b.valueFactory()).add(b);
             return (Integer) Operations.plus.apply(this, b);
         } 
         public Integer subtract(Integer b) {
-            if (b instanceof Int)
-                return new Int(intValue() - b.intValue(), valueFactory());
-            else if (b instanceof Long)
-                return new Long(intValue() - b.longValue(), b.valueFactory());
+            if (b instanceof Int || b instanceof Long)
+                return AbstractInteger.subtract(value, b.longValue(), valueFactory());
             else if (b instanceof Big)
                 return new Big(intValue(), b.valueFactory()).subtract(b);
             return (Integer) Operations.subtract.apply(this, b);
         } 
         public Arithmetic minus() {
-            return new Int(-value, valueFactory());
+            return negate(value, valueFactory());
         } 
         public Integer multiply(Integer b) {
-            if (b instanceof Int)
-                return new Int(intValue() * b.intValue(), valueFactory());
-            else if (b instanceof Long)
-                return new Long(intValue() * b.longValue(), b.valueFactory());
+            if (b instanceof Int || b instanceof Long)
+                return AbstractInteger.multiply(value, b.longValue(), valueFactory());
             else if (b instanceof Big)
                 return new Big(intValue(), b.valueFactory()).multiply(b);
             return (Integer) Operations.times.apply(this, b);
         } 
         public Rational power(Integer b) {
-            if (b instanceof Int) {
-                return b.compareTo(zero()) >= 0
-                    ? new Int((int) Math.pow(intValue(), b.intValue()), valueFactory())
-                    : valueFactory().rational(1, (int) Math.pow(intValue(), -b.intValue()));
-            } else if (b instanceof Long) {
-                return b.compareTo(zero()) >= 0
-                    ? new Long((long) Math.pow(intValue(), b.longValue()), b.valueFactory())
-                    : valueFactory().rational((Integer/*__*/)one(), valueFactory().valueOf((long) Math.pow(intValue(), -b.longValue())));
-            } else if (b instanceof Big) {
+            if (b instanceof Int || b instanceof Long)
+                return AbstractInteger.power(value, b.longValue(), valueFactory());
+            else if (b instanceof Big)
                 return new Big(intValue(), b.valueFactory()).power(b);
-            }
             return (Integer) Operations.power.apply(this, b);
         }
         public Real power(Rational b) {
@@ -256,14 +358,18 @@ abstract class AbstractInteger extends AbstractRational implements Integer {
 
         // Euclidean implementation
         public Integer quotient(Integer b) {
-            return new Int(intValue() / b.intValue(), valueFactory());
+            if (b instanceof Big)
+                return new Big(intValue(), b.valueFactory()).quotient(b);
+            return AbstractInteger.quotient(value, b.longValue(), valueFactory());
         }
         public Euclidean quotient(Euclidean b) {
             return quotient((Integer)b);
         }
         public Integer modulo(Integer b) {
-            int m = b.intValue();
-            int r = intValue() % m;
+            if (b instanceof Big)
+                return new Big(intValue(), b.valueFactory()).modulo(b);
+            final long m = b.longValue();
+            final long r = value % m;
             /*@todo nonnegative representatives and implementation of quotient() collide with property of Euclidean rings for -8 divmod -6.
                On the other hand, chinese remainder relies on positive representatives.
              */
@@ -274,7 +380,7 @@ abstract class AbstractInteger extends AbstractRational implements Integer {
             */
             //assert r >= 0 : "nonnegative representative chosen";
             assert value == (value / m) * m + r : "modulo post: " + this + " = " + (value / m) + "*" + b + " + " + r;
-            return new Int(r, valueFactory());
+            return valueOf(r, valueFactory());
         }
         public Euclidean modulo(Euclidean b) {
             return modulo((Integer)b);
@@ -282,12 +388,12 @@ abstract class AbstractInteger extends AbstractRational implements Integer {
 
         public Rational divide(Rational b) {
             if (b instanceof Integer) {
-                if (b instanceof Int) {
-                    int v = ((Number)b).intValue();
-                    if (value % v == 0)
-                        return new Int(value / v, valueFactory());
+                if (b instanceof Int || b instanceof Long) {
+                    long v = ((Number)b).longValue();
+                    if (v != 0 && value % v == 0)
+                        return AbstractInteger.quotient(value, v, valueFactory());
                 }
-                return valueFactory().rational(value, ((Number)b).intValue());
+                return valueFactory().rational(this, (Integer)b);
             }
             return super.divide(b);
         }
@@ -296,12 +402,12 @@ abstract class AbstractInteger extends AbstractRational implements Integer {
         public Arithmetic divide(Arithmetic b) {
             if (b instanceof Integer) {
                 final ValueFactory vf = valueFactory();
-                return vf.narrow(vf.rational(intValue(), ArithmeticValuesImpl.intValueExact((Integer) b)));
+                return vf.narrow(divide((Rational) b));
             } 
             return (Arithmetic) Operations.divide.apply(this, b);
         } 
         public Arithmetic inverse() {
-            return valueFactory().rational(1, intValue());
+            return valueFactory().rational((Integer/*__*/)one(), this);
         } 
     }
 
@@ -363,39 +469,37 @@ abstract class AbstractInteger extends AbstractRational implements Integer {
                 return ((Integer) Operations.compare.apply(this, o)).intValue();
         } 
         public Real norm() {
-            return valueFactory().valueOf(Math.abs(longValue()));
+            return value < 0 ? (Real) minus() : this;
         } 
 
         // Arithmetic implementation synonyms
         public Integer add(Integer b) {
             if (b instanceof Long || b instanceof Int)
-                return new Long(longValue() + b.longValue(), valueFactory());
+                return AbstractInteger.add(value, b.longValue(), valueFactory());
             else if (b instanceof Big)
                 return new Big(longValue(), b.valueFactory()).add(b);
             return (Integer) Operations.plus.apply(this, b);
         }
         public Integer subtract(Integer b) {
             if (b instanceof Long || b instanceof Int)
-                return new Long(longValue() - b.longValue(), valueFactory());
+                return AbstractInteger.subtract(value, b.longValue(), valueFactory());
             else if (b instanceof Big)
                 return new Big(longValue(), b.valueFactory()).subtract(b);
             return (Integer) Operations.subtract.apply(this, b);
         }
         public Arithmetic minus() {
-            return new Long(-value, valueFactory());
+            return negate(value, valueFactory());
         } 
         public Integer multiply(Integer b) {
             if (b instanceof Long || b instanceof Int)
-                return new Long(longValue() * b.longValue(), valueFactory());
+                return AbstractInteger.multiply(value, b.longValue(), valueFactory());
             else if (b instanceof Big)
                 return new Big(longValue(), b.valueFactory()).multiply(b);
             return (Integer) Operations.times.apply(this, b);
         }
         public Rational power(Integer b) {
             if (b instanceof Long || b instanceof Int) {
-                return b.compareTo(zero()) >= 0
-                    ? new Long((long) Math.pow(longValue(), b.longValue()), valueFactory())
-                    : valueFactory().rational((Integer/*__*/)one(), valueFactory().valueOf((long) Math.pow(longValue(), -b.longValue())));
+                return AbstractInteger.power(value, b.longValue(), valueFactory());
             } else if (b instanceof Big) {
                 return new Big(longValue(), b.valueFactory()).power(b);
             }
@@ -410,12 +514,16 @@ abstract class AbstractInteger extends AbstractRational implements Integer {
         
         // Euclidean implementation
         public Integer quotient(Integer b) {
-            return new Long(longValue() / b.longValue(), valueFactory());
+            if (b instanceof Big)
+                return new Big(longValue(), b.valueFactory()).quotient(b);
+            return AbstractInteger.quotient(value, b.longValue(), valueFactory());
         }
         public Euclidean quotient(Euclidean b) {
             return quotient((Integer)b);
         }
         public Integer modulo(Integer b) {
+            if (b instanceof Big)
+                return new Big(longValue(), b.valueFactory()).modulo(b);
             final long m = b.longValue();
             long r = longValue() % m;
             /*@todo nonnegative representatives and implementation of quotient() collide with property of Euclidean rings for -8 divmod -6.
@@ -429,7 +537,7 @@ abstract class AbstractInteger extends AbstractRational implements Integer {
             //assert r >= 0 : "nonnegative representative chosen for " + this + " modulo " + b + " = " + (longValue() % m) + " = " + r;
             */
             assert value == (value / m) * m + r : "modulo post: " + this + " = " + (value / m) + "*" + b + " + " + r;
-            return new Long(r, valueFactory());
+            return valueOf(r, valueFactory());
         }
         public Euclidean modulo(Euclidean b) {
             return modulo((Integer)b);
@@ -439,11 +547,10 @@ abstract class AbstractInteger extends AbstractRational implements Integer {
             if (b instanceof Integer) {
                 if (b instanceof Int || b instanceof Long) {
                     long v = ((Number)b).longValue();
-                    if (value % v == 0)
-                        return new Long(value / v, valueFactory());
+                    if (v != 0 && value % v == 0)
+                        return AbstractInteger.quotient(value, v, valueFactory());
                 }
-                ValueFactory vf = valueFactory();
-                return vf.rational(vf.valueOf(value), vf.valueOf(((Number)b).longValue()));
+                return valueFactory().rational(this, (Integer)b);
             }
             return super.divide(b);
         }
@@ -551,34 +658,34 @@ abstract class AbstractInteger extends AbstractRational implements Integer {
         // Arithmetic implementation synonyms
         public Integer add(Integer b) {
             if (b instanceof Big)
-                return new Big(value.add(((Big)b).value), valueFactory());
+                return valueOf(value.add(((Big)b).value), valueFactory());
             else if (b instanceof Int || b instanceof Long)
-                return new Big(value.add(BigInteger.valueOf(b.longValue())), valueFactory());
+                return valueOf(value.add(BigInteger.valueOf(b.longValue())), valueFactory());
             return (Integer) Operations.plus.apply(this, b);
         } 
         public Integer subtract(Integer b) {
             if (b instanceof Big)
-                return new Big(value.subtract(((Big)b).value), valueFactory());
+                return valueOf(value.subtract(((Big)b).value), valueFactory());
             else if (b instanceof Int || b instanceof Long)
-                return new Big(value.subtract(BigInteger.valueOf(b.longValue())), valueFactory());
+                return valueOf(value.subtract(BigInteger.valueOf(b.longValue())), valueFactory());
             return (Integer) Operations.subtract.apply(this, b);
         } 
         public Arithmetic minus() {
-            return new Big(value.negate(), valueFactory());
+            return valueOf(value.negate(), valueFactory());
         } 
         public Integer multiply(Integer b) {
             if (b instanceof Big)
-                return new Big(value.multiply(((Big)b).value), valueFactory());
+                return valueOf(value.multiply(((Big)b).value), valueFactory());
             else if (b instanceof Int || b instanceof Long)
-                return new Big(value.multiply(BigInteger.valueOf(b.longValue())), valueFactory());
+                return valueOf(value.multiply(BigInteger.valueOf(b.longValue())), valueFactory());
             return (Integer) Operations.times.apply(this, b);
         } 
         public Rational power(Integer b) {
             try {
                 int bv = ArithmeticValuesImpl.intValueExact(b);
                 return bv >= 0
-                    ? new Big(value.pow(bv), valueFactory())
-                    : valueFactory().rational((Integer/*__*/)one(), new Big(value.pow(-bv), valueFactory()));
+                    ? valueOf(value.pow(bv), valueFactory())
+                    : valueFactory().rational((Integer/*__*/)one(), valueOf(value.pow(-bv), valueFactory()));
             } catch(ArithmeticException ex) {
                 throw new ArithmeticException("exponentation is possibly too big: " + this + " ^ " + b);
                 //return (Integer) Operations.power.apply(this, b);
@@ -598,9 +705,9 @@ abstract class AbstractInteger extends AbstractRational implements Integer {
         // Euclidean implementation
         public Integer quotient(Integer b) {
             if (b instanceof Big)
-                return new Big(value.divide(((Big)b).value), valueFactory());
+                return valueOf(value.divide(((Big)b).value), valueFactory());
             else if (b instanceof Int || b instanceof Long)
-                return new Big(value.divide(BigInteger.valueOf(b.longValue())), valueFactory());
+                return valueOf(value.divide(BigInteger.valueOf(b.longValue())), valueFactory());
             throw new UnsupportedOperationException("opertion cannot be applied on " + this + " and " + b);
         }
         public Euclidean quotient(Euclidean b) {
@@ -614,9 +721,9 @@ abstract class AbstractInteger extends AbstractRational implements Integer {
         private Integer moduloImpl(Integer b) {
             //@xxx do we need BigInteger.remainder or BigInteger.mod?
             if (b instanceof Big)
-                return new Big(value.remainder(((Big)b).value), valueFactory());
+                return valueOf(value.remainder(((Big)b).value), valueFactory());
             else if (b instanceof Int || b instanceof Long)
-                return new Big(value.remainder(BigInteger.valueOf(b.longValue())), valueFactory());
+                return valueOf(value.remainder(BigInteger.valueOf(b.longValue())), valueFactory());
             throw new UnsupportedOperationException("opertion cannot be applied on " + this + " and " + b);
         }
         public Euclidean modulo(Euclidean b) {
@@ -630,7 +737,7 @@ abstract class AbstractInteger extends AbstractRational implements Integer {
                     BigInteger bv = ((Big)b).value;
                     BigInteger d[] = value.divideAndRemainder(bv);
                     if (d[1].equals(BigInteger.ZERO))
-                        return new Big(d[0], valueFactory());
+                        return valueOf(d[0], valueFactory());
                 }
                 return valueFactory().rational(this, (Integer)b);
             }
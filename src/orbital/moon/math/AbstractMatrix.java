@@ -743,6 +743,28 @@ public/*@xxx*/ abstract class AbstractMatrix/*<R extends Arithmetic>*/ extends A
         return (Arithmetic/*>R<*/) Operations.sum.apply(getDiagonal());
     } 
 
+    /**
+     * The maximum dimension of matrices whose determinant is computed by Laplace expansion, regardless of their components.
+     */
+    static final int LAPLACE_DIMENSION = 4;
+
+    /**
+     * Compute the determinant.
+     * <p>
+     * The algorithm is chosen automatically from the type of the components:
+     * <ul>
+     *   <li>fraction-free Bareiss elimination for exact {@link Integer integer}
+     *     or {@link Rational rational} components, which keeps all intermediate results
+     *     (sub-)determinants without growth of fractions. O(n<sup>3</sup>)</li>
+     *   <li>Gaussian elimination with column pivotising for other {@link Scalar scalar} components,
+     *     since they form a field. O(n<sup>3</sup>)</li>
+     *   <li>Laplace expansion along the 0-th row for all other components, since they need not
+     *     form a field or integral domain (f.ex. symbols). O(n!)</li>
+     * </ul>
+     * Matrices up to dimension {@link #LAPLACE_DIMENSION} are always expanded by Laplace,
+     * since that does not need any divisions and is cheap enough for them.
+     * </p>
+     */
     public Arithmetic/*>R<*/ det() throws ArithmeticException {
         if (!isSquare())
             throw new ArithmeticException("determinant only defined for square matrices");
@@ -751,9 +773,26 @@ public/*@xxx*/ abstract class AbstractMatrix/*<R extends Arithmetic>*/ extends A
             return get(0, 0);
         if (dimension().width == 2)
             return (Arithmetic/*>R<*/) get(0, 0).multiply(get(1, 1)).subtract(get(1, 0).multiply(get(0, 1)));
+        if (dimension().width <= LAPLACE_DIMENSION)
+            return determinantLaplace();
+
+        boolean integer = true;
+        boolean rational = true;
+        for (Iterator i = iterator(); i.hasNext(); ) {
+            final Object x = i.next();
+            if (!Scalar.isa.apply(x))
+                return determinantLaplace();
+            integer &= Integer.isa.apply(x);
+            rational &= Rational.isa.apply(x);
+        }
+        return rational ? determinantBareiss(integer) : determinantElimination();
+    }
 
+    /**
+     * Determinant by Laplace expansion along the 0-th row.
+     */
+    private Arithmetic/*>R<*/ determinantLaplace() {
         final Arithmetic r = get(0, 0);
-        Integer MINUS_ONE = (Integer) r.one().minus();
         Arithmetic/*>R<*/  det = (Arithmetic/*>R<*/) r.zero();
         // development of 0-th row
         Matrix/*<R>*/ innerMatrix = ((Matrix) clone()).removeRow(0);
@@ -765,7 +804,100 @@ public/*@xxx*/ abstract class AbstractMatrix/*<R extends Arithmetic>*/ extends A
                 det = (Arithmetic/*>R<*/) det.subtract(get(0, j).multiply(((Matrix) innerMatrix.clone()).removeColumn(j).det()));
         } 
         return det;
-    } 
+    }
+
+    /**
+     * Determinant by Gaussian elimination with column pivotising.
+     * det = (-1)<sup>p</sup> * &prod;<sub>k</sub> a<sub>k,k</sub> of the resulting upper triangular matrix,
+     * where p is the number of row swaps.
+     * @preconditions the components form a field
+     */
+    private Arithmetic/*>R<*/ determinantElimination() {
+        final int n = dimension().height;
+        final Arithmetic/*>R<*/[][] A = toArray();
+        boolean sign = true;
+        Arithmetic/*>R<*/ det = (Arithmetic/*>R<*/) A[0][0].one();
+        for (int k = 0; k < n; k++) {
+            // column pivotising
+            int pivot = k;
+            Real pivotNorm = A[k][k].norm();
+            for (int i = k + 1; i < n; i++) {
+                final Real norm = A[i][k].norm();
+                if (norm.compareTo(pivotNorm) > 0) {
+                    pivot = i;
+                    pivotNorm = norm;
+                }
+            }
+            if (A[pivot][k].isZero())
+                return (Arithmetic/*>R<*/) det.zero();
+            if (pivot != k) {
+                final Arithmetic/*>R<*/[] row = A[k];
+                A[k] = A[pivot];
+                A[pivot] = row;
+                sign = !sign;
+            }
+            final Arithmetic/*>R<*/[] Ak = A[k];
+            det = (Arithmetic/*>R<*/) det.multiply(Ak[k]);
+            final Arithmetic apinv = Ak[k].inverse();
+            // partial multiplication (of upper triangular part, only)
+            for (int i = k + 1; i < n; i++) {
+                final Arithmetic/*>R<*/[] Ai = A[i];
+                if (Ai[k].isZero())
+                    continue;
+                final Arithmetic l = Ai[k].multiply(apinv);
+                for (int j = k + 1; j < n; j++)
+                    Ai[j] = (Arithmetic/*>R<*/) Ai[j].subtract(l.multiply(Ak[j]));
+            }
+        }
+        return sign ? det : (Arithmetic/*>R<*/) det.minus();
+    }
+
+    /**
+     * Determinant by fraction-free Bareiss elimination.
+     * <p>
+     * After step k, a<sub>i,j</sub> is the determinant of the (k+1)&times;(k+1) minor of
+     * rows 0..k,i and columns 0..k,j, such that the divisions by the previous pivot are exact.
+     * </p>
+     * @param integer whether all components are integers, such that the exact division can be
+     *  computed by the {@link Euclidean#quotient(Euclidean) Euclidean quotient} and the result stays an integer.
+     * @preconditions the components are rational
+     */
+    private Arithmetic/*>R<*/ determinantBareiss(boolean integer) {
+        final int n = dimension().height;
+        final Arithmetic/*>R<*/[][] A = toArray();
+        boolean sign = true;
+        Arithmetic previous = A[0][0].one();
+        for (int k = 0; k < n - 1; k++) {
+            // pivotising only for zeros, since all pivots are exact
+            if (A[k][k].isZero()) {
+                int pivot = -1;
+                for (int i = k + 1; i < n; i++)
+                    if (!A[i][k].isZero()) {
+                        pivot = i;
+                        break;
+                    }
+                if (pivot < 0)
+                    return (Arithmetic/*>R<*/) A[k][k].zero();
+                final Arithmetic/*>R<*/[] row = A[k];
+                A[k] = A[pivot];
+                A[pivot] = row;
+                sign = !sign;
+            }
+            final Arithmetic/*>R<*/[] Ak = A[k];
+            for (int i = k + 1; i < n; i++) {
+                final Arithmetic/*>R<*/[] Ai = A[i];
+                for (int j = k + 1; j < n; j++) {
+                    final Arithmetic d = Ak[k].multiply(Ai[j]).subtract(Ai[k].multiply(Ak[j]));
+                    Ai[j] = (Arithmetic/*>R<*/) (integer
+                                                 ? ((Euclidean) d).quotient((Euclidean) previous)
+                                                 : d.divide(previous));
+                }
+            }
+            previous = Ak[k];
+        }
+        final Arithmetic/*>R<*/ det = A[n - 1][n - 1];
+        return sign ? det : (Arithmetic/*>R<*/) det.minus();
+    }
 
     // arithmetic-operations
         
@@ -1084,7 +1216,12 @@ public/*@xxx*/ abstract class AbstractMatrix/*<R extends Arithmetic>*/ extends A
                 a[i][j] = get(i, j);
         return a;
     } 
-    double[][] toDoubleArray() {
+    /**
+     * Returns an array containing all the elements in this matrix as <code>double</code> values.
+     * The first index in this array specifies the row, the second is for column.
+     * @see #isDoubleValued()
+     */
+    public/*@xxx*/ double[][] toDoubleArray() {
         double[][] a = new double[dimension().height][dimension().width];
         for (int i = 0; i < dimension().height; i++)
             for (int j = 0; j < dimension().width; j++)
@@ -1092,6 +1229,15 @@ public/*@xxx*/ abstract class AbstractMatrix/*<R extends Arithmetic>*/ extends A
         return a;
     } 
 
+    /**
+     * Whether this matrix stores its components as machine-sized <code>double</code> values.
+     * Then {@link #toDoubleArray()} is lossless, and numerical algorithms
+     * can choose primitive implementations instead of arithmetic objects.
+     */
+    public/*@xxx*/ boolean isDoubleValued() {
+        return false;
+    }
+
     public String toString() {
         return ArithmeticFormat.getDefaultInstance().format(this);
     } 
@@ -44,7 +44,7 @@ class AbstractQuotient/*<M extends Arithmetic>*/ implements Quotient/*<M>*/, Ser
     
     public ValueFactory valueFactory() { return value.valueFactory(); }
 
-    private static class EuclideanModulo/*<M extends Arithmetic>*/ implements Function/*<M,M>*/, Serializable {
+    static class EuclideanModulo/*<M extends Arithmetic>*/ implements Function/*<M,M>*/, Serializable {
         private static final long serialVersionUID = -8846695670222356251L;
         private final Euclidean m;
         public EuclideanModulo(Euclidean m) {
@@ -163,7 +163,9 @@ class AbstractQuotient/*<M extends Arithmetic>*/ implements Quotient/*<M>*/, Ser
     public Quotient/*<M>*/ divide(Quotient/*<M>*/ b) throws ArithmeticException {
         if (!getQuotientOperator().equals(b.getQuotientOperator()))
             throw new ArithmeticException("different modulus " + getQuotientOperator() + "!=" + b.getQuotientOperator());
-        //@xxx implement better if b only gets invertible modulo getQuotientOperator()
+        if (getQuotientOperator() instanceof EuclideanModulo)
+            // b may only be invertible modulo the modulus, like 7 in Z<sub>16</sub>
+            return multiply((Quotient/*<M>*/) b.inverse());
         return equivalenceClass(representative().divide(b.representative()));
     } 
 
@@ -175,7 +177,10 @@ class AbstractQuotient/*<M extends Arithmetic>*/ implements Quotient/*<M>*/, Ser
             // 1 = gcd(a,m) = r*a + s*m &hArr; 1 = r*a (mod m) &hArr; r = a^-1 (mod m)
             Euclidean r[] = MathUtilities.gcd(new Euclidean[] {(Euclidean) representative(), m});
             if (r[r.length - 1].isOne())
-                return r[0];
+                return equivalenceClass(r[0]);
+            else if (r[r.length - 1].minus().isOne())
+                // -1 = r*a + s*m for negative representatives a
+                return equivalenceClass(r[0].minus());
             else
                 throw new ArithmeticException("not invertible since (" + representative() + ", " + m + ") are not coprime");
         } else
@@ -209,7 +209,9 @@ abstract class AbstractRational extends AbstractReal implements Rational {
                 Int b = (Int) o;
                 assert denominatorValue() > 0 : "normalized to denominator > 0 " + this;
                 assert b.denominatorValue() > 0 : "normalized to denominator > 0 " + b;
-                return numeratorValue() * b.denominatorValue() - b.numeratorValue() * denominatorValue();
+                final long l = (long) numeratorValue() * b.denominatorValue();
+                final long r = (long) b.numeratorValue() * denominatorValue();
+                return l < r ? -1 : (l == r ? 0 : 1);
             } else {
                 return super.compareTo(o);
             }
@@ -237,35 +239,43 @@ abstract class AbstractRational extends AbstractReal implements Rational {
         } 
 
         // Arithmetic implementation synonyms
+        // computed exactly in long precision, and promoted to Impl on int overflow
         public Rational add(Rational b) {
-            final int b_denominator = validate(b.denominator()).intValue();
-            int m = MathUtilities.lcm(denominatorValue(), b_denominator);
-            int f1 = m / denominatorValue(), f2 = m / b_denominator;
-            return new Int(f1 * numeratorValue() + f2 * validate(b.numerator()).intValue(),
-                                    m, valueFactory()).representative();
+            final Int c = machine(b);
+            if (c == null)
+                return promote().add(b);
+            return valueOf((long) numeratorValue() * c.denominatorValue() + (long) c.numeratorValue() * denominatorValue(),
+                           (long) denominatorValue() * c.denominatorValue(), valueFactory());
         } 
         public Rational subtract(Rational b) {
-            return add((Rational) b.minus());
+            final Int c = machine(b);
+            if (c == null)
+                return promote().subtract(b);
+            return valueOf((long) numeratorValue() * c.denominatorValue() - (long) c.numeratorValue() * denominatorValue(),
+                           (long) denominatorValue() * c.denominatorValue(), valueFactory());
         } 
         public Arithmetic minus() {
-            return new Int(-numeratorValue(), denominatorValue(), valueFactory());
+            return valueOf(-(long) numeratorValue(), denominatorValue(), valueFactory());
         } 
         public Rational multiply(Rational b) {
-            return new Int(numeratorValue() * validate(b.numerator()).intValue(),
-                                    denominatorValue() * validate(b.denominator()).intValue(), valueFactory()).representative();
+            final Int c = machine(b);
+            if (c == null)
+                return promote().multiply(b);
+            return valueOf((long) numeratorValue() * c.numeratorValue(),
+                           (long) denominatorValue() * c.denominatorValue(), valueFactory());
         } 
         public Rational divide(Rational b) {
-            return new Int(numeratorValue() * validate(b.denominator()).intValue(),
-                                    denominatorValue() * validate(b.numerator()).intValue(), valueFactory()).representative();
+            final Int c = machine(b);
+            if (c == null)
+                return promote().divide(b);
+            return valueOf((long) numeratorValue() * c.denominatorValue(),
+                           (long) denominatorValue() * c.numeratorValue(), valueFactory());
         } 
         public Arithmetic inverse() {
-            return new Int(denominatorValue(), numeratorValue(), valueFactory());
+            return valueOf(denominatorValue(), numeratorValue(), valueFactory());
         } 
         public Rational power(Integer b) {
-            long k = b.longValue();
-            if (k<0)
-                throw new UnsupportedOperationException("not yet implemented");
-            return new Int((int) Math.pow(numeratorValue(), k), (int) Math.pow(denominatorValue(), k), valueFactory()).representative();
+            return promote().power(b);
         }
 
         public Rational representative() {
@@ -288,8 +298,51 @@ abstract class AbstractRational extends AbstractReal implements Rational {
                 : this;
         } 
         
-        private Integer validate(Integer i) {
-            return new AbstractInteger.Int(ArithmeticValuesImpl.intValueExact(i), valueFactory());
+        /**
+         * Get b as a machine-sized rational, or null if b is no machine-sized rational.
+         */
+        private Int machine(Rational b) {
+            if (b instanceof Int)
+                return (Int) b;
+            else if (b instanceof AbstractInteger.Int)
+                return new Int(((Integer) b).intValue(), valueFactory());
+            else
+                return null;
+        }
+        /**
+         * Get this rational with arbitrary Integer components.
+         */
+        private Impl promote() {
+            return new Impl(numerator(), denominator(), valueFactory());
+        }
+
+        /**
+         * Get the cancelled rational p/q, machine-sized if its components fit into int.
+         */
+        static Rational valueOf(long p, long q, ValueFactory valueFactory) {
+            if (q == 0)
+                throw new ArithmeticException("DivisionByZero: Not a rational number: " + p + "/" + q);
+            // cancel
+            long a = Math.abs(p), b = Math.abs(q);
+            while (b != 0) {
+                long r = a % b;
+                a = b;
+                b = r;
+            }
+            // a = gcd(p,q) > 0 unless p=q=Long.MIN_VALUE which do not arise from int products
+            if (a != 1) {
+                p /= a;
+                q /= a;
+            }
+            if (q < 0) {
+                // normalize
+                p = -p;
+                q = -q;
+            }
+            if ((int) p == p && (int) q == q)
+                return new Int((int) p, (int) q, valueFactory);
+            else
+                return new Impl(AbstractInteger.valueOf(p, valueFactory), AbstractInteger.valueOf(q, valueFactory), valueFactory);
         }
     }
 
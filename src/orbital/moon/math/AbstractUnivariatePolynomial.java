@@ -34,11 +34,6 @@ abstract class AbstractUnivariatePolynomial/*<R extends Arithmetic>*/
     extends AbstractProductArithmetic/*<R,Integer,UnivariatePolynomial<R>>*/
     implements UnivariatePolynomial/*<R>*/, Serializable {
     private static final long serialVersionUID = -5253561352164949692L;
-    /**
-     * Which implementation of the multiplication to use.
-     */
-    private static final boolean IMPLEMENTATION_KARATSUBA = false;
-        
     /**
      * The 0&isin;R of the underlying ring of coefficients.
      * @invariants subclasses must set this value to get(0).zero()
@@ -378,13 +373,19 @@ abstract class AbstractUnivariatePolynomial/*<R extends Arithmetic>*/
      *     <center>DFT<sub>n</sub>(&omega;)<sup>-1</sup> = 1/n*DFT<sub>n</sub>(&omega;<sup>-1</sup>)</center>
      *   </li>
      * </ul>
+     * All of them are used depending on the degrees and the type of coefficients,
+     * with the FFT over <b>C</b> for floating-point coefficients, and
+     * over <b>Z</b>/p<b>Z</b> (number-theoretic transform) for integer coefficients.
+     * @see PolynomialKernels#multiply(Arithmetic[],Arithmetic[])
      */
     private UnivariatePolynomial/*<R>*/ multiplyImpl(UnivariatePolynomial/*<R>*/ b) {
-        //@todo could we speed this up by FFT or horner schema?
-        if (IMPLEMENTATION_KARATSUBA)
-            return multiplyImplKaratsuba(b);
-        else
-            return multiplyImplConvolution(b);
+        if (degreeValue() < 0)
+            return this;
+        else if (b.degreeValue() < 0)
+            return b;
+        final UnivariatePolynomial/*<R>*/ r = representative(PolynomialKernels.multiply(getCoefficients(), b.getCoefficients()));
+        assert degreeValue() + b.degreeValue() >= PolynomialKernels.KARATSUBA_THRESHOLD * 16 || approximates(r, multiplyImplConvolution(b)) : "result of fast polynomial multiplication and convolution equal";
+        return r;
     }
     private UnivariatePolynomial/*<R>*/ multiplyImplConvolution(UnivariatePolynomial/*<R>*/ b) {
         if (degreeValue() < 0)
@@ -400,59 +401,6 @@ abstract class AbstractUnivariatePolynomial/*<R extends Arithmetic>*/
         }
         return representative(r);
     }
-    private UnivariatePolynomial/*<R>*/ multiplyImplKaratsuba(UnivariatePolynomial/*<R>*/ poly2) {
-        if (degreeValue() < 0)
-            return this;
-        else if (poly2.degreeValue() < 0)
-            return poly2;
-        int n = Math.max(degreeValue(), poly2.degreeValue());
-        if (n == 0)                                     // base case
-            return representative(new Arithmetic/*>R<*/[] {(Arithmetic/*>R<*/) get(0).multiply(poly2.get(0))});
-        else {                                          // recursion
-            int d = (n+1) >> 1;
-            assert d == (int) Math.ceil(n/2.0) : "bit optimization works " + d + "==" + (n/2.0);
-            n = d << 1;
-                        
-            final UnivariatePolynomial/*<R>*/ alpha[] = split(this, d);
-            final UnivariatePolynomial/*<R>*/ beta[] = split(poly2, d);
-            final UnivariatePolynomial/*<R>*/ ac = alpha[1].multiply(beta[1]);
-            final UnivariatePolynomial/*<R>*/ bd = alpha[0].multiply(beta[0]);
-            final UnivariatePolynomial/*<R>*/ t = (alpha[1].add(alpha[0])).multiply(beta[1].add(beta[0]));
-            // return ac*X^n + (t-ac-bd)*X^d + bd
-            // optimized because addition should affect distinct coefficients
-            Arithmetic/*>R<*/ r[] = new Arithmetic/*>R<*/[n + Math.max(ac.degreeValue(),0) + 1];
-            assert bd.degreeValue() < d : "bd.degreeValue() < d required for shift optimized add of distinct coefficients";
-            for (int i = 0; i < d; i++)
-                r[i] = bd.get(i);
-            assert t.degreeValue() + d < n : "t.degreeValue() + d < n required for shift optimized add of distinct coefficients " + t.degreeValue() + "+" + d + "<" + n + " with " + alpha[0] + "," + alpha[1] + " and " + beta[0] + "," + beta[1] + " and t="+t;
-            assert ac.degreeValue() + d < n : "ac.degreeValue() + d < n required for shift optimized add of distinct coefficients";
-            assert bd.degreeValue() + d < n : "bd.degreeValue() + d < n required for shift optimized add of distinct coefficients";
-            for (int i = d; i < n; i++) {
-                final int j = i - d;
-                r[i] = (Arithmetic/*>R<*/) t.get(j).subtract(ac.get(j)).subtract(bd.get(j));
-            }
-            for (int i = n; i < r.length; i++)
-                r[i] = ac.get(i - n);
-            assert representative(r).equals(multiplyImplConvolution(poly2)) : "result of polynomial multiplication per Karatsuba and convolution equal";
-            return representative(r);
-        }
-    }
-    /**
-     * Split a polynomial at the index s in two pieces.
-     * @postconditions p == RES[1]*X<sup>s</sup> + RES[0] &and; RES[0].degreeValue()&lt;division
-     */
-    private /*static*/ final UnivariatePolynomial/*<R>*/[] split(UnivariatePolynomial/*<R>*/ p, int s) {
-        UnivariatePolynomial/*<R>*/ split[] = new AbstractUnivariatePolynomial/*<R>*/[2];
-        Arithmetic/*>R<*/ r[] = new Arithmetic/*>R<*/[s];
-        for (int i = 0; i < r.length; i++)
-            r[i] = p.get(i);
-        split[0] = representative(r);
-        r = new Arithmetic/*>R<*/[Math.max(p.degreeValue() + 1 - s, 0)];
-        for (int i = 0; i < r.length; i++)
-            r[i] = p.get(s + i);
-        split[1] = representative(r);
-        return split;
-    }
 
     public Arithmetic divide(Arithmetic b) throws UnsupportedOperationException {
         throw new UnsupportedOperationException("dividing Euclideans is not generally defined");
@@ -476,43 +424,86 @@ abstract class AbstractUnivariatePolynomial/*<R extends Arithmetic>*/
     }
     /**
      * @param returnQuotient if <code>true</code> will return quotient, if <code>false</code> will return remainder modulo g instead.
-     * @todo optimize, f.ex. use shifting instead of explicit multiplication, and avoid subtract that calls representative
+     * @internal uses Newton iteration for large degrees, and long division on the coefficient array, otherwise.
      */
     private UnivariatePolynomial/*<R>*/ polynomialDivision(final UnivariatePolynomial/*<R>*/ f, final UnivariatePolynomial/*<R>*/ g, boolean returnQuotient) {
         if (f.degreeValue() < g.degreeValue())
-            return f;
+            return returnQuotient ? representative(new Arithmetic/*>R<*/[0]) : f;
         else if (g.degreeValue() < 0)
             throw new ArithmeticException("/ by " + g);
-        // the highest coefficient of g
-        final Arithmetic/*>R<*/ bm = g.get(g.degreeValue());
-        Arithmetic/*>R<*/ quotient[] = new Arithmetic/*>R<*/[f.degreeValue() - g.degreeValue() + 1];
-                
-        UnivariatePolynomial/*<R>*/ f0 = f;
-        for (int k = quotient.length - 1; k >= 0; k--) {
-            final Arithmetic/*>R<*/ ai = f0.get(f0.degreeValue());
-            final Arithmetic/*>R<*/ ck = (Arithmetic/*>R<*/) ai.divide(bm);
-            quotient[k] = ck;
-            f0 = f0.subtract(BASE(ck, k).multiply(g));
-            if (f0.isZero()) {
-                for (int i = k - 1; i >= 0; i--)
-                    quotient[i] = COEFFICIENT_ZERO;
-                break;
+        final int m = g.degreeValue();
+        final Arithmetic/*>R<*/ a[] = f.getCoefficients();
+        final Arithmetic/*>R<*/ b[] = g.getCoefficients();
+        final Arithmetic/*>R<*/ quotient[];
+        final Arithmetic/*>R<*/ remainder[];
+        if (m + 1 >= PolynomialKernels.DIVISION_THRESHOLD && a.length - m >= PolynomialKernels.DIVISION_THRESHOLD) {
+            quotient = fastQuotient(a, b);
+            // f0 = f - q*g which only has the lower m coefficients
+            final Arithmetic/*>R<*/ qg[] = PolynomialKernels.multiply(quotient, b);
+            remainder = new Arithmetic/*>R<*/[m];
+            for (int i = 0; i < m; i++)
+                remainder[i] = (Arithmetic/*>R<*/) a[i].subtract(qg[i]);
+        } else {
+            // the highest coefficient of g
+            final Arithmetic/*>R<*/ bm = b[m];
+            quotient = new Arithmetic/*>R<*/[a.length - m];
+            remainder = (Arithmetic/*>R<*/[]) a.clone();
+            for (int k = quotient.length - 1; k >= 0; k--) {
+                final Arithmetic/*>R<*/ ck = (Arithmetic/*>R<*/) remainder[k + m].divide(bm);
+                quotient[k] = ck;
+                if (ck.isZero())
+                    continue;
+                // f0 := f0 - ck*X^k*g by shifting instead of explicit multiplication
+                for (int j = 0; j < m; j++)
+                    remainder[k + j] = (Arithmetic/*>R<*/) remainder[k + j].subtract(ck.multiply(b[j]));
+                remainder[k + m] = (Arithmetic/*>R<*/) ck.zero();
             }
         }
         UnivariatePolynomial/*<R>*/ q = representative(quotient);
-        assert f.equals(q.multiply(g).add(f0)) : "Euclidean degree equation " + f + " = (" + q + ")*(" + g + ") + " + f0;
+        UnivariatePolynomial/*<R>*/ f0 = representative(PolynomialKernels.truncate(remainder, Math.max(m, 1), (Arithmetic/*>R<*/) b[m].zero()));
+        assert f.degreeValue() >= PolynomialKernels.KARATSUBA_THRESHOLD * 16 || approximates(f, q.multiply(g).add(f0)) : "Euclidean degree equation " + f + " = (" + q + ")*(" + g + ") + " + f0;
         assert f0.degreeValue() < 0 || f0.degreeValue() < g.degreeValue() : "Euclidean degree condition " + f0.degree() + " < " + g.degree() + " or " + f0 + "=0";
         return returnQuotient
             ? q
             : f0;
     }
 
-    private UnivariatePolynomial/*<R>*/ BASE(Arithmetic/*>R<*/ s, int k) {
-        Arithmetic/*>R<*/ r[] = new Arithmetic/*>R<*/[k + 1];
+    /**
+     * Fast division with remainder by Newton iteration in O(M(n)) for the cost M(n) of multiplication.
+     * The reversal rev<sub>k</sub>(p) := X<sup>k</sup>p(1/X) of the quotient q of f and g satisfies
+     * <center>rev<sub>n-m</sub>(q) &equiv; rev<sub>n</sub>(f) * rev<sub>m</sub>(g)<sup>-1</sup> (mod X<sup>n-m+1</sup>)</center>
+     * with n=deg(f) and m=deg(g).
+     * @param a the coefficients of f.
+     * @param b the coefficients of g, with an invertible leading coefficient.
+     * @return the coefficients of the quotient q.
+     */
+    private static Arithmetic/*>R<*/[] fastQuotient(Arithmetic/*>R<*/ a[], Arithmetic/*>R<*/ b[]) {
+        final int k = a.length - b.length + 1;
+        final Arithmetic/*>R<*/ zero = (Arithmetic/*>R<*/) b[0].zero();
+        final Arithmetic/*>R<*/ revf[] = new Arithmetic/*>R<*/[k];
         for (int i = 0; i < k; i++)
-            r[i] = COEFFICIENT_ZERO;
-        r[k] = s;
-        return valueFactory().polynomial(r);
+            revf[i] = a[a.length - 1 - i];
+        final Arithmetic/*>R<*/ revg[] = new Arithmetic/*>R<*/[Math.min(k, b.length)];
+        for (int i = 0; i < revg.length; i++)
+            revg[i] = b[b.length - 1 - i];
+        final Arithmetic/*>R<*/ revq[] = PolynomialKernels.multiply(revf, PolynomialKernels.inverseSeries(PolynomialKernels.truncate(revg, k, zero), k));
+        final Arithmetic/*>R<*/ q[] = new Arithmetic/*>R<*/[k];
+        for (int i = 0; i < k; i++)
+            q[i] = revq[k - 1 - i];
+        return q;
+    }
+
+    /**
+     * Whether all coefficients of p and q are equal up to the default tolerance
+     * (which is relevant for floating-point coefficients, only),
+     * or up to the choice of representatives (which is relevant for quotients, only).
+     */
+    private static boolean approximates(UnivariatePolynomial/*<R>*/ p, UnivariatePolynomial/*<R>*/ q) {
+        final Real tolerance = p.valueFactory().valueOf(MathUtilities.getDefaultTolerance());
+        for (int i = Math.max(p.degreeValue(), q.degreeValue()); i >= 0; i--)
+            if (!p.get(i).equals(q.get(i), tolerance) && !p.get(i).subtract(q.get(i)).isZero())
+                return false;
+        return true;
     }
 
     /**
@@ -43,6 +43,11 @@ public abstract class AbstractValues extends Values {
     private orbital.logic.functor.Function/*<Object[],Object[]>*/ coercer = null;
     private orbital.logic.functor.Function/*<Object[],Object[]>*/ commcoercer = null;
     private orbital.logic.functor.Function/*<Arithmetic,Arithmetic>*/ normalizer = null;
+    /**
+     * Whether a coercer has been set explicitly, which disables the precomputed coercions.
+     * @see #getCoercion(Class,Class)
+     */
+    private boolean coercerSet = false;
     private Map/*<String,Object>*/ parameters = Collections.EMPTY_MAP;
 
     // instantiation
@@ -82,7 +87,7 @@ public abstract class AbstractValues extends Values {
             } else if ("dynamic".equalsIgnoreCase(prec) || "default".equalsIgnoreCase(prec)) {
                 vf = this;
             } else if ("auto".equalsIgnoreCase(prec)) {
-                throw new UnsupportedOperationException("Setting for 'orbital.math.Scalar.precision' not supported: " + prec);
+                vf = this instanceof FastValuesImpl ? new ValuesImpl() : this;
             } else {
                 throw new IllegalArgumentException("Unknown value for 'orbital.math.Scalar.precision' given: " + prec);
             }
@@ -225,6 +230,10 @@ public abstract class AbstractValues extends Values {
         return CONST(n, ZERO());
     } 
 
+    public Vector/*<Real>*/ sparse(int dimension) {
+        return new SparseRVector(dimension, this);
+    }
+
     public /*<R extends Arithmetic>*/ Vector/*<R>*/ constant(final Vector/*<R>*/ v) {
         return /*refine/delegate Vector*/ new AbstractVector/*<R>*/(this) {
                 private static final long serialVersionUID = 4473448798599904941L;
@@ -286,6 +295,13 @@ public abstract class AbstractValues extends Values {
         return diagonal;
     } 
 
+    public Matrix/*<Real>*/ sparse(int height, int width) {
+        return new SparseRMatrix(height, width, this);
+    }
+    public Matrix/*<Real>*/ sparse(int height, int width, int[] rowPointers, int[] columnIndices, double[] values) {
+        return new SparseRMatrix(height, width, rowPointers, columnIndices, values, this);
+    }
+
     public /*<R extends Arithmetic>*/ Matrix/*<R>*/ constant(final Matrix/*<R>*/ m) {
         return /*refine/delegate Matrix*/ new AbstractMatrix/*<R>*/(this) {
                 private static final long serialVersionUID = 482711902153502751L;
@@ -778,8 +794,58 @@ public abstract class AbstractValues extends Values {
             this.commcoercer = coercer;
         else
             this.coercer = coercer;
+        this.coercerSet = true;
     } 
 
+    /**
+     * Get the precomputed coercion for operands of the given classes.
+     * <p>
+     * Unlike {@link #getCoercer()}, the coercion returned converts two operands
+     * without building intermediate arrays or deciding on their types again.
+     * Callers can cache the coercion for a fixed pair of classes.
+     * </p>
+     * @param a the class of the first operand.
+     * @param b the class of the second operand.
+     * @return the coercion of operands of classes a and b, which is the same for
+     *  {@link #getCoercer()} and {@link #getCoercer(boolean) getCoercer(true)}.
+     *  Or <code>null</code> if there is no precomputed coercion for a and b,
+     *  or a coercer has been set, and the coercer must be applied instead.
+     */
+    public final Coercion getCoercion(Class a, Class b) {
+        return coercerSet ? null : coercion(a, b);
+    }
+
+    /**
+     * Get the precomputed coercion for operands of the given classes.
+     * @see #getCoercion(Class,Class)
+     * @return <code>null</code> by default, i.e. there are no precomputed coercions.
+     */
+    protected Coercion coercion(Class a, Class b) {
+        return null;
+    }
+
+    /**
+     * Precomputed coercion of operands of a fixed pair of classes.
+     * <p>
+     * For operands a and b of those classes, <code>first(a,b)</code> and <code>second(a,b)</code>
+     * are the elements of <code>getCoercer().apply(new Arithmetic[] {a,b})</code>.
+     * </p>
+     * @version $Id$
+     * @author  Andr&eacute; Platzer
+     * @see AbstractValues#getCoercion(Class,Class)
+     */
+    public static abstract class Coercion {
+        protected Coercion() {}
+        /**
+         * Get the first operand a coerced for a combination with b.
+         */
+        public abstract Arithmetic first(Arithmetic a, Arithmetic b);
+        /**
+         * Get the second operand b coerced for a combination with a.
+         */
+        public abstract Arithmetic second(Arithmetic a, Arithmetic b);
+    }
+
     public final orbital.logic.functor.Function/*<Arithmetic,Arithmetic>*/ getNormalizer() {
         return normalizer;
     } 
@@ -362,7 +362,7 @@ public abstract class ArithmeticValuesImpl extends AbstractValues {
                 // dimension = max(dimension + 1, index)
                 for (int i = 0; i < dim.length; i++) {
                         int expo = ((Integer)v.get(i)).intValue();
-                    if (expo > dim[i]) {
+                    if (expo >= dim[i]) {
                         dim[i] = expo + 1;
                     }
                 }
@@ -846,8 +846,13 @@ public abstract class ArithmeticValuesImpl extends AbstractValues {
         assert a[0] != null && a[1] != null : "coercing non-null values " + a[0] + " and " + a[1];
         if (a[0].getClass() == a[1].getClass())
             return a;
-        else if (a[0] instanceof Number && a[1] instanceof Number)
+        else if (a[0] instanceof Number && a[1] instanceof Number) {
+            final Coercion c = coercion(a[0].getClass(), a[1].getClass());
+            if (c != null)
+                // precomputed coercion for this pair of classes
+                return new Arithmetic[] {c.first(a[0], a[1]), c.second(a[0], a[1])};
             return minimumCoerced((Number) a[0], (Number) a[1]);
+        }
         else if (a[0] instanceof Scalar && a[1] instanceof Scalar)
             throw new IllegalArgumentException("Scalar types are assumed to be instances of Number");
         else if (a[0] instanceof Tensor || a[1] instanceof Tensor) {
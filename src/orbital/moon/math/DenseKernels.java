@@ -0,0 +1,217 @@
+/**
+ * @(#)DenseKernels.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.moon.math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import java.util.logging.Logger;
+import java.util.logging.Level;
+
+import orbital.moon.GetPropertyAction;
+
+/**
+ * Primitive <code>double</code> kernels of dense linear algebra.
+ * <p>
+ * The matrix product is computed with cache blocking (tiling) of the inner dimension
+ * and the columns (Willi Sch&ouml;nhauer, Scientific Supercomputing), and with
+ * section striping of the rows which are distributed on a fork/join pool.
+ * Small problems use the sequential i-k-j loop, since the overhead of
+ * parallelization would not pay off.
+ * </p>
+ * <p>
+ * The kernels can be configured via the system properties
+ * <code>orbital.moon.math.DenseKernels.blockSize</code> (edge length of a tile),
+ * <code>orbital.moon.math.DenseKernels.sequentialThreshold</code> (number of
+ * multiply-add operations below which the sequential loop is used),
+ * and <code>orbital.moon.math.DenseKernels.parallelism</code> (number of worker threads).
+ * </p>
+ *
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ * @internal All arrays are row-major, i.e. A[i][j] with row i and column j.
+ */
+final class DenseKernels {
+    private static final Logger logger = Logger.getLogger(DenseKernels.class.getName());
+    /**
+     * prevent instantiation - module class
+     */
+    private DenseKernels() {}
+
+    /**
+     * The edge length of the tiles for cache blocking.
+     * 64&times;64 doubles fill 32KB, which will usually fit into the L1/L2 cache.
+     * @invariants BLOCK_SIZE &gt; 0
+     */
+    static final int BLOCK_SIZE = intProperty("blockSize", 64);
+    /**
+     * The number of multiply-add operations below which a product is computed sequentially.
+     * @invariants SEQUENTIAL_THRESHOLD &ge; 0
+     */
+    static final long SEQUENTIAL_THRESHOLD = intProperty("sequentialThreshold", 64*64*64);
+    /**
+     * The number of rows that a single task computes at least.
+     */
+    private static final int MIN_ROWS = 16;
+
+    /**
+     * The fork/join pool computing the parallel kernels, created lazily.
+     */
+    private static ForkJoinPool pool = null;
+
+    private static int intProperty(String name, int defaultValue) {
+        final String property = DenseKernels.class.getName() + "." + name;
+        try {
+            final String desc = GetPropertyAction.getProperty(property, defaultValue + "");
+            final int value = java.lang.Integer.parseInt(desc);
+            if (value > 0)
+                return value;
+            logger.log(Level.SEVERE, "invalid property setting {0}={1}" , new Object[] {property, desc});
+        } catch (NumberFormatException nonumber) {
+            logger.log(Level.SEVERE, "invalid property setting {0}" , property);
+        } catch (SecurityException nevertheless) {
+            // especially catch SecurityExceptions if we were not allowed to read properties
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Get the fork/join pool used for parallel dense kernels.
+     */
+    static synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            final int parallelism = intProperty("parallelism", Runtime.getRuntime().availableProcessors());
+            logger.log(Level.CONFIG, "dense kernels with parallelism {0}", new java.lang.Integer(parallelism));
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    /**
+     * Computes the matrix product C = A&sdot;B.
+     * @param A the n&times;m matrix.
+     * @param B the m&times;l matrix.
+     * @param C the n&times;l result matrix, which must be initialized to 0.
+     * @preconditions A[i].length == B.length &and; C.length == A.length &and; C[i].length == B[k].length
+     */
+    static void multiply(double[][] A, double[][] B, double[][] C) {
+        final int n = A.length;
+        if (n == 0)
+            return;
+        final int m = B.length;
+        final int l = m == 0 ? 0 : B[0].length;
+        if ((long)n * m * l <= SEQUENTIAL_THRESHOLD || pool().getParallelism() <= 1)
+            multiplySequential(A, B, C, 0, n);
+        else
+            pool().invoke(new MultiplyTask(A, B, C, 0, n));
+    }
+
+    /**
+     * Computes the matrix-vector product y = A&sdot;x.
+     * @param A the n&times;m matrix.
+     * @param x the vector of dimension m.
+     * @param y the result vector of dimension n.
+     */
+    static void multiply(double[][] A, double[] x, double[] y) {
+        final int n = A.length;
+        if ((long)n * x.length <= SEQUENTIAL_THRESHOLD || pool().getParallelism() <= 1)
+            multiplySequential(A, x, y, 0, n);
+        else
+            pool().invoke(new MultiplyVectorTask(A, x, y, 0, n));
+    }
+
+    /**
+     * Computes the rows <code>low</code> to <code>high-1</code> of C = A&sdot;B by
+     * the i-k-j loop blocked into tiles of the inner dimension k and the columns j.
+     */
+    private static void multiplySequential(double[][] A, double[][] B, double[][] C, int low, int high) {
+        final int m = B.length;
+        final int l = m == 0 ? 0 : B[0].length;
+        for (int kk = 0; kk < m; kk += BLOCK_SIZE) {
+            final int kmax = Math.min(kk + BLOCK_SIZE, m);
+            for (int jj = 0; jj < l; jj += BLOCK_SIZE) {
+                final int jmax = Math.min(jj + BLOCK_SIZE, l);
+                for (int i = low; i < high; i++) {
+                    final double[] Ai = A[i];
+                    final double[] Ci = C[i];
+                    for (int k = kk; k < kmax; k++) {
+                        final double r = Ai[k];
+                        final double[] Bk = B[k];
+                        for (int j = jj; j < jmax; j++)
+                            Ci[j] += r * Bk[j];
+                    }
+                }
+            }
+        }
+    }
+
+    private static void multiplySequential(double[][] A, double[] x, double[] y, int low, int high) {
+        for (int i = low; i < high; i++) {
+            final double[] Ai = A[i];
+            double s = 0;
+            for (int k = 0; k < Ai.length; k++)
+                s += Ai[k] * x[k];
+            y[i] = s;
+        }
+    }
+
+    /**
+     * Splits the rows of C = A&sdot;B into sections (section striping) computed in parallel.
+     */
+    private static class MultiplyTask extends RecursiveAction {
+        private static final long serialVersionUID = 4305843009213693951L;
+        private final double[][] A;
+        private final double[][] B;
+        private final double[][] C;
+        private final int low;
+        private final int high;
+        public MultiplyTask(double[][] A, double[][] B, double[][] C, int low, int high) {
+            this.A = A;
+            this.B = B;
+            this.C = C;
+            this.low = low;
+            this.high = high;
+        }
+        protected void compute() {
+            final int m = B.length;
+            final int l = m == 0 ? 0 : B[0].length;
+            if (high - low <= MIN_ROWS || (long)(high - low) * m * l <= SEQUENTIAL_THRESHOLD) {
+                multiplySequential(A, B, C, low, high);
+                return;
+            }
+            final int mid = (low + high) >>> 1;
+            invokeAll(new MultiplyTask(A, B, C, low, mid), new MultiplyTask(A, B, C, mid, high));
+        }
+    }
+
+    /**
+     * Splits the rows of y = A&sdot;x into sections computed in parallel.
+     */
+    private static class MultiplyVectorTask extends RecursiveAction {
+        private static final long serialVersionUID = -2305843009213693951L;
+        private final double[][] A;
+        private final double[] x;
+        private final double[] y;
+        private final int low;
+        private final int high;
+        public MultiplyVectorTask(double[][] A, double[] x, double[] y, int low, int high) {
+            this.A = A;
+            this.x = x;
+            this.y = y;
+            this.low = low;
+            this.high = high;
+        }
+        protected void compute() {
+            if (high - low <= MIN_ROWS || (long)(high - low) * x.length <= SEQUENTIAL_THRESHOLD) {
+                multiplySequential(A, x, y, low, high);
+                return;
+            }
+            final int mid = (low + high) >>> 1;
+            invokeAll(new MultiplyVectorTask(A, x, y, low, mid), new MultiplyVectorTask(A, x, y, mid, high));
+        }
+    }
+}
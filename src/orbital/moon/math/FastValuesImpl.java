@@ -36,40 +36,16 @@ import orbital.math.functional.Functions;
  * machine-sized doubles, floats, ints, longs
  * etc. whereever possible and ignores precision overflow problems for speed.
  * This implementation also uses faster vector, matrix operations on doubles.
- * Also activates partial caching/sharing of numer constants.
+ * Integers are shared with the small-value cache of {@link ValuesImpl}, but
+ * arbitrary-precision integers are truncated to machine-sized longs.
  * 
  * @version $Id$
  * @author  Andr&eacute; Platzer
  */
 public class FastValuesImpl extends ValuesImpl {
-    // Constants
-
-    /**
-     * Initialize static constant array when class is loaded.
-     * @invariants 0 < MAX_CONSTANT < Integer.MAX_VALUE
-     * @xxx note that we should think about the order of static initialization.
-     */
-    private static final int     MAX_CONSTANT = 10;
-    private  Integer posConst[] = new Integer[MAX_CONSTANT + 1];
-    private Integer negConst[] = new Integer[MAX_CONSTANT + 1];
-
     // instantiation
 
-    public FastValuesImpl() {
-                // this static initialization somehow is not yet executed before the super constructor is called. Move constants here, thus lazy init cache too
-        initCache(); 
-    }
-
-        private void initCache() {
-                // these too steps shouldn't be necessary but they are
-            this.posConst = new Integer[MAX_CONSTANT + 1];
-            this.negConst = new Integer[MAX_CONSTANT + 1];
-        posConst[0] = negConst[0] = new AbstractInteger.Long(0, this);
-        for (int i = 1; i <= MAX_CONSTANT; i++) {
-            posConst[i] = new AbstractInteger.Long(i, this);
-            negConst[i] = new AbstractInteger.Long(-i, this);
-        }
-        }
+    public FastValuesImpl() {}
 
     // scalar value constructors - facade factory
     // primitive type conversion methods
@@ -85,27 +61,6 @@ public class FastValuesImpl extends ValuesImpl {
         return new AbstractComplex.Double(a, b, this);
     } 
 
-    // integer scalar value constructors - facade factory
-
-    public Integer valueOf(int val) {
-        try {
-                // If -MAX_CONSTANT < val < MAX_CONSTANT, return stashed constant
-                if (0 <= val && val <= MAX_CONSTANT)
-                        return posConst[val];
-                else if (-MAX_CONSTANT <= val && val < 0)
-                        return negConst[-val];
-        } catch (NullPointerException ex) {
-                initCache();
-                return valueOf(val);
-        }
-        return new AbstractInteger.Int(val, this);
-    } 
-    public Integer valueOf(long val) {
-        return -MAX_CONSTANT <= val && val <= MAX_CONSTANT
-            ? valueOf((int) val)
-            : new AbstractInteger.Long(val, this);
-    }
-
     // vector constructors and conversion utilities
          
     //@todo couldn't we even return Vector<Real>?
@@ -0,0 +1,810 @@
+/**
+ * @(#)PolynomialKernels.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.moon.math;
+import orbital.math.*;
+import orbital.math.Integer;
+import orbital.logic.functor.Function;
+
+import java.math.BigInteger;
+
+import java.util.logging.Logger;
+import java.util.logging.Level;
+
+import orbital.moon.GetPropertyAction;
+
+/**
+ * Kernels of univariate polynomial multiplication and division on coefficient arrays.
+ * <p>
+ * The multiplication is chosen by the type of the coefficients and the degrees:
+ * <ul>
+ *   <li>{@link Integer integers}, and {@link Quotient remainder classes} of
+ *     integers modulo machine-sized m, are multiplied with the number-theoretic transform (NTT)
+ *     modulo primes p=c2<sup>k</sup>+1, whose results are combined by the Chinese remainder theorem.
+ *     As many primes are used as the bound on the coefficients of the product requires.</li>
+ *   <li>floating-point {@link Real reals} and {@link Complex complex} numbers are multiplied
+ *     with the complex fast Fourier-transform (FFT). Its rounding errors are absolute rather than relative:
+ *     they are bounded relative to the largest coefficients of the factors,
+ *     so coefficients of the product that are much smaller than that may lose all their accuracy.</li>
+ *   <li>all other coefficients rings use Karatsuba's divide and conquer,
+ *     which only requires ring operations.</li>
+ * </ul>
+ * Small degrees use na&iuml;ve convolution in any case, since the overhead would not pay off.
+ * </p>
+ * <p>
+ * The kernels can be configured via the system properties
+ * <code>orbital.moon.math.PolynomialKernels.karatsubaThreshold</code>
+ * and <code>orbital.moon.math.PolynomialKernels.transformThreshold</code>
+ * (minimum number of coefficients of both factors for Karatsuba, or a transform respectively),
+ * and <code>orbital.moon.math.PolynomialKernels.divisionThreshold</code>
+ * (minimum number of coefficients of divisor and quotient for division by Newton iteration).
+ * </p>
+ *
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ * @see AbstractUnivariatePolynomial
+ * @see "von zur Gathen, Joachim and Gerhard, J&uuml;rgen. Modern Computer Algebra. Cambridge University Press, 2nd edition, 2003. Chapters 8 and 9."
+ * @internal All coefficient arrays are in ascending order of the exponent, i.e. a[i] is the coefficient of X<sup>i</sup>.
+ */
+final class PolynomialKernels {
+    private static final Logger logger = Logger.getLogger(PolynomialKernels.class.getName());
+    /**
+     * prevent instantiation - module class
+     */
+    private PolynomialKernels() {}
+
+    /**
+     * The number of coefficients of both factors from which on Karatsuba's trick is used.
+     * @invariants KARATSUBA_THRESHOLD &ge; 2
+     */
+    static final int KARATSUBA_THRESHOLD = intProperty("karatsubaThreshold", 32, 2);
+    /**
+     * The number of coefficients of both factors from which on FFT or NTT is used.
+     */
+    static final int TRANSFORM_THRESHOLD = intProperty("transformThreshold", 64, 1);
+    /**
+     * The number of coefficients of divisor and quotient from which on division uses Newton iteration.
+     */
+    static final int DIVISION_THRESHOLD = intProperty("divisionThreshold", 64, 1);
+
+    private static int intProperty(String name, int defaultValue, int minimum) {
+        final String property = PolynomialKernels.class.getName() + "." + name;
+        try {
+            final String desc = GetPropertyAction.getProperty(property, defaultValue + "");
+            final int value = java.lang.Integer.parseInt(desc);
+            if (value >= minimum)
+                return value;
+            logger.log(Level.SEVERE, "invalid property setting {0}={1}" , new Object[] {property, desc});
+        } catch (NumberFormatException nonumber) {
+            logger.log(Level.SEVERE, "invalid property setting {0}" , property);
+        } catch (SecurityException nevertheless) {
+            // especially catch SecurityExceptions if we were not allowed to read properties
+        }
+        return defaultValue;
+    }
+
+    // multiplication
+
+    /**
+     * Computes the coefficients of the product of two polynomials.
+     * @param a the coefficients of the first polynomial.
+     * @param b the coefficients of the second polynomial.
+     * @return the coefficients c of the product with c[k] = &sum;<sub>i+j=k</sub> a[i]*b[j],
+     *  which may have leading zeros.
+     * @preconditions a.length &gt; 0 &and; b.length &gt; 0
+     * @postconditions RES.length == a.length + b.length - 1
+     */
+    static Arithmetic[] multiply(Arithmetic a[], Arithmetic b[]) {
+        if (Math.min(a.length, b.length) >= TRANSFORM_THRESHOLD) {
+            Arithmetic[] r = multiplyTransform(a, b);
+            if (r != null)
+                return r;
+        }
+        final Arithmetic r[] = Math.min(a.length, b.length) >= KARATSUBA_THRESHOLD
+            ? karatsuba(a, b)
+            : convolution(a, 0, a.length, b, 0, b.length);
+        final Arithmetic zero = a[0].zero();
+        for (int i = 0; i < r.length; i++)
+            if (r[i] == null)
+                r[i] = zero;
+        return r;
+    }
+
+    /**
+     * Multiply by a transform if the coefficients admit one.
+     * @return the coefficients of the product, or <code>null</code> if the coefficients
+     *  are not suitable for any transform.
+     */
+    private static Arithmetic[] multiplyTransform(Arithmetic a[], Arithmetic b[]) {
+        final Arithmetic first = a[0];
+        if (first instanceof Integer) {
+            return multiplyIntegerNTT(a, b, first.valueFactory());
+        } else if (first instanceof Quotient) {
+            return multiplyQuotientNTT(a, b);
+        } else if (isFloating(a) && isFloating(b)) {
+            final ValueFactory vf = first.valueFactory();
+            if (isReal(a) && isReal(b)) {
+                final double r[] = multiplyFFT(realValues(a), realValues(b));
+                final Arithmetic c[] = new Arithmetic[r.length];
+                for (int i = 0; i < r.length; i++)
+                    c[i] = vf.valueOf(r[i]);
+                return c;
+            } else {
+                final double r[][] = multiplyFFT(realValues(a), imaginaryValues(a), realValues(b), imaginaryValues(b));
+                final Arithmetic c[] = new Arithmetic[r[0].length];
+                for (int i = 0; i < c.length; i++)
+                    c[i] = vf.complex(r[0][i], r[1][i]);
+                return c;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Na&iuml;ve convolution of a[ao,...,ao+n-1] and b[bo,...,bo+m-1] in O(n*m).
+     * <code>null</code> coefficients are considered zero, and
+     * the result contains <code>null</code> for coefficients that have not been computed
+     * since they are zero.
+     */
+    private static Arithmetic[] convolution(Arithmetic a[], int ao, int n, Arithmetic b[], int bo, int m) {
+        final Arithmetic r[] = new Arithmetic[n + m - 1];
+        for (int i = 0; i < n; i++) {
+            final Arithmetic ai = a[ao + i];
+            if (ai == null)
+                continue;
+            for (int j = 0; j < m; j++) {
+                final Arithmetic bj = b[bo + j];
+                if (bj == null)
+                    continue;
+                final Arithmetic p = ai.multiply(bj);
+                r[i + j] = r[i + j] == null ? p : r[i + j].add(p);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Karatsuba multiplication in O(n<sup>&#13266;<sub>2</sub>3</sup>).
+     * Unbalanced factors are split into chunks of the size of the smaller factor.
+     */
+    private static Arithmetic[] karatsuba(Arithmetic a[], Arithmetic b[]) {
+        if (a.length < b.length) {
+            Arithmetic t[] = a;
+            a = b;
+            b = t;
+        }
+        final int m = b.length;
+        final Arithmetic r[] = new Arithmetic[a.length + m - 1];
+        for (int offset = 0; offset < a.length; offset += m) {
+            final Arithmetic chunk[] = new Arithmetic[m];
+            System.arraycopy(a, offset, chunk, 0, Math.min(m, a.length - offset));
+            addShifted(r, karatsuba(chunk, 0, b, 0, m), offset);
+        }
+        return r;
+    }
+
+    /**
+     * Karatsuba multiplication of a[ao,...,ao+n-1] and b[bo,...,bo+n-1].
+     * Uses the equation
+     * <center>(aY+b) * (cY+d) = (ac)Y<sup>2</sup> + ((a+b)(c+d)-(ac)-(bd))Y + (bd)</center>
+     * recursively saving one multiplication out of four in each recursion.
+     * @return the 2n-1 coefficients of the product, with <code>null</code> for zero.
+     */
+    private static Arithmetic[] karatsuba(Arithmetic a[], int ao, Arithmetic b[], int bo, int n) {
+        if (n < KARATSUBA_THRESHOLD)
+            return convolution(a, ao, n, b, bo, n);
+        final int h = n >> 1;
+        final int hh = n - h;
+        final Arithmetic z0[] = karatsuba(a, ao, b, bo, h);
+        final Arithmetic z2[] = karatsuba(a, ao + h, b, bo + h, hh);
+        final Arithmetic s[] = new Arithmetic[hh];
+        final Arithmetic t[] = new Arithmetic[hh];
+        for (int i = 0; i < hh; i++) {
+            s[i] = i < h ? add(a[ao + i], a[ao + h + i]) : a[ao + h + i];
+            t[i] = i < h ? add(b[bo + i], b[bo + h + i]) : b[bo + h + i];
+        }
+        final Arithmetic z1[] = karatsuba(s, 0, t, 0, hh);
+        for (int i = 0; i < z0.length; i++)
+            z1[i] = subtract(z1[i], z0[i]);
+        for (int i = 0; i < z2.length; i++)
+            z1[i] = subtract(z1[i], z2[i]);
+        final Arithmetic r[] = new Arithmetic[2 * n - 1];
+        System.arraycopy(z0, 0, r, 0, z0.length);
+        System.arraycopy(z2, 0, r, 2 * h, z2.length);
+        addShifted(r, z1, h);
+        return r;
+    }
+
+    /**
+     * r[offset+i] += s[i] with <code>null</code> for zero.
+     */
+    private static void addShifted(Arithmetic r[], Arithmetic s[], int offset) {
+        for (int i = 0; i < s.length && offset + i < r.length; i++)
+            r[offset + i] = add(r[offset + i], s[i]);
+    }
+    private static Arithmetic add(Arithmetic x, Arithmetic y) {
+        return x == null ? y : y == null ? x : x.add(y);
+    }
+    private static Arithmetic subtract(Arithmetic x, Arithmetic y) {
+        return y == null ? x : x == null ? y.minus() : x.subtract(y);
+    }
+
+    // fast Fourier-transform
+
+    /**
+     * Whether all coefficients are machine-sized floating-point numbers.
+     */
+    private static boolean isFloating(Arithmetic a[]) {
+        for (int i = 0; i < a.length; i++)
+            if (!(a[i] instanceof AbstractReal.Double || a[i] instanceof AbstractReal.Float || a[i] instanceof AbstractComplex.Double))
+                return false;
+        return true;
+    }
+    private static boolean isReal(Arithmetic a[]) {
+        for (int i = 0; i < a.length; i++)
+            if (!(a[i] instanceof Real))
+                return false;
+        return true;
+    }
+    private static double[] realValues(Arithmetic a[]) {
+        final double r[] = new double[a.length];
+        for (int i = 0; i < a.length; i++)
+            r[i] = ((AbstractComplex) a[i]).realValue();
+        return r;
+    }
+    private static double[] imaginaryValues(Arithmetic a[]) {
+        final double r[] = new double[a.length];
+        for (int i = 0; i < a.length; i++)
+            r[i] = ((AbstractComplex) a[i]).imaginaryValue();
+        return r;
+    }
+
+    /**
+     * Multiplies two real polynomials with a single complex FFT and its inverse.
+     * Transforms z=a+<b>i</b>b, since the imaginary part of z<sup>2</sup> is 2ab.
+     * <p>
+     * The error of each coefficient of the product is absolute, roughly bounded by
+     * &epsilon;&sdot;n&sdot;log n&sdot;max(max<sub>i</sub>|a<sub>i</sub>|,max<sub>j</sub>|b<sub>j</sub>|)<sup>2</sup>
+     * with the machine precision &epsilon; and the transform length n.
+     * In contrast to na&iuml;ve convolution, the error is not relative to the coefficient itself.
+     * Since a and b share one transform, the bound depends on the larger of both factors.</p>
+     */
+    static double[] multiplyFFT(double a[], double b[]) {
+        final int length = a.length + b.length - 1;
+        final int n = transformLength(length);
+        final double re[] = new double[n];
+        final double im[] = new double[n];
+        System.arraycopy(a, 0, re, 0, a.length);
+        System.arraycopy(b, 0, im, 0, b.length);
+        fft(re, im, false);
+        for (int i = 0; i < n; i++) {
+            final double x = re[i], y = im[i];
+            re[i] = x * x - y * y;
+            im[i] = 2 * x * y;
+        }
+        fft(re, im, true);
+        final double r[] = new double[length];
+        for (int i = 0; i < length; i++)
+            r[i] = im[i] / (2 * n);
+        return r;
+    }
+
+    /**
+     * Multiplies two complex polynomials with FFT.
+     * <p>
+     * The error of each coefficient of the product is absolute, roughly bounded by
+     * &epsilon;&sdot;n&sdot;log n&sdot;max<sub>i</sub>|a<sub>i</sub>|&sdot;max<sub>j</sub>|b<sub>j</sub>|
+     * with the machine precision &epsilon; and the transform length n.
+     * In contrast to na&iuml;ve convolution, the error is not relative to the coefficient itself.</p>
+     * @return the real and the imaginary parts of the coefficients of the product.
+     */
+    static double[][] multiplyFFT(double are[], double aim[], double bre[], double bim[]) {
+        final int length = are.length + bre.length - 1;
+        final int n = transformLength(length);
+        final double xre[] = new double[n], xim[] = new double[n];
+        final double yre[] = new double[n], yim[] = new double[n];
+        System.arraycopy(are, 0, xre, 0, are.length);
+        System.arraycopy(aim, 0, xim, 0, aim.length);
+        System.arraycopy(bre, 0, yre, 0, bre.length);
+        System.arraycopy(bim, 0, yim, 0, bim.length);
+        fft(xre, xim, false);
+        fft(yre, yim, false);
+        for (int i = 0; i < n; i++) {
+            final double re = xre[i] * yre[i] - xim[i] * yim[i];
+            xim[i] = xre[i] * yim[i] + xim[i] * yre[i];
+            xre[i] = re;
+        }
+        fft(xre, xim, true);
+        final double r[][] = new double[2][length];
+        for (int i = 0; i < length; i++) {
+            r[0][i] = xre[i] / n;
+            r[1][i] = xim[i] / n;
+        }
+        return r;
+    }
+
+    /**
+     * The smallest power of 2 that is &ge; length.
+     */
+    private static int transformLength(int length) {
+        int n = 1;
+        while (n < length) {
+            if (n > (java.lang.Integer.MAX_VALUE >> 1))
+                throw new ArithmeticException("polynomial too large for transform of length " + length);
+            n <<= 1;
+        }
+        return n;
+    }
+
+    /**
+     * In-place iterative radix-2 FFT (without scaling of the inverse).
+     * @param inverse whether to use the inverse root of unity.
+     * @preconditions re.length == im.length is a power of 2
+     */
+    private static void fft(double re[], double im[], boolean inverse) {
+        final int n = re.length;
+        bitReverse(re, im, null);
+        // the twiddle factors exp(&plusmn;2&pi;<b>i</b>k/n) for k<n/2, computed directly for accuracy
+        final double cos[] = new double[n >> 1];
+        final double sin[] = new double[n >> 1];
+        for (int k = 0; k < cos.length; k++) {
+            final double phi = 2 * Math.PI * k / n;
+            cos[k] = Math.cos(phi);
+            sin[k] = inverse ? Math.sin(phi) : -Math.sin(phi);
+        }
+        for (int len = 2; len <= n; len <<= 1) {
+            final int half = len >> 1;
+            final int step = n / len;
+            for (int i = 0; i < n; i += len)
+                for (int j = 0; j < half; j++) {
+                    final double wr = cos[j * step], wi = sin[j * step];
+                    final int u = i + j, v = u + half;
+                    final double xr = re[v] * wr - im[v] * wi;
+                    final double xi = re[v] * wi + im[v] * wr;
+                    re[v] = re[u] - xr;
+                    im[v] = im[u] - xi;
+                    re[u] += xr;
+                    im[u] += xi;
+                }
+        }
+    }
+
+    /**
+     * Permutes the arrays (of equal power of 2 length, or null) into bit-reversed order.
+     */
+    private static void bitReverse(double re[], double im[], long l[]) {
+        final int n = re != null ? re.length : l.length;
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1)
+                j ^= bit;
+            j ^= bit;
+            if (i < j) {
+                if (re != null) {
+                    double t = re[i]; re[i] = re[j]; re[j] = t;
+                    t = im[i]; im[i] = im[j]; im[j] = t;
+                } else {
+                    long t = l[i]; l[i] = l[j]; l[j] = t;
+                }
+            }
+        }
+    }
+
+    // number-theoretic transform
+
+    /**
+     * The exponent k of the NTT primes p=c2<sup>k</sup>+1, which admit transforms up to length 2<sup>k</sup>.
+     */
+    private static final int NTT_EXPONENT = 21;
+    private static final int MAX_NTT_LENGTH = 1 << NTT_EXPONENT;
+    /**
+     * The NTT primes p=c2<sup>k</sup>+1 with 2<sup>29</sup> &lt; p &lt; 2<sup>30</sup>, in descending order,
+     * such that products of residues fit into a long.
+     */
+    private static final long PRIMES[];
+    private static final BigInteger BIG_PRIMES[];
+    /**
+     * Primitive roots modulo {@link #PRIMES}.
+     */
+    private static final long GENERATORS[];
+    /**
+     * The mixed-radix weights for Garner's algorithm,
+     * WEIGHTS[j][i] = p<sub>0</sub>*...*p<sub>i-1</sub> mod p<sub>j</sub> for i&le;j.
+     */
+    private static final long WEIGHTS[][];
+    /**
+     * WEIGHT_INVERSES[j] = WEIGHTS[j][j]<sup>-1</sup> mod p<sub>j</sub>.
+     */
+    private static final long WEIGHT_INVERSES[];
+    static {
+        final long candidates[] = new long[1 << (29 - NTT_EXPONENT)];
+        int count = 0;
+        for (long c = (1L << (30 - NTT_EXPONENT)) - 1; c > (1L << (29 - NTT_EXPONENT)); c--) {
+            final long p = (c << NTT_EXPONENT) + 1;
+            if (isPrime(p))
+                candidates[count++] = p;
+        }
+        PRIMES = new long[count];
+        System.arraycopy(candidates, 0, PRIMES, 0, count);
+        BIG_PRIMES = new BigInteger[count];
+        GENERATORS = new long[count];
+        WEIGHTS = new long[count][];
+        WEIGHT_INVERSES = new long[count];
+        for (int j = 0; j < count; j++) {
+            final long p = PRIMES[j];
+            BIG_PRIMES[j] = BigInteger.valueOf(p);
+            GENERATORS[j] = primitiveRoot(p);
+            WEIGHTS[j] = new long[j + 1];
+            WEIGHTS[j][0] = 1;
+            for (int i = 0; i < j; i++)
+                WEIGHTS[j][i + 1] = WEIGHTS[j][i] * (PRIMES[i] % p) % p;
+            WEIGHT_INVERSES[j] = modInverse(WEIGHTS[j][j], p);
+        }
+    }
+
+    /**
+     * The number of {@link #PRIMES} whose product exceeds 2<sup>bits</sup>.
+     * @return the number of primes required, or -1 if there are not enough primes.
+     */
+    private static int primesFor(int bits) {
+        // each prime contributes more than 29 bits
+        final int primes = Math.max((bits + 28) / 29, 1);
+        return primes <= PRIMES.length ? primes : -1;
+    }
+
+    /**
+     * Whether x is a machine-sized integer.
+     */
+    private static boolean isLong(Arithmetic x) {
+        return x instanceof AbstractInteger.Int || x instanceof AbstractInteger.Long
+            || x instanceof AbstractInteger.Big && ((AbstractInteger.Big) x).getValue().bitLength() < 64;
+    }
+
+    /**
+     * The number of bits L such that |n| &lt; 2<sup>L</sup>.
+     */
+    private static int bitLength(long n) {
+        return n == Long.MIN_VALUE ? 64 : 64 - Long.numberOfLeadingZeros(Math.abs(n));
+    }
+    /**
+     * The number of bits L such that all |a[i]| &lt; 2<sup>L</sup>.
+     * @return the number of bits, or -1 if some coefficient is not an integer of a known implementation.
+     */
+    private static int bitLength(Arithmetic a[]) {
+        int bits = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (isLong(a[i]))
+                bits = Math.max(bits, bitLength(((Integer) a[i]).longValue()));
+            else if (a[i] instanceof AbstractInteger.Big)
+                bits = Math.max(bits, ((AbstractInteger.Big) a[i]).getValue().abs().bitLength());
+            else
+                return -1;
+        }
+        return bits;
+    }
+
+    /**
+     * Multiplies integer polynomials with NTT modulo as many primes as the coefficients of the product require,
+     * combined by Chinese remaindering.
+     * @return the coefficients of the product, or <code>null</code> if some coefficient is not an integer
+     *  or the coefficients of the product could exceed the range representable modulo the product of all primes.
+     */
+    private static Arithmetic[] multiplyIntegerNTT(Arithmetic a[], Arithmetic b[], ValueFactory vf) {
+        final int abits = bitLength(a);
+        final int bbits = abits >= 0 ? bitLength(b) : -1;
+        final int length = a.length + b.length - 1;
+        if (bbits < 0 || length > MAX_NTT_LENGTH)
+            return null;
+        // |c[i]| < min(a.length,b.length)*2^abits*2^bbits, and 2 more bits to tell negative values from positive values
+        final int bits = abits + bbits + bitLength(Math.min(a.length, b.length)) + 2;
+        final int primes = primesFor(bits);
+        if (primes < 0)
+            return null;
+        final long r[][] = multiplyNTT(residues(a, primes), residues(b, primes), length);
+        final Arithmetic c[] = new Arithmetic[length];
+        final long t[] = new long[primes];
+        final long half = PRIMES[primes - 1] >> 1;
+        if (bits < 64) {
+            // the exact product fits into a long, so compute modulo 2<sup>64</sup>
+            final long w[] = new long[primes + 1];
+            w[0] = 1;
+            for (int j = 0; j < primes; j++)
+                w[j + 1] = w[j] * PRIMES[j];
+            for (int i = 0; i < length; i++) {
+                garner(r, i, t);
+                long v = 0;
+                for (int j = 0; j < primes; j++)
+                    v += t[j] * w[j];
+                if (t[primes - 1] > half)
+                    // negative value represented by v + M
+                    v -= w[primes];
+                c[i] = vf.valueOf(v);
+            }
+        } else {
+            BigInteger m = BigInteger.ONE;
+            for (int j = 0; j < primes; j++)
+                m = m.multiply(BIG_PRIMES[j]);
+            for (int i = 0; i < length; i++) {
+                garner(r, i, t);
+                BigInteger v = BigInteger.valueOf(t[primes - 1]);
+                for (int j = primes - 2; j >= 0; j--)
+                    v = v.multiply(BIG_PRIMES[j]).add(BigInteger.valueOf(t[j]));
+                if (t[primes - 1] > half)
+                    v = v.subtract(m);
+                c[i] = v.bitLength() < 64 ? vf.valueOf(v.longValue()) : vf.valueOf(v);
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Multiplies polynomials over <b>Z</b>/m<b>Z</b> with NTT.
+     * @return the coefficients of the product, or <code>null</code> if the coefficients are
+     *  not all remainder classes modulo the same machine-sized integer m.
+     */
+    private static Arithmetic[] multiplyQuotientNTT(Arithmetic a[], Arithmetic b[]) {
+        final Quotient first = (Quotient) a[0];
+        final Function quotientOperator = first.getQuotientOperator();
+        if (!(quotientOperator instanceof AbstractQuotient.EuclideanModulo))
+            return null;
+        final Euclidean modulus = ((AbstractQuotient.EuclideanModulo) quotientOperator).getModulus();
+        if (!isLong(modulus))
+            return null;
+        final long m = Math.abs(((Integer) modulus).longValue());
+        final int length = a.length + b.length - 1;
+        if (m < 2 || m > java.lang.Integer.MAX_VALUE || length > MAX_NTT_LENGTH)
+            return null;
+        final long x[] = representatives(a, quotientOperator, m);
+        final long y[] = x != null ? representatives(b, quotientOperator, m) : null;
+        if (y == null)
+            return null;
+        // 0 <= c[i] < min(a.length,b.length)*m^2
+        final int primes = primesFor(2 * bitLength(m) + bitLength(Math.min(a.length, b.length)));
+        if (primes < 0)
+            return null;
+        final long r[][] = multiplyNTT(residues(x, primes), residues(y, primes), length);
+        // the mixed-radix weights p<sub>0</sub>*...*p<sub>j-1</sub> modulo m
+        final long w[] = new long[primes];
+        w[0] = 1;
+        for (int j = 1; j < primes; j++)
+            w[j] = w[j - 1] * (PRIMES[j - 1] % m) % m;
+        final ValueFactory vf = first.valueFactory();
+        final Arithmetic c[] = new Arithmetic[length];
+        final long t[] = new long[primes];
+        for (int i = 0; i < length; i++) {
+            garner(r, i, t);
+            long v = 0;
+            for (int j = 0; j < primes; j++)
+                v = (v + t[j] % m * w[j]) % m;
+            c[i] = new AbstractQuotient(vf.valueOf(v), quotientOperator);
+        }
+        return c;
+    }
+
+    /**
+     * Get the canonical representatives in [0,m) of the remainder classes.
+     * @return the representatives, or <code>null</code> if some coefficient has another quotient operator
+     *  or a representative that is not a machine-sized integer.
+     */
+    private static long[] representatives(Arithmetic a[], Function quotientOperator, long m) {
+        final long r[] = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            if (!(a[i] instanceof Quotient) || !quotientOperator.equals(((Quotient) a[i]).getQuotientOperator()))
+                return null;
+            final Arithmetic representative = ((Quotient) a[i]).representative();
+            if (!isLong(representative))
+                return null;
+            r[i] = mod(((Integer) representative).longValue(), m);
+        }
+        return r;
+    }
+
+    /**
+     * Get the residues of integer coefficients modulo the first primes.
+     * @return r with r[k][i] = a[i] mod PRIMES[k].
+     */
+    private static long[][] residues(Arithmetic a[], int primes) {
+        final long r[][] = new long[primes][a.length];
+        for (int i = 0; i < a.length; i++) {
+            if (isLong(a[i])) {
+                final long v = ((Integer) a[i]).longValue();
+                for (int k = 0; k < primes; k++)
+                    r[k][i] = mod(v, PRIMES[k]);
+            } else {
+                final BigInteger v = ((AbstractInteger.Big) a[i]).getValue();
+                for (int k = 0; k < primes; k++)
+                    r[k][i] = v.mod(BIG_PRIMES[k]).longValue();
+            }
+        }
+        return r;
+    }
+    private static long[][] residues(long a[], int primes) {
+        final long r[][] = new long[primes][a.length];
+        for (int k = 0; k < primes; k++)
+            for (int i = 0; i < a.length; i++)
+                r[k][i] = mod(a[i], PRIMES[k]);
+        return r;
+    }
+
+    /**
+     * Multiply modulo each of the first primes via NTT.
+     * @param x the residues x[k] modulo PRIMES[k] of the first polynomial.
+     * @param y the residues y[k] modulo PRIMES[k] of the second polynomial.
+     * @return the residues of the coefficients of the product.
+     */
+    private static long[][] multiplyNTT(long x[][], long y[][], int length) {
+        final long r[][] = new long[x.length][];
+        for (int k = 0; k < x.length; k++)
+            r[k] = multiplyNTT(x[k], y[k], k, length);
+        return r;
+    }
+
+    /**
+     * Multiply modulo PRIMES[k] via NTT.
+     * @preconditions a[i],b[i]&isin;[0,p)
+     * @return the coefficients of the product in [0,p).
+     */
+    private static long[] multiplyNTT(long a[], long b[], int k, int length) {
+        final long p = PRIMES[k];
+        final int n = transformLength(length);
+        final long x[] = new long[n];
+        final long y[] = new long[n];
+        System.arraycopy(a, 0, x, 0, a.length);
+        System.arraycopy(b, 0, y, 0, b.length);
+        ntt(x, p, GENERATORS[k], false);
+        ntt(y, p, GENERATORS[k], false);
+        for (int i = 0; i < n; i++)
+            x[i] = x[i] * y[i] % p;
+        ntt(x, p, GENERATORS[k], true);
+        final long nInverse = modInverse(n, p);
+        final long r[] = new long[length];
+        for (int i = 0; i < length; i++)
+            r[i] = x[i] * nInverse % p;
+        return r;
+    }
+
+    /**
+     * In-place iterative NTT modulo p (without scaling of the inverse).
+     * @preconditions a.length is a power of 2 dividing p-1 &and; a[i]&isin;[0,p)
+     */
+    private static void ntt(long a[], long p, long g, boolean inverse) {
+        final int n = a.length;
+        bitReverse(null, null, a);
+        final long w[] = new long[Math.max(n >> 1, 1)];
+        for (int len = 2; len <= n; len <<= 1) {
+            final int half = len >> 1;
+            long root = modPow(g, (p - 1) / len, p);
+            if (inverse)
+                root = modInverse(root, p);
+            w[0] = 1;
+            for (int j = 1; j < half; j++)
+                w[j] = w[j - 1] * root % p;
+            for (int i = 0; i < n; i += len)
+                for (int j = 0; j < half; j++) {
+                    final int u = i + j, v = u + half;
+                    final long x = a[u];
+                    final long y = a[v] * w[j] % p;
+                    a[u] = x + y >= p ? x + y - p : x + y;
+                    a[v] = x - y < 0 ? x - y + p : x - y;
+                }
+        }
+    }
+
+    /**
+     * Garner's algorithm for the mixed-radix representation
+     * x = t<sub>0</sub> + p<sub>0</sub>t<sub>1</sub> + p<sub>0</sub>p<sub>1</sub>t<sub>2</sub> + ...
+     * of the unique x&isin;[0,p<sub>0</sub>*...*p<sub>n-1</sub>) with x&equiv;r[k][i] (mod p<sub>k</sub>).
+     * @param t the array of length n to fill with the digits t<sub>k</sub>&isin;[0,p<sub>k</sub>).
+     */
+    private static void garner(long r[][], int i, long t[]) {
+        for (int j = 0; j < t.length; j++) {
+            final long p = PRIMES[j];
+            final long weights[] = WEIGHTS[j];
+            long s = 0;
+            for (int l = 0; l < j; l++)
+                s = (s + t[l] * weights[l]) % p;
+            t[j] = mod((r[j][i] - s) * WEIGHT_INVERSES[j], p);
+        }
+    }
+
+    private static long mod(long a, long p) {
+        final long r = a % p;
+        return r < 0 ? r + p : r;
+    }
+    private static long modPow(long a, long e, long p) {
+        long r = 1;
+        a = mod(a, p);
+        for (; e > 0; e >>= 1) {
+            if ((e & 1) != 0)
+                r = r * a % p;
+            a = a * a % p;
+        }
+        return r;
+    }
+    /**
+     * Inverse modulo a prime p &lt; 2<sup>31</sup>.
+     */
+    private static long modInverse(long a, long p) {
+        return modPow(a, p - 2, p);
+    }
+    /**
+     * Primality test by trial division, for the small numbers p &lt; 2<sup>31</sup>.
+     */
+    private static boolean isPrime(long p) {
+        if (p < 2 || p % 2 == 0)
+            return p == 2;
+        for (long d = 3; d * d <= p; d += 2)
+            if (p % d == 0)
+                return false;
+        return true;
+    }
+    /**
+     * The smallest primitive root modulo a prime p &lt; 2<sup>31</sup>,
+     * i.e., g with g<sup>(p-1)/q</sup>&ne;1 for all prime factors q of p-1.
+     */
+    private static long primitiveRoot(long p) {
+        final long factors[] = new long[32];
+        int count = 0;
+        long n = p - 1;
+        for (long q = 2; q * q <= n; q++)
+            if (n % q == 0) {
+                factors[count++] = q;
+                while (n % q == 0)
+                    n /= q;
+            }
+        if (n > 1)
+            factors[count++] = n;
+        candidates:
+        for (long g = 2; ; g++) {
+            for (int i = 0; i < count; i++)
+                if (modPow(g, (p - 1) / factors[i], p) == 1)
+                    continue candidates;
+            return g;
+        }
+    }
+
+    // division
+
+    /**
+     * Computes the power series inverse of h modulo X<sup>k</sup> by Newton iteration
+     * g<sub>i+1</sub> = 2g<sub>i</sub> - h*g<sub>i</sub><sup>2</sup>
+     * which doubles the precision in each step.
+     * @preconditions h[0] invertible
+     * @postconditions h*RES &equiv; 1 (mod X<sup>k</sup>)
+     */
+    static Arithmetic[] inverseSeries(Arithmetic h[], int k) {
+        final Arithmetic zero = h[0].zero();
+        Arithmetic g[] = {h[0].one().divide(h[0])};
+        for (int precision = 1; precision < k; ) {
+            final int next = Math.min(precision << 1, k);
+            // e = h*g mod X<sup>next</sup> &equiv; 1 (mod X<sup>precision</sup>)
+            final Arithmetic e[] = multiply(truncate(h, next, zero), g);
+            // g' = g - g*(e-1) = g - g*(e/X<sup>precision</sup>)*X<sup>precision</sup> mod X<sup>next</sup>
+            final Arithmetic d[] = new Arithmetic[next - precision];
+            for (int i = 0; i < d.length; i++)
+                d[i] = precision + i < e.length ? e[precision + i] : zero;
+            final Arithmetic t[] = multiply(g, d);
+            final Arithmetic gnext[] = new Arithmetic[next];
+            System.arraycopy(g, 0, gnext, 0, precision);
+            for (int i = 0; i < next - precision; i++)
+                gnext[precision + i] = t[i].minus();
+            g = gnext;
+            precision = next;
+        }
+        return g;
+    }
+
+    /**
+     * Get the coefficients of a mod X<sup>n</sup>, padded with zeros to length n.
+     */
+    static Arithmetic[] truncate(Arithmetic a[], int n, Arithmetic zero) {
+        final Arithmetic r[] = new Arithmetic[n];
+        System.arraycopy(a, 0, r, 0, Math.min(n, a.length));
+        for (int i = a.length; i < n; i++)
+            r[i] = zero;
+        return r;
+    }
+}
@@ -205,12 +205,20 @@ class RMatrix extends AbstractMatrix {
         modCount++;
     }
 
+    /**
+     * Compute the determinant by Gaussian elimination with column pivotising.
+     * O(n<sup>3</sup>)
+     * Small matrices are expanded by Laplace without any divisions, instead.
+     * @see LUDecomposition#det()
+     */
     public Arithmetic det() {
+        if (!isSquare())
+            throw new ArithmeticException("determinant only defined for square matrices");
+        if (dimension().width > LAPLACE_DIMENSION)
+            return LUDecomposition.decompose(this).det();
         return valueFactory().valueOf(determinantImpl());
     } 
     private double determinantImpl() {
-        if (!isSquare())
-            throw new ArithmeticException("determinant only defined for square matrices");
         if (dimension().width == 1)
             return getDoubleValue(0, 0);
         if (dimension().width == 2)
@@ -255,29 +263,27 @@ class RMatrix extends AbstractMatrix {
     } 
 
     public Matrix multiply(Matrix B) {
+        if (B instanceof SparseRMatrix)
+            return ((SparseRMatrix) B).multiplyLeft(this);
         if (!(B instanceof RMatrix))
             // fall-back to more general operation
             return new ArithmeticMatrix(toArray(), valueFactory()).multiply(B);
         Utility.pre(dimension().width == B.dimension().height, "Matrix A.B only defined for dimension n by m multiplied with m by l");
         RMatrix b = (RMatrix) B;
         RMatrix ret = new RMatrix(dimension().height, B.dimension().width, valueFactory());
-        //@todo could use section striping for large matrices and cache blocking (Willi Schoenhauer, Scientific Supercomputing). However we would need to know the cache size then.
-        // faster alternative (according to Tichy and Schoenhauer)
+        // faster alternative (according to Tichy and Schoenhauer) with cache blocking and section striping for large matrices
         assert ret.equals(ZERO(ret.dimension())) : "initialization of double[][] to 0 by system";
-        for (int i = 0; i < ret.dimension().height; i++)
-            for (int k = 0; k < D[i].length; k++) {
-                final double r = D[i][k];
-                for (int j = 0; j < ret.dimension().width; j++)
-                    ret.D[i][j] += r * b.D[k][j];
-            }
-        // alternative old version. Why did we use this?
-        /*for (int i = 0; i < ret.dimension().height; i++)
-          for (int j = 0; j < ret.dimension().width; j++) {
-          ret.D[i][j] = 0;
-          for (int k = 0; k < D[i].length; k++)
-          ret.D[i][j] += D[i][k] * b.D[k][j];
-          }*/
+        DenseKernels.multiply(D, b.D, ret.D);
+        return ret;
+    }
 
+    public Vector multiply(Vector B) {
+        if (!(B instanceof RVector))
+            // fall-back to more general operation
+            return super.multiply(B);
+        Utility.pre(dimension().width == B.dimension(), "row vector A.v only defined for Matrix multiplied with row vector of dimension width. " + dimension().width + "!=" + B.dimension());
+        RVector ret = new RVector(dimension().height, valueFactory());
+        DenseKernels.multiply(D, ((RVector) B).D, ret.D);
         return ret;
     }
          
@@ -341,6 +347,10 @@ class RMatrix extends AbstractMatrix {
         return this;
     }
 
+    public boolean isDoubleValued() {
+        return true;
+    }
+
     /**
      * Returns an array containing all the elements in this matrix.
      * The first index in this array specifies the row, the second is for column.
@@ -0,0 +1,478 @@
+/**
+ * @(#)SparseRMatrix.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.moon.math;
+import orbital.math.*;
+
+import java.awt.Dimension;
+import java.util.Arrays;
+
+import orbital.util.Utility;
+
+/**
+ * Represents a sparse real matrix in <b>R</b><sup>n&times;m</sup> of <code>double</code> values.
+ * <p>
+ * Only the non-zero components m<sub>i,j</sub> are stored in compressed sparse row (CSR) format:
+ * the non-zeros of row i are at the positions <code>rowPointer[i]</code> to <code>rowPointer[i+1]-1</code>
+ * of <code>columnIndex</code> and <code>value</code>, sorted by column.
+ * So the memory grows with the number nnz of non-zero components, instead of with n&times;m.
+ * A compressed sparse column (CSC) index for column access and transposition is built lazily
+ * and reused until the non-zero pattern changes.
+ * </p>
+ * <p>
+ * Reading a component is O(log nnz<sub>i</sub>) by binary search in its row,
+ * changing the non-zero pattern is O(nnz).
+ * Matrix-vector products are O(nnz), sparse matrix products are computed row-wise with a
+ * dense accumulator (Gustavson).
+ * The non-zeros of single rows and columns are available as {@link SparseRVector sparse vectors}
+ * with {@link #sparseRow(int)} and {@link #sparseColumn(int)}.
+ * </p>
+ *
+ * @structure composite rowPointer:int[] unidirectional
+ * @structure composite columnIndex:int[] unidirectional
+ * @structure composite value:double[] unidirectional
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ * @see SparseRVector
+ * @see RMatrix
+ */
+class SparseRMatrix extends AbstractMatrix {
+    private static final long serialVersionUID = -2170962331938283425L;
+
+    /**
+     * the number of columns.
+     * @serial
+     */
+    private int width;
+    /**
+     * the start positions of the rows in columnIndex and value, with rowPointer[height] = nnz.
+     * @serial
+     */
+    int rowPointer[];
+    /**
+     * the column indices of the non-zero components, ascending within each row.
+     * @serial
+     */
+    int columnIndex[];
+    /**
+     * the values of the non-zero components, corresponding to columnIndex.
+     * @serial
+     */
+    double value[];
+
+    /**
+     * The lazily built compressed sparse column index: the start positions of the columns in cscPosition.
+     */
+    private transient int columnPointer[] = null;
+    /**
+     * The positions in columnIndex and value of the non-zeros ordered by column (and row within the column).
+     */
+    private transient int cscPosition[] = null;
+    /**
+     * The row indices of the non-zeros corresponding to cscPosition.
+     */
+    private transient int cscRow[] = null;
+    /**
+     * The modCount for which the compressed sparse column index has been built.
+     */
+    private transient int cscModCount = -1;
+
+    /**
+     * Creates a new sparse zero matrix with dimension height&times;width.
+     */
+    public SparseRMatrix(int height, int width, ValueFactory valueFactory) {
+        this(height, width, new int[height + 1], new int[0], new double[0], valueFactory);
+    }
+    public SparseRMatrix(Dimension dim, ValueFactory valueFactory) {
+        this(dim.height, dim.width, valueFactory);
+    }
+
+    /**
+     * Creates a new sparse matrix backed by the specified arrays in compressed sparse row format.
+     * @param rowPointer the start positions of the rows in columnIndex and value, with
+     *  rowPointer[height] the number of non-zeros.
+     * @param columnIndex the column indices of the non-zero components, ascending within each row.
+     * @param value the values of the non-zero components, corresponding to columnIndex.
+     * @preconditions rowPointer.length == height + 1 &and; rowPointer is ascending &and; rowPointer[0] == 0
+     *  &and; columnIndex is strictly ascending in 0..width-1 within each row
+     */
+    public SparseRMatrix(int height, int width, int rowPointer[], int columnIndex[], double value[], ValueFactory valueFactory) {
+        super(valueFactory);
+        Utility.pre(rowPointer.length == height + 1 && rowPointer[0] == 0, "row pointers for each row required");
+        Utility.pre(columnIndex.length >= rowPointer[height] && value.length >= rowPointer[height], "column index and value for each non-zero required");
+        this.width = width;
+        this.rowPointer = rowPointer;
+        this.columnIndex = columnIndex;
+        this.value = value;
+    }
+
+    /**
+     * Creates a new sparse matrix from a two-dimensional array of doubles, storing only its non-zero components.
+     * The rows are first index, the columns second index.
+     * @preconditions values is rectangular, i.e. values[i].length==values[i-1].length
+     */
+    public SparseRMatrix(double values[][], ValueFactory valueFactory) {
+        super(valueFactory);
+        set(values);
+    }
+
+    protected Matrix newInstance(Dimension dim) {
+        return new SparseRMatrix(dim, valueFactory());
+    }
+
+    public Object clone() {
+        return new SparseRMatrix(dimension().height, width, (int[]) rowPointer.clone(), (int[]) columnIndex.clone(), (double[]) value.clone(), valueFactory());
+    }
+
+    public final Dimension dimension() {
+        return new Dimension(width, rowPointer.length - 1);
+    }
+
+    /**
+     * Get the number of non-zero components stored.
+     */
+    public int nonZeros() {
+        return rowPointer[rowPointer.length - 1];
+    }
+
+    public Arithmetic get(int i, int j) {
+        return valueFactory().valueOf(getDoubleValue(i, j));
+    }
+    public double getDoubleValue(int i, int j) {
+        validate(i, j);
+        final int k = Arrays.binarySearch(columnIndex, rowPointer[i], rowPointer[i + 1], j);
+        return k >= 0 ? value[k] : 0;
+    }
+    public void set(int i, int j, Arithmetic m) {
+        set(i, j, ((Real) m).doubleValue());
+    }
+    public void set(int i, int j, double m) {
+        validate(i, j);
+        final int k = Arrays.binarySearch(columnIndex, rowPointer[i], rowPointer[i + 1], j);
+        if (k >= 0) {
+            if (m != 0)
+                value[k] = m;
+            else {
+                // remove non-zero
+                final int nnz = nonZeros();
+                System.arraycopy(columnIndex, k + 1, columnIndex, k, nnz - k - 1);
+                System.arraycopy(value, k + 1, value, k, nnz - k - 1);
+                for (int r = i + 1; r < rowPointer.length; r++)
+                    rowPointer[r]--;
+                modCount++;
+            }
+        } else if (m != 0) {
+            // insert non-zero at insertion point
+            final int ins = -(k + 1);
+            final int nnz = nonZeros();
+            if (nnz == columnIndex.length || nnz == value.length) {
+                final int capacity = Math.max(4, 2 * nnz);
+                int[] newIndex = new int[capacity];
+                double[] newValue = new double[capacity];
+                System.arraycopy(columnIndex, 0, newIndex, 0, nnz);
+                System.arraycopy(value, 0, newValue, 0, nnz);
+                columnIndex = newIndex;
+                value = newValue;
+            }
+            System.arraycopy(columnIndex, ins, columnIndex, ins + 1, nnz - ins);
+            System.arraycopy(value, ins, value, ins + 1, nnz - ins);
+            columnIndex[ins] = j;
+            value[ins] = m;
+            for (int r = i + 1; r < rowPointer.length; r++)
+                rowPointer[r]++;
+            modCount++;
+        }
+    }
+
+    /**
+     * Get the non-zero components of row r.
+     * @return a sparse vector containing a copy of row r.
+     */
+    public SparseRVector sparseRow(int r) {
+        validate(r, 0);
+        final int start = rowPointer[r];
+        final int n = rowPointer[r + 1] - start;
+        int[] index = new int[n];
+        double[] v = new double[n];
+        System.arraycopy(columnIndex, start, index, 0, n);
+        System.arraycopy(value, start, v, 0, n);
+        return new SparseRVector(width, index, v, n, valueFactory());
+    }
+
+    /**
+     * Get the non-zero components of column c.
+     * @return a sparse vector containing a copy of column c.
+     */
+    public SparseRVector sparseColumn(int c) {
+        validate(0, c);
+        buildColumnIndex();
+        final int start = columnPointer[c];
+        final int n = columnPointer[c + 1] - start;
+        int[] index = new int[n];
+        double[] v = new double[n];
+        for (int l = 0; l < n; l++) {
+            index[l] = cscRow[start + l];
+            v[l] = value[cscPosition[start + l]];
+        }
+        return new SparseRVector(dimension().height, index, v, n, valueFactory());
+    }
+
+    /**
+     * Build the compressed sparse column index, unless the non-zero pattern did not change since.
+     */
+    private void buildColumnIndex() {
+        if (cscModCount == modCount && columnPointer != null)
+            return;
+        final int height = rowPointer.length - 1;
+        final int nnz = nonZeros();
+        int[] colPtr = new int[width + 1];
+        for (int k = 0; k < nnz; k++)
+            colPtr[columnIndex[k] + 1]++;
+        for (int c = 0; c < width; c++)
+            colPtr[c + 1] += colPtr[c];
+        int[] next = (int[]) colPtr.clone();
+        int[] position = new int[nnz];
+        int[] row = new int[nnz];
+        // rows are traversed ascending, so rows will be ascending within each column
+        for (int i = 0; i < height; i++)
+            for (int k = rowPointer[i]; k < rowPointer[i + 1]; k++) {
+                final int l = next[columnIndex[k]]++;
+                position[l] = k;
+                row[l] = i;
+            }
+        this.columnPointer = colPtr;
+        this.cscPosition = position;
+        this.cscRow = row;
+        this.cscModCount = modCount;
+    }
+
+    protected void set(Arithmetic[][] v) {
+        double[][] d = new double[v.length][v.length > 0 ? v[0].length : 0];
+        for (int i = 0; i < d.length; i++)
+            for (int j = 0; j < d[i].length; j++)
+                d[i][j] = ((Real) v[i][j]).doubleValue();
+        set(d);
+    }
+    private void set(double[][] v) {
+        for (int i = 1; i < v.length; i++)
+            Utility.pre(v[i].length == v[i - 1].length, "rectangular array required for matrix");
+        int nnz = 0;
+        for (int i = 0; i < v.length; i++)
+            for (int j = 0; j < v[i].length; j++)
+                if (v[i][j] != 0)
+                    nnz++;
+        width = v.length > 0 ? v[0].length : 0;
+        rowPointer = new int[v.length + 1];
+        columnIndex = new int[nnz];
+        value = new double[nnz];
+        int k = 0;
+        for (int i = 0; i < v.length; i++) {
+            for (int j = 0; j < v[i].length; j++)
+                if (v[i][j] != 0) {
+                    columnIndex[k] = j;
+                    value[k++] = v[i][j];
+                }
+            rowPointer[i + 1] = k;
+        }
+        modCount++;
+    }
+
+    public Matrix transpose() {
+        buildColumnIndex();
+        final int nnz = nonZeros();
+        int[] index = new int[nnz];
+        double[] v = new double[nnz];
+        for (int l = 0; l < nnz; l++) {
+            index[l] = cscRow[l];
+            v[l] = value[cscPosition[l]];
+        }
+        return new SparseRMatrix(width, dimension().height, (int[]) columnPointer.clone(), index, v, valueFactory());
+    }
+
+    public Matrix add(Matrix B) {
+        if (!(B instanceof SparseRMatrix))
+            // fall-back to more general operation
+            return super.add(B);
+        return merge((SparseRMatrix) B, 1);
+    }
+    public Matrix subtract(Matrix B) {
+        if (!(B instanceof SparseRMatrix))
+            // fall-back to more general operation
+            return super.subtract(B);
+        return merge((SparseRMatrix) B, -1);
+    }
+
+    /**
+     * Merges the non-zero components of this + s*B row by row.
+     */
+    private SparseRMatrix merge(SparseRMatrix B, double s) {
+        Utility.pre(dimension().equals(B.dimension()), "Matrix A+B only defined for equal dimension");
+        final int height = rowPointer.length - 1;
+        int[] retPointer = new int[height + 1];
+        int[] retIndex = new int[nonZeros() + B.nonZeros()];
+        double[] retValue = new double[retIndex.length];
+        int n = 0;
+        for (int i = 0; i < height; i++) {
+            int k = rowPointer[i], l = B.rowPointer[i];
+            final int kmax = rowPointer[i + 1], lmax = B.rowPointer[i + 1];
+            while (k < kmax || l < lmax) {
+                final int j;
+                final double v;
+                if (l >= lmax || (k < kmax && columnIndex[k] < B.columnIndex[l])) {
+                    j = columnIndex[k];
+                    v = value[k++];
+                } else if (k >= kmax || B.columnIndex[l] < columnIndex[k]) {
+                    j = B.columnIndex[l];
+                    v = s * B.value[l++];
+                } else {
+                    j = columnIndex[k];
+                    v = value[k++] + s * B.value[l++];
+                }
+                if (v != 0) {
+                    retIndex[n] = j;
+                    retValue[n++] = v;
+                }
+            }
+            retPointer[i + 1] = n;
+        }
+        return new SparseRMatrix(height, width, retPointer, retIndex, retValue, valueFactory());
+    }
+
+    public Matrix multiply(Matrix B) {
+        Utility.pre(dimension().width == B.dimension().height, "Matrix A.B only defined for dimension n by m multiplied with m by l");
+        final int height = rowPointer.length - 1;
+        final int l = B.dimension().width;
+        if (B instanceof SparseRMatrix) {
+            // Gustavson's row-wise sparse product with a dense accumulator
+            final SparseRMatrix b = (SparseRMatrix) B;
+            double[] accumulator = new double[l];
+            // marker[j] == i+1 if column j already occurs in row i of the result
+            int[] marker = new int[l];
+            int[] columns = new int[l];
+            int[] retPointer = new int[height + 1];
+            int[] retIndex = new int[Math.max(4, nonZeros() + b.nonZeros())];
+            double[] retValue = new double[retIndex.length];
+            int n = 0;
+            for (int i = 0; i < height; i++) {
+                int count = 0;
+                for (int k = rowPointer[i]; k < rowPointer[i + 1]; k++) {
+                    final int r = columnIndex[k];
+                    final double a = value[k];
+                    for (int t = b.rowPointer[r]; t < b.rowPointer[r + 1]; t++) {
+                        final int j = b.columnIndex[t];
+                        if (marker[j] != i + 1) {
+                            marker[j] = i + 1;
+                            columns[count++] = j;
+                            accumulator[j] = a * b.value[t];
+                        } else
+                            accumulator[j] += a * b.value[t];
+                    }
+                }
+                Arrays.sort(columns, 0, count);
+                if (n + count > retIndex.length) {
+                    final int capacity = Math.max(2 * retIndex.length, n + count);
+                    int[] newIndex = new int[capacity];
+                    double[] newValue = new double[capacity];
+                    System.arraycopy(retIndex, 0, newIndex, 0, n);
+                    System.arraycopy(retValue, 0, newValue, 0, n);
+                    retIndex = newIndex;
+                    retValue = newValue;
+                }
+                for (int c = 0; c < count; c++) {
+                    final int j = columns[c];
+                    if (accumulator[j] != 0) {
+                        retIndex[n] = j;
+                        retValue[n++] = accumulator[j];
+                    }
+                }
+                retPointer[i + 1] = n;
+            }
+            return new SparseRMatrix(height, l, retPointer, retIndex, retValue, valueFactory());
+        } else if (B instanceof RMatrix) {
+            final double[][] b = ((RMatrix) B).D;
+            RMatrix ret = new RMatrix(height, l, valueFactory());
+            for (int i = 0; i < height; i++) {
+                final double[] reti = ret.D[i];
+                for (int k = rowPointer[i]; k < rowPointer[i + 1]; k++) {
+                    final double a = value[k];
+                    final double[] bk = b[columnIndex[k]];
+                    for (int j = 0; j < l; j++)
+                        reti[j] += a * bk[j];
+                }
+            }
+            return ret;
+        } else
+            // fall-back to more general operation
+            return super.multiply(B);
+    }
+
+    /**
+     * Computes the product A&sdot;B of a dense matrix A with this sparse matrix B.
+     * @return A&sdot;this
+     */
+    RMatrix multiplyLeft(RMatrix A) {
+        Utility.pre(A.dimension().width == dimension().height, "Matrix A.B only defined for dimension n by m multiplied with m by l");
+        final double[][] a = A.D;
+        RMatrix ret = new RMatrix(a.length, width, valueFactory());
+        for (int i = 0; i < a.length; i++) {
+            final double[] ai = a[i];
+            final double[] reti = ret.D[i];
+            for (int r = 0; r < ai.length; r++) {
+                final double x = ai[r];
+                if (x == 0)
+                    continue;
+                for (int k = rowPointer[r]; k < rowPointer[r + 1]; k++)
+                    reti[columnIndex[k]] += x * value[k];
+            }
+        }
+        return ret;
+    }
+
+    public Vector multiply(Vector B) {
+        Utility.pre(dimension().width == B.dimension(), "row vector A.v only defined for Matrix multiplied with row vector of dimension width. " + dimension().width + "!=" + B.dimension());
+        final int height = rowPointer.length - 1;
+        final double[] x;
+        if (B instanceof RVector)
+            x = ((RVector) B).D;
+        else if (B instanceof SparseRVector)
+            x = ((SparseRVector) B).toDoubleArray();
+        else {
+            x = new double[B.dimension()];
+            for (int j = 0; j < x.length; j++) {
+                final Arithmetic bj = B.get(j);
+                if (!Real.isa.apply(bj))
+                    // fall-back to more general operation
+                    return super.multiply(B);
+                x[j] = ((Real) bj).doubleValue();
+            }
+        }
+        double[] y = new double[height];
+        for (int i = 0; i < height; i++) {
+            double s = 0;
+            for (int k = rowPointer[i]; k < rowPointer[i + 1]; k++)
+                s += value[k] * x[columnIndex[k]];
+            y[i] = s;
+        }
+        return new RVector(y, valueFactory());
+    }
+
+    public Matrix scale(double s) {
+        SparseRMatrix ret = (SparseRMatrix) clone();
+        for (int k = 0; k < ret.nonZeros(); k++)
+            ret.value[k] *= s;
+        return ret;
+    }
+    public Arithmetic scale(Arithmetic s) {
+        if (!Real.isa.apply(s))
+            // fall-back to more general operation
+            return new ArithmeticMatrix(toArray(), valueFactory()).scale(s);
+        return scale(((Real)s).doubleValue());
+    }
+
+    public boolean isDoubleValued() {
+        return true;
+    }
+}
@@ -0,0 +1,309 @@
+/**
+ * @(#)SparseRVector.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.moon.math;
+import orbital.math.*;
+
+import java.util.Arrays;
+import orbital.util.Utility;
+
+/**
+ * Represents a sparse real Vector in <b>R</b><sup>n</sup> with <code>double</code> values.
+ * <p>
+ * Only the non-zero components v<sub>i</sub> are stored together with their index i,
+ * sorted by index. So the memory grows with the number of non-zero components,
+ * instead of with the dimension n.
+ * Reading a component is O(log nnz) by binary search, changing the non-zero pattern is O(nnz).
+ * </p>
+ * <p>
+ * The non-zero components can be iterated with {@link #nonZeros()}, {@link #nonZeroIndex(int)},
+ * and {@link #nonZeroValue(int)}.
+ * </p>
+ *
+ * @structure composite index:int[] unidirectional
+ * @structure composite value:double[] unidirectional
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ * @see SparseRMatrix
+ * @see RVector
+ */
+class SparseRVector extends AbstractVector {
+    private static final long serialVersionUID = 3094782162731548723L;
+
+    /**
+     * the dimension n of this vector.
+     * @serial
+     */
+    private int dimension;
+    /**
+     * the strictly ascending indices of the non-zero components in index[0..nnz-1].
+     * @serial
+     */
+    int index[];
+    /**
+     * the values of the non-zero components in value[0..nnz-1], corresponding to index.
+     * @serial
+     */
+    double value[];
+    /**
+     * the number nnz of non-zero components stored.
+     * @serial
+     */
+    int nnz;
+
+    /**
+     * creates a new sparse zero vector with dimension length.
+     */
+    public SparseRVector(int length, ValueFactory valueFactory) {
+        this(length, new int[0], new double[0], 0, valueFactory);
+    }
+
+    /**
+     * creates a new sparse vector backed by the specified arrays of non-zero components.
+     * @preconditions index[0..nnz-1] is strictly ascending in 0..length-1
+     */
+    SparseRVector(int length, int index[], double value[], int nnz, ValueFactory valueFactory) {
+        super(valueFactory);
+        this.dimension = length;
+        this.index = index;
+        this.value = value;
+        this.nnz = nnz;
+    }
+
+    /**
+     * creates a new sparse vector from an array of doubles, storing only its non-zero components.
+     */
+    public SparseRVector(double values[], ValueFactory valueFactory) {
+        this(values.length, valueFactory);
+        set(values);
+    }
+
+    protected Vector newInstance(int dim) {
+        return new SparseRVector(dim, valueFactory());
+    }
+
+    public Object clone() {
+        return new SparseRVector(dimension, (int[]) index.clone(), (double[]) value.clone(), nnz, valueFactory());
+    }
+
+    public final int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Get the number of non-zero components stored.
+     */
+    public int nonZeros() {
+        return nnz;
+    }
+    /**
+     * Get the index of the k-th non-zero component stored.
+     * @preconditions 0 &le; k &lt; nonZeros()
+     */
+    public int nonZeroIndex(int k) {
+        return index[k];
+    }
+    /**
+     * Get the value of the k-th non-zero component stored.
+     * @preconditions 0 &le; k &lt; nonZeros()
+     */
+    public double nonZeroValue(int k) {
+        return value[k];
+    }
+
+    public Arithmetic get(int i) {
+        return valueFactory().valueOf(getDoubleValue(i));
+    }
+    public double getDoubleValue(int i) {
+        validate(i);
+        final int k = Arrays.binarySearch(index, 0, nnz, i);
+        return k >= 0 ? value[k] : 0;
+    }
+    public void set(int i, Arithmetic vi) {
+        set(i, ((Real) vi).doubleValue());
+    }
+    public void set(int i, double vi) {
+        validate(i);
+        final int k = Arrays.binarySearch(index, 0, nnz, i);
+        if (k >= 0) {
+            if (vi != 0)
+                value[k] = vi;
+            else {
+                // remove non-zero
+                System.arraycopy(index, k + 1, index, k, nnz - k - 1);
+                System.arraycopy(value, k + 1, value, k, nnz - k - 1);
+                nnz--;
+                modCount++;
+            }
+        } else if (vi != 0) {
+            // insert non-zero at insertion point
+            final int ins = -(k + 1);
+            if (nnz == index.length) {
+                final int capacity = Math.max(4, 2 * nnz);
+                int[] newIndex = new int[capacity];
+                double[] newValue = new double[capacity];
+                System.arraycopy(index, 0, newIndex, 0, nnz);
+                System.arraycopy(value, 0, newValue, 0, nnz);
+                index = newIndex;
+                value = newValue;
+            }
+            System.arraycopy(index, ins, index, ins + 1, nnz - ins);
+            System.arraycopy(value, ins, value, ins + 1, nnz - ins);
+            index[ins] = i;
+            value[ins] = vi;
+            nnz++;
+            modCount++;
+        }
+    }
+
+    protected void set(Arithmetic[] v) {
+        double[] d = new double[v.length];
+        for (int i = 0; i < v.length; i++)
+            d[i] = ((Real) v[i]).doubleValue();
+        set(d);
+    }
+    private void set(double[] v) {
+        int count = 0;
+        for (int i = 0; i < v.length; i++)
+            if (v[i] != 0)
+                count++;
+        dimension = v.length;
+        index = new int[count];
+        value = new double[count];
+        nnz = 0;
+        for (int i = 0; i < v.length; i++)
+            if (v[i] != 0) {
+                index[nnz] = i;
+                value[nnz++] = v[i];
+            }
+        modCount++;
+    }
+
+    public Vector add(Vector b) {
+        if (b instanceof SparseRVector)
+            return merge((SparseRVector) b, 1);
+        else if (b instanceof RVector) {
+            Utility.pre(dimension() == b.dimension(), "Vector A+B only defined for same size");
+            double[] ret = (double[]) ((RVector) b).D.clone();
+            for (int k = 0; k < nnz; k++)
+                ret[index[k]] += value[k];
+            return new RVector(ret, valueFactory());
+        } else
+            // fall-back to more general operation
+            return super.add(b);
+    }
+
+    public Vector subtract(Vector b) {
+        if (b instanceof SparseRVector)
+            return merge((SparseRVector) b, -1);
+        else if (b instanceof RVector) {
+            Utility.pre(dimension() == b.dimension(), "Vector A-B only defined for same size");
+            final double[] bb = ((RVector) b).D;
+            double[] ret = new double[bb.length];
+            for (int i = 0; i < ret.length; i++)
+                ret[i] = -bb[i];
+            for (int k = 0; k < nnz; k++)
+                ret[index[k]] += value[k];
+            return new RVector(ret, valueFactory());
+        } else
+            // fall-back to more general operation
+            return super.subtract(b);
+    }
+
+    /**
+     * Merges the non-zero components of this + s*b.
+     */
+    private SparseRVector merge(SparseRVector b, double s) {
+        Utility.pre(dimension() == b.dimension(), "Vector A+B only defined for same size");
+        int[] retIndex = new int[nnz + b.nnz];
+        double[] retValue = new double[nnz + b.nnz];
+        int n = 0;
+        int k = 0, l = 0;
+        while (k < nnz || l < b.nnz) {
+            final int i;
+            final double v;
+            if (l >= b.nnz || (k < nnz && index[k] < b.index[l])) {
+                i = index[k];
+                v = value[k++];
+            } else if (k >= nnz || b.index[l] < index[k]) {
+                i = b.index[l];
+                v = s * b.value[l++];
+            } else {
+                i = index[k];
+                v = value[k++] + s * b.value[l++];
+            }
+            if (v != 0) {
+                retIndex[n] = i;
+                retValue[n++] = v;
+            }
+        }
+        return new SparseRVector(dimension, retIndex, retValue, n, valueFactory());
+    }
+
+    public Vector scale(double s) {
+        SparseRVector ret = (SparseRVector) clone();
+        for (int k = 0; k < ret.nnz; k++)
+            ret.value[k] *= s;
+        return ret;
+    }
+
+    public Arithmetic scale(Arithmetic b) {
+        if (!Real.isa.apply(b))
+            // fall-back to more general multiplication
+            return new ArithmeticVector(toArray(), valueFactory()).scale(b);
+        return scale(((Real)b).doubleValue());
+    }
+
+    public Arithmetic multiply(Vector b) {
+        Utility.pre(dimension() == b.dimension(), "vectors for dot-product must have equal dimension");
+        double ret = 0;
+        if (b instanceof SparseRVector) {
+            final SparseRVector bb = (SparseRVector) b;
+            for (int k = 0, l = 0; k < nnz && l < bb.nnz; ) {
+                if (index[k] < bb.index[l])
+                    k++;
+                else if (index[k] > bb.index[l])
+                    l++;
+                else
+                    ret += value[k++] * bb.value[l++];
+            }
+        } else if (b instanceof RVector) {
+            final double[] bb = ((RVector) b).D;
+            for (int k = 0; k < nnz; k++)
+                ret += value[k] * bb[index[k]];
+        } else {
+            for (int k = 0; k < nnz; k++) {
+                final Arithmetic bi = b.get(index[k]);
+                if (!Real.isa.apply(bi))
+                    // fall-back to more general multiplication
+                    return new ArithmeticVector(toArray(), valueFactory()).multiply(b);
+                ret += value[k] * ((Real) bi).doubleValue();
+            }
+        }
+        return b.valueFactory().valueOf(ret);
+    }
+
+    public Real norm(double p) {
+        if (p == 2) {
+            double sum = 0;
+            for (int k = 0; k < nnz; k++)
+                sum += value[k] * value[k];
+            return valueFactory().valueOf(Math.sqrt(sum));
+        }
+        return super.norm(p);
+    }
+
+    /**
+     * Returns an array containing all the elements in this vector.
+     */
+    public double[] toDoubleArray() {
+        double[] a = new double[dimension];
+        for (int k = 0; k < nnz; k++)
+            a[index[k]] = value[k];
+        return a;
+    }
+
+}
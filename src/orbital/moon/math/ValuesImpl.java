@@ -26,6 +26,7 @@ import java.util.ListIterator;
 import java.util.Arrays;
 import orbital.util.Setops;
 import orbital.util.Utility;
+import orbital.moon.GetPropertyAction;
 
 import orbital.math.functional.Functions;
 
@@ -46,6 +47,39 @@ public class ValuesImpl extends ArithmeticValuesImpl {
 
     public ValuesImpl() {}
 
+    /**
+     * Holds the shared integers in the range [-INTEGERS.length/2, INTEGERS.length/2].
+     * They are shared by all instances of exactly ValuesImpl,
+     * since the integers carry the value factory that created them.
+     * Initialized on first use, after the static tables of ValuesImpl.
+     * While the factory creating them initializes its constants, INTEGERS is still <code>null</code>.
+     * @see #valueOf(int)
+     */
+    private static final class IntegerCache {
+        private IntegerCache() {}
+        static final Integer INTEGERS[] = createIntegers(integerCache());
+
+        /**
+         * Get the bound of the small-value integer cache.
+         * Configurable with the system property <tt>orbital.moon.math.ValuesImpl.integerCache</tt>.
+         */
+        private static int integerCache() {
+            try {
+                return Math.max(0, java.lang.Integer.parseInt(GetPropertyAction.getProperty(ValuesImpl.class.getName() + ".integerCache", "1024")));
+            }
+            catch (NumberFormatException ex) {
+                return 1024;
+            }
+        }
+        private static Integer[] createIntegers(int bound) {
+            final ValuesImpl vf = new ValuesImpl();
+            Integer[] integers = new Integer[2 * bound + 1];
+            for (int i = 0; i < integers.length; i++)
+                integers[i] = new AbstractInteger.Int(i - bound, vf);
+            return integers;
+        }
+    }
+
     // Constants
 
     public Integer ZERO() {
@@ -107,10 +141,20 @@ public class ValuesImpl extends ArithmeticValuesImpl {
     // integer scalar value constructors - facade factory
 
     public Integer valueOf(int val) {
+        // subclasses would receive integers of another value factory
+        final Integer integers[] = getClass() == ValuesImpl.class ? IntegerCache.INTEGERS : null;
+        if (integers != null) {
+            // If -bound <= val <= bound, return shared integer
+            final int bound = integers.length >> 1;
+            if (-bound <= val && val <= bound)
+                return integers[val + bound];
+        }
         return new AbstractInteger.Int(val, this);
     } 
     public Integer valueOf(long val) {
-        return new AbstractInteger.Long(val, this);
+        return (int) val == val
+            ? valueOf((int) val)
+            : new AbstractInteger.Long(val, this);
     }
     public Integer valueOf(java.math.BigInteger val) {
         return new AbstractInteger.Big(val, this);
@@ -180,4 +224,146 @@ public class ValuesImpl extends ArithmeticValuesImpl {
             };
         return AbstractReal.makeReal(a, b);
     } 
+
+    // precomputed coercions
+
+    /**
+     * The scalar classes with precomputed coercions.
+     * @see #sample(int)
+     */
+    private static final Class SCALARS[] = {
+        AbstractInteger.Int.class, AbstractInteger.Long.class, AbstractInteger.Big.class,
+        AbstractRational.Int.class, AbstractRational.Impl.class,
+        AbstractReal.Float.class, AbstractReal.Double.class, AbstractReal.Big.class,
+        AbstractComplex.Double.class, AbstractComplex.Impl.class
+    };
+    /**
+     * The kinds of conversions of a single operand.
+     */
+    private static final int IDENTITY = 0, LONG = 1, BIG_INTEGER = 2, RATIONAL = 3,
+        DOUBLE = 4, BIG_REAL = 5, COMPLEX_DOUBLE = 6, COMPLEX_BIG = 7;
+    /**
+     * The (class, class) &rarr; coercion table, filled on demand.
+     * Entries are either a Coercion or NONE if the pair of classes needs the general coercer.
+     */
+    private final Object coercions[][] = new Object[SCALARS.length][SCALARS.length];
+    private static final Object NONE = new Object();
+
+    protected Coercion coercion(Class a, Class b) {
+        final int i = indexOf(a);
+        final int j = indexOf(b);
+        if (i < 0 || j < 0)
+            return null;
+        Object c = coercions[i][j];
+        if (c == null)
+            // benign race, since coercions are immutable and always computed equal
+            coercions[i][j] = c = computeCoercion(sample(i), sample(j));
+        return c == NONE ? null : (Coercion) c;
+    }
+    private static int indexOf(Class c) {
+        for (int i = 0; i < SCALARS.length; i++)
+            if (SCALARS[i] == c)
+                return i;
+        return -1;
+    }
+    /**
+     * Get a sample instance of SCALARS[i].
+     */
+    private Arithmetic sample(int i) {
+        switch (i) {
+        case 0: return new AbstractInteger.Int(2, this);
+        case 1: return new AbstractInteger.Long(3, this);
+        case 2: return new AbstractInteger.Big(5, this);
+        case 3: return new AbstractRational.Int(1, 2, this);
+        case 4: return new AbstractRational.Impl(valueOf(1), valueOf(3), this);
+        case 5: return new AbstractReal.Float(0.25f, this);
+        case 6: return new AbstractReal.Double(0.5, this);
+        case 7: return new AbstractReal.Big(0.75, this);
+        case 8: return new AbstractComplex.Double(1, 2, this);
+        case 9: return new AbstractComplex.Impl(valueOf(3), valueOf(4), this);
+        default: throw new IndexOutOfBoundsException(i + "");
+        }
+    }
+
+    /**
+     * Compute the coercion of operands of the classes of a and b
+     * by observing the coercion of the samples a and b.
+     * @return the coercion, or NONE if the coercion is not recognized.
+     */
+    private Object computeCoercion(Arithmetic a, Arithmetic b) {
+        final Arithmetic r[] = a.getClass() == b.getClass()
+            ? new Arithmetic[] {a, b}
+            : minimumCoerced((Number) a, (Number) b);
+        final int first = kindOf(a, r[0]);
+        final int second = kindOf(b, r[1]);
+        if (first < 0 || second < 0)
+            return NONE;
+        final Coercion c = new ScalarCoercion(first, second);
+        // verify that the coercion reproduces the observed coercion
+        final Arithmetic c0 = c.first(a, b), c1 = c.second(a, b);
+        if (c0.getClass() != r[0].getClass() || c1.getClass() != r[1].getClass()
+            || !c0.equals(r[0]) || !c1.equals(r[1]))
+            return NONE;
+        return c;
+    }
+    /**
+     * Get the kind of conversion that turned x into r.
+     * @return the kind of conversion, or -1 if it is not recognized.
+     */
+    private static int kindOf(Arithmetic x, Arithmetic r) {
+        if (x == r)
+            return IDENTITY;
+        final Class c = r.getClass();
+        if (c == AbstractInteger.Long.class)
+            return LONG;
+        else if (c == AbstractInteger.Big.class)
+            return BIG_INTEGER;
+        else if (c == AbstractRational.Impl.class && x instanceof Integer)
+            return RATIONAL;
+        else if (c == AbstractReal.Double.class)
+            return DOUBLE;
+        else if (c == AbstractReal.Big.class)
+            return BIG_REAL;
+        else if (c == AbstractComplex.Double.class)
+            return COMPLEX_DOUBLE;
+        else if (c == AbstractComplex.Impl.class)
+            return COMPLEX_BIG;
+        else
+            return -1;
+    }
+
+    /**
+     * Coercion converting each operand with a fixed kind of conversion.
+     * Conversions use the value factory of the first operand like the coercer.
+     */
+    private final class ScalarCoercion extends Coercion {
+        private final int first;
+        private final int second;
+        public ScalarCoercion(int first, int second) {
+            this.first = first;
+            this.second = second;
+        }
+        public Arithmetic first(Arithmetic a, Arithmetic b) {
+            return convert(first, a, a.valueFactory());
+        }
+        public Arithmetic second(Arithmetic a, Arithmetic b) {
+            return convert(second, b, a.valueFactory());
+        }
+        private Arithmetic convert(int kind, Arithmetic x, ValueFactory vf) {
+            switch (kind) {
+            case IDENTITY: return x;
+            case LONG: return new AbstractInteger.Long((Number) x, vf);
+            case BIG_INTEGER: return new AbstractInteger.Big((Number) x, vf);
+            case RATIONAL: return rational((Integer) x);
+            case DOUBLE: return new AbstractReal.Double((Number) x, vf);
+            case BIG_REAL: return new AbstractReal.Big((Number) x, vf);
+            case COMPLEX_DOUBLE: return new AbstractComplex.Double((Number) x, vf);
+            case COMPLEX_BIG: return new AbstractComplex.Impl((Number) x, vf);
+            default: throw new IllegalStateException("unknown conversion " + kind);
+            }
+        }
+        public String toString() {
+            return getClass().getName() + "[" + first + "," + second + "]";
+        }
+    }
 }
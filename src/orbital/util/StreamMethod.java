@@ -9,6 +9,21 @@ package orbital.util;
 import java.util.Iterator;
 
 import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.lang.ref.Cleaner;
+import orbital.moon.GetPropertyAction;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -38,16 +53,25 @@ import java.util.logging.Level;
  * StreamMethod from several threads without explicit synchronization.
  * </p>
  * <p>
- * Also make sure that the Thread using the iterator of this StreamMethod coroutine has either
- * the same priority as the creator thread of it and therefore the stream method.
- * Or at least provide that the StreamMethod has the higher one.
- * Otherwise in a system with many threads but without priority inheritance or priority ceiling,
- * the StreamMethod might not get a chance to produce new data at all.
+ * Stream methods do not own threads. They run on a common pool of daemon threads,
+ * which reuses the threads of stream methods that have ended.
+ * A synchronous connector only occupies a thread from the first request for its results on,
+ * and an asynchronous connector from {@link #apply()} on.
+ * Both release their thread when {@link #runStream()} returns, or when they are closed.
+ * The iterators returned by {@link #apply()} are {@link AutoCloseable}, such that callers
+ * abandoning the stream early can close it deterministically. Iterators that become unreachable
+ * without having been closed are closed automatically, later.
+ * The pool is not bounded unless the system property
+ * <code>orbital.util.StreamMethod.maximumPoolSize</code> is set.
+ * Note that bounding the pool below the number of simultaneously running stream methods
+ * lets their callers wait until some other stream methods end or are closed.
  * </p>
  * <hr>
  * <p>
  * The implementation follows a modified producer/consumer pattern.
- * It uses safe suspend and resume techniques, but nevertheless be cautious when obtaining a lock
+ * Synchronous connectors hand each result over in a single slot, and asynchronous connectors
+ * in a non-blocking queue, with both sides parking until the other side has been active.
+ * Nevertheless be cautious when obtaining a lock
  * on the monitor of critical system resources within runStream() to prevent deadlocks.
  * </p>
  * 
@@ -57,16 +81,12 @@ import java.util.logging.Level;
  * @see <a href="">UML</a>
  * @see <a href="{@docRoot}/Patterns/Design/ConsumerProducer.html">Consumer Producer</a>
  * @internal This is a very tricky concurrent implementation!
- * @todo note that StreamMethod is deadlock prone if the buffer is not restricted in size.
- * @todo volatilize the entry list as in  [4 - Monitors.pdf]
  * @todo proof that StreamMethod itself cannot lead to deadlocks but implements Consumer Producer pattern correctly.
- * @fixme we "sometimes" seem to have a deadlock because we get stuck up in old threads that don't gonna vanish (perhaps @see System#runFinalizersOnExit(boolean))
  */
-public abstract class StreamMethod extends Thread implements Callback {
+public abstract class StreamMethod implements Runnable, Callback {
     static final Logger logger = Logger.getLogger(StreamMethod.class.getName());
     /**
-     * Common ThreadGroup for all StreamMethods.
-     * @todo what to do with uncaught exceptions? Rethrow when an iterator method is called?
+     * Common ThreadGroup for the threads running StreamMethods.
      */
     private static final ThreadGroup streamMethodCoroutines = new ThreadGroup("Stream method coroutines");
     static {
@@ -74,50 +94,96 @@ public abstract class StreamMethod extends Thread implements Callback {
         streamMethodCoroutines.setDaemon(false);
     }
 
-    // against dangling threads (empirically does not seem to be necessary)
-    //  /**
-    //   * Controller for StreamMethod coroutines that encourages finalization
-    //   * when number of threads in streamMethodCoroutines is high
-    //   */
-    //  private static final Thread              streamMethodCoroutineController = new Thread(streamMethodCoroutines, "Stream method coroutine controller") {
-    //          private final int SUSPICIOUS_THREAD_THRESHOLD = 100;
-    //          private final int CONTROLLER_ACTIVITY_PERIOD = 1000;
-    //          //@todo optimize, we can let this thread wait when activeCount()==0
-    //          public void run() {
-    //                  try {
-    //                          while (true) {
-    //                                  int activeThreads = Thread.activeCount();
-    //                                  if (activeThreads > SUSPICIOUS_THREAD_THRESHOLD) {
-    //                        System.runFinalization();
-    //                        System.gc();
-    //                        logger.log(Level.FINER, "run finalization due to {0} threads", new Integer(activeThreads));
-    //                        //@todo yield to finalizer such that he has max priority (priority inheritance)
-    //                        Thread.yield();
-    //                                  } else if (activeThreads == 0)
-    //                                          ;       // wait for the next Thread in our ThreadGroup to appear, instead of just sleeping a period
-    //                                  Thread.sleep(CONTROLLER_ACTIVITY_PERIOD);
-    //                          }
-    //                  }
-    //                  catch (InterruptedException irq) {
-    //                          Thread.currentThread().interrupt();
-    //                  }
-    //          }
-    //  };
-    //  static {
-    //        // if coroutines are the only threads left, then nobody seems to need them anymore, so quit
-    //        streamMethodCoroutineController.setDaemon(true);
-    //        // ordinary priority for streamMethodCoroutineController, because otherwise (higher priority) we might end up controlling finalization only, because we really need 3000 Threads. Or (lower priority) the controller would never get the chance to improve anything at all
-    //    }
-                
-        
     /**
-     * For autonumbering anonymous threads.
+     * The number of seconds after which idle threads of the pool terminate.
+     */
+    private static final long KEEP_ALIVE = 60;
+
+    /**
+     * Common pool of threads running StreamMethods, created lazily.
+     */
+    private static ExecutorService coroutines;
+    private static synchronized ExecutorService coroutines() {
+        if (coroutines == null) {
+            int maximumPoolSize = java.lang.Integer.MAX_VALUE;
+            final String property = StreamMethod.class.getName() + ".maximumPoolSize";
+            try {
+                maximumPoolSize = Math.max(1, java.lang.Integer.parseInt(GetPropertyAction.getProperty(property, maximumPoolSize + "")));
+            } catch (NumberFormatException nonumber) {
+                logger.log(Level.SEVERE, "invalid property setting {0}" , property);
+            } catch (SecurityException nevertheless) {
+                // especially catch SecurityExceptions if we were not allowed to read properties
+            }
+            final ThreadFactory factory = new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        final Thread thread = new Thread(streamMethodCoroutines, r, "StreamMethod-" + nextStreamMethodNum());
+                        // if coroutines are the only threads left, then nobody seems to need them anymore, so quit
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                };
+            if (maximumPoolSize == java.lang.Integer.MAX_VALUE)
+                coroutines = new ThreadPoolExecutor(0, maximumPoolSize, KEEP_ALIVE, TimeUnit.SECONDS, new SynchronousQueue(), factory);
+            else {
+                final ThreadPoolExecutor pool = new ThreadPoolExecutor(maximumPoolSize, maximumPoolSize, KEEP_ALIVE, TimeUnit.SECONDS, new LinkedBlockingQueue(), factory);
+                pool.allowCoreThreadTimeOut(true);
+                coroutines = pool;
+            }
+        }
+        return coroutines;
+    }
+
+    /**
+     * Closes the iterators that have become unreachable without being closed.
+     */
+    private static final Cleaner cleaner = Cleaner.create();
+
+    /**
+     * For autonumbering threads.
      */
     private static int streamMethodInitNumber;
     private static synchronized int nextStreamMethodNum() {
         return streamMethodInitNumber++;
     }
 
+    // metrics
+
+    /**
+     * The number of stream methods started but not yet ended.
+     */
+    private static final AtomicInteger live = new AtomicInteger();
+    /**
+     * The number of stream methods started so far.
+     */
+    private static final AtomicLong started = new AtomicLong();
+    /**
+     * The number of stream methods closed before they had ended.
+     */
+    private static final AtomicLong abandoned = new AtomicLong();
+
+    /**
+     * Get the number of stream methods currently occupying or waiting for a thread.
+     * These are the stream methods that have started and neither ended nor been closed, yet.
+     */
+    public static int getLiveCount() {
+        return live.get();
+    }
+
+    /**
+     * Get the number of stream methods that have been started so far.
+     */
+    public static long getStartedCount() {
+        return started.get();
+    }
+
+    /**
+     * Get the number of stream methods that have been closed before they ended,
+     * either explicitly, or because their iterators became unreachable.
+     */
+    public static long getAbandonedCount() {
+        return abandoned.get();
+    }
+
     /**
      * Whether this stream method is a synchronous or asynchronous (i.e. concurrent) connector.
      * @serial
@@ -125,10 +191,14 @@ public abstract class StreamMethod extends Thread implements Callback {
     private final boolean                        synchronousConnector;
 
     /**
-     * The queued iterator stream buffering the results.
-     * @serial
+     * The handoff of the results to the caller.
      */
-    private QueuedIterator                       resultStream;
+    private final Handoff                        handoff;
+
+    /**
+     * The registration of the iterator for being closed when it becomes unreachable.
+     */
+    private Cleaner.Cleanable                    cleanable;
 
     /**
      * Construct this StreamMethod as a synchronous coroutine stream connector.
@@ -148,15 +218,8 @@ public abstract class StreamMethod extends Thread implements Callback {
      *  big buffer for the results, whether they will ever be used or not.</p>
      */
     protected StreamMethod(boolean synchronousConnector) {
-        super(streamMethodCoroutines, "StreamMethod-" + nextStreamMethodNum());
-        // if coroutines are the only threads left, then nobody seems to need them anymore, so quit
-        setDaemon(true);
         this.synchronousConnector = synchronousConnector;
-        this.resultStream = synchronousConnector
-            ? new ResumingQueuedIterator(this)
-            : new InquiringQueuedIterator(this);
-        //              if (!streamMethodCoroutineController.isAlive())
-        //              streamMethodCoroutineController.start();
+        this.handoff = new Handoff(this, synchronousConnector);
     }
 
     /**
@@ -165,16 +228,33 @@ public abstract class StreamMethod extends Thread implements Callback {
      * <b>Note:</b> This method is not necessarily thread-safe. You should not use an instance of StreamMethod
      * from several threads without explicit synchronization.</p>
      * @return a stream iterator containing the return values of this coroutine.
+     *  The iterator is {@link AutoCloseable} for ending this coroutine before all values have been used.
+     *  Interrupting the caller while it waits for the next value closes this coroutine, as well, see {@link #request()}.
+     * @throws IllegalStateException if this stream method has already been applied.
      */
     public Iterator apply() {
-        // to prevent someone from setting it to null just because run is already done
-        QueuedIterator moribund = resultStream;
-        if (synchronousConnector)
-            safeSuspend();
-        start();
-        return moribund;
+        if (cleanable != null)
+            throw new IllegalStateException("stream method has already been applied");
+        final Iterator results = new StreamIterator(handoff);
+        // the cleaning action must not refer to the iterator
+        this.cleanable = cleaner.register(results, handoff);
+        if (!synchronousConnector)
+            handoff.start();
+        return results;
     } 
 
+    /**
+     * Close this stream method coroutine.
+     * Ends the coroutine when it returns the next value, and lets its iterator end.
+     * Has no effect if the coroutine has already ended.
+     */
+    public void close() {
+        if (cleanable != null)
+            cleanable.clean();
+        else
+            handoff.run();
+    }
+
     /**
      * Call this method to return a value from the stream coroutine.
      * If not aborted, execution will resume afteron, although some time may have passed in between.
@@ -183,48 +263,22 @@ public abstract class StreamMethod extends Thread implements Callback {
      * @param ret the return-value to pass to the caller
      */
     protected void resumedReturn(Object ret) {
-        synchronized (this) {
-            resultStream.add(ret);
-            requested = false;
-
-            logger.log(Level.FINER, "< resumedReturn ", ret);
-            notifyAll();        // notify of new data
-        } 
-
-        // let other threads do their job as well
-        Thread.yield();
-
-        // sychronous connectors can pause now
-        if (synchronousConnector && !requested)
-            safeSuspend();
-        checkSuspend();
-
+        logger.log(Level.FINER, "< resumedReturn ", ret);
+        handoff.put(ret);
         logger.log(Level.FINER, "> resume ... ", ret);
     } 
 
-    private volatile boolean requested = false;
-
     /**
      * Request next data forcing resume and wait if necessary.
+     * <p>
+     * If the calling thread is interrupted while waiting, this stream method is closed,
+     * such that its iterator ends, and the interrupt status of the calling thread is kept.</p>
+     * @throws InnerCheckedException wrapping an {@link InterruptedException} if the calling thread has been
+     *  interrupted while waiting.
+     *  This also applies to <code>hasNext()</code> and <code>next()</code> of the iterator returned by {@link #apply()}.
      */
     public void request() {
-        if (isAlive()) {                 // could still produce stream data
-            requested = true;
-            if (isSuspended())
-                safeResume();    // wake up to produce new stream data
-
-            // if we have do not have any data but still have a chance to get some, wait
-            // XXX: synchronized checking for isEmpty or using sychronized collection?
-            try {
-                while (resultStream != null && resultStream.isEmpty()) {
-                    synchronized (this) {
-                        wait();    // wait for resumedReturn or permanent end of stream
-                    } 
-                } 
-            } catch (InterruptedException irq) {
-                Thread.currentThread().interrupt();
-            } 
-        } 
+        handoff.request();
     } 
 
     /**
@@ -238,172 +292,262 @@ public abstract class StreamMethod extends Thread implements Callback {
      * Do not call, directly.
      */
     public final void run() {
-        checkSuspend();
-        runStream();
-        logger.log(Level.FINEST, "< return and exit");
-        synchronized (this) {
-            resultStream = null;        // mark permanent end of stream
-            notifyAll();                        // notify of permanent end of stream
-        } 
+        try {
+            if (handoff.begin())
+                runStream();
+            logger.log(Level.FINEST, "< return and exit");
+        } catch (Abandonment closed) {
+            logger.log(Level.FINER, "stop coroutine");
+        } catch (RuntimeException ex) {
+            logger.log(Level.FINE, "coroutine failed", ex);
+            handoff.fail(ex);
+        } catch (Error ex) {
+            logger.log(Level.FINE, "coroutine failed", ex);
+            handoff.fail(ex);
+        } finally {
+            live.decrementAndGet();
+            // mark permanent end of stream
+            handoff.end();
+        }
     } 
 
-    // Safe suspension implementation
-
-    /**
-     * Common suspension lock.
-     * @serial
-     */
-    private Object                       suspension = new Object();
-
-    /**
-     * Whether we are suspended.
-     * <b>Note:</b> this volatile field seems to occur in sychronized blocks, only. Might be redundant?
-     * @serial
-     */
-    private volatile boolean suspended = false;
-
     /**
-     * Safely suspends this thread.
-     * Will apply the next time, checkSuspend() is called.
-     * @see #checkSuspend()
-     * @see Thread#suspend()
+     * Thrown in the coroutine to unwind it after it has been closed.
      */
-    protected final void safeSuspend() {
-        synchronized (suspension) {
-            suspended = true;
-        } 
-    } 
+    private static final class Abandonment extends Error {
+        private static final long serialVersionUID = 5167301268214539034L;
+        static final Abandonment INSTANCE = new Abandonment();
+        private Abandonment() {
+            super("stream method has been closed", null, false, false);
+        }
+    }
 
     /**
-     * Safely resumes this thread.
-     * @see Thread#resume()
+     * The handoff of results from the coroutine to the caller.
+     * Running it closes the stream method.
+     * <p>
+     * Synchronous connectors hand over in the single slot, which the coroutine only fills when requested.
+     * Asynchronous connectors hand over in a queue.
+     * Either side parks until the other side has changed the state.</p>
      */
-    protected final void safeResume() {
-        synchronized (suspension) {
-            if (!suspended)
+    private static final class Handoff implements Runnable {
+        private static final Object EMPTY = new Object();
+        private final StreamMethod method;
+        private final boolean synchronous;
+        /**
+         * The single slot of synchronous connectors, or EMPTY.
+         */
+        private volatile Object slot = EMPTY;
+        /**
+         * The queue of asynchronous connectors.
+         */
+        private final Queue buffer;
+        /**
+         * Whether the caller requests the next result of a synchronous connector.
+         */
+        private volatile boolean requested = false;
+        /**
+         * Whether the coroutine has ended, which is set after all its results.
+         */
+        private volatile boolean ended = false;
+        /**
+         * Whether the stream method has been closed.
+         */
+        private volatile boolean closed = false;
+        /**
+         * The exception that ended the coroutine, if any.
+         */
+        private volatile Throwable failure;
+        private final AtomicBoolean started = new AtomicBoolean(false);
+        private volatile Thread producer;
+        private volatile Thread consumer;
+
+        Handoff(StreamMethod method, boolean synchronous) {
+            this.method = method;
+            this.synchronous = synchronous;
+            this.buffer = synchronous ? null : new ConcurrentLinkedQueue();
+        }
+
+        /**
+         * Start the coroutine on the pool, unless already started.
+         */
+        void start() {
+            if (!started.compareAndSet(false, true))
                 return;
-            suspended = false;
-            suspension.notify();
-        } 
-    } 
-
-    /**
-     * Whether this thread is safely suspended
-     */
-    protected final boolean isSuspended() {
-        synchronized (suspension) {
-            return suspended;
-        } 
-    } 
-
-    /**
-     * Checks for suspend and if safe suspended, then waits in a loop.
-     */
-    private final void checkSuspend() {
-        if (suspended)
+            if (closed) {
+                ended = true;
+                return;
+            }
+            live.incrementAndGet();
+            StreamMethod.started.incrementAndGet();
             try {
-                synchronized (suspension) {
-                    // wait loop when we are (safe) suspended
-                    while (suspended) {
-                        suspension.wait();
-                        assert !suspended : "if we wait, we should only wake up when we are not suspended any more";
-                    } 
-                } 
-            } catch (InterruptedException irq) {
-                logger.log(Level.WARNING, "safeSuspend/resumedReturn() had wait interrupted", irq);
-                Thread.currentThread().interrupt();
-            } 
-    } 
-
-    /**
-     * Safely stops this thread.
-     * @see Thread#stop()
-     */
-    final void safeStop() {
-        logger.log(Level.FINER, "stop coroutine");
-        // when we are the last thread and blocked (alias safe suspended in checkSuspend()) then we must stop in order for our daemon thread group to stop and quit the virtual machine. But this is already achieved by making only this thread as a daemon!
-        this.interrupt();
-        // let this thread at least have a short chance of packing our things and go
-        Thread.yield(/*this*/);
-    }
-
-
-    /**
-     * Print an information string in a nice way. Left or right, depending which thread calls.
-     * A debug utility method which is necessary!
-     */
-    /*private static void print(String info) {
-      Thread t = Thread.currentThread();
-      //logger
-      if (t.getName().startsWith("StreamMethod"))
-      System.err.println("\t" + info + "\t--");
-      else
-      System.err.println("\t\t\t\t--\t" + info);
-      }*/
-}
-
-
-/**
- * QueuedIterator that inquires the StreamMethod for new data instead
- * of instantly returning false from hasNext().
- */
-class InquiringQueuedIterator extends QueuedIterator {
-
-    /**
-     * The stream method where the data comes from.
-     * This is the object to resume.
-     * @serial
-     */
-    private final StreamMethod method;
-        
-    protected final StreamMethod getMethod() {
-        return method;
-    }
-
-    public InquiringQueuedIterator(StreamMethod method) {
-        super(false);
-        this.method = method;
-    }
-
-    public boolean hasNext() {
-        if (super.hasNext())
-            return true;
-        getMethod().request();
-        return super.hasNext();
-    } 
-    public Object next() {
-        if (!hasNext())
-            throw new NoSuchElementException();
-        return super.next();
-    } 
-}
-
-/**
- * QueuedIterator that resumes the StreamMethod on every request for next() (resp. hasNext()).
- */
-// TODO: do we need this class?
-class ResumingQueuedIterator extends InquiringQueuedIterator {
-    public ResumingQueuedIterator(StreamMethod method) {
-        super(method);
+                coroutines().execute(method);
+            } catch (RejectedExecutionException ex) {
+                live.decrementAndGet();
+                fail(ex);
+                end();
+            }
+        }
+
+        /**
+         * Called by the coroutine when beginning to run.
+         * @return whether to run the coroutine, i.e. unless it has been closed already.
+         */
+        boolean begin() {
+            producer = Thread.currentThread();
+            return !closed;
+        }
+
+        boolean available() {
+            return synchronous ? slot != EMPTY : !buffer.isEmpty();
+        }
+
+        Object take() {
+            if (synchronous) {
+                final Object ret = slot;
+                slot = EMPTY;
+                return ret;
+            } else
+                return buffer.poll();
+        }
+
+        /**
+         * Called by the caller to wait until there is a result or the coroutine has ended.
+         * @throws InnerCheckedException wrapping an InterruptedException if the caller has been interrupted while waiting,
+         *  after closing the stream method. The interrupt status of the caller is kept.
+         */
+        void request() {
+            if (available() || ended || closed)
+                return;
+            consumer = Thread.currentThread();
+            requested = true;
+            start();
+            LockSupport.unpark(producer);
+            // closed stream methods end for the caller at once, even if the coroutine is still unwinding
+            while (!available() && !ended && !closed) {
+                LockSupport.park(this);
+                if (Thread.currentThread().isInterrupted()) {
+                    // keep the interrupt status, but end the stream instead of pretending that it has ended
+                    method.close();
+                    throw new InnerCheckedException("interrupted while waiting for the next result", new InterruptedException());
+                }
+            }
+        }
+
+        /**
+         * Called by the caller to check whether there are further results.
+         */
+        boolean hasNext() {
+            request();
+            if (available())
+                return true;
+            if (ended) {
+                // the last results precede the end
+                if (available())
+                    return true;
+                final Throwable ex = failure;
+                if (ex != null) {
+                    failure = null;
+                    if (ex instanceof Error)
+                        throw (Error) ex;
+                    throw (RuntimeException) ex;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Called by the coroutine to return a result.
+         */
+        void put(Object ret) {
+            if (closed)
+                throw Abandonment.INSTANCE;
+            if (synchronous) {
+                // withdraw the request before publishing the result, which allows the next request
+                requested = false;
+                slot = ret;
+                LockSupport.unpark(consumer);
+                // synchronous connectors can pause now
+                while (!requested && !closed)
+                    LockSupport.park(this);
+                if (closed)
+                    throw Abandonment.INSTANCE;
+            } else {
+                buffer.add(ret);
+                LockSupport.unpark(consumer);
+            }
+        }
+
+        /**
+         * Called by the coroutine when it ended with an exception.
+         */
+        void fail(Throwable ex) {
+            failure = ex;
+        }
+
+        /**
+         * Called by the coroutine when it has ended.
+         */
+        void end() {
+            ended = true;
+            producer = null;
+            LockSupport.unpark(consumer);
+        }
+
+        /**
+         * Close the stream method.
+         */
+        public void run() {
+            if (closed)
+                return;
+            closed = true;
+            if (!started.compareAndSet(false, true)) {
+                if (!ended)
+                    abandoned.incrementAndGet();
+                LockSupport.unpark(producer);
+            } else
+                // never started
+                ended = true;
+            // let the caller see the end of the stream
+            LockSupport.unpark(consumer);
+        }
     }
 
-    /*
-      public Object next() {
-      //TODO: request and resume in every case, even if we still have one
-      return super.next();
-      }
-    */
-         
     /**
-     * If no client requires this iterator any more, this object should be finalized.
-     * Then we (at least try to) stop the stream method thread.
+     * Iterator over the results of a stream method.
+     * The stream method does not refer to its iterator, such that the iterator can become unreachable while the coroutine waits.
      */
-    protected void finalize() throws Throwable {
-        getMethod().safeStop();
-        // how about .stop() as well, because if the thread never gets running again, it will never have a chance to pack his things and go. However, if we simply stop the whole thing, any locks that the thread obtains will not get unlocked.
-        //Thread.yield() was already called in safeStop()
-        getMethod().stop();
-        super.finalize();
-        StreamMethod.logger.log(Level.FINER, "finalizing {0}", getMethod());
+    private static final class StreamIterator implements Iterator, AutoCloseable {
+        private final Handoff handoff;
+        StreamIterator(Handoff handoff) {
+            this.handoff = handoff;
+        }
+
+        public boolean hasNext() {
+            if (handoff.hasNext())
+                return true;
+            if (handoff.ended)
+                close();
+            return false;
+        }
+        public Object next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return handoff.take();
+        }
+        /**
+         * Not supported.
+         * @throws UnsupportedOperationException on every call.
+         */
+        public void remove() {
+            throw new UnsupportedOperationException("senseless, has already been removed from the stream on the call to next");
+        }
+        /**
+         * Close the stream method, ending the stream.
+         * @see StreamMethod#close()
+         */
+        public void close() {
+            handoff.method.close();
+        }
     }
 }
@@ -0,0 +1,328 @@
+/**
+ * @(#)GeneTest.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.algorithm.evolutionary;
+
+import junit.framework.*;
+
+import java.util.Random;
+
+/**
+ * Checks the bit strings packed into words against bit by bit references,
+ * especially at the boundaries of words.
+ *
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ */
+public class GeneTest extends check.TestCase {
+    /**
+     * The lengths to check, around the boundaries of words.
+     */
+    private static final int lengths[] = {0, 1, 63, 64, 65, 127, 128, 129, 200};
+    private Random random;
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(suite());
+    }
+    public static Test suite() {
+        return new TestSuite(GeneTest.class);
+    }
+
+    protected void setUp() {
+        // the genetic algorithm provides the random source of genes
+        random = new Random(4711);
+        new IncrementalGeneticAlgorithm().setRandom(random);
+    }
+
+    private boolean[] randomBits(int length) {
+        final boolean bits[] = new boolean[length];
+        for (int i = 0; i < length; i++)
+            bits[i] = random.nextBoolean();
+        return bits;
+    }
+
+    private Gene.BitSet randomBitSet(int length) {
+        final Gene.BitSet b = new Gene.BitSet(length);
+        b.set(randomBits(length));
+        return b;
+    }
+
+    /**
+     * Check that the bits beyond the length are clear,
+     * by comparing with a bit string that has been set bit by bit.
+     */
+    private static void assertClean(String message, Gene.BitSet b) {
+        final Gene.BitSet reference = new Gene.BitSet(b.length());
+        for (int i = 0; i < b.length(); i++)
+            reference.set(i, b.get(i));
+        assertEquals(message + " has no unused bits set", reference, b);
+        assertEquals(message + " hash code", reference.hashCode(), b.hashCode());
+        assertEquals(message + " distance", 0, reference.hammingDistance(b));
+    }
+
+    public void testGetSet() {
+        for (int k = 0; k < lengths.length; k++) {
+            final int length = lengths[k];
+            final boolean bits[] = randomBits(length);
+            final Gene.BitSet b = new Gene.BitSet(length);
+            assertEquals("length", length, b.length());
+            for (int i = 0; i < length; i++)
+                assertTrue("initially clear", !b.get(i));
+            for (int i = 0; i < length; i++)
+                b.set(i, bits[i]);
+            for (int i = 0; i < length; i++)
+                assertEquals("bit " + i + " of " + length, bits[i], b.get(i));
+            assertTrue("bit string", java.util.Arrays.equals(bits, (boolean[]) b.get()));
+            final Gene.BitSet c = new Gene.BitSet(length);
+            c.set(bits);
+            assertEquals("set bit by bit or at once", b, c);
+            assertEquals("hash code", b.hashCode(), c.hashCode());
+            assertEquals("clone", b, b.clone());
+
+            // the bit string is copied in both directions
+            final boolean copy[] = (boolean[]) b.get();
+            if (length > 0) {
+                copy[length - 1] = !copy[length - 1];
+                assertEquals("get() returns a copy", bits[length - 1], b.get(length - 1));
+                bits[0] = !bits[0];
+                assertEquals("set(Object) copies", !bits[0], c.get(0));
+            }
+
+            // flipping each bit changes exactly that bit, and the hash code is recomputed
+            for (int i = 0; i < length; i++) {
+                final Gene.BitSet d = (Gene.BitSet) b.clone();
+                final int hash = d.hashCode();
+                d.set(i, !d.get(i));
+                assertEquals("one bit flipped at " + i + " of " + length, 1, d.hammingDistance(b));
+                assertTrue("modified", !d.equals(b));
+                d.set(i, !d.get(i));
+                assertEquals("flipped back", b, d);
+                assertEquals("hash code recomputed", hash, d.hashCode());
+            }
+
+            final int illegal[] = {-1, length, length + 1, 64 * ((length + 63) / 64)};
+            for (int j = 0; j < illegal.length; j++) {
+                try {
+                    b.get(illegal[j]);
+                    fail("index " + illegal[j] + " out of bounds of " + length);
+                }
+                catch (ArrayIndexOutOfBoundsException expected) {}
+                try {
+                    b.set(illegal[j], true);
+                    fail("index " + illegal[j] + " out of bounds of " + length);
+                }
+                catch (ArrayIndexOutOfBoundsException expected) {}
+            }
+        }
+    }
+
+    public void testUnusedBits() {
+        for (int k = 0; k < lengths.length; k++) {
+            final int length = lengths[k];
+            final Gene.BitSet b = randomBitSet(length);
+            final Gene.BitSet inverse = (Gene.BitSet) b.inverse();
+            assertClean("inverse", inverse);
+            assertEquals("all bits inverted", length, b.hammingDistance(inverse));
+            assertEquals("inverse of inverse", b, inverse.inverse());
+            final Gene.BitSet all = (Gene.BitSet) b.mutate(1);
+            assertClean("mutation of all bits", all);
+            assertEquals("mutation of all bits inverts", inverse, all);
+            assertClean("mutation", (Gene.BitSet) b.mutate(0.5));
+            assertEquals("no mutation", b, b.mutate(0));
+
+            final Gene.BitSet parents[] = {b, inverse, randomBitSet(length)};
+            final double probabilities[] = {0, 0.3, 1};
+            for (int p = 0; p < probabilities.length; p++)
+                for (int a = 2; a <= parents.length; a++) {
+                    final Gene.BitSet some[] = new Gene.BitSet[a];
+                    System.arraycopy(parents, 0, some, 0, a);
+                    final Gene children[] = b.recombine(some, a, probabilities[p]);
+                    assertEquals("number of children", a, children.length);
+                    for (int c = 0; c < a; c++)
+                        assertClean("child " + c + " of " + a + " parents recombined with " + probabilities[p], (Gene.BitSet) children[c]);
+                    // the children share the bits of the parents at each position
+                    for (int i = 0; i < length; i++) {
+                        int parentBits = 0, childBits = 0;
+                        for (int c = 0; c < a; c++) {
+                            parentBits += some[c].get(i) ? 1 : 0;
+                            childBits += ((Gene.BitSet) children[c]).get(i) ? 1 : 0;
+                        }
+                        assertEquals("bits of " + a + " parents recombined at " + i, parentBits, childBits);
+                    }
+                    if (probabilities[p] == 0)
+                        for (int c = 0; c < a; c++)
+                            assertEquals("no recombination", some[c], children[c]);
+                }
+            for (int points = 0; points <= Math.min(length, 5); points++) {
+                final Gene children[] = b.crossover(parents, 3, points);
+                for (int c = 0; c < children.length; c++)
+                    assertClean("child " + c + " of crossover at " + points + " points", (Gene.BitSet) children[c]);
+            }
+        }
+    }
+
+    /**
+     * Crossover of complementary parents, whose children show the segments.
+     */
+    public void testCrossover() {
+        for (int k = 0; k < lengths.length; k++) {
+            final int length = lengths[k];
+            final Gene.BitSet zeros = new Gene.BitSet(length);
+            final Gene.BitSet ones = (Gene.BitSet) zeros.inverse();
+            final Gene.BitSet parents[] = {zeros, ones};
+            for (int points = 0; points <= Math.min(length, 9); points++)
+                for (int trial = 0; trial < 10; trial++) {
+                    final Gene children[] = zeros.crossover(parents, 2, points);
+                    final Gene.BitSet first = (Gene.BitSet) children[0];
+                    final Gene.BitSet second = (Gene.BitSet) children[1];
+                    assertEquals("complementary children", second, first.inverse());
+                    if (length == 0)
+                        continue;
+                    assertTrue("first child starts with the first parent", !first.get(0));
+                    int changes = 0;
+                    for (int i = 1; i < length; i++)
+                        if (first.get(i) != first.get(i - 1))
+                            changes++;
+                    // the last cut may be at the end
+                    assertTrue(changes + " segments changes at most " + points, changes <= points);
+                    assertTrue(changes + " segments changes at least " + (points - 1), changes >= points - 1);
+                }
+            // cuts at all positions alternate the parents
+            final Gene children[] = zeros.crossover(parents, 2, length);
+            for (int i = 0; i < length; i++) {
+                assertEquals("alternating at " + i, i % 2 == 1, ((Gene.BitSet) children[0]).get(i));
+                assertEquals("alternating at " + i, i % 2 == 0, ((Gene.BitSet) children[1]).get(i));
+            }
+            try {
+                zeros.crossover(parents, 2, length + 1);
+                fail("more crossover points than bits");
+            }
+            catch (IllegalArgumentException expected) {}
+        }
+    }
+
+    public void testHammingDistance() {
+        for (int k = 0; k < lengths.length; k++) {
+            final int length = lengths[k];
+            for (int trial = 0; trial < 20; trial++) {
+                final Gene.BitSet a = randomBitSet(length);
+                // sparse differences
+                final Gene.BitSet b = trial % 2 == 0 ? randomBitSet(length) : (Gene.BitSet) a.mutate(0.05);
+                int differences = 0;
+                for (int i = 0; i < length; i++)
+                    if (a.get(i) != b.get(i))
+                        differences++;
+                assertEquals("Hamming distance", differences, a.hammingDistance(b));
+                assertEquals("symmetric", differences, b.hammingDistance(a));
+                if (length > 0)
+                    assertEquals("distance", (double) differences / length, a.distanceMeasure().distance(a, b).doubleValue(), 1e-15);
+            }
+        }
+        try {
+            new Gene.BitSet(64).hammingDistance(new Gene.BitSet(65));
+            fail("bit strings of different length");
+        }
+        catch (IllegalArgumentException expected) {}
+    }
+
+    /**
+     * Parents of different lengths are rejected, even if no child is copied from them.
+     */
+    public void testDifferentLengths() {
+        final Gene.BitSet a = randomBitSet(64);
+        final Gene.BitSet b = randomBitSet(65);
+        final Gene.BitSet c = randomBitSet(64);
+        final Gene.BitSet parents[][] = {{a, b}, {a, c, b}};
+        for (int p = 0; p < parents.length; p++)
+            for (int children = 1; children <= parents[p].length; children++) {
+                try {
+                    a.recombine(parents[p], children, 0.5);
+                    fail("recombine " + parents[p].length + " parents of different lengths to " + children + " children");
+                }
+                catch (IllegalArgumentException expected) {}
+                try {
+                    a.crossover(parents[p], children, 1);
+                    fail("crossover of " + parents[p].length + " parents of different lengths to " + children + " children");
+                }
+                catch (IllegalArgumentException expected) {}
+            }
+        try {
+            a.recombine(new Gene[] {a, c}, 3, 0.5);
+            fail("more children than parents");
+        }
+        catch (IllegalArgumentException expected) {}
+    }
+
+    /**
+     * The value of the bits of a fixed-point number, decoded bit by bit with the old loop.
+     * It computed the powers of 2 in int arithmetic, and thus only decodes up to 30 fractional and 30 integer bits.
+     */
+    private static double decodeOld(Gene.Fixed f) {
+        int position = 0;
+        double r = 0.0;
+        for (int i = 1; i <= f.getFractionalGranularity(); i++)
+            if (f.get(position++))
+                r += 1./(1<<i);
+        for (int i = 0; i < f.getIntegerGranularity(); i++)
+            if (f.get(position++))
+                r += 1<<i;
+        if (f.get(position++))
+            r *= -1;
+        return r;
+    }
+
+    /**
+     * The value of the bits of a fixed-point number, decoded bit by bit.
+     */
+    private static double decode(Gene.Fixed f) {
+        int position = 0;
+        double r = 0.0;
+        for (int i = 1; i <= f.getFractionalGranularity(); i++)
+            if (f.get(position++))
+                r += Math.scalb(1.0, -i);
+        for (int i = 0; i < f.getIntegerGranularity(); i++)
+            if (f.get(position++))
+                r += Math.scalb(1.0, i);
+        if (f.get(position++))
+            r *= -1;
+        return r;
+    }
+
+    public void testFixed() {
+        final int granularities[][] = {{0, 0}, {0, 8}, {8, 0}, {7, 9}, {16, 16}, {30, 30}, {1, 62}, {62, 1}, {31, 31}, {40, 40}, {70, 70}};
+        for (int g = 0; g < granularities.length; g++) {
+            final int integer = granularities[g][0];
+            final int fractional = granularities[g][1];
+            final Gene.Fixed f = new Gene.Fixed(integer, fractional);
+            assertEquals("length", 1 + integer + fractional, f.length());
+            final String name = " with " + integer + " integer and " + fractional + " fractional bits";
+            for (int trial = 0; trial < 200; trial++) {
+                // set(Object) encodes numbers
+                for (int i = 0; i < f.length(); i++)
+                    f.set(i, random.nextBoolean());
+                final double value = ((java.lang.Double) f.get()).doubleValue();
+                final double expected = decode(f);
+                // rounding of more than 53 significant bits depends on the order of summation
+                final double tolerance = integer + fractional <= 53 ? 0 : 4 * Math.ulp(expected);
+                assertEquals("decoded " + f + name, expected, value, tolerance);
+                if (integer <= 30 && fractional <= 30)
+                    assertEquals("decoded " + f + name + " like the old loop", decodeOld(f), value, tolerance);
+            }
+            final int significant = Math.min(integer + fractional, 52);
+            for (int trial = 0; trial < 200; trial++) {
+                // representable values
+                final long numerator = (long) (random.nextDouble() * (1L << significant));
+                final int exponent = integer - significant - random.nextInt(integer + fractional - significant + 1);
+                final double value = (random.nextBoolean() ? -1 : 1) * Math.scalb((double) numerator, exponent);
+                final Gene.Fixed e = new Gene.Fixed(integer, fractional);
+                e.set(new java.lang.Double(value));
+                assertEquals("encoded " + value + name, value, ((java.lang.Double) e.get()).doubleValue(), 0);
+                assertEquals("encoded " + value + name + " bit by bit", value, decode(e), 0);
+                assertClean("encoded", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * @(#)IntegerGenomes.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.algorithm.evolutionary;
+
+import orbital.logic.functor.Function;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Populations of genomes consisting of a single integer gene, for testing.
+ *
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ */
+final class IntegerGenomes {
+    private IntegerGenomes() {}
+
+    /**
+     * A fitness function of the genome values with the given sign, counting its calls.
+     * It fails for the genome with a given value.
+     */
+    static class Evaluation implements Function {
+        final AtomicInteger calls = new AtomicInteger();
+        private final double sign;
+        private final int failing;
+        Evaluation(double sign, int failing) {
+            this.sign = sign;
+            this.failing = failing;
+        }
+        Evaluation(double sign) {
+            this(sign, -1);
+        }
+        Evaluation() {
+            this(1);
+        }
+        public Object apply(Object o) {
+            calls.incrementAndGet();
+            final int value = value((Genome) o);
+            if (value == failing)
+                throw new IllegalStateException("evaluation of " + value + " failed");
+            return new java.lang.Double(fitness(value));
+        }
+        /**
+         * The fitness of the genome with the given value.
+         */
+        double fitness(int value) {
+            return sign * (1 + value * value / 3.0);
+        }
+    }
+
+    /**
+     * The value of the gene of a genome.
+     */
+    static int value(Genome g) {
+        return ((Gene.Integer) g.get(0)).intValue();
+    }
+
+    /**
+     * Let an incremental genetic algorithm with the given fitness evaluation manage a population.
+     * @return pop.
+     */
+    static Population create(Population pop, Function evaluation) {
+        final GeneticAlgorithm ga = new IncrementalGeneticAlgorithm();
+        ga.setEvaluation(evaluation);
+        pop.setGeneticAlgorithm(ga);
+        return pop;
+    }
+
+    /**
+     * Add each of the genomes 0,...,size-1 the given number of times.
+     */
+    static void fill(Population pop, int size, int repetitions) {
+        for (int r = 0; r < repetitions; r++)
+            for (int i = 0; i < size; i++)
+                pop.add(new Genome(new Gene.Integer(i)));
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * @(#)ParallelEvaluationPopulationTest.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.algorithm.evolutionary;
+
+import junit.framework.*;
+
+import orbital.logic.functor.Function;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Checks the parallel evaluation of the fitness of populations,
+ * with and without memoizing, and in the presence of failing evaluations.
+ *
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ */
+public class ParallelEvaluationPopulationTest extends check.TestCase {
+    /**
+     * The number of different genomes.
+     */
+    private static final int SIZE = 40;
+
+    /**
+     * The fitness of the genomes.
+     */
+    private static final IntegerGenomes.Evaluation FITNESS = new IntegerGenomes.Evaluation();
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(suite());
+    }
+    public static Test suite() {
+        return new TestSuite(ParallelEvaluationPopulationTest.class);
+    }
+
+    /**
+     * Create a parallel evaluation population of an algorithm with the given fitness evaluation.
+     */
+    private static ParallelEvaluationPopulation create(Function evaluation) {
+        return (ParallelEvaluationPopulation) IntegerGenomes.create(new ParallelEvaluationPopulation(), evaluation);
+    }
+
+    /**
+     * Add each of the genomes 0,...,SIZE-1 the given number of times.
+     */
+    private static void fill(Population pop, int repetitions) {
+        IntegerGenomes.fill(pop, SIZE, repetitions);
+    }
+
+    /**
+     * Check that all genomes have their fitness, and are sorted by descending fitness.
+     */
+    private static void assertEvaluated(Population pop) {
+        double last = Double.POSITIVE_INFINITY;
+        for (Iterator i = pop.iterator(); i.hasNext(); ) {
+            final Genome g = (Genome) i.next();
+            assertTrue("evaluated " + g, g.hasFitness());
+            assertEquals("fitness of " + g, FITNESS.fitness(IntegerGenomes.value(g)), g.getFitness(), 0);
+            assertTrue("sorted by fitness", g.getFitness() <= last);
+            last = g.getFitness();
+        }
+    }
+
+    public void testEvaluate() {
+        for (int batchSize = 1; batchSize <= 2 * SIZE; batchSize *= 3) {
+            final IntegerGenomes.Evaluation evaluation = new IntegerGenomes.Evaluation();
+            final ParallelEvaluationPopulation pop = create(evaluation);
+            pop.setBatchSize(batchSize);
+            assertEquals("batch size", batchSize, pop.getBatchSize());
+            assertTrue("not memoizing by default", !pop.isMemoizing());
+            fill(pop, 2);
+            pop.evaluate(false);
+            assertEquals("size", 2 * SIZE, pop.size());
+            assertEvaluated(pop);
+            assertEquals("each genome evaluated once", 2 * SIZE, evaluation.calls.get());
+            assertEquals("evaluation count", 2 * SIZE, pop.getLastEvaluationCount());
+            pop.evaluate(false);
+            assertEquals("cached fitness not evaluated again", 2 * SIZE, evaluation.calls.get());
+            pop.evaluate(true);
+            assertEvaluated(pop);
+            assertEquals("redo evaluates again", 4 * SIZE, evaluation.calls.get());
+        }
+        try {
+            create(new IntegerGenomes.Evaluation()).setBatchSize(0);
+            fail("positive batch size expected");
+        }
+        catch (IllegalArgumentException expected) {}
+    }
+
+    public void testMemoizing() {
+        final IntegerGenomes.Evaluation evaluation = new IntegerGenomes.Evaluation();
+        final ParallelEvaluationPopulation pop = create(evaluation);
+        pop.setMemoizing(true);
+        assertTrue("memoizing", pop.isMemoizing());
+        // evaluate all genomes in a single batch, such that duplicates never race
+        pop.setBatchSize(2 * SIZE);
+        fill(pop, 2);
+        pop.evaluate(false);
+        assertEvaluated(pop);
+        assertEquals("identical genomes evaluated once", SIZE, evaluation.calls.get());
+        assertEquals("memoized", SIZE, pop.getMemoSize());
+        fill(pop, 1);
+        pop.evaluate(false);
+        assertEvaluated(pop);
+        assertEquals("memoized genomes not evaluated again", SIZE, evaluation.calls.get());
+        pop.evaluate(true);
+        assertEvaluated(pop);
+        assertEquals("redo evaluates all genomes again", SIZE + 3 * SIZE, evaluation.calls.get());
+        pop.setMemoizing(false);
+        assertTrue("not memoizing", !pop.isMemoizing());
+        assertEquals("memo dropped", 0, pop.getMemoSize());
+    }
+
+    public void testMemoCapacity() {
+        final IntegerGenomes.Evaluation evaluation = new IntegerGenomes.Evaluation();
+        final ParallelEvaluationPopulation pop = create(evaluation);
+        pop.setMemoizing(true);
+        pop.setMemoCapacity(SIZE / 4);
+        assertEquals("capacity", SIZE / 4, pop.getMemoCapacity());
+        fill(pop, 1);
+        pop.evaluate(false);
+        assertEvaluated(pop);
+        assertEquals("memo bounded", SIZE / 4, pop.getMemoSize());
+        pop.setMemoCapacity(2);
+        assertEquals("memo shrunk", 2, pop.getMemoSize());
+        try {
+            pop.setMemoCapacity(0);
+            fail("positive memo capacity expected");
+        }
+        catch (IllegalArgumentException expected) {}
+    }
+
+    /**
+     * A failing evaluation cancels the generation, but evaluate still returns,
+     * and a later redo evaluates all genomes.
+     */
+    public void testFailure() {
+        final IntegerGenomes.Evaluation failing = new IntegerGenomes.Evaluation(1, SIZE / 2);
+        final ParallelEvaluationPopulation pop = create(failing);
+        pop.setBatchSize(1);
+        fill(pop, 1);
+        pop.evaluate(false);
+        boolean unevaluated = false;
+        for (Iterator i = pop.iterator(); i.hasNext(); ) {
+            final Genome g = (Genome) i.next();
+            if (IntegerGenomes.value(g) == SIZE / 2)
+                assertTrue("failed evaluation has no fitness", !g.hasFitness());
+            unevaluated |= !g.hasFitness();
+        }
+        assertTrue("failure leaves genomes unevaluated", unevaluated);
+        pop.getGeneticAlgorithm().setEvaluation(new IntegerGenomes.Evaluation());
+        pop.evaluate(true);
+        assertEvaluated(pop);
+    }
+
+    /**
+     * Redoing the evaluation cancels the evaluations of the old generation that are still pending,
+     * and awaits the evaluations that are running.
+     */
+    public void testCancel() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final IntegerGenomes.Evaluation evaluation = new IntegerGenomes.Evaluation();
+        final ParallelEvaluationPopulation pop = create(new Function() {
+                public Object apply(Object o) {
+                    started.countDown();
+                    try {
+                        release.await();
+                    }
+                    catch (InterruptedException irq) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return evaluation.apply(o);
+                }
+            });
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            pop.setExecutor(executor);
+            assertSame("executor", executor, pop.getExecutor());
+            pop.setBatchSize(1);
+            fill(pop, 1);
+            started.await();
+            // release the running evaluation once evaluate(true) awaits the old generation
+            final Thread main = Thread.currentThread();
+            final Thread releaser = new Thread() {
+                    public void run() {
+                        while (main.getState() != Thread.State.WAITING)
+                            Thread.yield();
+                        release.countDown();
+                    }
+                };
+            releaser.start();
+            pop.evaluate(true);
+            releaser.join();
+            assertEvaluated(pop);
+            assertEquals("pending evaluations of the old generation cancelled", 1 + SIZE, evaluation.calls.get());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * @(#)SelectorsTest.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.algorithm.evolutionary;
+
+import junit.framework.*;
+
+import orbital.logic.functor.Function;
+import java.util.Random;
+
+/**
+ * Checks the fitness proportionate selection schemes against the probabilities of selection,
+ * and the rebuilding of their precomputed data after modifications of the population.
+ *
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ */
+public class SelectorsTest extends check.TestCase {
+    /**
+     * The number of different genomes.
+     */
+    private static final int SIZE = 7;
+    /**
+     * The number of selections for comparing frequencies.
+     */
+    private static final int SAMPLES = 200000;
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(suite());
+    }
+    public static Test suite() {
+        return new TestSuite(SelectorsTest.class);
+    }
+
+    /**
+     * Create a population of the genomes 0,...,SIZE-1 with fitness of the given sign.
+     */
+    private static Population create(double sign, long seed) {
+        final Population pop = IntegerGenomes.create(new PopulationImpl(), new IntegerGenomes.Evaluation(sign));
+        pop.getGeneticAlgorithm().setRandom(new Random(seed));
+        IntegerGenomes.fill(pop, SIZE, 1);
+        return pop;
+    }
+
+    /**
+     * The probabilities of selection proportionate to the fitness, indexed by the values of the genomes.
+     */
+    private static double[] probabilities(Population pop) {
+        final double weight[] = PrecomputedSelection.weights(pop);
+        final double p[] = new double[SIZE];
+        for (int i = 0; i < weight.length; i++)
+            p[IntegerGenomes.value(pop.get(i))] = weight[i];
+        return p;
+    }
+
+    /**
+     * Count how often each genome has been selected, indexed by the values of the genomes.
+     */
+    private static int[] count(Genome selected[]) {
+        final int count[] = new int[SIZE];
+        for (int j = 0; j < selected.length; j++)
+            count[IntegerGenomes.value(selected[j])]++;
+        return count;
+    }
+
+    public void testAliasConvergesToRouletteWheel() {
+        final double signs[] = {1, -1};
+        for (int s = 0; s < signs.length; s++) {
+            final Population pop = create(signs[s], 4711);
+            final double p[] = probabilities(pop);
+            final int roulette[] = count(((Selectors.BatchSelection) Selectors.rouletteWheel()).select(pop, SAMPLES));
+            final int alias[] = count(((Selectors.BatchSelection) Selectors.alias()).select(pop, SAMPLES));
+            final int single[] = new int[SIZE];
+            final Function aliasSelector = Selectors.alias();
+            for (int j = 0; j < SAMPLES; j++)
+                single[IntegerGenomes.value((Genome) aliasSelector.apply(pop))]++;
+            for (int i = 0; i < SIZE; i++) {
+                // five standard deviations of the frequencies
+                final double deviation = 5 * Math.sqrt(p[i] * (1 - p[i]) / SAMPLES);
+                assertEquals("roulette wheel frequency of " + i, p[i], (double) roulette[i] / SAMPLES, deviation);
+                assertEquals("alias frequency of " + i, p[i], (double) alias[i] / SAMPLES, deviation);
+                assertEquals("single alias frequency of " + i, p[i], (double) single[i] / SAMPLES, deviation);
+                assertEquals("alias and roulette wheel frequencies of " + i, (double) roulette[i] / SAMPLES, (double) alias[i] / SAMPLES, Math.sqrt(2) * deviation);
+            }
+        }
+    }
+
+    /**
+     * Each genome is selected between &lfloor;k*p<sub>i</sub>&rfloor; and &lceil;k*p<sub>i</sub>&rceil; times among k selections.
+     */
+    public void testStochasticUniversalBounds() {
+        final double signs[] = {1, -1};
+        for (int s = 0; s < signs.length; s++) {
+            final Population pop = create(signs[s], 1729);
+            final double p[] = probabilities(pop);
+            final Selectors.BatchSelection sus = (Selectors.BatchSelection) Selectors.stochasticUniversal();
+            for (int k = 1; k <= 60; k++)
+                for (int trial = 0; trial < 20; trial++) {
+                    final Genome selected[] = sus.select(pop, k);
+                    assertEquals("number of selections", k, selected.length);
+                    final int count[] = count(selected);
+                    for (int i = 0; i < SIZE; i++) {
+                        // tolerate rounding errors of the partial sums for k*p_i close to integers
+                        final int lower = (int) Math.floor(k * p[i] - 1e-9);
+                        final int upper = (int) Math.ceil(k * p[i] + 1e-9);
+                        assertTrue(count[i] + " selections of " + i + " among " + k + " not below " + k * p[i], count[i] >= lower);
+                        assertTrue(count[i] + " selections of " + i + " among " + k + " not above " + k * p[i], count[i] <= upper);
+                    }
+                }
+        }
+    }
+
+    public void testMixedSigns() {
+        final Population pop = create(1, 42);
+        pop.add(new Genome(new Gene.Integer(SIZE)) {
+                public void evaluate(Population population, boolean redo) {
+                    setFitness(-1);
+                }
+            });
+        final Function selectors[] = {Selectors.rouletteWheel(), Selectors.alias(), Selectors.stochasticUniversal()};
+        for (int k = 0; k < selectors.length; k++)
+            try {
+                selectors[k].apply(pop);
+                fail(selectors[k] + " requires fitness values of equal signs");
+            }
+            catch (IllegalArgumentException expected) {}
+    }
+
+    /**
+     * A selection counting how often it has precomputed its data.
+     */
+    private static class CountingSelection extends PrecomputedSelection {
+        int updates = 0;
+        double weight[];
+        public Object apply(Object p) {
+            prepare((Population) p);
+            return ((Population) p).get(0);
+        }
+        protected void update(Population population) {
+            updates++;
+            weight = weights(population);
+        }
+    }
+
+    /**
+     * The precomputed data is rebuilt after adding, removing and evaluating, but only then.
+     */
+    public void testPrepare() {
+        final Population pop = create(1, 7);
+        final CountingSelection selection = new CountingSelection();
+        selection.apply(pop);
+        assertEquals("precomputed", 1, selection.updates);
+        selection.select(pop, 10);
+        assertEquals("precomputed data reused", 1, selection.updates);
+
+        final Genome added = new Genome(new Gene.Integer(SIZE));
+        pop.add(added);
+        selection.apply(pop);
+        assertEquals("rebuilt after add", 2, selection.updates);
+        assertEquals("weights of all genomes", SIZE + 1, selection.weight.length);
+
+        pop.remove(added);
+        selection.apply(pop);
+        assertEquals("rebuilt after remove", 3, selection.updates);
+        assertEquals("weights of remaining genomes", SIZE, selection.weight.length);
+
+        pop.remove(0);
+        selection.apply(pop);
+        assertEquals("rebuilt after remove at index", 4, selection.updates);
+
+        pop.getGeneticAlgorithm().setEvaluation(new IntegerGenomes.Evaluation(2));
+        pop.evaluate(true);
+        selection.apply(pop);
+        assertEquals("rebuilt after evaluate", 5, selection.updates);
+        selection.apply(pop);
+        assertEquals("precomputed data reused", 5, selection.updates);
+
+        selection.apply(create(1, 7));
+        assertEquals("rebuilt for another population", 6, selection.updates);
+    }
+
+    /**
+     * Proportionate selectors never select genomes that have been removed,
+     * and select genomes that have been added.
+     */
+    public void testRebuiltSelection() {
+        final Function selectors[] = {Selectors.rouletteWheel(), Selectors.alias(), Selectors.stochasticUniversal()};
+        for (int k = 0; k < selectors.length; k++) {
+            final Population pop = create(1, 11);
+            final Selectors.BatchSelection selector = (Selectors.BatchSelection) selectors[k];
+            selector.select(pop, 100);
+            // a genome with overwhelming fitness
+            final Genome best = new Genome(new Gene.Integer(SIZE)) {
+                    public void evaluate(Population population, boolean redo) {
+                        setFitness(1e9);
+                    }
+                };
+            pop.add(best);
+            final Genome selected[] = selector.select(pop, 100);
+            int bests = 0;
+            for (int j = 0; j < selected.length; j++)
+                if (selected[j] == best)
+                    bests++;
+            assertTrue(selector + " selects the genome added", bests >= 99);
+            pop.remove(best);
+            final Genome after[] = selector.select(pop, 1000);
+            for (int j = 0; j < after.length; j++)
+                assertTrue(selector + " never selects the genome removed", after[j] != best);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * @(#)BestFirstSearchTest.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+import junit.framework.*;
+
+import orbital.algorithm.template.*;
+import orbital.logic.functor.Function;
+import orbital.logic.functor.MutableFunction;
+import orbital.math.Real;
+import orbital.math.Values;
+import orbital.math.ValueFactory;
+import java.util.*;
+
+/**
+ * Checks the open list of BestFirstSearch and the closed set of OpenClosedGeneralSearchProblem
+ * with A<sup>*</sup> graph search on a small graph.
+ * A node that is first reached by an expensive path, and then by a cheaper path, is replaced in the open list,
+ * and equal nodes that are reached by worse paths are dropped.
+ *
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ */
+public class BestFirstSearchTest extends check.TestCase {
+    private static final ValueFactory vf = Values.getDefault();
+    private static final int S = 0, A = 1, B = 2, C = 3, D = 4, G = 5;
+    private static final String names = "SABCDG";
+    /**
+     * The costs of the edges, or 0 if there is no edge.
+     * S reaches B for 5 directly, but for 2 via A, and for 6 via C.
+     * D reaches the goal G for 4, but B reaches it for 3.
+     * B leads back to A, which has already been expanded.
+     */
+    private static final int edges[][] = {
+        //S  A  B  C  D  G
+        { 0, 1, 5, 2, 0, 0}, // S
+        { 0, 0, 1, 0, 0, 0}, // A
+        { 0, 1, 0, 0, 0, 1}, // B
+        { 0, 0, 4, 0, 1, 0}, // C
+        { 0, 0, 0, 0, 0, 1}, // D
+        { 0, 0, 0, 0, 0, 0}, // G
+    };
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(suite());
+    }
+    public static Test suite() {
+        return new TestSuite(BestFirstSearchTest.class);
+    }
+
+    /**
+     * A<sup>*</sup> with h=0 expands in the order of the costs, and nodes of equal costs in the order of addition.
+     */
+    public void testDecreaseKey() {
+        final Graph graph = new Graph();
+        final Graph.State solution = (Graph.State) new AStar(graph.heuristic(false)).solve(new OpenClosedGeneralSearchProblem(graph));
+        assertNotNull("solution", solution);
+        assertEquals("solution", G, solution.vertex);
+        assertEquals("optimal cost", vf.valueOf(3), solution.accumulatedCost);
+        // B is expanded with its cheaper cost 2 via A, the expensive path to G via D is dropped,
+        // and A is closed when B leads back to it
+        assertEquals("expansions", "S(0)A(1)C(2)B(2)D(3)", graph.expanded.toString());
+        assertEquals("each successor of the states expanded computed once", 3 + 1 + 2 + 2 + 1, graph.successors);
+        assertEquals("closed successor A of B dropped", 3 + 1 + 2 + 1 + 1, graph.transitions);
+    }
+
+    /**
+     * A<sup>*</sup> with a consistent heuristic.
+     */
+    public void testHeuristic() {
+        final Graph graph = new Graph();
+        final Graph.State solution = (Graph.State) new AStar(graph.heuristic(true)).solve(new OpenClosedGeneralSearchProblem(graph));
+        assertNotNull("solution", solution);
+        assertEquals("solution", G, solution.vertex);
+        assertEquals("optimal cost", vf.valueOf(3), solution.accumulatedCost);
+        assertEquals("expansions", "S(0)A(1)C(2)B(2)", graph.expanded.toString());
+        assertEquals("each successor of the states expanded computed once", 3 + 1 + 2 + 2, graph.successors);
+        assertEquals("closed successor A of B dropped", 3 + 1 + 2 + 1, graph.transitions);
+    }
+
+    /**
+     * Without the closed set, the open list still replaces and drops equal open nodes,
+     * but expands A again when B leads back to it.
+     */
+    public void testOpenList() {
+        final Graph graph = new Graph();
+        final Graph.State solution = (Graph.State) new AStar(graph.heuristic(false)).solve(graph);
+        assertEquals("optimal cost", vf.valueOf(3), solution.accumulatedCost);
+        assertEquals("expansions", "S(0)A(1)C(2)B(2)D(3)A(3)", graph.expanded.toString());
+    }
+
+    /**
+     * A directed graph with costs on its edges, where the actions are the vertices to go to.
+     */
+    static class Graph implements GeneralSearchProblem {
+        /**
+         * The states expanded with their accumulated costs, in the order of expansion.
+         */
+        final StringBuffer expanded = new StringBuffer();
+        /**
+         * The number of successor states computed.
+         */
+        int successors = 0;
+        /**
+         * The number of transitions taken.
+         */
+        int transitions = 0;
+
+        /**
+         * The heuristic, either 0, or the (consistent) number of edges to the goal.
+         */
+        Function heuristic(final boolean informed) {
+            return new Function() {
+                    public Object apply(Object n) {
+                        final int v = ((State) n).vertex;
+                        return vf.valueOf(!informed || v == G ? 0 : v == S ? 2 : 1);
+                    }
+                };
+        }
+
+        public Object getInitialState() {
+            return new State(S, vf.valueOf(0));
+        }
+
+        public boolean isSolution(Object n) {
+            return ((State) n).vertex == G;
+        }
+
+        public Iterator actions(Object n) {
+            final State s = (State) n;
+            expanded.append(s);
+            final List actions = new ArrayList();
+            for (int v = 0; v < edges.length; v++)
+                if (edges[s.vertex][v] != 0)
+                    actions.add(new java.lang.Integer(v));
+            return actions.iterator();
+        }
+
+        public Iterator states(Object action, Object n) {
+            successors++;
+            return Collections.singletonList(new State(((java.lang.Integer) action).intValue(), null)).iterator();
+        }
+
+        public TransitionModel.Transition transition(Object action, Object state, Object statep) {
+            transitions++;
+            final int v = ((java.lang.Integer) action).intValue();
+            assertEquals("successor state of the action", v, ((State) statep).vertex);
+            return new Transition(action, vf.valueOf(edges[((State) state).vertex][v]));
+        }
+
+        public MutableFunction getAccumulatedCostFunction() {
+            return ACCUMULATED_COST;
+        }
+        private static final MutableFunction ACCUMULATED_COST = new MutableFunction() {
+                public Object apply(Object state) {
+                    return ((State) state).accumulatedCost;
+                }
+                public Object set(Object state, Object accumulatedCost) {
+                    final Object old = ((State) state).accumulatedCost;
+                    ((State) state).accumulatedCost = (Real) accumulatedCost;
+                    return old;
+                }
+                public Object clone() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+
+        /**
+         * A vertex reached with some accumulated cost.
+         * Equal vertices are equal states, regardless of their costs.
+         */
+        static class State {
+            final int vertex;
+            Real accumulatedCost;
+            State(int vertex, Real accumulatedCost) {
+                this.vertex = vertex;
+                this.accumulatedCost = accumulatedCost;
+            }
+            public boolean equals(Object o) {
+                return o instanceof State && ((State) o).vertex == vertex;
+            }
+            public int hashCode() {
+                return vertex;
+            }
+            public String toString() {
+                return names.charAt(vertex) + "(" + accumulatedCost + ")";
+            }
+        }
+    }
+}
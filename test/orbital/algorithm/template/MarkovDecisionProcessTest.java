@@ -149,6 +149,18 @@ public class MarkovDecisionProcessTest extends check.TestCase {
             testMDP(nav, planner, solutions[i], 2);
         }
     }
+
+    public void testValueIteration() throws IOException {
+        final int sweeps[] = {ValueIteration.GAUSS_SEIDEL, ValueIteration.JACOBI, ValueIteration.PRIORITIZED_SWEEPING};
+        for (int k = 0; k < sweeps.length; k++) {
+            for (int i = 0; i < problems.length; i++) {
+                RobotNavigation nav = problems[i];
+                MarkovDecisionProcess planner;
+                planner = new ValueIteration(nav.getHeuristic(), nav.allStates(), 0.1, sweeps[k]);
+                testMDP(nav, planner, solutions[i], 2);
+            }
+        }
+    }
     
     protected void testMDP(RobotNavigation nav,
                            MarkovDecisionProcess planner,
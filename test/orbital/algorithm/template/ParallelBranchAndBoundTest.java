@@ -0,0 +1,209 @@
+/**
+ * @(#)ParallelBranchAndBoundTest.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+import junit.framework.*;
+
+import orbital.algorithm.template.*;
+import orbital.logic.functor.Function;
+import orbital.logic.functor.MutableFunction;
+import orbital.math.Real;
+import orbital.math.Values;
+import orbital.math.ValueFactory;
+import java.util.*;
+
+/**
+ * Checks that ParallelBranchAndBound finds the same optimum as sequential BranchAndBound.
+ * Solves random instances of the traveling salesman problem.
+ *
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ */
+public class ParallelBranchAndBoundTest extends check.TestCase {
+    private static final ValueFactory vf = Values.getDefault();
+    private static final int CITIES = 8;
+    private static final int TEST_REPETITION = 5;
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(suite());
+    }
+    public static Test suite() {
+        return new TestSuite(ParallelBranchAndBoundTest.class);
+    }
+
+    public void testOptimum() {
+        final Random random = new Random(2718);
+        for (int rep = 0; rep < TEST_REPETITION; rep++) {
+            final Tour problem = new Tour(random, CITIES);
+            final Real maxBound = vf.valueOf(CITIES * 1000);
+            final BranchAndBound sequential = new BranchAndBound(problem.heuristic(), maxBound);
+            final Tour.State expected = (Tour.State) sequential.solve(problem);
+            assertNotNull("sequential solution", expected);
+            assertEquals("sequential optimum", problem.optimum(), expected.accumulatedCost.doubleValue(), 0);
+            for (int parallelism = 2; parallelism <= 4; parallelism++) {
+                final ParallelBranchAndBound parallel = new ParallelBranchAndBound(problem.heuristic(), maxBound);
+                parallel.setParallelism(parallelism);
+                assertEquals("parallelism", parallelism, parallel.getParallelism());
+                final Tour.State solution = (Tour.State) parallel.solve(problem);
+                assertNotNull("parallel solution", solution);
+                assertTrue("solution " + solution, problem.isSolution(solution));
+                assertEquals("parallel optimum with parallelism " + parallelism, expected.accumulatedCost, solution.accumulatedCost);
+                assertEquals("cost of the tour", problem.cost(solution.tour), solution.accumulatedCost.doubleValue(), 0);
+                assertTrue("explored nodes", parallel.getNodeCount() > 0);
+            }
+        }
+    }
+
+    public void testNoSolution() {
+        final Tour problem = new Tour(new Random(31), CITIES);
+        // no tour is that cheap
+        final ParallelBranchAndBound parallel = new ParallelBranchAndBound(problem.heuristic(), vf.valueOf(1));
+        parallel.setParallelism(3);
+        assertNull("no solution below bound", parallel.solve(problem));
+        try {
+            parallel.setParallelism(0);
+            fail("positive parallelism expected");
+        }
+        catch (IllegalArgumentException expected) {}
+    }
+
+    /**
+     * The traveling salesman problem on random integer distances, starting and ending in city 0.
+     * The actions are the next cities to visit.
+     */
+    static class Tour implements GeneralSearchProblem {
+        final int distance[][];
+        /**
+         * The shortest distance between two different cities.
+         */
+        final int minimum;
+        Tour(Random random, int n) {
+            distance = new int[n][n];
+            int min = Integer.MAX_VALUE;
+            for (int i = 0; i < n; i++)
+                for (int j = 0; j < i; j++) {
+                    distance[i][j] = distance[j][i] = 1 + random.nextInt(100);
+                    min = Math.min(min, distance[i][j]);
+                }
+            minimum = min;
+        }
+
+        int cost(int tour[]) {
+            int c = 0;
+            for (int i = 0; i + 1 < tour.length; i++)
+                c += distance[tour[i]][tour[i + 1]];
+            return c;
+        }
+
+        /**
+         * Computes the optimum by complete enumeration.
+         */
+        int optimum() {
+            final int tour[] = new int[distance.length + 1];
+            return optimum(tour, 1, new boolean[distance.length]);
+        }
+        private int optimum(int tour[], int k, boolean visited[]) {
+            if (k == distance.length) {
+                tour[k] = 0;
+                return cost(tour);
+            }
+            int best = Integer.MAX_VALUE;
+            for (int c = 1; c < distance.length; c++)
+                if (!visited[c]) {
+                    visited[c] = true;
+                    tour[k] = c;
+                    best = Math.min(best, optimum(tour, k + 1, visited));
+                    visited[c] = false;
+                }
+            return best;
+        }
+
+        /**
+         * Each remaining city, and the return, costs at least the shortest distance.
+         */
+        Function heuristic() {
+            return new Function() {
+                    public Object apply(Object n) {
+                        final State s = (State) n;
+                        return vf.valueOf(s.complete() ? 0 : (distance.length + 1 - s.tour.length) * minimum);
+                    }
+                };
+        }
+
+        public Object getInitialState() {
+            return new State(new int[] {0}, vf.valueOf(0));
+        }
+
+        public boolean isSolution(Object n) {
+            return ((State) n).complete();
+        }
+
+        public Iterator actions(Object n) {
+            final State s = (State) n;
+            final List actions = new ArrayList();
+            if (s.tour.length == distance.length)
+                actions.add(new java.lang.Integer(0));
+            else if (!s.complete())
+                for (int c = 1; c < distance.length; c++)
+                    if (!s.visits(c))
+                        actions.add(new java.lang.Integer(c));
+            return actions.iterator();
+        }
+
+        public Iterator states(Object action, Object n) {
+            final int tour[] = ((State) n).tour;
+            final int next[] = new int[tour.length + 1];
+            System.arraycopy(tour, 0, next, 0, tour.length);
+            next[tour.length] = ((java.lang.Integer) action).intValue();
+            return Collections.singletonList(new State(next, null)).iterator();
+        }
+
+        public TransitionModel.Transition transition(Object action, Object state, Object statep) {
+            final int tour[] = ((State) state).tour;
+            return new Transition(action, vf.valueOf(distance[tour[tour.length - 1]][((java.lang.Integer) action).intValue()]));
+        }
+
+        public MutableFunction getAccumulatedCostFunction() {
+            return ACCUMULATED_COST;
+        }
+        private static final MutableFunction ACCUMULATED_COST = new MutableFunction() {
+                public Object apply(Object state) {
+                    return ((State) state).accumulatedCost;
+                }
+                public Object set(Object state, Object accumulatedCost) {
+                    final Object old = ((State) state).accumulatedCost;
+                    ((State) state).accumulatedCost = (Real) accumulatedCost;
+                    return old;
+                }
+                public Object clone() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+
+        /**
+         * A partial tour.
+         */
+        class State {
+            final int tour[];
+            Real accumulatedCost;
+            State(int tour[], Real accumulatedCost) {
+                this.tour = tour;
+                this.accumulatedCost = accumulatedCost;
+            }
+            boolean complete() {
+                return tour.length == distance.length + 1;
+            }
+            boolean visits(int c) {
+                for (int i = 0; i < tour.length; i++)
+                    if (tour[i] == c)
+                        return true;
+                return false;
+            }
+            public String toString() {
+                return Arrays.toString(tour) + "(" + accumulatedCost + ")";
+            }
+        }
+    }
+}
@@ -0,0 +1,287 @@
+/**
+ * @(#)ValueIterationTest.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+import junit.framework.*;
+
+import orbital.algorithm.template.*;
+import orbital.logic.functor.Function;
+import orbital.math.Values;
+import orbital.math.ValueFactory;
+import java.util.*;
+
+/**
+ * Checks all sweeps of ValueIteration against GaussSeidelDynamicProgramming on stochastic grids.
+ * The values of the policies found are compared with the optimal values, and the policies are
+ * compared with each other in all states whose best action is unique.
+ *
+ * @version $Id$
+ * @author  Andr&eacute; Platzer
+ */
+public class ValueIterationTest extends check.TestCase {
+    private static final ValueFactory vf = Values.getDefault();
+    private static final double DISCOUNT = 0.9;
+    private static final double TOLERANCE = 1e-6;
+    /**
+     * The maximum difference of the values of the policies found to the optimal values.
+     */
+    private static final double PRECISION = 1e-3;
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(suite());
+    }
+    public static Test suite() {
+        return new TestSuite(ValueIterationTest.class);
+    }
+
+    public void testSmall() {
+        test(new Grid(6, 5));
+    }
+
+    /**
+     * A grid with more than 1024 states, such that Jacobi sweeps are split into parallel tasks.
+     */
+    public void testLarge() {
+        test(new Grid(40, 30));
+    }
+
+    public void testSweep() {
+        final ValueIteration planner = new ValueIteration(Grid.ZERO, Collections.EMPTY_LIST, TOLERANCE);
+        assertEquals("default sweep", ValueIteration.GAUSS_SEIDEL, planner.getSweep());
+        try {
+            planner.setSweep(3);
+            fail("illegal sweep");
+        }
+        catch (IllegalArgumentException expected) {}
+        try {
+            planner.setParallelism(0);
+            fail("positive parallelism expected");
+        }
+        catch (IllegalArgumentException expected) {}
+        assertNotNull("space complexity", planner.spaceComplexity());
+    }
+
+    private void test(Grid grid) {
+        final double optimal[] = grid.optimalValues();
+        final MarkovDecisionProcess.DynamicProgramming reference = new GaussSeidelDynamicProgramming(Grid.ZERO, grid.states(), TOLERANCE);
+        reference.setDiscount(vf.valueOf(DISCOUNT));
+        final Function expected = (Function) reference.solve(grid);
+        assertValues("Gauss-Seidel dynamic programming", grid, optimal, expected);
+        final int sweeps[] = {ValueIteration.GAUSS_SEIDEL, ValueIteration.JACOBI, ValueIteration.PRIORITIZED_SWEEPING};
+        for (int k = 0; k < sweeps.length; k++) {
+            final ValueIteration planner = new ValueIteration(Grid.ZERO, grid.states(), TOLERANCE, sweeps[k]);
+            planner.setDiscount(vf.valueOf(DISCOUNT));
+            planner.setParallelism(2);
+            final Function policy = (Function) planner.solve(grid);
+            final String name = "value iteration with sweep " + sweeps[k];
+            assertValues(name, grid, optimal, policy);
+            assertTrue(name + " backups", planner.getBackupCount() >= grid.size() - 1);
+            assertTrue(name + " converged to residual " + planner.getResidual(), planner.getResidual() < TOLERANCE);
+            int unique = 0;
+            for (Iterator i = grid.states().iterator(); i.hasNext(); ) {
+                final Grid.Cell s = (Grid.Cell) i.next();
+                if (grid.gap(s, optimal) > PRECISION) {
+                    assertEquals(name + " policy in " + s, expected.apply(s), policy.apply(s));
+                    unique++;
+                }
+            }
+            assertTrue("most states have a unique best action", 2 * unique > grid.size());
+        }
+    }
+
+    /**
+     * Check that the values of a policy are close to the optimal values.
+     */
+    private void assertValues(String name, Grid grid, double optimal[], Function policy) {
+        final double values[] = grid.values(policy);
+        for (int i = 0; i < values.length; i++)
+            assertEquals(name + " value of " + grid.cell(i), optimal[i], values[i], PRECISION);
+    }
+
+    /**
+     * A grid in which the goal is the top right corner, and moves may slip.
+     * A move goes into the intended direction with probability 0.8, and orthogonally with probability 0.1 each.
+     * Moves into the border stay.
+     * Moves cost 1, but moves out of swamp cells cost 5.
+     */
+    static class Grid implements MarkovDecisionProblem {
+        /**
+         * The heuristic 0.
+         */
+        static final Function ZERO = new Function() {
+                public Object apply(Object s) {
+                    return vf.valueOf(0);
+                }
+            };
+        private static final int dx[] = {0, 1, 0, -1};
+        private static final int dy[] = {1, 0, -1, 0};
+        final int width;
+        final int height;
+        Grid(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        int size() {
+            return width * height;
+        }
+        Cell cell(int i) {
+            return new Cell(i % width, i / width);
+        }
+        private int index(Cell s) {
+            return s.y * width + s.x;
+        }
+        private boolean isGoal(int x, int y) {
+            return x == width - 1 && y == height - 1;
+        }
+        private double cost(Cell s) {
+            return (s.x * 7 + s.y * 13) % 5 == 0 ? 5 : 1;
+        }
+
+        /**
+         * All states except the goal.
+         */
+        List states() {
+            final List states = new ArrayList();
+            for (int i = 0; i < size(); i++)
+                if (!isGoal(i % width, i / width))
+                    states.add(cell(i));
+            return states;
+        }
+
+        /**
+         * The successors of a move with their probabilities.
+         */
+        private Map/*<Cell,Double>*/ outcomes(int a, Cell s) {
+            final Map outcomes = new LinkedHashMap();
+            add(outcomes, s, a, 0.8);
+            add(outcomes, s, (a + 1) % 4, 0.1);
+            add(outcomes, s, (a + 3) % 4, 0.1);
+            return outcomes;
+        }
+        private void add(Map outcomes, Cell s, int direction, double p) {
+            final int x = s.x + dx[direction];
+            final int y = s.y + dy[direction];
+            final Cell t = x >= 0 && x < width && y >= 0 && y < height ? new Cell(x, y) : s;
+            final java.lang.Double q = (java.lang.Double) outcomes.get(t);
+            outcomes.put(t, new java.lang.Double(q == null ? p : q.doubleValue() + p));
+        }
+
+        /**
+         * The action value Q<sub>U</sub>(s,a).
+         */
+        private double actionValue(Cell s, int a, double U[]) {
+            double q = 0;
+            for (Iterator i = outcomes(a, s).entrySet().iterator(); i.hasNext(); ) {
+                final Map.Entry e = (Map.Entry) i.next();
+                q += ((java.lang.Double) e.getValue()).doubleValue() * U[index((Cell) e.getKey())];
+            }
+            return cost(s) + DISCOUNT * q;
+        }
+
+        /**
+         * The optimal values, computed by value iteration until the values no longer change.
+         */
+        double[] optimalValues() {
+            final double U[] = new double[size()];
+            double delta;
+            do {
+                delta = 0;
+                for (int i = 0; i < U.length; i++) {
+                    final Cell s = cell(i);
+                    if (isGoal(s.x, s.y))
+                        continue;
+                    double best = Double.POSITIVE_INFINITY;
+                    for (int a = 0; a < 4; a++)
+                        best = Math.min(best, actionValue(s, a, U));
+                    delta = Math.max(delta, Math.abs(best - U[i]));
+                    U[i] = best;
+                }
+            } while (delta > 1e-12);
+            return U;
+        }
+
+        /**
+         * The values of a policy.
+         */
+        double[] values(Function policy) {
+            final int actions[] = new int[size()];
+            for (int i = 0; i < size(); i++)
+                if (!isGoal(i % width, i / width))
+                    actions[i] = ((java.lang.Integer) policy.apply(cell(i))).intValue();
+            final double U[] = new double[size()];
+            double delta;
+            do {
+                delta = 0;
+                for (int i = 0; i < U.length; i++) {
+                    final Cell s = cell(i);
+                    if (isGoal(s.x, s.y))
+                        continue;
+                    final double v = actionValue(s, actions[i], U);
+                    delta = Math.max(delta, Math.abs(v - U[i]));
+                    U[i] = v;
+                }
+            } while (delta > 1e-12);
+            return U;
+        }
+
+        /**
+         * The difference between the best and the second best action value in a state.
+         */
+        double gap(Cell s, double U[]) {
+            double best = Double.POSITIVE_INFINITY, second = Double.POSITIVE_INFINITY;
+            for (int a = 0; a < 4; a++) {
+                final double q = actionValue(s, a, U);
+                if (q < best) {
+                    second = best;
+                    best = q;
+                } else if (q < second)
+                    second = q;
+            }
+            return second - best;
+        }
+
+        public boolean isSolution(Object s) {
+            return isGoal(((Cell) s).x, ((Cell) s).y);
+        }
+
+        public Iterator actions(Object s) {
+            final List actions = new ArrayList();
+            for (int a = 0; a < 4; a++)
+                actions.add(new java.lang.Integer(a));
+            return actions.iterator();
+        }
+
+        public Iterator states(Object a, Object s) {
+            return outcomes(((java.lang.Integer) a).intValue(), (Cell) s).keySet().iterator();
+        }
+
+        public TransitionModel.Transition transition(Object a, Object s, Object t) {
+            final java.lang.Double p = (java.lang.Double) outcomes(((java.lang.Integer) a).intValue(), (Cell) s).get(t);
+            return new MarkovDecisionProblem.DefaultTransition(vf.valueOf(p == null ? 0 : p.doubleValue()), vf.valueOf(cost((Cell) s)));
+        }
+
+        /**
+         * A cell of the grid.
+         */
+        static class Cell {
+            final int x;
+            final int y;
+            Cell(int x, int y) {
+                this.x = x;
+                this.y = y;
+            }
+            public boolean equals(Object o) {
+                return o instanceof Cell && ((Cell) o).x == x && ((Cell) o).y == y;
+            }
+            public int hashCode() {
+                return 31 * x + y;
+            }
+            public String toString() {
+                return "(" + x + "," + y + ")";
+            }
+        }
+    }
+}
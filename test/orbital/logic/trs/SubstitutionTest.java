@@ -11,6 +11,7 @@ import orbital.logic.sign.*;
 import orbital.logic.sign.ParseException;
 import java.util.*;
 import orbital.moon.logic.*;
+import orbital.moon.logic.bridge.Unifier;
 
 import junit.framework.*;
 
@@ -279,6 +280,119 @@ public class SubstitutionTest extends check.TestCase {
 
     }
 
+    /**
+     * Compares unification and matching on shared terms with Robinson-unification.
+     */
+    public void testSharedUnification() throws ParseException {
+        ClassicalLogic syntax = new ClassicalLogic();
+        Random random = new Random(1234);
+        for (int rep = 0; rep < 1000; rep++) {
+            final int depth = 1 + random.nextInt(3);
+            final Object s = syntax.createFormula("$x$y$z p(" + randomTerm(random, depth) + "," + randomTerm(random, depth) + ")");
+            final Object t = syntax.createFormula("$x$y$z p(" + randomTerm(random, depth) + "," + randomTerm(random, depth) + ")");
+            final Collection c = Arrays.asList(new Object[] {s, t});
+            final Substitution mu = Substitutions.unify(c);
+            for (int mode = 0; mode < 2; mode++) {
+                final Unifier unifier = new Unifier(mode == 1);
+                assertEquals("unifiability of " + c + " in mode " + mode, mu != null, unifier.unify(s, t));
+                if (mu != null) {
+                    assertEquals("unifier of " + c + " in mode " + mode, unifier.apply(s), unifier.apply(t));
+                    final Substitution sigma = unifier.getUnifier();
+                    assertEquals("materialized unifier " + sigma + " of " + c + " in mode " + mode, sigma.apply(s), sigma.apply(t));
+                    assertEquals("unifier " + sigma + " of " + c + " is most general like " + mu + " in mode " + mode, ((orbital.logic.imp.Formula) mu.apply(s)).getVariables().size(), ((orbital.logic.imp.Formula) unifier.apply(s)).getVariables().size());
+                    // backtracking
+                    unifier.undo(0);
+                    assertEquals("undo of " + c + " in mode " + mode, unifier.apply(s), s);
+                }
+                unifier.undo(0);
+                final boolean matches = unifier.match(s, t);
+                if (mu != null && mu.apply(t).equals(t))
+                    assertTrue(matches, "single side matching " + c + " in mode " + mode);
+                if (matches) {
+                    assertEquals("single side matcher of " + c + " in mode " + mode, unifier.apply(s), t);
+                    assertEquals("single side matcher of " + c + " in mode " + mode, unifier.apply(t), t);
+                }
+            }
+        }
+    }
+
+    /**
+     * Equal terms of different identity are kept separately, and thus count for the size.
+     */
+    public void testSharedSize() throws ParseException {
+        ClassicalLogic syntax = new ClassicalLogic();
+        final Object pattern = syntax.createFormula("$x p(x,a)");
+        final Unifier unifier = new Unifier();
+        assertTrue("matches", unifier.match(pattern, syntax.createFormula("p(f(b),a)")));
+        final Object t = syntax.createFormula("p(f(c),a)");
+        unifier.undo(0);
+        assertTrue("matches", unifier.match(pattern, t));
+        final int size = unifier.size();
+        unifier.undo(0);
+        assertTrue("matches", unifier.match(pattern, t));
+        assertEquals("identical term shared", size, unifier.size());
+        unifier.undo(0);
+        assertTrue("matches", unifier.match(pattern, syntax.createFormula("p(f(c),a)")));
+        assertTrue("equal term of different identity kept", unifier.size() > size);
+        unifier.clear();
+        assertEquals("cleared", 0, unifier.size());
+    }
+
+    /**
+     * The same unifying matcher can be used by several threads at once.
+     */
+    public void testConcurrentMatcher() throws Exception {
+        final ClassicalLogic syntax = new ClassicalLogic();
+        final Substitution.Matcher matcher = Substitutions.createSingleSidedMatcher(syntax.createFormula("$x p(x,a)"), syntax.createFormula("$x q(x)"));
+        final String constants[] = {"a", "b", "c", "d"};
+        final Object terms[][] = new Object[constants.length][20];
+        final Object expected[][] = new Object[constants.length][20];
+        for (int k = 0; k < constants.length; k++) {
+            String arg = constants[k];
+            for (int i = 0; i < terms[k].length; i++) {
+                terms[k][i] = syntax.createFormula("p(" + arg + ",a)");
+                expected[k][i] = syntax.createFormula("q(" + arg + ")");
+                arg = "f(" + arg + ")";
+            }
+        }
+        final Throwable failure[] = new Throwable[constants.length];
+        final Thread threads[] = new Thread[constants.length];
+        for (int k = 0; k < threads.length; k++) {
+            final int thread = k;
+            threads[k] = new Thread() {
+                    public void run() {
+                        try {
+                            for (int rep = 0; rep < 200; rep++)
+                                for (int i = 0; i < terms[thread].length; i++) {
+                                    assertTrue("matches " + terms[thread][i], matcher.matches(terms[thread][i]));
+                                    assertEquals("replacement of " + terms[thread][i], expected[thread][i], matcher.replace(terms[thread][i]));
+                                }
+                        }
+                        catch (Throwable ex) {
+                            failure[thread] = ex;
+                        }
+                    }
+                };
+            threads[k].start();
+        }
+        for (int k = 0; k < threads.length; k++) {
+            threads[k].join();
+            if (failure[k] != null)
+                throw (Exception) new Exception("thread " + k + " failed").initCause(failure[k]);
+        }
+    }
+
+    private static String randomTerm(Random random, int depth) {
+        final String variables[] = {"x", "y", "z"};
+        final String constants[] = {"a", "b"};
+        switch (depth <= 0 ? random.nextInt(2) : random.nextInt(5)) {
+        case 0: return variables[random.nextInt(variables.length)];
+        case 1: return constants[random.nextInt(constants.length)];
+        case 2: case 3: return "f(" + randomTerm(random, depth - 1) + "," + randomTerm(random, depth - 1) + ")";
+        default: return "g(" + randomTerm(random, depth - 1) + ")";
+        }
+    }
+
     public void testUnifyNull() throws ParseException {
         //@internal declaring symbols as variables is difficult, here
         // instantiate a parser
@@ -99,6 +99,75 @@ public class AlgebraicAlgorithmsTest extends check.TestCase {
         assertEquals(AlgebraicAlgorithms.groebnerBasis(H, order) , G);
     }
 
+    /**
+     * Get the generators of the cyclic n-roots ideal.
+     */
+    private Set/*_<Polynomial<Rational>>_*/ cyclic(int n) {
+        Set/*_<Polynomial<Rational>>_*/ G = new LinkedHashSet();
+        for (int d = 1; d < n; d++) {
+            Polynomial/*<Rational>*/ p = null;
+            for (int i = 0; i < n; i++) {
+                int[] e = new int[n];
+                for (int k = 0; k < d; k++)
+                    e[(i + k) % n] = 1;
+                p = p == null ? vf.MONOMIAL(e) : p.add(vf.MONOMIAL(e));
+            }
+            G.add(p);
+        }
+        final int[] all = new int[n];
+        Arrays.fill(all, 1);
+        G.add(vf.MONOMIAL(all).subtract(vf.MONOMIAL(new int[n])));
+        return G;
+    }
+
+    /**
+     * Gr&ouml;bner basis of the cyclic 4-roots ideal in <b>Q</b>[X0,X1,X2,X3].
+     */
+    public void testGroebnerBasisCyclic() {
+        final Set G = cyclic(4);
+        final Set gb = AlgebraicAlgorithms.groebnerBasis(G, order);
+        Setops.all(gb, checkPolynomial(vf));
+        assertEquals(7, gb.size());
+        for (Iterator i = G.iterator(); i.hasNext(); ) {
+            assertTrue(AlgebraicAlgorithms.reduce((Polynomial) i.next(), gb, order).isZero(), "generators are in the ideal of the Groebner basis");
+        }
+        for (Iterator i = gb.iterator(); i.hasNext(); ) {
+            final Polynomial g = (Polynomial) i.next();
+            final Set others = new LinkedHashSet(gb);
+            others.remove(g);
+            assertEquals(AlgebraicAlgorithms.reduce(g, others, order), g);
+        }
+        // the Groebner basis of a Groebner basis is itself
+        assertEquals(AlgebraicAlgorithms.groebnerBasis(gb, order), gb);
+    }
+
+    public void testGroebnerBasisEngines() {
+        final String property = AlgebraicAlgorithms.class.getName() + ".groebnerBasis";
+        final String engine = System.getProperty(property);
+        final Set G = cyclic(4);
+        try {
+            System.setProperty(property, "buchberger");
+            final Set buchberger = AlgebraicAlgorithms.groebnerBasis(G, order);
+            System.setProperty(property, "gebauer-moeller");
+            final Set gebauerMoeller = AlgebraicAlgorithms.groebnerBasis(G, order);
+            assertEquals(buchberger.size(), gebauerMoeller.size());
+            for (Iterator i = buchberger.iterator(); i.hasNext(); ) {
+                assertTrue(AlgebraicAlgorithms.reduce((Polynomial) i.next(), gebauerMoeller, order).isZero(), "both engines span the same ideal");
+            }
+            for (Iterator i = gebauerMoeller.iterator(); i.hasNext(); ) {
+                assertTrue(AlgebraicAlgorithms.reduce((Polynomial) i.next(), buchberger, order).isZero(), "both engines span the same ideal");
+            }
+            // the reduced Groebner basis computed with critical pairs is monic, hence unique
+            assertEquals(AlgebraicAlgorithms.groebnerBasis(gebauerMoeller, order), gebauerMoeller);
+        }
+        finally {
+            if (engine == null)
+                System.getProperties().remove(property);
+            else
+                System.setProperty(property, engine);
+        }
+    }
+
     public void testPolynomialQuotientCalculation() {
         System.out.println("calculate with quotients of polynomials");
         // create elements in <b>R</b>[X]/(Y^2-X^3-X^2)
@@ -196,6 +265,44 @@ public class AlgebraicAlgorithmsTest extends check.TestCase {
         }
     }
     
+    /**
+     * Compares fast multiplication and division of univariate polynomials of large degrees with na&iuml;ve convolution.
+     */
+    public void testUnivariatePolynomialMultiplyDivide() {
+        final Random random = new Random(4711);
+        final Integer p = vf.valueOf(40009);
+        final int sizes[] = {5, 40, 130, 300};
+        for (int i = 0; i < sizes.length; i++)
+            for (int j = 0; j < sizes.length; j++) {
+                final Arithmetic a[] = new Arithmetic[sizes[i]], b[] = new Arithmetic[sizes[j]];
+                final Arithmetic ma[] = new Arithmetic[sizes[i]], mb[] = new Arithmetic[sizes[j]];
+                for (int k = 0; k < a.length; k++) {
+                    a[k] = vf.valueOf(BigInteger.valueOf(random.nextLong()).shiftLeft(k % 3 == 0 ? 0 : 100));
+                    ma[k] = vf.quotient(vf.valueOf(random.nextInt(80000) - 40000), p);
+                }
+                for (int k = 0; k < b.length; k++) {
+                    b[k] = vf.valueOf(BigInteger.valueOf(random.nextInt()).shiftLeft(k % 2 == 0 ? 0 : 40));
+                    mb[k] = vf.quotient(vf.valueOf(random.nextInt(80000) - 40000), p);
+                }
+                mb[mb.length - 1] = vf.quotient(vf.valueOf(1 + random.nextInt(40000)), p);
+                assertEquals(vf.polynomial(convolution(a, b)), vf.polynomial(a).multiply(vf.polynomial(b)));
+                final UnivariatePolynomial f = vf.polynomial(ma), g = vf.polynomial(mb);
+                final UnivariatePolynomial h = f.multiply(g);
+                assertTrue(h.subtract(vf.polynomial(convolution(ma, mb))).degreeValue() < 0, "multiplication modulo " + p);
+                final UnivariatePolynomial r = vf.polynomial(Arrays.asList(ma).subList(0, Math.min(mb.length - 1, ma.length)).toArray(new Arithmetic[0]));
+                final UnivariatePolynomial fgr = h.add(r);
+                assertTrue(fgr.quotient(g).subtract(f).degreeValue() < 0, "quotient of (f*g+r)/g = f modulo " + p + " for deg(f)=" + f.degree() + ", deg(g)=" + g.degree());
+                assertTrue(fgr.modulo(g).subtract(r).degreeValue() < 0, "remainder of (f*g+r)/g = r modulo " + p + " for deg(f)=" + f.degree() + ", deg(g)=" + g.degree());
+            }
+    }
+    private static Arithmetic[] convolution(Arithmetic a[], Arithmetic b[]) {
+        final Arithmetic r[] = new Arithmetic[a.length + b.length - 1];
+        for (int k = 0; k < r.length; k++)
+            for (int i = Math.max(0, k - b.length + 1); i <= Math.min(k, a.length - 1); i++)
+                r[k] = r[k] == null ? a[i].multiply(b[k - i]) : r[k].add(a[i].multiply(b[k - i]));
+        return r;
+    }
+
     public void testdSolve() {
         System.out.println("solving differential equations");
         final Symbol t = vf.symbol("t");
@@ -384,6 +384,55 @@ public class ArithmeticTest extends check.TestCase {
         }
     }
 
+    /**
+     * Machine-sized integers and rationals promote on overflow instead of wrapping.
+     */
+    public void testIntegerOverflow() {
+        final Random random = new Random(4711);
+        final long bounds[] = {java.lang.Integer.MAX_VALUE, java.lang.Long.MAX_VALUE};
+        for (int rep = 0; rep < TEST_REPETITIONS; rep++) {
+            final long x = rep % 2 == 0 ? random.nextInt() : random.nextLong();
+            final long y = random.nextInt(3) == 0 ? bounds[rep % 2] - random.nextInt(3) : random.nextLong();
+            final BigInteger bx = BigInteger.valueOf(x), by = BigInteger.valueOf(y);
+            final Integer ix = vf.valueOf(x), iy = vf.valueOf(y);
+            assertEquals(x + "+" + y, vf.valueOf(bx.add(by)), ix.add(iy));
+            assertEquals(x + "-" + y, vf.valueOf(bx.subtract(by)), ix.subtract(iy));
+            assertEquals(x + "*" + y, vf.valueOf(bx.multiply(by)), ix.multiply(iy));
+            assertEquals("-" + x, vf.valueOf(bx.negate()), ix.minus());
+            final int k = random.nextInt(70);
+            assertEquals(x + "^" + k, vf.valueOf(bx.pow(k)), ix.power(vf.valueOf(k)));
+        }
+        final Integer max = vf.valueOf(java.lang.Long.MAX_VALUE);
+        assertEquals("demotion of " + max, max, max.add(vf.ONE()).subtract(vf.ONE()));
+        assertEquals("3^40", "12157665459056928801", vf.valueOf(3).power(vf.valueOf(40)).toString());
+        final Rational r = vf.rational(java.lang.Integer.MAX_VALUE, 3);
+        assertEquals(r + "+" + r, vf.rational(vf.valueOf(2L * java.lang.Integer.MAX_VALUE), vf.valueOf(3)), r.add(r));
+        assertEquals(r + "*" + r, vf.rational(vf.valueOf((long) java.lang.Integer.MAX_VALUE * java.lang.Integer.MAX_VALUE), vf.valueOf(9)), r.multiply(r));
+        assertTrue(vf.valueOf(7).add(vf.rational(1, 2)).equals(vf.rational(15, 2)), "7+1/2");
+        // machine-sized rationals
+        final ValueFactory machine = Values.getInstance(Collections.singletonMap("orbital.math.Scalar.precision", "machine"));
+        for (int rep = 0; rep < TEST_REPETITIONS; rep++) {
+            final int p = random.nextInt(), q = random.nextInt(1000) + 1;
+            final Rational x = machine.rational(p, q);
+            final Rational y = machine.rational(random.nextInt(), java.lang.Integer.MAX_VALUE - random.nextInt(3));
+            final Rational ex = vf.rational(vf.valueOf(p), vf.valueOf(q));
+            final Rational ey = vf.rational(y.numerator(), y.denominator());
+            assertRational(x + "+" + y, ex.add(ey), x.add(y));
+            assertRational(x + "-" + y, ex.subtract(ey), x.subtract(y));
+            assertRational(x + "*" + y, ex.multiply(ey), x.multiply(y));
+            if (!y.isZero())
+                assertRational(x + "/" + y, ex.divide(ey), x.divide(y));
+            assertEquals(x + "<>" + y, ex.compareTo(ey) < 0, x.compareTo(y) < 0);
+        }
+    }
+    /**
+     * Compares cancelled rationals componentwise, since machine-sized cross products could overflow.
+     */
+    private static void assertRational(String message, Rational expected, Rational actual) {
+        assertEquals(message, expected.numerator(), actual.numerator());
+        assertEquals(message, expected.denominator(), actual.denominator());
+    }
+
     // check a special bugfix
     public void testSpecial() {
         Real tolerance = vf.valueOf(0.00000001);
@@ -102,6 +102,193 @@ public class NumericalAlgorithmsTest extends check.TestCase {
                          steps);
     }
 
+    public void testIntegrate() {
+        final double eps = 1e-10;
+        final double error[] = new double[1];
+        checkIntegrate(new NumericalAlgorithms.RealFunction() {
+                public double apply(double x) {
+                    return Math.sin(x);
+                }
+            }, 0, Math.PI, 2, eps);
+        checkIntegrate(new NumericalAlgorithms.RealFunction() {
+                public double apply(double x) {
+                    return Math.exp(-x * x);
+                }
+            }, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Math.sqrt(Math.PI), eps);
+        checkIntegrate(new NumericalAlgorithms.RealFunction() {
+                public double apply(double x) {
+                    return 1 / (1 + x * x);
+                }
+            }, 0, Double.POSITIVE_INFINITY, Math.PI / 2, eps);
+        checkIntegrate(new NumericalAlgorithms.RealFunction() {
+                public double apply(double x) {
+                    return Math.exp(x);
+                }
+            }, Double.NEGATIVE_INFINITY, 1, Math.E, eps);
+        // integrable singularity at the bound
+        checkIntegrate(new NumericalAlgorithms.RealFunction() {
+                public double apply(double x) {
+                    return 1 / Math.sqrt(x);
+                }
+            }, 0, 1, 2, eps);
+        checkIntegrate(new NumericalAlgorithms.RealFunction() {
+                public double apply(double x) {
+                    return Math.log(x);
+                }
+            }, 1, 0, 1, eps);
+        // oscillating integrand
+        checkIntegrate(new NumericalAlgorithms.RealFunction() {
+                public double apply(double x) {
+                    return Math.cos(50 * x);
+                }
+            }, 0, 1, Math.sin(50) / 50, eps);
+        // divergent integral
+        try {
+            NumericalAlgorithms.integrate(new NumericalAlgorithms.RealFunction() {
+                    public double apply(double x) {
+                        return 1 / x;
+                    }
+                }, 0, 1, eps, error);
+            fail("divergent integral");
+        }
+        catch (ArithmeticException expected) {}
+        // arithmetic objects
+        assertTrue("integrate sin", MathUtilities.equals(vf.valueOf(2), NumericalAlgorithms.integrate(Functions.sin, vf.ZERO(), vf.valueOf(Math.PI)), eps));
+        assertTrue("integrate exp", MathUtilities.equals(vf.valueOf(Math.E - 1), NumericalAlgorithms.integrate(Functions.exp, vf.ZERO(), vf.ONE(), eps), eps));
+    }
+
+    /**
+     * Integrals that cancel to 0 converge up to the rounding errors, even at the default tolerance.
+     */
+    public void testIntegrateCancellation() {
+        final double eps = MathUtilities.getDefaultTolerance();
+        final double error[] = new double[1];
+        final NumericalAlgorithms.RealFunction odd[] = {
+            new NumericalAlgorithms.RealFunction() {
+                public double apply(double x) {
+                    return x;
+                }
+            },
+            new NumericalAlgorithms.RealFunction() {
+                public double apply(double x) {
+                    return x * x * x;
+                }
+            },
+            new NumericalAlgorithms.RealFunction() {
+                public double apply(double x) {
+                    return Math.sin(x) * Math.exp(-x * x);
+                }
+            }
+        };
+        // the integrals of |f| on [-1000,1000], or upper bounds thereof
+        final double absolute[] = {1e6, 0.5e12, 1};
+        for (int k = 0; k < odd.length; k++) {
+            final double result = NumericalAlgorithms.integrate(odd[k], -1000, 1000, eps, error);
+            final double bound = Math.max(eps, 100 * Math.ulp(1.0) * absolute[k]);
+            assertTrue("error estimate " + error[0] + " within rounding errors " + bound, error[0] <= bound);
+            assertEquals("odd integrand " + k + " on a symmetric interval", 0, result, bound);
+        }
+        assertEquals("odd integrand on an infinite symmetric interval", 0, NumericalAlgorithms.integrate(odd[2], Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, eps), eps);
+        // arithmetic objects with the default tolerance
+        assertEquals("integrate id", 0, ((Real) NumericalAlgorithms.integrate(Functions.id, vf.valueOf(-1000), vf.valueOf(1000))).doubleValue(), 1e-7);
+    }
+
+    protected void checkIntegrate(NumericalAlgorithms.RealFunction f, double a, double b, double expected, double eps) {
+        final double error[] = new double[1];
+        final double result = NumericalAlgorithms.integrate(f, a, b, eps, error);
+        final double bound = eps * Math.max(1, Math.abs(expected));
+        assertTrue("error estimate " + error[0] + " within tolerance on [" + a + "," + b + "]", error[0] <= bound);
+        assertEquals("integral on [" + a + "," + b + "]", expected, result, bound);
+        assertEquals("reverse integral on [" + a + "," + b + "]", -expected, NumericalAlgorithms.integrate(f, b, a, eps), bound);
+    }
+
+    public void testDormandPrince() {
+        final double eps = 1e-10;
+        // harmonic oscillator x''=-x with solution (sin, cos)
+        final NumericalAlgorithms.DifferentialEquation oscillator = new NumericalAlgorithms.DifferentialEquation() {
+                public void apply(double t, double x[], double dx[]) {
+                    dx[0] = x[1];
+                    dx[1] = -x[0];
+                }
+            };
+        DenseOutput y = NumericalAlgorithms.dSolve(oscillator, 0, new double[] {0, 1}, 10, eps);
+        assertEquals("solved to the end", 10, y.getMax(), 0);
+        assertEquals("no event", -1, y.getEvent());
+        final double x[] = new double[2];
+        for (int j = 0; j < TEST_REPETITION; j++) {
+            final double t = random.randomDouble(0, 10);
+            y.apply(t, x);
+            assertEquals("x(" + t + ")", Math.sin(t), x[0], 1e-7);
+            assertEquals("x'(" + t + ")", Math.cos(t), x[1], 1e-7);
+            assertEquals("component x(" + t + ")", x[0], y.apply(t, 0), 0);
+        }
+        assertEquals("initial value", 0, y.apply(0, 0), 0);
+        assertTrue("solution as function", MathUtilities.equals(vf.valueOf(new double[] {Math.sin(10), Math.cos(10)}), (Arithmetic) y.apply(vf.valueOf(10)), 1e-7));
+        try {
+            y.apply(10.5, x);
+            fail("out of solution range");
+        }
+        catch (IllegalArgumentException expected) {}
+
+        // sampling while solving
+        final double times[] = {0, 0.5, 0.5, 3, 7.25, 10};
+        final double samples[][] = NumericalAlgorithms.dSolve(oscillator, 0, new double[] {0, 1}, times, eps);
+        for (int j = 0; j < times.length; j++) {
+            assertEquals("sample x(" + times[j] + ")", Math.sin(times[j]), samples[j][0], 1e-7);
+            assertEquals("sample agrees with dense output", y.apply(times[j], 1), samples[j][1], 0);
+        }
+
+        // backwards in time
+        y = NumericalAlgorithms.dSolve(oscillator, 0, new double[] {0, 1}, -5, eps);
+        assertEquals("solved backwards", -5, y.getMax(), 0);
+        assertEquals("x(-5)", Math.sin(-5), y.apply(-5, 0), 1e-7);
+
+        // many components x_i' = -i/n*x_i
+        final int n = 50;
+        final double eta[] = new double[n];
+        java.util.Arrays.fill(eta, 1);
+        y = NumericalAlgorithms.dSolve(new NumericalAlgorithms.DifferentialEquation() {
+                public void apply(double t, double x[], double dx[]) {
+                    for (int i = 0; i < x.length; i++)
+                        dx[i] = -i * x[i] / n;
+                }
+            }, 0, eta, 3, eps);
+        final double xn[] = y.apply(2.5, new double[n]);
+        for (int i = 0; i < n; i++)
+            assertEquals("x_" + i + "(2.5)", Math.exp(-2.5 * i / n), xn[i], 1e-8);
+        assertEquals("dimension", n, y.getDimension());
+
+        // falling body stops when hitting the ground
+        y = NumericalAlgorithms.dSolve(new NumericalAlgorithms.DifferentialEquation() {
+                public void apply(double t, double x[], double dx[]) {
+                    dx[0] = x[1];
+                    dx[1] = -9.81;
+                }
+            }, 0, new double[] {10, 0}, 100, eps, new NumericalAlgorithms.EventFunction[] {
+                new NumericalAlgorithms.EventFunction() {
+                    public double apply(double t, double x[]) {
+                        return t - 200;
+                    }
+                },
+                new NumericalAlgorithms.EventFunction() {
+                    public double apply(double t, double x[]) {
+                        return x[0];
+                    }
+                }
+            });
+        assertEquals("event", 1, y.getEvent());
+        assertEquals("time of event", Math.sqrt(2 * 10 / 9.81), y.getMax(), 1e-9);
+        assertEquals("height at event", 0, y.apply(y.getMax(), 0), 1e-9);
+
+        // arithmetic objects
+        final Matrix A = vf.valueOf(new double[][] {
+                {0,1},
+                {-1,0}
+            });
+        final Function z = NumericalAlgorithms.dSolve(Functionals.onSecond(Functions.linear(A)), vf.ZERO(), vf.valueOf(new double[] {0, 1}), vf.valueOf(2), eps);
+        assertTrue("arithmetic solution", MathUtilities.equals(vf.valueOf(new double[] {Math.sin(2), Math.cos(2)}), (Arithmetic) z.apply(vf.valueOf(2)), 1e-7));
+    }
+
     protected void checkndSolve(orbital.math.functional.BinaryFunction/*<Real,Vector<Real>>*/ f, Real tau, Vector/*<Real>*/ eta,
                                 Real min, Real max,
                                 int steps) {
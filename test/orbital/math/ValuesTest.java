@@ -75,6 +75,36 @@ public class ValuesTest extends check.TestCase {
         }
     }
     
+    /**
+     * The precomputed coercions agree with the coercer for all pairs of scalar types and precisions.
+     */
+    public void testPrecomputedCoercion() {
+        final Arithmetic x[] = {
+            vf.valueOf(5), vf.valueOf(1L << 40), vf.valueOf(java.math.BigInteger.ONE.shiftLeft(80)),
+            vf.rational(1, 4), vf.valueOf(1.25), vf.valueOf(new java.math.BigDecimal("2.5")),
+            vf.complex(-1, 2), vf.cartesian(vf.valueOf(new java.math.BigDecimal("0.5")), vf.valueOf(new java.math.BigDecimal("1.5")))
+        };
+        final orbital.moon.math.AbstractValues values = (orbital.moon.math.AbstractValues) vf;
+        int precomputed = 0;
+        for (int i = 0; i < x.length; i++)
+            for (int j = 0; j < x.length; j++) {
+                final orbital.moon.math.AbstractValues.Coercion c = values.getCoercion(x[i].getClass(), x[j].getClass());
+                if (c == null)
+                    continue;
+                precomputed++;
+                // the coercer uses the precomputed coercions, so compare with the decision diagram, instead
+                final Arithmetic expected[] = x[i].getClass() == x[j].getClass()
+                    ? new Arithmetic[] {x[i], x[j]}
+                    : ((orbital.moon.math.ArithmeticValuesImpl) vf).minimumCoerced((Number) x[i], (Number) x[j]);
+                final Arithmetic first = c.first(x[i], x[j]), second = c.second(x[i], x[j]);
+                assertTrue(first.getClass() == expected[0].getClass() && first.equals(expected[0]), "coercion of " + x[i] + " for " + x[j] + " is " + expected[0] + "@" + expected[0].getClass() + " not " + first + "@" + first.getClass());
+                assertTrue(second.getClass() == expected[1].getClass() && second.equals(expected[1]), "coercion of " + x[j] + " for " + x[i] + " is " + expected[1] + "@" + expected[1].getClass() + " not " + second + "@" + second.getClass());
+                assertTrue(orbital.math.functional.Operations.plus.apply(x[i], x[j]).equals(expected[0].add(expected[1])), x[i] + "+" + x[j]);
+                assertTrue(orbital.math.functional.Operations.times.apply(x[i], x[j]).equals(expected[0].multiply(expected[1])), x[i] + "*" + x[j]);
+            }
+        assertTrue(precomputed == x.length * x.length, "coercions precomputed for all pairs of scalars, not only " + precomputed);
+    }
+
     private int integerArgument(int min, int max) {
         return min + (min == max ? 0 : random.nextInt(max-min));
     }
@@ -0,0 +1,153 @@
+/**
+ * @(#)BDDInferenceTest.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.moon.logic;
+
+import junit.framework.*;
+import orbital.logic.imp.*;
+import orbital.logic.sign.Signature;
+import orbital.logic.sign.Symbol;
+import orbital.logic.sign.ParseException;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * A sample test case, testing BDDInference and BDD.
+ * @version $Id$
+ */
+public class BDDInferenceTest extends ClassicalLogicTest {
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(suite());
+    }
+    public static Test suite() {
+        return new TestSuite(BDDInferenceTest.class);
+    }
+
+    protected void test(String name) {
+        try {
+            ClassicalLogic.main(new String[] {"-inference=PROPOSITIONAL_BDD_INFERENCE", name});
+        }
+        catch (Throwable ex) {
+            ex.printStackTrace();
+            fail(ex.getMessage() + " in file " + name);
+        }
+    }
+
+    /**
+     * Compares diagrams with the semantics of formulas.
+     */
+    public void testCompile() throws ParseException {
+        final Logic logic = new ClassicalLogic();
+        final BDDInference inference = new BDDInference();
+        final BDD bdd = inference.getBDD();
+        final Random random = new Random(1414);
+        for (int rep = 0; rep < 200; rep++) {
+            final Formula F = (Formula) logic.createExpression(randomFormula(random, 1 + random.nextInt(4)));
+            final int f = inference.compile(F);
+            final Signature sigma = F.getSignature();
+            // count the models of F among the atoms of F, and its diagram among all variables
+            int models = 0;
+            for (int row = 0; row < (1 << sigma.size()); row++) {
+                final Map I = new HashMap();
+                int k = 0;
+                for (Iterator i = sigma.iterator(); i.hasNext(); k++)
+                    I.put(i.next(), Boolean.valueOf((row & (1 << k)) != 0));
+                if (Boolean.TRUE.equals(F.apply(new InterpretationBase(sigma, I))))
+                    models++;
+            }
+            int atoms = 0;
+            for (Iterator i = sigma.iterator(); i.hasNext(); )
+                if (inference.getVariable((Symbol) i.next()) >= 0)
+                    atoms++;
+            assertEquals("models of " + F, BigInteger.valueOf(models).shiftLeft(bdd.getVariableCount() - atoms), bdd.satCount(f));
+            // the satisfying assignments are disjoint and add up to all models
+            BigInteger enumerated = BigInteger.ZERO;
+            for (Iterator i = bdd.satisfyingAssignments(f); i.hasNext(); ) {
+                final byte assignment[] = (byte[]) i.next();
+                final Map I = new HashMap();
+                int free = 0;
+                for (Iterator j = sigma.iterator(); j.hasNext(); ) {
+                    final Symbol s = (Symbol) j.next();
+                    final int v = inference.getVariable(s);
+                    I.put(s, Boolean.valueOf(v >= 0 && assignment[v] == 1));
+                }
+                for (int v = 0; v < assignment.length; v++)
+                    if (assignment[v] < 0)
+                        free++;
+                assertEquals("assignment satisfies " + F, Boolean.TRUE, F.apply(new InterpretationBase(sigma, I)));
+                enumerated = enumerated.add(BigInteger.ONE.shiftLeft(free));
+            }
+            assertEquals("assignments of " + F, bdd.satCount(f), enumerated);
+            // equivalent formulas have the same node
+            final int g = inference.compile(F.not().not().and(F.or(F)));
+            assertEquals("canonical " + F, f, g);
+            bdd.deref(g);
+            bdd.deref(f);
+        }
+    }
+
+    /**
+     * The order of variables can make the difference between exponential and linear size.
+     */
+    public void testReorder() {
+        final int n = 8;
+        final BDD bdd = new BDD();
+        for (int v = 0; v < 2 * n; v++)
+            bdd.newVariable();
+        // x[i]&y[i] | ... with all x ordered before all y
+        int f = BDD.FALSE;
+        for (int i = 0; i < n; i++) {
+            final int g = bdd.ref(bdd.or(f, bdd.and(bdd.variable(i), bdd.variable(n + i))));
+            bdd.deref(f);
+            f = g;
+        }
+        assertEquals("exponential size", (1 << (n + 1)) - 2, bdd.size(f));
+        final BigInteger models = bdd.satCount(f);
+        bdd.reorder();
+        assertEquals("linear size after sifting", 2 * n, bdd.size(f));
+        assertEquals("reordering preserves the function", models, bdd.satCount(f));
+        int g = BDD.FALSE;
+        for (int i = n - 1; i >= 0; i--) {
+            final int h = bdd.ref(bdd.or(bdd.and(bdd.variable(n + i), bdd.variable(i)), g));
+            bdd.deref(g);
+            g = h;
+        }
+        assertEquals("reordering preserves canonicity", f, g);
+        bdd.setVariableOrder(new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15});
+        assertEquals("exponential size again", (1 << (n + 1)) - 2, bdd.size(f));
+        assertEquals("reordering preserves the function", models, bdd.satCount(f));
+        bdd.deref(g);
+        bdd.deref(f);
+        bdd.gc();
+        assertEquals("garbage collection of all unreferenced nodes", 0, bdd.getNodeCount());
+    }
+
+    /**
+     * Many queries against the same premises agree with CDCL.
+     */
+    public void testQueries() throws ParseException {
+        final Logic logic = new ClassicalLogic();
+        final Inference bdd = ClassicalLogic.PROPOSITIONAL_BDD_INFERENCE.inference();
+        final Inference cdcl = ClassicalLogic.PROPOSITIONAL_CDCL_INFERENCE.inference();
+        final Random random = new Random(1732);
+        final Formula B[] = new Formula[6];
+        for (int i = 0; i < B.length; i++)
+            B[i] = (Formula) logic.createExpression("(" + randomFormula(random, 3) + ")|(" + randomFormula(random, 3) + ")");
+        int entailed = 0;
+        for (int rep = 0; rep < 300; rep++) {
+            final Formula D = (Formula) logic.createExpression(randomFormula(random, 1 + random.nextInt(3)));
+            final boolean expected = cdcl.infer(B, D);
+            assertEquals("entailment of " + D, expected, bdd.infer(B, D));
+            if (expected)
+                entailed++;
+        }
+        assertTrue("some queries are entailed", entailed > 0);
+    }
+}
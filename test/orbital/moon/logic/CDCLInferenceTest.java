@@ -0,0 +1,115 @@
+/**
+ * @(#)CDCLInferenceTest.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.moon.logic;
+
+import junit.framework.*;
+import java.io.StringReader;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * A sample test case, testing CDCLInference and CDCLSolver.
+ * @version $Id$
+ */
+public class CDCLInferenceTest extends ClassicalLogicTest {
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(suite());
+    }
+    public static Test suite() {
+        return new TestSuite(CDCLInferenceTest.class);
+    }
+
+    protected void test(String name) {
+        try {
+            ClassicalLogic.main(new String[] {"-inference=PROPOSITIONAL_CDCL_INFERENCE", name});
+        }
+        catch (Throwable ex) {
+            ex.printStackTrace();
+            fail(ex.getMessage() + " in file " + name);
+        }
+    }
+
+    /**
+     * Pigeonhole principle: n+1 pigeons do not fit into n holes.
+     */
+    public void testPigeonhole() {
+        for (int n = 1; n <= 7; n++) {
+            CDCLSolver solver = new CDCLSolver();
+            // variable of pigeon i in hole j
+            solver.ensureVariables((n + 1) * n);
+            for (int i = 0; i <= n; i++) {
+                int[] clause = new int[n];
+                for (int j = 0; j < n; j++)
+                    clause[j] = i * n + j + 1;
+                solver.addClause(clause);
+            }
+            for (int j = 0; j < n; j++)
+                for (int i = 0; i <= n; i++)
+                    for (int k = i + 1; k <= n; k++)
+                        solver.addClause(new int[] {-(i * n + j + 1), -(k * n + j + 1)});
+            assertTrue("pigeonhole " + (n + 1) + " into " + n + " is unsatisfiable", !solver.solve());
+        }
+    }
+
+    /**
+     * Random 3-SAT instances, checking models and comparing satisfiability with exhaustive search.
+     */
+    public void testRandom3SAT() {
+        final Random random = new Random(1234);
+        for (int rep = 0; rep < 200; rep++) {
+            final int n = 4 + random.nextInt(9);
+            final int m = (int) Math.round(n * (3.0 + 3.0 * random.nextDouble()));
+            final int[][] clauses = new int[m][3];
+            final CDCLSolver solver = new CDCLSolver();
+            solver.ensureVariables(n);
+            for (int c = 0; c < m; c++) {
+                for (int l = 0; l < 3; l++)
+                    clauses[c][l] = (1 + random.nextInt(n)) * (random.nextBoolean() ? 1 : -1);
+                solver.addClause(clauses[c]);
+            }
+            final boolean sat = solver.solve();
+            boolean expected = false;
+            for (int assignment = 0; assignment < (1 << n) && !expected; assignment++) {
+                boolean[] model = new boolean[n + 1];
+                for (int v = 1; v <= n; v++)
+                    model[v] = (assignment & (1 << (v - 1))) != 0;
+                expected = satisfies(model, clauses);
+            }
+            assertEquals("satisfiability of random 3-SAT instance " + rep, expected, sat);
+            if (sat)
+                assertTrue("model satisfies random 3-SAT instance " + rep, satisfies(solver.getModel(), clauses));
+        }
+    }
+
+    public void testDIMACS() throws IOException {
+        CDCLSolver solver = CDCLSolver.readDIMACS(new StringReader("c a satisfiable instance\n"
+                                                                    + "p cnf 3 4\n"
+                                                                    + "1 2 0\n"
+                                                                    + "-1 3 0\n"
+                                                                    + "-2 -3 0\n"
+                                                                    + "-3 0\n"));
+        assertEquals(3, solver.getVariableCount());
+        assertTrue("satisfiable", solver.solve());
+        assertTrue("model satisfies", satisfies(solver.getModel(), new int[][] {{1, 2}, {-1, 3}, {-2, -3}, {-3}}));
+        solver = CDCLSolver.readDIMACS(new StringReader("p cnf 2 4\n1 2 0 -1 2 0\n1 -2 0 -1 -2 0\n"));
+        assertTrue("unsatisfiable", !solver.solve());
+    }
+
+    private static boolean satisfies(boolean[] model, int[][] clauses) {
+        clauses:
+        for (int c = 0; c < clauses.length; c++) {
+            for (int l = 0; l < clauses[c].length; l++) {
+                final int lit = clauses[c][l];
+                if (model[Math.abs(lit)] == (lit > 0))
+                    continue clauses;
+            }
+            return false;
+        }
+        return true;
+    }
+}
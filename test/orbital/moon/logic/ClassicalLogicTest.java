@@ -11,6 +11,21 @@ import orbital.logic.sign.*;
 import orbital.logic.sign.type.*;
 import orbital.logic.imp.*;
 import orbital.logic.sign.ParseException;
+import orbital.logic.Composite;
+import orbital.logic.functor.Functionals;
+import orbital.logic.trs.Substitution;
+import orbital.logic.trs.Substitutions;
+import orbital.util.Setops;
+import java.io.InputStreamReader;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
 
 /**
  * A sample test case, testing ClassicalLogic.
@@ -171,4 +186,182 @@ public class ClassicalLogicTest extends check.TestCase {
             System.out.println(fallthrough);
         }
     }
+
+    /**
+     * Test compiled truth-tables against the interpretation of formulas.
+     */
+    public void testTruthTable() throws ParseException {
+        final Random random = new Random(2718);
+        for (int rep = 0; rep < 100; rep++) {
+            final String f = randomFormula(random, 1 + random.nextInt(4));
+            final Formula F = (Formula) logic.createExpression(f);
+            final Signature sigma = F.getSignature();
+            final TruthTable table = TruthTable.compile(new Formula[] {F}, sigma);
+            assertTrue(table != null, "propositional formula " + f + " compiles");
+            final long values[] = table.values(0);
+            for (int row = 0; row < (1 << sigma.size()); row++) {
+                final Map I = new HashMap();
+                int k = 0;
+                for (Iterator i = sigma.iterator(); i.hasNext(); k++)
+                    I.put(i.next(), Boolean.valueOf((row & (1 << (sigma.size() - 1 - k))) != 0));
+                assertTrue(F.apply(new InterpretationBase(sigma, I)).equals(Boolean.valueOf((values[row >>> 6] & (1L << (row & 63))) != 0)),
+                           "truth-value of " + f + " in row " + row + " " + I);
+            }
+        }
+        // 20 propositional atoms
+        String A = "a0", B = "a19", C = "a0";
+        for (int i = 1; i < 20; i++) {
+            A = "(" + A + ")^a" + i;
+            B = "(" + B + ")^a" + (19 - i);
+            C = "(" + C + ")<->a" + i;
+        }
+        final Inference inference = ClassicalLogic.SEMANTIC_INFERENCE.inference();
+        assertTrue(inference.infer(new Formula[0], (Formula) logic.createExpression("(" + A + ")<->(" + B + ")")), "parity is associative and commutative");
+        assertTrue(!inference.infer(new Formula[0], (Formula) logic.createExpression("(" + A + ")<->(" + C + ")")), "parity of 20 atoms is not their equivalence");
+        assertTrue(inference.infer(new Formula[] {(Formula) logic.createExpression(A)}, (Formula) logic.createExpression("~(" + C + ")")), "parity of 20 atoms entails the negation of their equivalence");
+        assertTrue(TruthTable.compile(new Formula[] {(Formula) logic.createExpression("p(x)")}, ((Formula) logic.createExpression("p(x)")).getSignature()) == null, "predicates do not compile");
+    }
+
+    /**
+     * Random formulas, comparing the satisfiability of structure-preserving clausal forms with conjunctive clausal forms.
+     */
+    public void testDefinitionalClausalForm() throws ParseException {
+        final Random random = new Random(4321);
+        for (int rep = 0; rep < 300; rep++) {
+            final String f = randomFormula(random, 1 + random.nextInt(4));
+            final Formula F = (Formula) logic.createExpression(f);
+            assertEquals("satisfiability of " + f,
+                         satisfiable(ClassicalLogic.Utilities.clausalForm(F, false)),
+                         satisfiable(ClassicalLogic.Utilities.definitionalClausalForm(F)));
+            assertEquals("satisfiability of ~(" + f + ")",
+                         satisfiable(ClassicalLogic.Utilities.clausalForm(F.not(), false)),
+                         satisfiable(ClassicalLogic.Utilities.definitionalClausalForm(F.not())));
+        }
+        // parity does not have small conjunctive forms
+        String parity = "a0";
+        for (int i = 1; i < 16; i++)
+            parity = "(" + parity + ")^a" + i;
+        final Set S = ClassicalLogic.Utilities.definitionalClausalForm((Formula) logic.createExpression(parity));
+        assertTrue("linear size of " + S.size() + " clauses", S.size() <= 4 * 16);
+        assertTrue("parity is satisfiable", satisfiable(S));
+        assertTrue("parity and its negation are unsatisfiable",
+                   !satisfiable(ClassicalLogic.Utilities.definitionalClausalForm((Formula) logic.createExpression("(" + parity + ")&~(" + parity + ")"))));
+    }
+
+    /**
+     * Whether a set of clauses is satisfiable.
+     */
+    private static boolean satisfiable(Set/*<Set<Formula>>*/ S) {
+        final CDCLSolver solver = new CDCLSolver();
+        final Map/*<Formula,Integer>*/ variables = new HashMap();
+        for (Iterator i = S.iterator(); i.hasNext(); ) {
+            final Set/*<Formula>*/ C = (Set) i.next();
+            final int clause[] = new int[C.size()];
+            int k = 0;
+            for (Iterator j = C.iterator(); j.hasNext(); ) {
+                Formula L = (Formula) j.next();
+                final boolean negated = L instanceof Composite && ((Composite) L).getCompositor() == ClassicalLogic.LogicFunctions.not;
+                if (negated)
+                    L = (Formula) ((Composite) L).getComponent();
+                Integer v = (Integer) variables.get(L);
+                if (v == null) {
+                    v = new Integer(solver.newVariable());
+                    variables.put(L, v);
+                    if (L.toString().equals("true"))
+                        solver.addClause(new int[] {v.intValue()});
+                    else if (L.toString().equals("false"))
+                        solver.addClause(new int[] {-v.intValue()});
+                }
+                clause[k++] = negated ? -v.intValue() : v.intValue();
+            }
+            solver.addClause(clause);
+        }
+        return solver.solve();
+    }
+
+    /**
+     * Compares the normal forms of the indexed rewriter with the normal forms
+     * of the fixed point of whole-term substitution passes.
+     * The plain DNF and CNF coincide up to the order of their conjunctions and disjunctions,
+     * the negation normal forms coincide exactly.
+     * The simplifying rules are not confluent, so their normal forms are only equivalent.
+     */
+    public void testNormalFormRewriting() throws ParseException, IOException {
+        final Substitution dnfEliminate = readTRS("trs/dnf/eliminate.trs");
+        final Substitution dnf = readTRS("trs/dnf/transformToDNF.trs");
+        final Substitution dnfSimplifying = Substitutions.getInstance(new ArrayList(Setops.union(readTRS("trs/dnf/simplify.trs").getReplacements(), dnf.getReplacements())));
+        final Substitution cnfEliminate = readTRS("trs/cnf/eliminate.trs");
+        final Substitution cnf = readTRS("trs/cnf/transformToCNF.trs");
+        final Substitution cnfSimplifying = Substitutions.getInstance(new ArrayList(Setops.union(readTRS("trs/cnf/simplify.trs").getReplacements(), cnf.getReplacements())));
+        final Substitution nnf = readTRS("trs/negationNF.trs");
+        final Inference inference = ClassicalLogic.SEMANTIC_INFERENCE.inference();
+        final Random random = new Random(1414);
+        for (int rep = 0; rep < 100; rep++) {
+            final String f = randomFormula(random, 1 + random.nextInt(3));
+            final Formula F = (Formula) logic.createExpression(f);
+            final Formula dnfF = (Formula) Functionals.fixedPoint(dnfEliminate, F);
+            final Formula cnfF = (Formula) Functionals.fixedPoint(cnfEliminate, F);
+            assertEquals("rewriting " + f + " to eliminate junctors for DNF", dnfF, Substitutions.createRewriter(dnfEliminate).apply(F));
+            assertEquals("rewriting " + f + " to eliminate junctors for CNF", cnfF, Substitutions.createRewriter(cnfEliminate).apply(F));
+            assertEquals("DNF of " + f,
+                         junctions(Functionals.fixedPoint(dnf, dnfF), ClassicalLogic.LogicFunctions.or, ClassicalLogic.LogicFunctions.and),
+                         junctions(ClassicalLogic.Utilities.disjunctiveForm(F), ClassicalLogic.LogicFunctions.or, ClassicalLogic.LogicFunctions.and));
+            assertEquals("CNF of " + f,
+                         junctions(Functionals.fixedPoint(cnf, cnfF), ClassicalLogic.LogicFunctions.and, ClassicalLogic.LogicFunctions.or),
+                         junctions(ClassicalLogic.Utilities.conjunctiveForm(F), ClassicalLogic.LogicFunctions.and, ClassicalLogic.LogicFunctions.or));
+            assertEquals("NNF of " + f, Functionals.fixedPoint(nnf, cnfF), ClassicalLogic.Utilities.negationForm(F));
+            final Formula simplifiedDNF = (Formula) Substitutions.createRewriter(dnfSimplifying).apply(dnfF);
+            assertTrue(inference.infer(new Formula[0], simplifiedDNF.equiv((Formula) Functionals.fixedPoint(dnfSimplifying, dnfF))), "simplifying DNF of " + f);
+            final Formula simplifiedCNF = (Formula) Substitutions.createRewriter(cnfSimplifying).apply(cnfF);
+            assertTrue(inference.infer(new Formula[0], simplifiedCNF.equiv((Formula) Functionals.fixedPoint(cnfSimplifying, cnfF))), "simplifying CNF of " + f);
+            assertTrue(inference.infer(new Formula[0], F.equiv(ClassicalLogic.Utilities.disjunctiveForm(F, true))), "simplifying DNF of " + f + " is equivalent");
+            assertTrue(inference.infer(new Formula[0], F.equiv(ClassicalLogic.Utilities.conjunctiveForm(F, true))), "simplifying CNF of " + f + " is equivalent");
+        }
+    }
+
+    private Substitution readTRS(String name) throws ParseException, IOException {
+        return LogicParser.readTRS(new InputStreamReader(ClassicalLogic.class.getResourceAsStream("/orbital/moon/logic/" + name), "UTF-8"), (ClassicalLogic) logic);
+    }
+
+    /**
+     * The sorted list of the sorted lists of the components of the inner junctions of the outer junction f.
+     */
+    private static List junctions(Object f, Object outer, Object inner) {
+        final List/*<Object>*/ components = new ArrayList();
+        junction(f, outer, components);
+        final List/*<List<String>>*/ r = new ArrayList();
+        for (Iterator i = components.iterator(); i.hasNext(); ) {
+            final List/*<Object>*/ literals = new ArrayList();
+            junction(i.next(), inner, literals);
+            final List/*<String>*/ names = new ArrayList();
+            for (Iterator j = literals.iterator(); j.hasNext(); )
+                names.add(j.next().toString());
+            Collections.sort(names);
+            r.add(names.toString());
+        }
+        Collections.sort(r);
+        return r;
+    }
+    private static void junction(Object f, Object junctor, List r) {
+        if (f instanceof Composite && ((Composite) f).getCompositor() == junctor) {
+            final Object components[] = (Object[]) ((Composite) f).getComponent();
+            for (int i = 0; i < components.length; i++)
+                junction(components[i], junctor, r);
+        } else
+            r.add(f);
+    }
+
+    /**
+     * Create a random propositional formula of at most the given depth.
+     */
+    protected static String randomFormula(Random random, int depth) {
+        if (depth == 0 || random.nextInt(5) == 0) {
+            final String atoms[] = {"a", "b", "c", "d", "e", "f", "g", "true", "false"};
+            return atoms[random.nextInt(atoms.length)];
+        }
+        final String junctors[] = {"&", "|", "->", "<->", "^"};
+        return random.nextInt(6) == 0
+            ? "~(" + randomFormula(random, depth - 1) + ")"
+            : "(" + randomFormula(random, depth - 1) + ")" + junctors[random.nextInt(junctors.length)] + "(" + randomFormula(random, depth - 1) + ")";
+    }
 }
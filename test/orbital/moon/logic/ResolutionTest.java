@@ -24,8 +24,11 @@ public class ResolutionTest extends ClassicalLogicTest {
     }
 
     protected void test(String name) {
+        test("RESOLUTION_INFERENCE", name);
+    }
+    protected void test(String inference, String name) {
         try {
-            ClassicalLogic.main(new String[] {"-inference=RESOLUTION_INFERENCE", name});
+            ClassicalLogic.main(new String[] {"-inference=" + inference, name});
         }
         catch (Throwable ex) {
             ex.printStackTrace();
@@ -35,4 +38,11 @@ public class ResolutionTest extends ClassicalLogicTest {
     public void testFol() {
         test("fol");
     }
+
+    public void testFolSaturation() {
+        test("RESOLUTION_SATURATION_INFERENCE", "fol");
+    }
+    public void testGarbageSaturation() {
+        test("RESOLUTION_SATURATION_INFERENCE", "none");
+    }
 }
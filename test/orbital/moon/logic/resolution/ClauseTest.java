@@ -38,6 +38,49 @@ public class ClauseTest extends check.TestCase {
         testFormula("a&(a|b|~d)|c&a|e&a");
     }
 
+    public void testClausalIndex() throws ParseException {
+        final ClausalSet S = ResolutionBase.skolemClauseForm(java.util.Collections.singleton(logic.createExpression("(all x all y (p(x,f(y)) | ~q(x))) & p(a,f(b)) & ~p(a,a) & (all z p(z,z)) & q(g(a))")), "");
+        final ClausalIndex index = new ClausalIndex();
+        for (java.util.Iterator i = S.iterator(); i.hasNext(); ) {
+            index.add((Clause) i.next());
+        }
+        final Formula pxfy = (Formula) logic.createExpression("p(x,f(y))");
+        final Formula pafb = (Formula) logic.createExpression("p(a,f(b))");
+        final Formula paa = (Formula) logic.createExpression("p(a,a)");
+        final Formula qga = (Formula) logic.createExpression("q(g(a))");
+        final Formula qa = (Formula) logic.createExpression("q(a)");
+        // p(z,z) is not unifiable, but still retrieved since the index does not distinguish variables
+        assertEquals("p(a,f(b)) probably unifies with p(x,f(y)), p(a,f(b)), p(z,z)", 3, count(index.getProbableUnifiables(pafb)));
+        assertEquals("~p(a,a) is the only complement of p(a,a)", 1, count(index.getProbableComplements(paa)));
+        assertEquals("p(a,a) unifies with p(z,z)", 1, count(index.getProbableUnifiables(paa)));
+        assertEquals("~q(x) is the only complement of q(a)", 1, count(index.getProbableComplements(qa)));
+        assertEquals(0, count(index.getProbableUnifiables(qa)));
+        assertEquals(1, count(index.getProbableInstances(qga)));
+        assertEquals(0, count(index.getProbableGeneralizations(qa)));
+        assertEquals(1, count(index.getProbableInstances(pafb)));
+        assertEquals(0, count(index.getProbableInstances(paa)));
+        for (java.util.Iterator i = S.iterator(); i.hasNext(); ) {
+            final Clause C = (Clause) i.next();
+            for (java.util.Iterator j = C.iterator(); j.hasNext(); ) {
+                final Formula L = (Formula) j.next();
+                assertTrue(orbital.util.Setops.asList(index.getProbableUnifiableLiterals(L)).contains(L), L + " is probably unifiable with itself");
+                assertTrue(orbital.util.Setops.asList(index.getProbableInstances(L)).contains(new orbital.util.Pair(C, L)), L + " is an instance of itself");
+                assertTrue(orbital.util.Setops.asList(index.getProbableGeneralizations(L)).contains(new orbital.util.Pair(C, L)), L + " is a generalization of itself");
+            }
+        }
+        for (java.util.Iterator i = S.iterator(); i.hasNext(); ) {
+            index.remove((Clause) i.next());
+        }
+        assertTrue(index.isEmpty(), "removing all clauses leaves an empty index");
+    }
+
+    private static int count(java.util.Iterator i) {
+        int n = 0;
+        for (; i.hasNext(); i.next())
+            n++;
+        return n;
+    }
+
     protected void testFormula(String formula) {
         try {
             Formula f = (Formula) logic.createExpression(formula);
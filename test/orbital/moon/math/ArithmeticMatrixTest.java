@@ -120,4 +120,35 @@ public class ArithmeticMatrixTest extends check.TestCase {
         System.out.println("=" + M.multiply(N));
     }
 
+    public void testDeterminantBig() throws Exception {
+        testDeterminant(new BigValuesImpl());
+    }
+
+    /**
+     * Compare exact determinants of integer and rational matrices with the numerical determinant.
+     */
+    public void testDeterminant(ValueFactory vf) {
+        final java.util.Random random = new java.util.Random(4711);
+        final int n = 12;
+        Arithmetic[][] a = new Arithmetic[n][n];
+        Arithmetic[][] q = new Arithmetic[n][n];
+        double[][] d = new double[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++) {
+                final int x = random.nextInt(11) - 5;
+                a[i][j] = vf.valueOf(x);
+                q[i][j] = vf.rational(x, 2);
+                d[i][j] = x;
+            }
+        final Arithmetic det = new ArithmeticMatrix(a, vf).det();
+        assertTrue(orbital.math.Integer.isa.apply(det), "determinant of integer matrix is an integer " + det);
+        final double numerical = ((Real) new RMatrix(d, vf).det()).doubleValue();
+        assertEquals(numerical, ((Real) det).doubleValue(), 1e-9 * Math.abs(numerical));
+        assertTrue(new ArithmeticMatrix(q, vf).det().equals(det.divide(vf.valueOf(1 << n))),
+                   "determinant of rational matrix");
+        // singular matrix
+        a[n - 1] = a[0];
+        assertTrue(new ArithmeticMatrix(a, vf).det().isZero(), "singular matrix has determinant 0");
+    }
+
 }
@@ -0,0 +1,143 @@
+/**
+ * @(#)PolynomialKernelsTest.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.moon.math;
+import orbital.math.*;
+
+import junit.framework.*;
+import java.util.Random;
+
+/**
+ * Compares the multiplication of floating-point polynomials by FFT with na&iuml;ve convolution.
+ * The rounding errors of FFT are bounded absolutely, relative to the largest coefficients of the factors.
+ * @version $Id$
+ */
+public class PolynomialKernelsTest extends check.TestCase {
+    private static final ValueFactory vf = Values.getDefaultInstance();
+    /**
+     * The sizes of the factors, all of which use FFT.
+     */
+    private static final int sizes[] = {PolynomialKernels.TRANSFORM_THRESHOLD, 100, 257};
+    /**
+     * The scales of the coefficients of the factors.
+     */
+    private static final double scales[] = {1, 1e-6, 1e6};
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(suite());
+    }
+    public static Test suite() {
+        return new TestSuite(PolynomialKernelsTest.class);
+    }
+
+    public void testRealFFT() {
+        assertTrue("machine-sized reals are multiplied by FFT", vf.valueOf(0.5) instanceof AbstractReal.Double);
+        final Random random = new Random(4711);
+        for (int i = 0; i < sizes.length; i++)
+            for (int j = 0; j < sizes.length; j++)
+                for (int s = 0; s < scales.length; s++) {
+                    final double a[] = randomValues(random, sizes[i], scales[s]);
+                    final double b[] = randomValues(random, sizes[j], 1);
+                    // mixed magnitudes within a factor
+                    b[b.length / 2] *= 1e4;
+                    final Arithmetic c[] = PolynomialKernels.multiply(reals(a), reals(b));
+                    final double expected[] = convolution(a, b);
+                    assertEquals("length", expected.length, c.length);
+                    final double max = Math.max(max(a), max(b));
+                    final double tolerance = bound(c.length) * max * max;
+                    for (int k = 0; k < c.length; k++) {
+                        assertTrue("real coefficients", c[k] instanceof Real);
+                        assertEquals("coefficient " + k + " of product of degrees " + (a.length - 1) + " and " + (b.length - 1),
+                                     expected[k], ((Real) c[k]).doubleValue(), tolerance);
+                    }
+                }
+    }
+
+    public void testComplexFFT() {
+        assertTrue("machine-sized complex numbers are multiplied by FFT", vf.complex(0.5, 0.5) instanceof AbstractComplex.Double);
+        final Random random = new Random(1729);
+        for (int i = 0; i < sizes.length; i++)
+            for (int j = 0; j < sizes.length; j++)
+                for (int s = 0; s < scales.length; s++) {
+                    final double are[] = randomValues(random, sizes[i], scales[s]);
+                    final double aim[] = randomValues(random, sizes[i], scales[s]);
+                    final double bre[] = randomValues(random, sizes[j], 1);
+                    final double bim[] = randomValues(random, sizes[j], 1);
+                    final Arithmetic c[] = PolynomialKernels.multiply(complexes(are, aim), complexes(bre, bim));
+                    // (are + i aim)(bre + i bim) = are bre - aim bim + i(are bim + aim bre)
+                    final double expectedre[] = subtract(convolution(are, bre), convolution(aim, bim));
+                    final double expectedim[] = add(convolution(are, bim), convolution(aim, bre));
+                    assertEquals("length", expectedre.length, c.length);
+                    final double tolerance = bound(c.length) * Math.max(max(are), max(aim)) * Math.max(max(bre), max(bim));
+                    for (int k = 0; k < c.length; k++) {
+                        final Complex ck = (Complex) c[k];
+                        assertEquals("real part of coefficient " + k, expectedre[k], ck.re().doubleValue(), tolerance);
+                        assertEquals("imaginary part of coefficient " + k, expectedim[k], ck.im().doubleValue(), tolerance);
+                    }
+                }
+    }
+
+    /**
+     * The error bound of FFT for the given length, apart from the magnitude of the coefficients.
+     */
+    private static double bound(int length) {
+        int n = 1;
+        int log = 0;
+        while (n < length) {
+            n <<= 1;
+            log++;
+        }
+        return 4 * Math.ulp(1.0) * n * log;
+    }
+
+    private static double[] randomValues(Random random, int n, double scale) {
+        final double a[] = new double[n];
+        for (int i = 0; i < n; i++)
+            a[i] = scale * (2 * random.nextDouble() - 1);
+        return a;
+    }
+    private static double max(double a[]) {
+        double max = 0;
+        for (int i = 0; i < a.length; i++)
+            max = Math.max(max, Math.abs(a[i]));
+        return max;
+    }
+    private static Arithmetic[] reals(double a[]) {
+        final Arithmetic r[] = new Arithmetic[a.length];
+        for (int i = 0; i < a.length; i++)
+            r[i] = vf.valueOf(a[i]);
+        return r;
+    }
+    private static Arithmetic[] complexes(double re[], double im[]) {
+        final Arithmetic r[] = new Arithmetic[re.length];
+        for (int i = 0; i < re.length; i++)
+            r[i] = vf.complex(re[i], im[i]);
+        return r;
+    }
+
+    /**
+     * Na&iuml;ve convolution.
+     */
+    private static double[] convolution(double a[], double b[]) {
+        final double r[] = new double[a.length + b.length - 1];
+        for (int i = 0; i < a.length; i++)
+            for (int j = 0; j < b.length; j++)
+                r[i + j] += a[i] * b[j];
+        return r;
+    }
+    private static double[] add(double a[], double b[]) {
+        final double r[] = new double[a.length];
+        for (int i = 0; i < a.length; i++)
+            r[i] = a[i] + b[i];
+        return r;
+    }
+    private static double[] subtract(double a[], double b[]) {
+        final double r[] = new double[a.length];
+        for (int i = 0; i < a.length; i++)
+            r[i] = a[i] - b[i];
+        return r;
+    }
+}
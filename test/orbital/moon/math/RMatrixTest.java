@@ -70,4 +70,160 @@ public class RMatrixTest extends check.TestCase {
         assertTrue(!((Complex)M.multiply(v).get(0)).im().equals(vf.ZERO()));
     } 
 
+    /**
+     * Compare the blocked and parallel product with the plain i-k-j loop.
+     */
+    public void testLargeMultiply() {
+        final ValueFactory vf = new FastValuesImpl();
+        final java.util.Random random = new java.util.Random(17);
+        final int n = 190, m = 257, l = 131;
+        double[][] a = new double[n][m];
+        double[][] b = new double[m][l];
+        for (int i = 0; i < n; i++)
+            for (int k = 0; k < m; k++)
+                a[i][k] = random.nextDouble() - 0.5;
+        for (int k = 0; k < m; k++)
+            for (int j = 0; j < l; j++)
+                b[k][j] = random.nextDouble() - 0.5;
+        double[] x = new double[m];
+        for (int k = 0; k < m; k++)
+            x[k] = random.nextDouble();
+        double[][] c = new double[n][l];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++)
+            for (int k = 0; k < m; k++) {
+                for (int j = 0; j < l; j++)
+                    c[i][j] += a[i][k] * b[k][j];
+                y[i] += a[i][k] * x[k];
+            }
+        RMatrix AB = (RMatrix) new RMatrix(a, vf).multiply(new RMatrix(b, vf));
+        RVector Ax = (RVector) new RMatrix(a, vf).multiply(new RVector(x, vf));
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < l; j++)
+                assertEquals(c[i][j], AB.getDoubleValue(i, j), 1e-12);
+            assertEquals(y[i], Ax.getDoubleValue(i), 1e-12);
+        }
+    }
+
+    /**
+     * Compare the primitive LU decomposition with the arithmetic LU decomposition.
+     */
+    public void testLUDecomposition() {
+        final ValueFactory vf = new FastValuesImpl();
+        final java.util.Random random = new java.util.Random(23);
+        final int n = 40;
+        double[][] a = new double[n][n];
+        double[] b = new double[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++)
+                a[i][j] = random.nextInt(21) - 10;
+            b[i] = random.nextInt(21) - 10;
+        }
+        RMatrix A = new RMatrix(a, vf);
+        LUDecomposition lu = LUDecomposition.decompose(A);
+        LUDecomposition arithmetic = LUDecomposition.decompose(new ArithmeticMatrix(A.toArray(), vf));
+        final Real tolerance = vf.valueOf(1e-8);
+        assertTrue("P.A = L.U", lu.getP().multiply(A).equals(lu.getL().multiply(lu.getU()), tolerance));
+        assertEquals(arithmetic.linearRank(), lu.linearRank());
+        assertEquals(n, lu.linearRank());
+        assertEquals(((Real) arithmetic.det()).doubleValue(), ((Real) lu.det()).doubleValue(),
+                     1e-8 * Math.abs(((Real) arithmetic.det()).doubleValue()));
+        Vector x = lu.solve(new RVector(b, vf));
+        assertTrue("A.x = b", A.multiply(x).equals(new RVector(b, vf), tolerance));
+        assertTrue("A.x = b", x.equals(arithmetic.solve(new RVector(b, vf)), tolerance));
+
+        // singular matrix
+        for (int j = 0; j < n; j++)
+            a[n - 1][j] = a[0][j];
+        lu = LUDecomposition.decompose(a);
+        assertEquals(n - 1, lu.linearRank());
+        assertTrue(!lu.isInvertible());
+    }
+
+
+    public void testSparse() {
+        final ValueFactory vf = new FastValuesImpl();
+        final java.util.Random random = new java.util.Random(23);
+        final int n = 60, m = 45, l = 50;
+        double[][] a = new double[n][m];
+        double[][] b = new double[m][l];
+        for (int i = 0; i < n; i++)
+            for (int k = 0; k < m; k++)
+                if (random.nextInt(10) == 0)
+                    a[i][k] = random.nextDouble() - 0.5;
+        for (int k = 0; k < m; k++)
+            for (int j = 0; j < l; j++)
+                if (random.nextInt(8) == 0)
+                    b[k][j] = random.nextDouble() - 0.5;
+        double[] x = new double[m];
+        for (int k = 0; k < m; k++)
+            x[k] = random.nextDouble();
+        final Real tolerance = vf.valueOf(1e-12);
+        RMatrix A = new RMatrix(a, vf);
+        RMatrix B = new RMatrix(b, vf);
+        SparseRMatrix As = new SparseRMatrix(a, vf);
+        SparseRMatrix Bs = new SparseRMatrix(b, vf);
+        assertEquals(A, As);
+        assertTrue(As.nonZeros() < n * m / 5);
+        Matrix AB = A.multiply(B);
+        Matrix ABs = As.multiply(Bs);
+        assertTrue("sparse product stays sparse", ABs instanceof SparseRMatrix);
+        assertTrue("A.B sparse", AB.equals(ABs, tolerance));
+        assertTrue("A.B sparse dense", AB.equals(As.multiply(B), tolerance));
+        assertTrue("A.B dense sparse", AB.equals(A.multiply(Bs), tolerance));
+        assertTrue("A.x", A.multiply(new RVector(x, vf)).equals(As.multiply(new RVector(x, vf)), tolerance));
+        assertTrue("A.x sparse", A.multiply(new RVector(x, vf)).equals(As.multiply(new SparseRVector(x, vf)), tolerance));
+        assertEquals(A.transpose(), As.transpose());
+        assertEquals(A.add(A), As.add(As));
+        assertTrue(A.scale(vf.valueOf(-2.0)).equals(As.scale(vf.valueOf(-2.0)), tolerance));
+        assertTrue(A.subtract(A).equals(As.subtract(As)));
+        assertEquals(0, ((SparseRMatrix) As.subtract(As)).nonZeros());
+        for (int j = 0; j < m; j++)
+            assertEquals(A.getColumn(j), As.sparseColumn(j));
+        for (int i = 0; i < n; i++)
+            assertEquals(A.getRow(i), As.sparseRow(i));
+
+        // changing the non-zero pattern
+        Matrix S = vf.sparse(n, m);
+        for (int i = 0; i < n; i++)
+            for (int k = m - 1; k >= 0; k--)
+                if (a[i][k] != 0)
+                    S.set(i, k, vf.valueOf(a[i][k]));
+        S.set(0, 0, vf.valueOf(3.0));
+        S.set(0, 0, vf.valueOf(0.0));
+        S.set(0, 0, vf.valueOf(a[0][0]));
+        assertEquals(As, S);
+        assertEquals(A.getColumn(m - 1), ((SparseRMatrix) S).sparseColumn(m - 1));
+
+        Vector u = vf.sparse(m);
+        u.set(3, vf.valueOf(2.0));
+        u.set(7, vf.valueOf(-1.0));
+        assertEquals(vf.valueOf(2*x[3] - x[7]), u.multiply(new RVector(x, vf)));
+        assertEquals(vf.valueOf(0.0), u.get(4));
+    }
+
+    public void testSparseConjugateGradients() {
+        final ValueFactory vf = new FastValuesImpl();
+        // 1D Laplacian tridiag(-1, 2, -1) in compressed sparse row format
+        final int n = 200;
+        int[] rowPointers = new int[n + 1];
+        int[] columnIndices = new int[3 * n];
+        double[] values = new double[3 * n];
+        int nnz = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = Math.max(0, i - 1); j <= Math.min(n - 1, i + 1); j++) {
+                columnIndices[nnz] = j;
+                values[nnz++] = i == j ? 2 : -1;
+            }
+            rowPointers[i + 1] = nnz;
+        }
+        Matrix A = vf.sparse(n, n, rowPointers, columnIndices, values);
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++)
+            x[i] = Math.sin(i);
+        Vector b = A.multiply(vf.valueOf(x));
+        Vector sol = NumericalAlgorithms.cgSolve(A, vf.ZERO(n), b);
+        assertTrue("A.x = b", A.multiply(sol).equals(b, vf.valueOf(1e-8)));
+        assertTrue(sol.equals(vf.valueOf(x), vf.valueOf(1e-6)));
+    }
 }
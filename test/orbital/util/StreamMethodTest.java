@@ -0,0 +1,170 @@
+/**
+ * @(#)StreamMethodTest.java 1.2 2026/10/17 Andre Platzer
+ *
+ * Copyright (c) 2026 Andre Platzer. All Rights Reserved.
+ */
+
+package orbital.util;
+
+import junit.framework.*;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A sample test case, testing stream method coroutines.
+ * @version $Id$
+ */
+public class StreamMethodTest extends check.TestCase {
+    private static final int MAX_WAIT = 10000;
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(suite());
+    }
+    public static Test suite() {
+        return new TestSuite(StreamMethodTest.class);
+    }
+
+    /**
+     * Stream the numbers from 0 to n-1, counting how far the coroutine came.
+     */
+    private static class Numbers extends StreamMethod {
+        final int n;
+        volatile int produced = 0;
+        Numbers(int n, boolean synchronousConnector) {
+            super(synchronousConnector);
+            this.n = n;
+        }
+        protected void runStream() {
+            for (int i = 0; i < n; i++) {
+                produced++;
+                resumedReturn(new java.lang.Integer(i));
+            }
+        }
+    }
+
+    public void testStreams() {
+        for (int k = 0; k < 2; k++) {
+            final boolean synchronous = k == 0;
+            final Iterator i = new Numbers(1000, synchronous).apply();
+            for (int j = 0; j < 1000; j++) {
+                assertTrue("has next " + j, i.hasNext());
+                assertEquals("in order", new java.lang.Integer(j), i.next());
+            }
+            assertTrue("ends", !i.hasNext());
+            try {
+                i.next();
+                fail("NoSuchElementException expected");
+            }
+            catch (NoSuchElementException expected) {}
+        }
+    }
+
+    public void testSynchronousOnDemand() throws InterruptedException {
+        final Numbers m = new Numbers(10, true);
+        final Iterator i = m.apply();
+        Thread.sleep(50);
+        assertEquals("nothing produced before requested", 0, m.produced);
+        i.next();
+        i.next();
+        Thread.sleep(50);
+        assertTrue("only produced on demand", m.produced <= 3);
+    }
+
+    public void testNested() {
+        // the coroutine consumes other coroutines
+        final Iterator i = new StreamMethod(true) {
+                protected void runStream() {
+                    for (int k = 0; k < 5; k++)
+                        for (Iterator j = new Numbers(k, k % 2 == 0).apply(); j.hasNext(); )
+                            resumedReturn(j.next());
+                }
+            }.apply();
+        int count = 0;
+        while (i.hasNext()) {
+            i.next();
+            count++;
+        }
+        assertEquals("all elements", 0 + 1 + 2 + 3 + 4, count);
+    }
+
+    public void testFailure() {
+        final Iterator i = new StreamMethod(false) {
+                protected void runStream() {
+                    resumedReturn("first");
+                    throw new IllegalStateException("failing coroutine");
+                }
+            }.apply();
+        assertEquals("results before failure", "first", i.next());
+        try {
+            i.hasNext();
+            fail("the failure of the coroutine is rethrown to the caller");
+        }
+        catch (IllegalStateException expected) {}
+        assertTrue("ends after failure", !i.hasNext());
+    }
+
+    public void testClose() throws Exception {
+        final long abandoned = StreamMethod.getAbandonedCount();
+        final Numbers m = new Numbers(1000, true);
+        final Iterator i = m.apply();
+        i.next();
+        i.next();
+        ((AutoCloseable) i).close();
+        assertTrue("ends after close", !i.hasNext());
+        assertTrue("closed before end is abandoned", StreamMethod.getAbandonedCount() > abandoned);
+        assertTrue("coroutine ended", waitForLive(0));
+        assertTrue("coroutine stopped", m.produced < 1000);
+    }
+
+    /**
+     * Interrupting the caller while it waits closes the stream method, and keeps the interrupt status.
+     */
+    public void testInterrupt() throws InterruptedException {
+        for (int k = 0; k < 2; k++) {
+            final CountDownLatch release = new CountDownLatch(1);
+            final StreamMethod m = new StreamMethod(k == 0) {
+                    protected void runStream() {
+                        try {
+                            release.await();
+                        }
+                        catch (InterruptedException irq) {
+                            Thread.currentThread().interrupt();
+                        }
+                        resumedReturn("late");
+                    }
+                };
+            final Iterator i = m.apply();
+            Thread.currentThread().interrupt();
+            try {
+                i.hasNext();
+                fail("interrupt while waiting is visible to the caller");
+            }
+            catch (InnerCheckedException expected) {
+                assertTrue("wraps interrupt", expected.getCause() instanceof InterruptedException);
+            }
+            assertTrue("interrupt status kept", Thread.interrupted());
+            assertTrue("ends after interrupt", !i.hasNext());
+            release.countDown();
+            assertTrue("coroutine ended", waitForLive(0));
+        }
+    }
+
+    /**
+     * Unreachable iterators release their threads.
+     */
+    public void testAbandon() throws InterruptedException {
+        for (int k = 0; k < 200; k++) {
+            final Iterator i = new Numbers(1000, k % 2 == 0).apply();
+            i.next();
+        }
+        assertTrue("abandoned coroutines end", waitForLive(0));
+    }
+
+    private static boolean waitForLive(int live) throws InterruptedException {
+        for (int t = 0; t < MAX_WAIT && StreamMethod.getLiveCount() > live; t += 10) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        return StreamMethod.getLiveCount() <= live;
+    }
+}